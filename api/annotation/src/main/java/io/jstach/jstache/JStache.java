@@ -209,6 +209,22 @@ import java.util.Optional;
  * </ul>
  *
  * The semantics of the section block are ignored as well as the rest of the template.
+ * <p>
+ * If the whole page and its fragments are rendered with the same model, for example for
+ * htmx partial updates, the fragments can instead be listed with {@link #fragments()}.
+ * The generated renderer then has an entry point per fragment that only renders the
+ * fragment, which is selected at runtime with
+ * <code>io.jstach.jstachio.Template.fragment(String)</code>:
+ *
+ * <pre><code class="language-java">
+ * &#64;JStache(path = "/contacts/details.mustache", fragments = "archive-ui")
+ * public record ContactDetails(Contact contact){}
+ *
+ * // the whole page
+ * String page = ContactDetailsRenderer.of().execute(details);
+ * // only the archive-ui fragment
+ * String fragment = ContactDetailsRenderer.of().fragment("archive-ui").execute(details);
+ * </code> </pre>
  *
  * <h4 id="_optional_spec">Optional Spec Support</h4> JStachio implements some optional
  * parts of the specification. Below shows what is and is not supported.
@@ -569,6 +585,15 @@ public @interface JStache {
 	 */
 	String name() default "";
 
+	/**
+	 * Names of fragments of the template that can be rendered on their own with the same
+	 * model. The fragments are found the same way as <a href="#_fragments">fragment
+	 * paths</a> and each fragment is compiled into the same generated renderer.
+	 * @return fragment names which by default is none
+	 * @see <a href="#_fragments">Fragments</a>
+	 */
+	String[] fragments() default {};
+
 	/**
 	 * An annotation processor compiler flag
 	 * (<strong>{@value #RESOURCES_PATH_OPTION}</strong>) that says where the templates
@@ -79,6 +79,15 @@ import java.util.ServiceLoader;
  *     .build();
  * </code> </pre>
  *
+ * If {@link CatalogFlag#GENERATE_STATIC_DISPATCH} is set the generated catalog will
+ * resolve templates with a generated <code>switch</code> on the model class which avoids
+ * reflection, the {@link ServiceLoader} and iterating over all templates for each lookup.
+ *
+ * <pre><code class="language-java">
+ * &#64;JStacheCatalog(flags = CatalogFlag.GENERATE_STATIC_DISPATCH)
+ * package annotatedpackage;
+ * </code> </pre>
+ *
  * <h2>Package protected models</h2>
  *
  * If the package annotated has models that are package protected those models will still
@@ -132,7 +141,47 @@ public @interface JStacheCatalog {
 		 * <code>META-INF/services/io.jstach.jstachio.spi.JStachioTemplateFinder</code>
 		 * pointing to the generated template catalog.
 		 */
-		GENERATE_FINDER_META_INF_SERVICE
+		GENERATE_FINDER_META_INF_SERVICE, //
+
+		/**
+		 * Option that will make the generated template catalog statically wire every
+		 * template in the catalog and dispatch on the model class with a generated
+		 * <code>switch</code> instead of iterating over the templates. No reflection,
+		 * {@link ServiceLoader} or template instantiation happens on lookup which makes
+		 * the catalog suitable for fast startup and native images when registered with
+		 * <code>JStachioFactory.builder().add(new TemplateCatalog())</code>.
+		 * <p>
+		 * The templates are the shared singletons (<code>Renderer.of()</code>) and thus
+		 * use the formatters and escapers resolved at compile time.
+		 */
+		GENERATE_STATIC_DISPATCH, //
+
+		/**
+		 * Option that will generate GraalVM native image metadata
+		 * (<code>reflect-config.json</code> and <code>resource-config.json</code>) in
+		 * <code>META-INF/native-image/io.jstach.catalog/&lt;catalog class&gt;</code> so
+		 * that the default reflective and service loader based lookup works in native
+		 * images. The reflection metadata covers the no-arg constructors of the generated
+		 * renderers and the resource metadata covers the generated
+		 * <code>META-INF/services</code> files and template resources.
+		 */
+		GENERATE_NATIVE_IMAGE_CONFIG, //
+
+		/**
+		 * Option that will generate a shared pool of pre-encoded static text next to the
+		 * catalog class named <code>&lt;catalog name&gt;TextPool</code>. Larger static
+		 * parts (for example a <code>&lt;head&gt;</code> block or footer from a layout or
+		 * partial) of the templates in the catalog package and its subpackages are
+		 * encoded through the pool which returns the same array for identical text so it
+		 * is only stored once in the heap. This reduces the heap of applications with
+		 * many templates sharing layouts. The text remains in the class file of each
+		 * template.
+		 * <p>
+		 * Only pre-encoded <code>UTF-8</code> templates use the pool. The pool class does
+		 * not depend on the templates so templates compiled separately (which some
+		 * incremental compilers do) share it as well.
+		 */
+		GENERATE_TEXT_POOL
 
 	}
 
@@ -154,7 +154,50 @@ public @interface JStacheFlags {
 		 * code will not implement
 		 * <code>io.jstach.jstachio.Template.EncodedTemplate</code>.
 		 */
-		PRE_ENCODE_DISABLE;
+		PRE_ENCODE_DISABLE,
+
+		/**
+		 * By default sections of lists that are statically known to be
+		 * {@link java.util.RandomAccess} (for example a field of type
+		 * {@link java.util.ArrayList}) and arrays are looped by index without creating an
+		 * iterator and <code>@last</code> is computed from the size. This flag makes
+		 * lists always be iterated with an {@link java.util.Iterator} which fails fast on
+		 * concurrent modification. Arrays are always looped by index.
+		 */
+		ITERATOR_LOOPS,
+
+		/**
+		 * Assume that every {@link java.util.List} is {@link java.util.RandomAccess} so
+		 * that sections of lists are looped by index even if the declared type is just
+		 * <code>List</code>. Most lists are like {@link java.util.ArrayList} or
+		 * {@link java.util.List#of()} but this will be very slow for a
+		 * {@link java.util.LinkedList}. {@link #ITERATOR_LOOPS} takes precedence.
+		 */
+		RANDOM_ACCESS_LISTS,
+
+		/**
+		 * Instead of a separate pre-encoded <code>byte[]</code> constant for every static
+		 * part of the template all static text is pre-encoded as one <code>byte[]</code>
+		 * and written as slices with <code>EncodedOutput.write(byte[], int, int)</code>.
+		 * This reduces class initialization time and memory of templates with many static
+		 * parts. Outputs that keep references to the bytes given to them (chunk outputs)
+		 * have to copy each slice so this is best used with outputs that copy anyway like
+		 * an <code>OutputStream</code>. Ignored if {@link #PRE_ENCODE_DISABLE} is set or
+		 * if the template charset has a byte order mark like <code>UTF-16</code>.
+		 */
+		PRE_ENCODE_BLOB,
+
+		/**
+		 * Minifies the static text of HTML templates (templates whose content type media
+		 * type is HTML) at compile time. Runs of whitespace are collapsed to a single
+		 * space or newline which removes indentation and blank lines, and HTML comments
+		 * are removed. Quoted attribute values and the content of <code>pre</code>,
+		 * <code>textarea</code>, <code>script</code> and <code>style</code> elements are
+		 * not changed. Conditional comments (<code>&lt;!--[if ...]&gt;</code>) and
+		 * comments containing mustache tags are kept. Rendered variables are never
+		 * minified.
+		 */
+		MINIFY_HTML;
 
 	}
 
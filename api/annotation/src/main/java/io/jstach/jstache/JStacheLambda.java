@@ -209,6 +209,37 @@ public @interface JStacheLambda {
 	 */
 	String template() default "";
 
+	/**
+	 * Marks the lambda as a pure function of the object it is called on and its
+	 * arguments: the context parameter and the raw section body. JStachio may then reuse
+	 * a previous result instead of calling the method.
+	 * <p>
+	 * Results are kept in a small bounded table shared by all renders of the renderer and
+	 * keyed by the identity of the object the method is called on and the equality of the
+	 * context parameter, or only the section body if the lambda does not take a context
+	 * parameter. Static lambda methods share results across all models. State of the
+	 * object the method is called on is ignored: changing it after a render does not
+	 * invalidate results already cached for that object. The context parameter should
+	 * have a cheap and correct {@link Object#equals(Object)} and
+	 * {@link Object#hashCode()} and the returned model if not a {@link Raw} String should
+	 * be immutable. A <code>null</code> context or result is never cached.
+	 * <p>
+	 * The table only weakly references the object the method is called on and the context
+	 * parameter but holds the results strongly until they are replaced.
+	 * <p>
+	 * This is mainly useful for formatting lambdas called in loops:
+	 *
+	 * <pre><code class="language-java">
+	 * &#64;JStacheLambda(pure = true)
+	 * &#64;JStacheLambda.Raw
+	 * public String money(BigDecimal amount) {
+	 *     return NumberFormat.getCurrencyInstance(Locale.US).format(amount);
+	 * }
+	 * </code> </pre>
+	 * @return true if the result of the lambda can be reused. The default is false.
+	 */
+	boolean pure() default false;
+
 	/**
 	 * Tag a method return type of String or parameter of String to be used as a raw
 	 * unprocessed string.
@@ -0,0 +1,96 @@
+package io.jstach.jstache;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Resolves message tags from <code>.properties</code> resource bundles at compile time.
+ * <p>
+ * A variable tag whose name starts with {@value #MESSAGE_TAG_PREFIX} is a message tag and
+ * the rest of the name is the key in the bundle. For example with
+ * <code>messages.properties</code>:
+ *
+ * <pre><code class="language-properties">
+ * greeting=Hello {name}!
+ * </code> </pre>
+ *
+ * and <code>messages_fr.properties</code>:
+ *
+ * <pre><code class="language-properties">
+ * greeting=Bonjour {name} !
+ * </code> </pre>
+ *
+ * the template <code>{{&#64;msg.greeting}}</code> of a model annotated with
+ * <code>&#64;JStacheMessages(locales = "fr")</code> renders "Bonjour" for French locales
+ * and "Hello" for all others.
+ * <p>
+ * Unlike calling {@link java.util.ResourceBundle} and {@link java.text.MessageFormat}
+ * from a lambda nothing is looked up or parsed while rendering. The message of every
+ * locale is compiled into the template as if it was written there so the static text of
+ * each locale is pre-encoded like the rest of the template and picking a locale is a
+ * single switch.
+ *
+ * <h2>Message format</h2>
+ *
+ * Messages use the {@link java.text.MessageFormat} syntax including its quoting rules but
+ * arguments are template variables and not indexes:
+ * <ul>
+ * <li><code>{name}</code> is rendered like <code>{{name}}</code> in the context of the
+ * message tag. Dotted names work as well.</li>
+ * <li><code>{0}</code> is rendered like <code>{{.}}</code> which is the current context.
+ * Other indexes are not allowed.</li>
+ * <li>Format types and styles like <code>{0,number}</code> are not supported. Use a
+ * {@link JStacheFormatter} or a lambda instead.</li>
+ * <li>Literal (quoted) braces are not supported as they could be mistaken for tags.</li>
+ * </ul>
+ * Message text is not escaped as it is treated as template text but the arguments are.
+ *
+ * <h2>Locale</h2>
+ *
+ * The locale is the result of a no argument <code>locale()</code> method returning
+ * {@link java.util.Locale} on the model (the root of the template). It is matched against
+ * {@link #locales()} first by language tag and then by language only locales. If nothing
+ * matches or the locale is <code>null</code> the base bundle is used. Unlike
+ * {@link java.util.ResourceBundle} the default locale of the JVM is never consulted.
+ * <p>
+ * The resolution of a message for each locale follows the properties file candidates of
+ * {@link java.util.ResourceBundle} (e.g. <code>messages_fr_CA</code>, then
+ * <code>messages_fr</code> and finally <code>messages</code>). Every key has to be in the
+ * base bundle otherwise it is a compile error. Bundles are read as UTF-8.
+ * <p>
+ * The annotation is looked up on the type annotated with {@link JStache}, then enclosing
+ * classes, the package and finally the module and the first one found is used.
+ *
+ * @see JStacheConfig
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target({ ElementType.MODULE, ElementType.PACKAGE, ElementType.TYPE })
+@Documented
+public @interface JStacheMessages {
+
+	/**
+	 * The prefix of variable tags that are message tags.
+	 */
+	public static final String MESSAGE_TAG_PREFIX = "@msg.";
+
+	/**
+	 * The base name of the bundle which like {@link java.util.ResourceBundle} is a fully
+	 * qualified dot separated name. For example "<code>com.company.messages</code>" is
+	 * the resource <code>com/company/messages.properties</code>.
+	 * @return base name of the bundle which by default is <code>messages</code>.
+	 */
+	public String bundle() default "messages";
+
+	/**
+	 * The locales supported at runtime as IETF BCP 47 language tags like
+	 * "<code>fr</code>" or "<code>fr-CA</code>". The base bundle is always supported and
+	 * used as the fallback.
+	 * @return language tags of supported locales.
+	 * @see java.util.Locale#forLanguageTag(String)
+	 */
+	public String[] locales() default {};
+
+}
@@ -43,4 +43,20 @@ public @interface JStachePartial {
 	 */
 	String template() default "";
 
+	/**
+	 * Whether the generated code of the partial is shared. A partial is compiled on its
+	 * own against the type of the object of the context it is included in (the model at
+	 * the root or for example the element of a list section) and generated once per
+	 * package as a class with a static method. Every inclusion of every template in the
+	 * package with the same context type calls that method instead of having its own copy
+	 * of the partial which keeps render methods small so that they can be JIT compiled.
+	 * Partials that use anything besides that object like names of enclosing contexts,
+	 * section variables (<code>-index</code>) or lambdas are inlined.
+	 * <p>
+	 * Set to <code>false</code> to force the partial to be inlined at every inclusion
+	 * which can help for tiny partials.
+	 * @return by default <code>true</code>.
+	 */
+	boolean shared() default true;
+
 }
@@ -0,0 +1,85 @@
+package io.jstach.jstachio;
+
+import java.nio.charset.Charset;
+import java.util.function.Function;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import io.jstach.jstachio.Output.EncodedOutput;
+import io.jstach.jstachio.Template.EncodedTemplate;
+
+/**
+ * A template that renders a fragment of its parent template with the entry point the
+ * parent has for the fragment.
+ * @param <T> model type
+ * @param template the whole template
+ * @param fragment the fragment name
+ * @see Template#fragment(String)
+ */
+record FragmentTemplate<T> (Template<T> template, String fragment) implements EncodedTemplate<T> {
+
+	@Override
+	public <A extends Output<E>, E extends Exception> A execute(T model, A appendable) throws E {
+		return template.executeFragment(fragment, model, appendable);
+	}
+
+	@Override
+	public <A extends EncodedOutput<E>, E extends Exception> A write(T model, A output) throws E {
+		return template.writeFragment(fragment, model, output);
+	}
+
+	@Override
+	public String templateName() {
+		return template.templateName() + "#" + fragment;
+	}
+
+	/*
+	 * The same notation as fragment paths unless the template is inline.
+	 */
+	@Override
+	public String templatePath() {
+		String path = template.templatePath();
+		return path.isEmpty() ? path : path + "#" + fragment;
+	}
+
+	@Override
+	public String templateString() {
+		return template.templateString();
+	}
+
+	@Override
+	public Class<?> templateContentType() {
+		return template.templateContentType();
+	}
+
+	@Override
+	public Charset templateCharset() {
+		return template.templateCharset();
+	}
+
+	@Override
+	public String templateMediaType() {
+		return template.templateMediaType();
+	}
+
+	@Override
+	public Function<String, String> templateEscaper() {
+		return template.templateEscaper();
+	}
+
+	@Override
+	public Function<@Nullable Object, String> templateFormatter() {
+		return template.templateFormatter();
+	}
+
+	@Override
+	public boolean supportsType(Class<?> type) {
+		return template.supportsType(type);
+	}
+
+	@Override
+	public Class<?> modelClass() {
+		return template.modelClass();
+	}
+
+}
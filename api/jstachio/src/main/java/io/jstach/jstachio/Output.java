@@ -171,9 +171,10 @@ public interface Output<E extends Exception> {
 
 		/**
 		 * Analogous to {@link OutputStream#write(byte[], int, int)}. Generated templates
-		 * do not call this method as great care as to be taken to preserve the encoding.
-		 * It is only provided in the case of future found optimizations and is not
-		 * currently required.
+		 * only call this method if the template was generated with
+		 * <code>JStacheFlags.Flag.PRE_ENCODE_BLOB</code> in which case the slices are
+		 * always complete encoded characters. Implementations should not alter the byte
+		 * array.
 		 * <p>
 		 * The default implementation creates an array copies the data and then calls
 		 * {@link #write(byte[])}.
@@ -3,6 +3,7 @@ package io.jstach.jstachio;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.util.NoSuchElementException;
 
 import io.jstach.jstache.JStacheConfig;
 import io.jstach.jstache.JStacheFlags;
@@ -72,6 +73,62 @@ public interface Template<T> extends Renderer<T>, TemplateInfo {
 		ow.flush();
 	}
 
+	/**
+	 * Gets a template that only renders the named fragment of this template with the same
+	 * model. Unlike fragment paths the rest of the template is not evaluated but the
+	 * fragment is compiled into the same generated renderer.
+	 * @param fragment one of {@link #templateFragments()}
+	 * @return template for the fragment
+	 * @throws NoSuchElementException if the template does not have the fragment
+	 * @see io.jstach.jstache.JStache#fragments()
+	 */
+	default Template<T> fragment(String fragment) {
+		if (!templateFragments().contains(fragment)) {
+			throw new NoSuchElementException(fragmentNotFound(fragment));
+		}
+		return new FragmentTemplate<>(this, fragment);
+	}
+
+	/**
+	 * Renders only the named fragment of the template. Generated renderers implement this
+	 * for the {@linkplain io.jstach.jstache.JStache#fragments() declared fragments}.
+	 * @param <A> output type
+	 * @param <E> error type
+	 * @param fragment one of {@link #templateFragments()}
+	 * @param model a model assumed never to be <code>null</code>.
+	 * @param appendable the output to write to.
+	 * @return the output passed in.
+	 * @throws E if an error occurs while writing to output
+	 * @throws NoSuchElementException if the template does not have the fragment
+	 * @see #fragment(String)
+	 */
+	default <A extends Output<E>, E extends Exception> A executeFragment(String fragment, T model, A appendable)
+			throws E {
+		throw new NoSuchElementException(fragmentNotFound(fragment));
+	}
+
+	/**
+	 * Renders only the named fragment of the template leveraging pre-encoded parts of the
+	 * template if supported.
+	 * @param <A> output type
+	 * @param <E> error type
+	 * @param fragment one of {@link #templateFragments()}
+	 * @param model a model assumed never to be <code>null</code>.
+	 * @param output the output to write to.
+	 * @return the output passed in.
+	 * @throws E if an error occurs while writing to output
+	 * @throws NoSuchElementException if the template does not have the fragment
+	 * @see #fragment(String)
+	 */
+	default <A extends io.jstach.jstachio.Output.EncodedOutput<E>, E extends Exception> A writeFragment(String fragment,
+			T model, A output) throws E {
+		return executeFragment(fragment, model, output);
+	}
+
+	private String fragmentNotFound(String fragment) {
+		return "Template " + templateName() + " does not have fragment: " + fragment;
+	}
+
 	/**
 	 * Creates a template model pair.
 	 * @param model never <code>null</code> model.
@@ -2,6 +2,7 @@ package io.jstach.jstachio;
 
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.Set;
 import java.util.function.Function;
 
 import org.eclipse.jdt.annotation.Nullable;
@@ -162,6 +163,40 @@ public interface TemplateInfo {
 		return -1;
 	}
 
+	/**
+	 * The minimum size in bytes of the rendered output in the template charset which is
+	 * the size of the static text that is rendered regardless of the model. This is
+	 * computed at compile time and can be used to decide early how output is buffered for
+	 * example whether to stream instead of buffering up to a limit.
+	 * @return the minimum output size or negative if not known
+	 * @see #templateEstimatedSize()
+	 */
+	default int templateStaticSize() {
+		return -1;
+	}
+
+	/**
+	 * A rough estimate of the size in bytes of the rendered output in the template
+	 * charset that is computed at compile time. The estimate assumes every section is
+	 * rendered, the content of loops is rendered a few times and variables are short. It
+	 * is meant for presizing buffers and should not be relied upon.
+	 * @return the estimated output size or negative if not known
+	 * @see #templateStaticSize()
+	 */
+	default int templateEstimatedSize() {
+		return -1;
+	}
+
+	/**
+	 * Names of the fragments of the template that can be rendered on their own with
+	 * {@link Template#fragment(String)}.
+	 * @return fragment names which are empty if the template has none
+	 * @see io.jstach.jstache.JStache#fragments()
+	 */
+	default Set<String> templateFragments() {
+		return Set.of();
+	}
+
 	/**
 	 * Utility method similar to toString that describes the template meta data.
 	 * @return description of the template.
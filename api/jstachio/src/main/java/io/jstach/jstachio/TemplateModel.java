@@ -3,6 +3,7 @@ package io.jstach.jstachio;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.charset.Charset;
+import java.util.Set;
 import java.util.function.Function;
 
 import org.eclipse.jdt.annotation.Nullable;
@@ -84,6 +85,17 @@ public sealed interface TemplateModel {
 		return execute(Output.of(new StringBuilder())).getBuffer().toString();
 	}
 
+	/**
+	 * Creates a template model pair that only renders the named fragment of the template
+	 * with the same model. This is useful for partial page updates where the same
+	 * controller returns either the whole page or a fragment.
+	 * @param fragment one of {@link TemplateInfo#templateFragments()}
+	 * @return template model pair for the fragment
+	 * @throws java.util.NoSuchElementException if the template does not have the fragment
+	 * @see Template#fragment(String)
+	 */
+	TemplateModel withFragment(String fragment);
+
 	/**
 	 * Creates a template model pair.
 	 * @param <T> model type
@@ -155,6 +167,21 @@ interface TemplateProxy extends Template<Object>, FilterChain {
 		return delegateTemplate().modelClass();
 	}
 
+	@Override
+	default int templateStaticSize() {
+		return delegateTemplate().templateStaticSize();
+	}
+
+	@Override
+	default int templateEstimatedSize() {
+		return delegateTemplate().templateEstimatedSize();
+	}
+
+	@Override
+	default Set<String> templateFragments() {
+		return delegateTemplate().templateFragments();
+	}
+
 	@Override
 	default boolean supportsType(Class<?> type) {
 		if (type.equals(this.getClass())) {
@@ -174,6 +201,11 @@ record DefaultTemplateExecutable<T> (Template<T> delegateTemplate, T model) impl
 
 	static final String ERROR_MESSAGE = "The model passed into this TemplateModel is not correct";
 
+	@Override
+	public TemplateModel withFragment(String fragment) {
+		return TemplateModel.of(delegateTemplate.fragment(fragment), model);
+	}
+
 	@Override
 	public <A extends io.jstach.jstachio.Output<E>, E extends Exception> A execute(A output) throws E {
 		return delegateTemplate.execute(model(), output);
@@ -192,11 +224,25 @@ record DefaultTemplateExecutable<T> (Template<T> delegateTemplate, T model) impl
 		throw new UnsupportedOperationException(ERROR_MESSAGE);
 	}
 
+	@Override
+	public <A extends Output<E>, E extends Exception> A executeFragment(String fragment, Object model, A appendable)
+			throws E {
+		if (model == this || model == this.model) {
+			return delegateTemplate.executeFragment(fragment, this.model, appendable);
+		}
+		throw new UnsupportedOperationException(ERROR_MESSAGE);
+	}
+
 }
 
 record EncodedTemplateExecutable<T> (EncodedTemplate<T> delegateTemplate,
 		T model) implements TemplateModel, TemplateProxy {
 
+	@Override
+	public TemplateModel withFragment(String fragment) {
+		return TemplateModel.of(delegateTemplate.fragment(fragment), model);
+	}
+
 	@Override
 	public <A extends io.jstach.jstachio.Output<E>, E extends Exception> A execute(A output) throws E {
 		return delegateTemplate.execute(model(), output);
@@ -228,4 +274,22 @@ record EncodedTemplateExecutable<T> (EncodedTemplate<T> delegateTemplate,
 		throw new UnsupportedOperationException(DefaultTemplateExecutable.ERROR_MESSAGE);
 	}
 
+	@Override
+	public <A extends Output<E>, E extends Exception> A executeFragment(String fragment, Object model, A appendable)
+			throws E {
+		if (model == this || model == this.model) {
+			return delegateTemplate.executeFragment(fragment, this.model, appendable);
+		}
+		throw new UnsupportedOperationException(DefaultTemplateExecutable.ERROR_MESSAGE);
+	}
+
+	@Override
+	public <A extends EncodedOutput<E>, E extends Exception> A writeFragment(String fragment, Object model, A output)
+			throws E {
+		if (model == this || model == this.model) {
+			return delegateTemplate.writeFragment(fragment, this.model, output);
+		}
+		throw new UnsupportedOperationException(DefaultTemplateExecutable.ERROR_MESSAGE);
+	}
+
 }
@@ -1,16 +1,14 @@
 package io.jstach.jstachio.context;
 
 import java.lang.reflect.Array;
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
 
 import org.eclipse.jdt.annotation.Nullable;
 
@@ -128,14 +126,22 @@ public interface ContextNode extends Iterable<ContextNode> {
 		if (child != null) {
 			return child;
 		}
+		/*
+		 * Only the value is looked up in the ancestors so that a single node is created
+		 * for the field with this node as its parent regardless of how far up it was
+		 * found.
+		 */
+		ContextNode current = this;
 		var parent = parent();
-		if (parent != null && parent != this) {
-			child = parent.find(field);
-			if (child != null) {
-				child = ofChild(field, child.object());
+		while (parent != null && parent != current) {
+			Object value = AbstractContextNode.value(parent, field);
+			if (value != null) {
+				return ofChild(field, value);
 			}
+			current = parent;
+			parent = parent.parent();
 		}
-		return child;
+		return null;
 	}
 
 	/**
@@ -169,71 +175,17 @@ public interface ContextNode extends Iterable<ContextNode> {
 	@Override
 	default Iterator<ContextNode> iterator() {
 		Object o = object();
-		if (o instanceof Iterable<?> it) {
-			AtomicInteger index = new AtomicInteger();
-			return StreamSupport.stream(it.spliterator(), false).map(i -> this.ofChild(index.getAndIncrement(), i))
-					.iterator();
+		if (o instanceof List<?> list && o instanceof RandomAccess) {
+			return new ChildIterator(this, list, list.size());
+		}
+		else if (o instanceof Iterable<?> it) {
+			return new ChildIterator(this, it.iterator(), -1);
 		}
 		else if (o == null || Boolean.FALSE.equals(o)) {
 			return Collections.emptyIterator();
 		}
 		else if (o.getClass().isArray()) {
-			/*
-			 * There is probably an easier way to do this
-			 */
-			Stream<? extends Object> s;
-			if (o instanceof int[] a) {
-				s = Arrays.stream(a).boxed();
-			}
-			else if (o instanceof long[] a) {
-				s = Arrays.stream(a).boxed();
-			}
-			else if (o instanceof double[] a) {
-				s = Arrays.stream(a).boxed();
-			}
-			else if (o instanceof boolean[] a) {
-				List<Boolean> b = new ArrayList<>();
-				for (var _a : a) {
-					b.add(_a);
-				}
-				s = b.stream();
-			}
-			else if (o instanceof char[] a) {
-				List<Character> b = new ArrayList<>();
-				for (var _a : a) {
-					b.add(_a);
-				}
-				s = b.stream();
-			}
-			else if (o instanceof byte[] a) {
-				List<Byte> b = new ArrayList<>();
-				for (var _a : a) {
-					b.add(_a);
-				}
-				s = b.stream();
-			}
-			else if (o instanceof float[] a) {
-				List<Float> b = new ArrayList<>();
-				for (var _a : a) {
-					b.add(_a);
-				}
-				s = b.stream();
-			}
-			else if (o instanceof short[] a) {
-				List<Short> b = new ArrayList<>();
-				for (var _a : a) {
-					b.add(_a);
-				}
-				s = b.stream();
-			}
-			else if (o instanceof Object[] a) {
-				s = Arrays.asList(a).stream();
-			}
-			else {
-				throw new IllegalArgumentException("array type not supported: " + o.getClass());
-			}
-			AtomicInteger index = new AtomicInteger();
-			return s.map(i -> this.ofChild(index.getAndIncrement(), i)).iterator();
+			return new ChildIterator(this, o, Array.getLength(o));
 		}
 
 		return Collections.singletonList(this).iterator();
@@ -265,23 +217,294 @@ public interface ContextNode extends Iterable<ContextNode> {
 
 }
 
-record RootContextNode(Object object) implements ContextNode {
+/*
+ * The nodes created by ContextNode remember the last named child so that repeated lookups
+ * of the same field (for example a variable used more than once in a loop body) reuse the
+ * node as long as the map still has the same value.
+ */
+abstract class AbstractContextNode implements ContextNode {
+
+	/*
+	 * Racing writes are harmless as the nodes are immutable and any of them is correct.
+	 */
+	private @Nullable NamedContextNode lastChild;
+
+	@Override
+	public @Nullable ContextNode ofChild(String name, @Nullable Object o) throws IllegalArgumentException {
+		if (o == null) {
+			return null;
+		}
+		if (o instanceof ContextNode) {
+			throw new IllegalArgumentException("Cannot wrap ContextNode around another ContextNode");
+		}
+		var child = lastChild;
+		if (child != null && child.object() == o && child.name().equals(name)) {
+			return child;
+		}
+		child = new NamedContextNode(this, o, name);
+		lastChild = child;
+		return child;
+	}
+
+	/*
+	 * The value of a field without creating a node if possible.
+	 */
+	static @Nullable Object value(ContextNode node, String field) {
+		if (node instanceof AbstractContextNode) {
+			return node.object() instanceof Map<?, ?> m ? m.get(field) : null;
+		}
+		var child = node.get(field);
+		return child == null ? null : child.object();
+	}
+
+	/*
+	 * The name or index of the node in its parent or null for the root.
+	 */
+	abstract @Nullable Object key();
+
+	/*
+	 * Value equality like the records these nodes used to be. The remembered child is not
+	 * part of it.
+	 */
+	@Override
+	public boolean equals(@Nullable Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		return obj instanceof AbstractContextNode n && Objects.equals(key(), n.key())
+				&& Objects.equals(parent(), n.parent()) && object().equals(n.object());
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(parent(), object(), key());
+	}
+
 	@Override
 	public String toString() {
 		return renderString();
 	}
+
 }
 
-record NamedContextNode(ContextNode parent, Object object, String name) implements ContextNode {
+final class RootContextNode extends AbstractContextNode {
+
+	private final Object object;
+
+	RootContextNode(Object object) {
+		this.object = object;
+	}
+
 	@Override
-	public String toString() {
-		return renderString();
+	public Object object() {
+		return object;
+	}
+
+	@Override
+	@Nullable
+	Object key() {
+		return null;
 	}
+
 }
 
-record IndexedContextNode(ContextNode parent, Object object, int index) implements ContextNode {
+final class NamedContextNode extends AbstractContextNode {
+
+	private final ContextNode parent;
+
+	private final Object object;
+
+	private final String name;
+
+	NamedContextNode(ContextNode parent, Object object, String name) {
+		this.parent = parent;
+		this.object = object;
+		this.name = name;
+	}
+
 	@Override
-	public String toString() {
-		return renderString();
+	public Object object() {
+		return object;
+	}
+
+	@Override
+	public ContextNode parent() {
+		return parent;
 	}
+
+	String name() {
+		return name;
+	}
+
+	@Override
+	Object key() {
+		return name;
+	}
+
+}
+
+final class IndexedContextNode extends AbstractContextNode {
+
+	private final ContextNode parent;
+
+	private final Object object;
+
+	private final int index;
+
+	IndexedContextNode(ContextNode parent, Object object, int index) {
+		this.parent = parent;
+		this.object = object;
+		this.index = index;
+	}
+
+	@Override
+	public Object object() {
+		return object;
+	}
+
+	@Override
+	public ContextNode parent() {
+		return parent;
+	}
+
+	int index() {
+		return index;
+	}
+
+	@Override
+	Object key() {
+		return index;
+	}
+
+}
+
+/*
+ * An element of a primitive array that is only boxed if the object is asked for.
+ * Rendering and iterating do not box.
+ */
+final class PrimitiveElementContextNode extends AbstractContextNode {
+
+	private final ContextNode parent;
+
+	private final Object array;
+
+	private final int index;
+
+	PrimitiveElementContextNode(ContextNode parent, Object array, int index) {
+		this.parent = parent;
+		this.array = array;
+		this.index = index;
+	}
+
+	@Override
+	public Object object() {
+		return Array.get(array, index);
+	}
+
+	@Override
+	Object key() {
+		return index;
+	}
+
+	@Override
+	public ContextNode parent() {
+		return parent;
+	}
+
+	@Override
+	public @Nullable ContextNode get(String field) {
+		return null;
+	}
+
+	@Override
+	public String renderString() {
+		Object a = array;
+		int i = index;
+		if (a instanceof int[] ia) {
+			return String.valueOf(ia[i]);
+		}
+		else if (a instanceof long[] la) {
+			return String.valueOf(la[i]);
+		}
+		else if (a instanceof double[] da) {
+			return String.valueOf(da[i]);
+		}
+		else if (a instanceof boolean[] ba) {
+			return String.valueOf(ba[i]);
+		}
+		else if (a instanceof char[] ca) {
+			return String.valueOf(ca[i]);
+		}
+		else if (a instanceof byte[] ba) {
+			return String.valueOf(ba[i]);
+		}
+		else if (a instanceof float[] fa) {
+			return String.valueOf(fa[i]);
+		}
+		else if (a instanceof short[] sa) {
+			return String.valueOf(sa[i]);
+		}
+		return String.valueOf(object());
+	}
+
+	@Override
+	public Iterator<ContextNode> iterator() {
+		if (array instanceof boolean[] ba && !ba[index]) {
+			return Collections.emptyIterator();
+		}
+		return Collections.<ContextNode>singletonList(this).iterator();
+	}
+
+}
+
+/*
+ * Iterates RandomAccess lists and arrays by index and other iterables with their iterator
+ * without streams or boxing of primitive array elements.
+ */
+final class ChildIterator implements Iterator<ContextNode> {
+
+	private final ContextNode parent;
+
+	private final Object source;
+
+	/*
+	 * -1 if source is an iterator
+	 */
+	private final int size;
+
+	private int index;
+
+	ChildIterator(ContextNode parent, Object source, int size) {
+		this.parent = parent;
+		this.source = source;
+		this.size = size;
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (size < 0) {
+			return ((Iterator<?>) source).hasNext();
+		}
+		return index < size;
+	}
+
+	@Override
+	public @Nullable ContextNode next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		int i = index++;
+		Object s = source;
+		if (size < 0) {
+			return parent.ofChild(i, ((Iterator<?>) s).next());
+		}
+		if (s instanceof List<?> list) {
+			return parent.ofChild(i, list.get(i));
+		}
+		if (s instanceof Object[] a) {
+			return parent.ofChild(i, a[i]);
+		}
+		return new PrimitiveElementContextNode(parent, s, i);
+	}
+
 }
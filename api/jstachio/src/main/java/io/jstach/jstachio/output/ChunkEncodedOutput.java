@@ -3,6 +3,7 @@ package io.jstach.jstachio.output;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -58,6 +59,14 @@ class ByteArrayChunkEncodedOutput implements ChunkEncodedOutput<byte[]> {
 		addChunk(bytes);
 	}
 
+	/*
+	 * Chunks are the written arrays so slices have to be copied.
+	 */
+	@Override
+	public void write(byte[] bytes, int off, int len) {
+		addChunk(off == 0 && len == bytes.length ? bytes : Arrays.copyOfRange(bytes, off, off + len));
+	}
+
 	private void addChunk(byte[] chunk) {
 		chunks.add(chunk);
 		int length = chunk.length;
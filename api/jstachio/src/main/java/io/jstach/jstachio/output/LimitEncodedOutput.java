@@ -60,6 +60,18 @@ public sealed interface LimitEncodedOutput<T, E extends Exception>
 	 */
 	public @Nullable T consumer();
 
+	/**
+	 * Tells the output the minimum total size of the output if known in advance for
+	 * example from {@link io.jstach.jstachio.TemplateInfo#templateStaticSize()}. If the
+	 * minimum size is greater than the {@linkplain #limit() limit} the consumer is
+	 * created right away with size <code>-1</code> and the output is pushed downstream
+	 * without buffering. Otherwise this does nothing.
+	 * @param minimumSize minimum total size of the output in bytes. Negative if not
+	 * known.
+	 * @throws E if an error happens while creating the downstream output
+	 */
+	public void minimumSizeHint(int minimumSize) throws E;
+
 }
 
 /**
@@ -108,6 +120,31 @@ abstract non-sealed class AbstractLimitEncodedOutput implements LimitEncodedOutp
 
 	}
 
+	@Override
+	public void write(byte[] bytes, int off, int length) throws IOException {
+		OutputStream c = this.consumer;
+		if (c != null) {
+			c.write(bytes, off, length);
+		}
+		else if ((length + size) > limit) {
+			c = this.consumer = createConsumer(-1);
+			buffer.transferTo(c);
+			c.write(bytes, off, length);
+		}
+		else {
+			buffer.write(bytes, off, length);
+		}
+		size += length;
+	}
+
+	@Override
+	public void minimumSizeHint(int minimumSize) throws IOException {
+		if (consumer == null && minimumSize > limit) {
+			var c = this.consumer = createConsumer(-1);
+			buffer.transferTo(c);
+		}
+	}
+
 	@Override
 	public int size() {
 		return size;
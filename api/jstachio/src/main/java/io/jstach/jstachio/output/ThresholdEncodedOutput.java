@@ -3,8 +3,7 @@ package io.jstach.jstachio.output;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.charset.Charset;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 import org.eclipse.jdt.annotation.Nullable;
 
@@ -74,7 +73,17 @@ import org.eclipse.jdt.annotation.Nullable;
  */
 public abstract non-sealed class ThresholdEncodedOutput<T, E extends Exception> implements LimitEncodedOutput<T, E> {
 
-	private final List<byte[]> chunks;
+	/*
+	 * Buffered chunks are references to the written arrays and the slice that was written
+	 * so that pre-encoded template parts are not copied.
+	 */
+	private byte[][] chunks = new byte[16][];
+
+	private int[] offsets = new int[16];
+
+	private int[] lengths = new int[16];
+
+	private int count = 0;
 
 	private final Charset charset;
 
@@ -95,7 +104,6 @@ public abstract non-sealed class ThresholdEncodedOutput<T, E extends Exception>
 	 * total output is greater than the limit.
 	 */
 	protected ThresholdEncodedOutput(Charset charset, int limit) {
-		chunks = new ArrayList<>();
 		this.charset = charset;
 		this.limit = limit;
 	}
@@ -126,34 +134,78 @@ public abstract non-sealed class ThresholdEncodedOutput<T, E extends Exception>
 	 */
 	protected abstract void close(T consumer) throws E;
 
+	/**
+	 * Writes a slice to a consumer. The default implementation calls
+	 * {@link #write(Object, byte[])} with a copy of the slice unless the slice is the
+	 * entire array. Implementations should override if the consumer can write slices.
+	 * @param consumer the consumer created from {@link #createConsumer(int)}.
+	 * @param bytes data to be written
+	 * @param off offset of the data
+	 * @param len length of the data
+	 * @throws E if an error happens while using the consumer.
+	 */
+	protected void write(T consumer, byte[] bytes, int off, int len) throws E {
+		if (off == 0 && len == bytes.length) {
+			write(consumer, bytes);
+		}
+		else {
+			write(consumer, Arrays.copyOfRange(bytes, off, off + len));
+		}
+	}
+
 	@Override
 	public void write(byte[] bytes) throws E {
-		addChunk(bytes);
+		addChunk(bytes, 0, bytes.length);
 	}
 
-	private void addChunk(byte[] chunk) throws E {
-		int length = chunk.length;
+	@Override
+	public void write(byte[] bytes, int off, int len) throws E {
+		addChunk(bytes, off, len);
+	}
+
+	private void addChunk(byte[] chunk, int off, int length) throws E {
 		T c = this.consumer;
 		if (c != null) {
-			write(c, chunk);
+			write(c, chunk, off, length);
 		}
 		else if ((length + size) > limit) {
 			/*
 			 * We have exceeded the threshold
 			 */
 			c = this.consumer = createConsumer(-1);
-			chunks.add(chunk);
-			drain(consumer);
+			buffer(chunk, off, length);
+			drain(c);
 		}
 		else {
-			chunks.add(chunk);
+			buffer(chunk, off, length);
 		}
 		size += length;
 	}
 
+	private void buffer(byte[] chunk, int off, int length) {
+		if (count == chunks.length) {
+			int capacity = count * 2;
+			chunks = Arrays.copyOf(chunks, capacity);
+			offsets = Arrays.copyOf(offsets, capacity);
+			lengths = Arrays.copyOf(lengths, capacity);
+		}
+		chunks[count] = chunk;
+		offsets[count] = off;
+		lengths[count] = length;
+		count++;
+	}
+
 	private void drain(T consumer) throws E {
-		for (var chunk : chunks) {
-			write(consumer, chunk);
+		for (int i = 0; i < count; i++) {
+			write(consumer, chunks[i], offsets[i], lengths[i]);
+		}
+	}
+
+	@Override
+	public void minimumSizeHint(int minimumSize) throws E {
+		if (this.consumer == null && minimumSize > limit) {
+			T c = this.consumer = createConsumer(-1);
+			drain(c);
 		}
 	}
 
@@ -233,6 +285,11 @@ public abstract non-sealed class ThresholdEncodedOutput<T, E extends Exception>
 			consumer.write(bytes);
 		}
 
+		@Override
+		protected void write(OutputStream consumer, byte[] bytes, int off, int len) throws IOException {
+			consumer.write(bytes, off, len);
+		}
+
 		@Override
 		protected void close(OutputStream consumer) throws IOException {
 			consumer.close();
@@ -99,6 +99,17 @@ public final class JStachioFactory {
 	 * a service locator style you may want to set it as the default via
 	 * {@link JStachio#setStatic(java.util.function.Supplier)} which will make all calls
 	 * of {@link JStachio#of()} use the custom one.
+	 * <p>
+	 * For fast startup and native images a generated template catalog can be added as the
+	 * only template finder. If the catalog was generated with
+	 * <code>JStacheCatalog.CatalogFlag.GENERATE_STATIC_DISPATCH</code> templates are
+	 * resolved without reflection or the {@link ServiceLoader}:
+	 *
+	 * <pre><code class="language-java">
+	 * JStachio jstachio = JStachioFactory.builder()
+	 *     .add(new annotatedpackage.TemplateCatalog())
+	 *     .build();
+	 * </code></pre>
 	 *
 	 * @author agentgt
 	 * @see JStacheCatalog
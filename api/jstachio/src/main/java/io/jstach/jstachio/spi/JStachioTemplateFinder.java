@@ -1,10 +1,15 @@
 package io.jstach.jstachio.spi;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.jdt.annotation.Nullable;
 
@@ -87,6 +92,47 @@ public non-sealed interface JStachioTemplateFinder extends JStachioExtension {
 		return true;
 	}
 
+	/**
+	 * Resolves the templates of the given model types concurrently so that the cost of
+	 * resolution and class initialization is paid up front instead of on the first
+	 * render. If this finder {@linkplain #cachedTemplateFinder(JStachioTemplateFinder)
+	 * caches} the results are cached. This is mainly for frameworks that know the model
+	 * types they will render at startup.
+	 * <p>
+	 * The templates are resolved with {@link #findTemplate(Class)} using the calling
+	 * threads context class loader.
+	 * @param modelTypes the models classes (<em>the ones annotated with {@link JStache}
+	 * and not the Templates classes</em>)
+	 * @return the model types that failed to resolve with the failure in iteration order
+	 * of the passed in model types. An empty map means all templates were found.
+	 */
+	default Map<Class<?>, Exception> prefetch(Collection<? extends Class<?>> modelTypes) {
+		ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+		Map<Class<?>, Exception> failures = new ConcurrentHashMap<>();
+		modelTypes.parallelStream().distinct().forEach(modelType -> {
+			Thread thread = Thread.currentThread();
+			ClassLoader original = thread.getContextClassLoader();
+			thread.setContextClassLoader(contextClassLoader);
+			try {
+				findTemplate(modelType);
+			}
+			catch (Exception e) {
+				failures.put(modelType, e);
+			}
+			finally {
+				thread.setContextClassLoader(original);
+			}
+		});
+		Map<Class<?>, Exception> ordered = new LinkedHashMap<>();
+		for (var modelType : modelTypes) {
+			var e = failures.get(modelType);
+			if (e != null) {
+				ordered.put(modelType, e);
+			}
+		}
+		return ordered;
+	}
+
 	/**
 	 * Hint on order of template finders. The found {@link JStachioTemplateFinder}s are
 	 * sorted naturally (lower number comes first) based on the returned number. Thus a
@@ -114,9 +160,15 @@ public non-sealed interface JStachioTemplateFinder extends JStachioExtension {
 	 * Decorates a template finder with a cache using {@link ClassValue} with the
 	 * modelType as the key.
 	 * <p>
-	 * <em>The returned finder will only call {@link #findTemplate(Class)} on the passed
-	 * in delegate finder to resolve {@link #supportsType(Class)} and
-	 * {@link #findOrNull(Class)}! </em>
+	 * Both found templates and misses are cached. The answer of
+	 * {@link #supportsType(Class)} is cached separately from the found template so that
+	 * probing for supported types (as web frameworks do for every candidate type) does
+	 * not load templates and a miss is not computed through exceptions.
+	 * <p>
+	 * <em>The returned finder will call {@link #supportsType(Class)} on the passed in
+	 * delegate finder to determine if a template exists and only then call
+	 * {@link #findTemplate(Class)} on the delegate to resolve the template. Errors are
+	 * not cached.</em>
 	 * <p>
 	 * While the finder does not provide any eviction the cache will not prevent garbage
 	 * collection of the model classes.
@@ -131,6 +183,29 @@ public non-sealed interface JStachioTemplateFinder extends JStachioExtension {
 		return new ClassValueCacheTemplateFinder(finder);
 	}
 
+	/**
+	 * Decorates a template finder with a cache that is scoped to the
+	 * {@linkplain Thread#getContextClassLoader() context class loader} of the calling
+	 * thread as well as the model type. This is useful for plugin architectures where the
+	 * same model type may resolve to different templates depending on the plugin class
+	 * loader in use.
+	 * <p>
+	 * Like {@link #cachedTemplateFinder(JStachioTemplateFinder)} the results are stored
+	 * on the model class with a {@link ClassValue} and lookups do not lock. The class
+	 * loaders as well as templates loaded by a class loader the model class cannot see
+	 * are weakly referenced so that a class loader (plugin) can be unloaded even if the
+	 * model class is shared with the application.
+	 * @param finder to be decorated. Usually not already cached.
+	 * @return class loader aware caching template finder
+	 * @see #cachedTemplateFinder(JStachioTemplateFinder)
+	 */
+	public static JStachioTemplateFinder classLoaderCachedTemplateFinder(JStachioTemplateFinder finder) {
+		if (finder instanceof ClassLoaderCacheTemplateFinder) {
+			return finder;
+		}
+		return new ClassLoaderCacheTemplateFinder(finder);
+	}
+
 	/**
 	 * Creates a template finder from an iterable of templates. The returned finder will
 	 * just loop through the templates and call {@link TemplateInfo#supportsType(Class)}.
@@ -252,6 +327,14 @@ class TemplateNotFoundException extends NoSuchElementException {
 		return "Template not found for type: " + modelType;
 	}
 
+	/*
+	 * A missing template is not exceptional and the stack trace is not helpful.
+	 */
+	@Override
+	public synchronized Throwable fillInStackTrace() {
+		return this;
+	}
+
 	public Class<?> modelType() {
 		return modelType;
 	}
@@ -284,17 +367,30 @@ final class IterableTemplateFinder implements SimpleTemplateFinder {
 
 final class ClassValueCacheTemplateFinder implements JStachioTemplateFinder {
 
-	private final ClassValue<TemplateInfo> cache;
+	private final ClassValue<@Nullable TemplateInfo> cache;
+
+	private final ClassValue<Boolean> supported;
 
 	private final JStachioTemplateFinder delegate;
 
 	public ClassValueCacheTemplateFinder(JStachioTemplateFinder delegate) {
 		super();
 		this.delegate = delegate;
+		this.supported = new ClassValue<>() {
+
+			@Override
+			protected Boolean computeValue(@Nullable Class<?> type) {
+				return delegate.supportsType(Objects.requireNonNull(type));
+			}
+		};
 		this.cache = new ClassValue<>() {
 
 			@Override
 			protected @Nullable TemplateInfo computeValue(@Nullable Class<?> type) {
+				Objects.requireNonNull(type);
+				if (!supported.get(type)) {
+					return null;
+				}
 				try {
 					return delegate.findTemplate(type);
 				}
@@ -308,7 +404,39 @@ final class ClassValueCacheTemplateFinder implements JStachioTemplateFinder {
 
 	@Override
 	public TemplateInfo findTemplate(Class<?> modelType) throws Exception {
-		return cache.get(modelType);
+		Objects.requireNonNull(modelType, "modelType");
+		var t = Templates.isIgnoredType(modelType) ? null : cache.get(modelType);
+		if (t == null) {
+			/*
+			 * Misses are rare for this call so we let the delegate report the actual
+			 * reason.
+			 */
+			return delegate.findTemplate(modelType);
+		}
+		return t;
+	}
+
+	@Override
+	public @Nullable TemplateInfo findOrNull(Class<?> modelType) {
+		Objects.requireNonNull(modelType, "modelType");
+		if (Templates.isIgnoredType(modelType)) {
+			return null;
+		}
+		try {
+			return cache.get(modelType);
+		}
+		catch (Exception e) {
+			return null;
+		}
+	}
+
+	@Override
+	public boolean supportsType(Class<?> modelType) {
+		Objects.requireNonNull(modelType, "modelType");
+		if (Templates.isIgnoredType(modelType)) {
+			return false;
+		}
+		return supported.get(modelType);
 	}
 
 	@Override
@@ -318,6 +446,193 @@ final class ClassValueCacheTemplateFinder implements JStachioTemplateFinder {
 
 }
 
+final class ClassLoaderCacheTemplateFinder implements JStachioTemplateFinder {
+
+	/*
+	 * The results are stored on the model class with one entry per class loader in an
+	 * immutable array that is replaced on write so lookups do not lock. A racing write
+	 * may drop an entry which is then just computed again.
+	 *
+	 * Nothing here strongly references a class loader that the model class does not
+	 * already reference: the entries only weakly reference the class loader and weakly
+	 * reference the template if it is not loaded by the loader of the model class or one
+	 * of its parents. A plugin class loader can therefore be collected even if the model
+	 * class outlives it.
+	 */
+	private final ClassValue<LoaderEntries> entries = new ClassValue<>() {
+
+		@Override
+		protected LoaderEntries computeValue(@Nullable Class<?> type) {
+			return new LoaderEntries();
+		}
+
+	};
+
+	private final JStachioTemplateFinder delegate;
+
+	public ClassLoaderCacheTemplateFinder(JStachioTemplateFinder delegate) {
+		super();
+		this.delegate = delegate;
+	}
+
+	private static ClassLoader loader(Class<?> modelType) {
+		ClassLoader loader = Thread.currentThread().getContextClassLoader();
+		if (loader == null) {
+			loader = modelType.getClassLoader();
+		}
+		if (loader == null) {
+			loader = ClassLoader.getSystemClassLoader();
+		}
+		return loader;
+	}
+
+	private LoaderEntry entry(Class<?> modelType, ClassLoader loader) {
+		var loaderEntries = entries.get(modelType);
+		var e = loaderEntries.get(loader);
+		if (e == null) {
+			e = new LoaderEntry(loader, delegate.supportsType(modelType), null);
+			loaderEntries.put(e);
+		}
+		return e;
+	}
+
+	private @Nullable TemplateInfo template(Class<?> modelType) {
+		ClassLoader loader = loader(modelType);
+		var e = entry(modelType, loader);
+		if (!e.supported()) {
+			return null;
+		}
+		var t = e.template();
+		if (t != null) {
+			return t;
+		}
+		try {
+			t = delegate.findTemplate(modelType);
+		}
+		catch (Exception ex) {
+			return null;
+		}
+		entries.get(modelType).put(new LoaderEntry(loader, true, LoaderEntry.reference(modelType, t)));
+		return t;
+	}
+
+	@Override
+	public TemplateInfo findTemplate(Class<?> modelType) throws Exception {
+		Objects.requireNonNull(modelType, "modelType");
+		var t = Templates.isIgnoredType(modelType) ? null : template(modelType);
+		if (t == null) {
+			/*
+			 * Misses are rare for this call so we let the delegate report the actual
+			 * reason.
+			 */
+			return delegate.findTemplate(modelType);
+		}
+		return t;
+	}
+
+	@Override
+	public @Nullable TemplateInfo findOrNull(Class<?> modelType) {
+		Objects.requireNonNull(modelType, "modelType");
+		if (Templates.isIgnoredType(modelType)) {
+			return null;
+		}
+		return template(modelType);
+	}
+
+	@Override
+	public boolean supportsType(Class<?> modelType) {
+		Objects.requireNonNull(modelType, "modelType");
+		if (Templates.isIgnoredType(modelType)) {
+			return false;
+		}
+		return entry(modelType, loader(modelType)).supported();
+	}
+
+	@Override
+	public int order() {
+		return delegate.order();
+	}
+
+	private static final class LoaderEntries {
+
+		private static final LoaderEntry[] EMPTY = new LoaderEntry[] {};
+
+		private volatile LoaderEntry[] entries = EMPTY;
+
+		@Nullable
+		LoaderEntry get(ClassLoader loader) {
+			for (var e : entries) {
+				if (e.loader.get() == loader) {
+					return e;
+				}
+			}
+			return null;
+		}
+
+		/*
+		 * Replaces the entry of the same loader and drops entries of collected loaders.
+		 */
+		void put(LoaderEntry entry) {
+			var current = entries;
+			List<LoaderEntry> copy = new ArrayList<>(current.length + 1);
+			for (var e : current) {
+				var l = e.loader.get();
+				if (l != null && l != entry.loader.get()) {
+					copy.add(e);
+				}
+			}
+			copy.add(entry);
+			entries = copy.toArray(EMPTY);
+		}
+
+	}
+
+	private static final class LoaderEntry {
+
+		final WeakReference<ClassLoader> loader;
+
+		private final boolean supported;
+
+		/*
+		 * Either the template, a weak reference to it or null if not yet found.
+		 */
+		private final @Nullable Object template;
+
+		LoaderEntry(ClassLoader loader, boolean supported, @Nullable Object template) {
+			this.loader = new WeakReference<>(loader);
+			this.supported = supported;
+			this.template = template;
+		}
+
+		static Object reference(Class<?> modelType, TemplateInfo template) {
+			ClassLoader templateLoader = template.getClass().getClassLoader();
+			if (templateLoader == null) {
+				return template;
+			}
+			for (var l = modelType.getClassLoader(); l != null; l = l.getParent()) {
+				if (l == templateLoader) {
+					return template;
+				}
+			}
+			return new WeakReference<>(template);
+		}
+
+		boolean supported() {
+			return supported;
+		}
+
+		@Nullable
+		TemplateInfo template() {
+			if (template instanceof WeakReference<?> r) {
+				return (TemplateInfo) r.get();
+			}
+			return (TemplateInfo) template;
+		}
+
+	}
+
+}
+
 final class CompositeTemplateFinder implements JStachioTemplateFinder {
 
 	private final Iterable<? extends JStachioTemplateFinder> finders;
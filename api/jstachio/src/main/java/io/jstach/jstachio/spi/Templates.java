@@ -117,7 +117,7 @@ public final class Templates {
 			return null;
 		}
 		try {
-			return findTemplate(modelType, config, JStachioConfig.noopLogger());
+			return findTemplateOrNull(modelType, config, JStachioConfig.noopLogger());
 		}
 		catch (Exception e) {
 			return null;
@@ -184,6 +184,29 @@ public final class Templates {
 	}
 
 	static TemplateInfo findTemplate(Class<?> modelType, JStachioConfig config, Logger logger) throws Exception {
+		var jstache = findJStache(modelType);
+		var t = findTemplateOrNull(jstache.getKey(), modelType, config, logger);
+		if (t == null) {
+			throw new TemplateNotFoundException(modelType);
+		}
+		return t;
+	}
+
+	private static @Nullable TemplateInfo findTemplateOrNull(Class<?> modelType, JStachioConfig config, Logger logger)
+			throws Exception {
+		var jstache = findJStacheOrNull(modelType);
+		if (jstache == null) {
+			return null;
+		}
+		return findTemplateOrNull(jstache.getKey(), modelType, config, logger);
+	}
+
+	/*
+	 * Misses are signaled with null instead of exceptions as this is called frequently
+	 * for types that may not have templates.
+	 */
+	private static @Nullable TemplateInfo findTemplateOrNull(Class<?> resolvedType, Class<?> modelType,
+			JStachioConfig config, Logger logger) throws Exception {
 		EnumSet<TemplateLoadStrategy> strategies = EnumSet.noneOf(TemplateLoadStrategy.class);
 
 		for (var s : ALL_STRATEGIES) {
@@ -192,28 +215,22 @@ public final class Templates {
 			}
 		}
 		var classLoaders = collectClassLoaders(modelType.getClassLoader());
-		var jstache = findJStache(modelType);
-		var resolvedType = jstache.getKey();
 
-		Exception error;
-		try {
-			Template<?> r = Templates.getTemplate(resolvedType, strategies, classLoaders, logger);
+		Template<?> r = Templates.getTemplateOrNull(resolvedType, strategies, classLoaders, logger);
+		if (r != null) {
 			return r;
 		}
-		catch (Exception e) {
-			error = e;
-		}
 		if (!config.getBoolean(JStachioConfig.REFLECTION_TEMPLATE_DISABLE)) {
 			if (logger.isLoggable(Level.WARNING)) {
 				String message = String
 						.format("Could not find generated template and will try reflection for model type:"
 								+ "'%s', annotated type: '%s'", modelType, resolvedType);
-				logger.log(Level.WARNING, message, error);
+				logger.log(Level.WARNING, message);
 			}
 			return getInfoByReflection(resolvedType);
 
 		}
-		throw error;
+		return null;
 
 	}
 
@@ -267,23 +284,28 @@ public final class Templates {
 	 */
 	public static <T> Template<T> getTemplate(Class<T> modelType, Iterable<TemplateLoadStrategy> strategies,
 			Iterable<ClassLoader> classLoaders, System.Logger logger) throws Exception {
+		var template = getTemplateOrNull(modelType, strategies, classLoaders, logger);
+		if (template == null) {
+			throw new TemplateNotFoundException(modelType);
+		}
+		return template;
+	}
+
+	private static <T> @Nullable Template<T> getTemplateOrNull(Class<T> modelType,
+			Iterable<TemplateLoadStrategy> strategies, Iterable<ClassLoader> classLoaders, System.Logger logger)
+			throws Exception {
 		for (TemplateLoadStrategy s : strategies) {
 			if (logger.isLoggable(Level.DEBUG)) {
 				logger.log(Level.DEBUG, "For modelType: \"" + modelType + "\" trying strategy: \"" + s + "\"");
 			}
 			for (ClassLoader classLoader : classLoaders) {
-				try {
-					Template<T> template = s.load(modelType, classLoader, logger);
-					if (template != null) {
-						return template;
-					}
-				}
-				catch (ClassNotFoundException | TemplateNotFoundException e) {
-					continue;
+				Template<T> template = s.load(modelType, classLoader, logger);
+				if (template != null) {
+					return template;
 				}
 			}
 		}
-		throw new TemplateNotFoundException(modelType);
+		return null;
 	}
 
 	static boolean isReflectionTemplate(TemplateInfo template) {
@@ -298,6 +320,9 @@ public final class Templates {
 	/**
 	 * Strategy to load templates dynamically. <em>These strategies expect the exact type
 	 * and not a super type!</em>
+	 * <p>
+	 * A strategy signals that it could not find a template by returning <code>null</code>
+	 * and not by throwing an exception as template lookup misses can be frequent.
 	 *
 	 * @author agentgt
 	 *
@@ -344,8 +369,10 @@ public final class Templates {
 		 * @param clazz model type.
 		 * @param classLoader classload which may more may not be used.
 		 * @param logger used to log reflection warnings or other errors.
-		 * @return loaded template
-		 * @throws Exception if an error happens while trying to load template.
+		 * @return loaded template or <code>null</code> if the template could not be found
+		 * by this strategy with the class loader.
+		 * @throws Exception if an unexpected error happens while trying to load template
+		 * such as reflective access errors but not if the template is simply missing.
 		 */
 		protected abstract <T> @Nullable Template<T> load(Class<T> clazz, ClassLoader classLoader, System.Logger logger)
 				throws Exception;
@@ -362,7 +389,14 @@ public final class Templates {
 	@SuppressWarnings("unchecked")
 	private static <T> @Nullable Template<T> templateByConstructor(Class<T> clazz, ClassLoader classLoader)
 			throws Exception {
-		Class<?> implementation = classLoader.loadClass(generatedClassName(clazz));
+		String className = generatedClassNameOrNull(clazz);
+		if (className == null) {
+			return null;
+		}
+		Class<?> implementation = loadClassOrNull(clazz, className, classLoader);
+		if (implementation == null) {
+			return null;
+		}
 		Constructor<?> constructor = implementation.getDeclaredConstructor();
 		constructor.setAccessible(true);
 		return (Template<T>) constructor.newInstance();
@@ -379,13 +413,21 @@ public final class Templates {
 	 * {@link JStache}.
 	 */
 	public static String generatedClassName(Class<?> modelClass) {
+		String fqn = generatedClassNameOrNull(modelClass);
+		if (fqn == null) {
+			throw new TemplateNotFoundException(modelClass);
+		}
+		return fqn;
+	}
+
+	private static @Nullable String generatedClassNameOrNull(Class<?> modelClass) {
 		// TODO perhaps this information should be on TemplateInfo?
 		var a = modelClass.getAnnotation(JStache.class);
 		if (a == null) {
-			throw new TemplateNotFoundException(modelClass);
+			return null;
 		}
 		String cname;
-		if (a == null || a.name().isBlank()) {
+		if (a.name().isBlank()) {
 
 			JStacheName name = findAnnotations(modelClass, JStacheConfig.class) //
 					.flatMap(config -> Stream.of(config.naming())).findFirst().orElse(null);
@@ -507,7 +549,25 @@ public final class Templates {
 
 	private static List<ClassLoader> collectClassLoaders(@Nullable ClassLoader classLoader) {
 		return Stream.of(classLoader, Thread.currentThread().getContextClassLoader(), Template.class.getClassLoader())
-				.filter(cl -> cl != null).toList();
+				.filter(cl -> cl != null).distinct().toList();
+	}
+
+	/*
+	 * The generated template is in the same package as the model and thus the same module
+	 * and class loader. Class.forName(Module, String) returns null instead of throwing
+	 * ClassNotFoundException for that case. Other class loaders can only signal a miss
+	 * with an exception.
+	 */
+	private static @Nullable Class<?> loadClassOrNull(Class<?> modelClass, String className, ClassLoader classLoader) {
+		if (modelClass.getClassLoader() == classLoader) {
+			return Class.forName(modelClass.getModule(), className);
+		}
+		try {
+			return classLoader.loadClass(className);
+		}
+		catch (ClassNotFoundException e) {
+			return null;
+		}
 	}
 
 	@SuppressWarnings("unchecked")
@@ -2,6 +2,9 @@ package io.jstach.jstachio.context;
 
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 
 import org.junit.Test;
@@ -34,6 +37,77 @@ public class ContextNodeTest {
 
 	}
 
+	@Test
+	public void testIteratorOnPrimitiveArrays() throws Exception {
+		assertEquals("[a, b]", render(ContextNode.ofRoot(new char[] { 'a', 'b' })));
+		assertEquals("[1.5, 2.0]", render(ContextNode.ofRoot(new double[] { 1.5, 2 })));
+		var node = ContextNode.ofRoot(new boolean[] { true, false }).iterator();
+		assertTrue(node.next().iterator().hasNext());
+		assertFalse(node.next().iterator().hasNext());
+		assertEquals(Long.valueOf(3), ContextNode.ofRoot(new long[] { 3 }).iterator().next().object());
+	}
+
+	@Test
+	public void testIteratorOnIterables() throws Exception {
+		assertEquals("[a, b]", render(ContextNode.ofRoot(List.of("a", "b"))));
+		assertEquals("[a, b]", render(ContextNode.ofRoot(new LinkedHashSet<>(List.of("a", "b")))));
+		var node = ContextNode.ofRoot(new Object[] { "a", 1 });
+		for (var n : node) {
+			assertSame(node, n.parent());
+		}
+	}
+
+	@Test
+	public void testGetReusesNode() throws Exception {
+		var node = ContextNode.ofRoot(Map.of("a", "1"));
+		var child = node.get("a");
+		assertSame(child, node.get("a"));
+		assertSame(node, child.parent());
+		assertNull(node.get("b"));
+	}
+
+	@Test
+	public void testFindIsChildOfThisNode() throws Exception {
+		var root = ContextNode.ofRoot(Map.of("a", "1", "list", List.of(Map.of("b", "2"))));
+		var item = root.get("list").iterator().next();
+		assertEquals("2", item.find("b").renderString());
+		var a = item.find("a");
+		assertEquals("1", a.renderString());
+		assertSame(item, a.parent());
+		assertNull(item.find("c"));
+	}
+
+	@Test
+	public void testValueEquality() throws Exception {
+		Map<String, Object> m = Map.of("a", "1", "list", List.of("x", "y"), "ints", new int[] { 1, 2 });
+		var root = ContextNode.ofRoot(m);
+		assertEquals(root, ContextNode.ofRoot(m));
+		assertEquals(root.hashCode(), ContextNode.ofRoot(m).hashCode());
+		assertNotEquals(root, ContextNode.ofRoot(Map.of()));
+
+		assertEquals(root.get("a"), ContextNode.ofRoot(m).get("a"));
+		assertEquals(root.get("a").hashCode(), ContextNode.ofRoot(m).get("a").hashCode());
+		assertNotEquals(root.get("a"), root.ofChild("b", "1"));
+		assertNotEquals(root.get("a"), root.ofChild(0, "1"));
+
+		var list = root.get("list").iterator();
+		var other = ContextNode.ofRoot(m).get("list").iterator();
+		assertEquals(list.next(), other.next());
+		assertNotEquals(list.next(), root.get("list").iterator().next());
+
+		var ints = root.get("ints");
+		assertEquals(ints.iterator().next(), ints.ofChild(0, 1));
+		assertEquals(ints.iterator().next().hashCode(), ints.ofChild(0, 1).hashCode());
+	}
+
+	private static String render(ContextNode node) {
+		List<String> values = new ArrayList<>();
+		for (var n : node) {
+			values.add(n.renderString());
+		}
+		return values.toString();
+	}
+
 	@Test
 	public void testEmptyMapIsNotFalsey() throws Exception {
 		assertFalse(ContextNode.isFalsey(Map.of()));
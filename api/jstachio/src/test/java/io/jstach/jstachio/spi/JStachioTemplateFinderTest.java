@@ -0,0 +1,283 @@
+package io.jstach.jstachio.spi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.Test;
+
+import io.jstach.jstache.JStache;
+import io.jstach.jstachio.TemplateInfo;
+
+public class JStachioTemplateFinderTest {
+
+	@Test
+	public void testCachedSupportsTypeMiss() throws Exception {
+		CountingFinder counting = new CountingFinder();
+		var finder = JStachioTemplateFinder.cachedTemplateFinder(counting);
+		for (int i = 0; i < 3; i++) {
+			assertFalse(finder.supportsType(NotAnnotated.class));
+			assertNull(finder.findOrNull(NotAnnotated.class));
+		}
+		assertEquals(1, counting.supportsCount.get());
+		assertEquals(0, counting.findCount.get());
+	}
+
+	@Test
+	public void testCachedSupportsTypeHit() throws Exception {
+		CountingFinder counting = new CountingFinder();
+		var finder = JStachioTemplateFinder.cachedTemplateFinder(counting);
+		for (int i = 0; i < 3; i++) {
+			assertTrue(finder.supportsType(Annotated.class));
+		}
+		assertEquals(1, counting.supportsCount.get());
+		assertEquals(0, counting.findCount.get());
+		for (int i = 0; i < 3; i++) {
+			assertNotNull(finder.findTemplate(Annotated.class));
+		}
+		assertEquals(1, counting.findCount.get());
+	}
+
+	@Test(expected = NoSuchElementException.class)
+	public void testCachedFindTemplateMissThrows() throws Exception {
+		var finder = JStachioTemplateFinder.cachedTemplateFinder(new CountingFinder());
+		finder.findTemplate(NotAnnotated.class);
+	}
+
+	@Test
+	public void testDefaultFinderMissIsNull() throws Exception {
+		var finder = JStachioTemplateFinder.defaultTemplateFinder(k -> null);
+		assertNull(finder.findOrNull(NotAnnotated.class));
+		assertFalse(finder.supportsType(NotAnnotated.class));
+	}
+
+	@Test
+	public void testClassLoaderCached() throws Exception {
+		CountingFinder counting = new CountingFinder();
+		var finder = JStachioTemplateFinder.classLoaderCachedTemplateFinder(counting);
+		Thread thread = Thread.currentThread();
+		ClassLoader original = thread.getContextClassLoader();
+		try (URLClassLoader plugin = new URLClassLoader(new URL[] {}, original)) {
+			for (int i = 0; i < 3; i++) {
+				assertTrue(finder.supportsType(Annotated.class));
+			}
+			assertEquals(1, counting.supportsCount.get());
+			thread.setContextClassLoader(plugin);
+			for (int i = 0; i < 3; i++) {
+				assertTrue(finder.supportsType(Annotated.class));
+				assertNotNull(finder.findTemplate(Annotated.class));
+			}
+			assertEquals(2, counting.supportsCount.get());
+			assertEquals(1, counting.findCount.get());
+		}
+		finally {
+			thread.setContextClassLoader(original);
+		}
+	}
+
+	@Test
+	public void testClassLoaderCachedReleasesLoader() throws Exception {
+		var finder = JStachioTemplateFinder.classLoaderCachedTemplateFinder(new PluginFinder());
+		var plugin = findWithPlugin(finder);
+		for (int i = 0; i < 100 && plugin.get() != null; i++) {
+			System.gc();
+			Thread.sleep(10);
+		}
+		assertNull(plugin.get());
+		assertTrue(finder.supportsType(Annotated.class));
+	}
+
+	/*
+	 * In a separate method so no local variable of the test keeps the loader alive.
+	 */
+	private static WeakReference<ClassLoader> findWithPlugin(JStachioTemplateFinder finder) throws Exception {
+		Thread thread = Thread.currentThread();
+		ClassLoader original = thread.getContextClassLoader();
+		ClassLoader plugin = new PluginLoader(JStachioTemplateFinderTest.class.getClassLoader());
+		try {
+			thread.setContextClassLoader(plugin);
+			var template = finder.findTemplate(Annotated.class);
+			assertSame(plugin, template.getClass().getClassLoader());
+			assertSame(template, finder.findTemplate(Annotated.class));
+		}
+		finally {
+			thread.setContextClassLoader(original);
+		}
+		return new WeakReference<>(plugin);
+	}
+
+	@Test
+	public void testPrefetch() throws Exception {
+		CountingFinder counting = new CountingFinder();
+		var finder = JStachioTemplateFinder.cachedTemplateFinder(counting);
+		var failures = finder.prefetch(List.of(Annotated.class, NotAnnotated.class, Annotated.class));
+		assertEquals(Set.of(NotAnnotated.class), failures.keySet());
+		assertTrue(failures.get(NotAnnotated.class) instanceof NoSuchElementException);
+		/*
+		 * The miss is reported by the delegate
+		 */
+		assertEquals(2, counting.findCount.get());
+		assertNotNull(finder.findTemplate(Annotated.class));
+		assertEquals(2, counting.findCount.get());
+	}
+
+	static class CountingFinder implements JStachioTemplateFinder {
+
+		final AtomicInteger supportsCount = new AtomicInteger();
+
+		final AtomicInteger findCount = new AtomicInteger();
+
+		@Override
+		public TemplateInfo findTemplate(Class<?> modelType) throws Exception {
+			findCount.incrementAndGet();
+			if (modelType != Annotated.class) {
+				throw new TemplateNotFoundException(modelType);
+			}
+			return Templates.getInfoByReflection(modelType);
+		}
+
+		@Override
+		public boolean supportsType(Class<?> modelType) {
+			supportsCount.incrementAndGet();
+			return modelType == Annotated.class;
+		}
+
+		@Override
+		public @Nullable TemplateInfo findOrNull(Class<?> modelType) {
+			throw new UnsupportedOperationException();
+		}
+
+	}
+
+	/*
+	 * Finds a template of the context class loader like a plugin would provide.
+	 */
+	static class PluginFinder implements JStachioTemplateFinder {
+
+		@Override
+		public TemplateInfo findTemplate(Class<?> modelType) throws Exception {
+			var loader = Thread.currentThread().getContextClassLoader();
+			return (TemplateInfo) Class.forName(PluginTemplate.class.getName(), true, loader).getConstructor()
+					.newInstance();
+		}
+
+		@Override
+		public boolean supportsType(Class<?> modelType) {
+			return modelType == Annotated.class;
+		}
+
+		@Override
+		public @Nullable TemplateInfo findOrNull(Class<?> modelType) {
+			throw new UnsupportedOperationException();
+		}
+
+	}
+
+	/*
+	 * Defines its own copy of PluginTemplate.
+	 */
+	static class PluginLoader extends ClassLoader {
+
+		PluginLoader(ClassLoader parent) {
+			super(parent);
+		}
+
+		@Override
+		protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+			if (!name.equals(PluginTemplate.class.getName())) {
+				return super.loadClass(name, resolve);
+			}
+			synchronized (getClassLoadingLock(name)) {
+				Class<?> c = findLoadedClass(name);
+				if (c == null) {
+					try (InputStream is = getParent().getResourceAsStream(name.replace('.', '/') + ".class")) {
+						byte[] bytes = is.readAllBytes();
+						c = defineClass(name, bytes, 0, bytes.length);
+					}
+					catch (IOException e) {
+						throw new ClassNotFoundException(name, e);
+					}
+				}
+				return c;
+			}
+		}
+
+	}
+
+	public static class PluginTemplate implements TemplateInfo {
+
+		@Override
+		public String templateName() {
+			return "plugin";
+		}
+
+		@Override
+		public String templatePath() {
+			return "";
+		}
+
+		@Override
+		public Class<?> templateContentType() {
+			return Object.class;
+		}
+
+		@Override
+		public Charset templateCharset() {
+			return StandardCharsets.UTF_8;
+		}
+
+		@Override
+		public String templateMediaType() {
+			return "";
+		}
+
+		@Override
+		public Function<String, String> templateEscaper() {
+			return Function.identity();
+		}
+
+		@Override
+		public Function<@Nullable Object, String> templateFormatter() {
+			return String::valueOf;
+		}
+
+		/*
+		 * Annotated is not accessible from the plugin package.
+		 */
+		@Override
+		public boolean supportsType(Class<?> type) {
+			return true;
+		}
+
+		@Override
+		public Class<?> modelClass() {
+			return Object.class;
+		}
+
+	}
+
+	@JStache(template = "{{message}}")
+	record Annotated(String message) {
+	}
+
+	record NotAnnotated(String message) {
+	}
+
+}
@@ -34,6 +34,31 @@ public class TemplatesTest {
 		Templates.findJStache(NoJStache.class);
 	}
 
+	@Test
+	public void shouldThrowStacklessTemplateNotFound() throws Exception {
+		try {
+			Templates.getTemplate(ModelWithJStache.class);
+			fail("expected TemplateNotFoundException");
+		}
+		catch (TemplateNotFoundException e) {
+			assertEquals(0, e.getStackTrace().length);
+		}
+	}
+
+	@Test
+	public void shouldFallbackToReflectionWithoutGeneratedTemplate() throws Exception {
+		var info = Templates.findTemplateOrNull(ModelWithJStache.class, k -> null);
+		assertNotNull(info);
+		assertTrue(Templates.isReflectionTemplate(info));
+		assertNull(Templates.findTemplateOrNull(NoJStache.class, k -> null));
+	}
+
+	@Test
+	public void shouldNotFindWithoutGeneratedTemplateWhenReflectionDisabled() throws Exception {
+		JStachioConfig config = k -> JStachioConfig.REFLECTION_TEMPLATE_DISABLE.equals(k) ? "true" : null;
+		assertNull(Templates.findTemplateOrNull(ModelWithJStache.class, config));
+	}
+
 	@JStache
 	interface InterfaceModel {
 
@@ -2,8 +2,11 @@ package io.jstach.apt;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.stream.Collectors;
 
@@ -13,11 +16,23 @@ import javax.tools.FileObject;
 import io.jstach.apt.internal.LoggingSupport;
 import io.jstach.apt.internal.util.ClassRef;
 import io.jstach.apt.prism.Prisms;
+import io.jstach.apt.prism.Prisms.CatalogFlag;
 
 class CatalogClassWriter {
 
 	private final Set<String> templateClassNames = new TreeSet<>();
 
+	/*
+	 * model binary name -> renderer canonical name
+	 */
+	private final Map<String, String> dispatch = new TreeMap<>();
+
+	private final Set<String> rendererBinaryNames = new TreeSet<>();
+
+	private final Set<String> templatePaths = new TreeSet<>();
+
+	private final EnumSet<CatalogFlag> flags = EnumSet.noneOf(CatalogFlag.class);
+
 	private boolean dirty = true;
 
 	private final ClassRef catalogClass;
@@ -58,9 +73,91 @@ class CatalogClassWriter {
 		a.append("        return " + _List + ".of(//\n");
 		a.append(listTemplates("        new ", "(templateConfig)")).append(");\n");
 		a.append("    }\n");
+		if (flags.contains(CatalogFlag.GENERATE_STATIC_DISPATCH)) {
+			writeStaticDispatch(a);
+		}
+		a.append("}\n");
+	}
+
+	private void writeStaticDispatch(Appendable a) throws IOException {
+		String _List = List.class.getCanonicalName();
+		String _Template = Prisms.TEMPLATE_CLASS;
+		String _TemplateInfo = Prisms.TEMPLATE_INFO_CLASS;
+		a.append("\n");
+		a.append("    /**\n");
+		a.append("     * Statically wired template singletons.\n");
+		a.append("     */\n");
+		a.append("    private static final " + _List + "<" + _Template + "<?>> TEMPLATES = " + _List + ".of(//\n");
+		a.append(listTemplates("        ", ".of()")).append(");\n");
+		a.append("\n");
+		a.append("    @Override\n");
+		a.append("    public " + _List + "<" + _Template + "<?>> templates() {\n");
+		a.append("        return TEMPLATES;\n");
+		a.append("    }\n");
+		a.append("\n");
+		a.append("    @Override\n");
+		a.append("    public /* @Nullable */ " + _TemplateInfo + " findOrNull(Class<?> modelType) {\n");
+		a.append("        return switch (modelType.getName()) {\n");
+		for (var e : dispatch.entrySet()) {
+			a.append("            case \"" + e.getKey() + "\" -> " + e.getValue() + ".of();\n");
+		}
+		a.append("            default -> findSupported(modelType);\n");
+		a.append("        };\n");
+		a.append("    }\n");
+		a.append("\n");
+		a.append("    private static /* @Nullable */ " + _TemplateInfo + " findSupported(Class<?> modelType) {\n");
+		a.append("        for (var t : TEMPLATES) {\n");
+		a.append("            if (t.supportsType(modelType)) {\n");
+		a.append("                return t;\n");
+		a.append("            }\n");
+		a.append("        }\n");
+		a.append("        return null;\n");
+		a.append("    }\n");
+	}
+
+	void writeReflectConfig(Appendable a) throws IOException {
+		a.append("[\n");
+		a.append(rendererBinaryNames.stream() //
+				.map(n -> "  {\n" //
+						+ "    \"name\" : \"" + n + "\",\n" //
+						+ "    \"methods\" : [ { \"name\" : \"<init>\", \"parameterTypes\" : [ ] } ]\n" //
+						+ "  }") //
+				.collect(Collectors.joining(",\n")));
+		a.append("\n]\n");
+	}
+
+	void writeResourceConfig(Appendable a) throws IOException {
+		Set<String> resources = new TreeSet<>();
+		resources.add(ServicesFiles.getPath(Prisms.TEMPLATE_PROVIDER_CLASS));
+		resources.add(ServicesFiles.getPath(Prisms.JSTACHIO_EXTENSION_CLASS));
+		resources.addAll(templatePaths);
+		a.append("{\n");
+		a.append("  \"resources\" : {\n");
+		a.append("    \"includes\" : [\n");
+		a.append(resources.stream() //
+				.map(r -> "      { \"pattern\" : \"\\\\Q" + r + "\\\\E\" }") //
+				.collect(Collectors.joining(",\n")));
+		a.append("\n    ]\n");
+		a.append("  }\n");
 		a.append("}\n");
 	}
 
+	String nativeImagePath(String file) {
+		return "META-INF/native-image/io.jstach.catalog/" + catalogClass.getBinaryName() + "/" + file;
+	}
+
+	private void writeNativeImageConfig(Filer filer, LoggingSupport logging) throws IOException {
+		FileObject reflectFile = ServicesFiles.createResourceFile(filer, nativeImagePath("reflect-config.json"));
+		try (var w = reflectFile.openWriter()) {
+			writeReflectConfig(w);
+		}
+		FileObject resourceFile = ServicesFiles.createResourceFile(filer, nativeImagePath("resource-config.json"));
+		try (var w = resourceFile.openWriter()) {
+			writeResourceConfig(w);
+		}
+		logging.info("Wrote native image config for catalog class: " + catalogClass.requireCanonicalName());
+	}
+
 	public void write(Filer filer, LoggingSupport logging) {
 		try {
 			FileObject sourceFile = filer.createSourceFile(catalogClass.requireCanonicalName());
@@ -68,6 +165,9 @@ class CatalogClassWriter {
 				write(w);
 			}
 			logging.info("Wrote catalog class: " + catalogClass.requireCanonicalName());
+			if (flags.contains(CatalogFlag.GENERATE_NATIVE_IMAGE_CONFIG)) {
+				writeNativeImageConfig(filer, logging);
+			}
 		}
 		catch (IOException ioe) {
 			logging.error("error writing catalog class: ", ioe);
@@ -88,6 +188,24 @@ class CatalogClassWriter {
 		}
 	}
 
+	void addTemplate(ClassRef templateClass, ClassRef modelClass, String templatePath) {
+		this.templateClassNames.add(templateClass.requireCanonicalName());
+		this.rendererBinaryNames.add(templateClass.getBinaryName());
+		this.dispatch.put(modelClass.getBinaryName(), templateClass.requireCanonicalName());
+		/*
+		 * Fragment paths have the fragment name after a hash.
+		 */
+		int hash = templatePath.indexOf('#');
+		String resourcePath = hash < 0 ? templatePath : templatePath.substring(0, hash);
+		if (!resourcePath.isBlank()) {
+			this.templatePaths.add(resourcePath);
+		}
+	}
+
+	void addFlags(Collection<CatalogFlag> flags) {
+		this.flags.addAll(flags);
+	}
+
 	boolean addTemplateClasses(Collection<String> templateClassNames) {
 		boolean b = this.templateClassNames.addAll(templateClassNames);
 		if (b) {
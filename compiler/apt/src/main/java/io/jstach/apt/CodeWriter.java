@@ -36,11 +36,15 @@ import java.io.StringReader;
 import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import javax.lang.model.element.TypeElement;
 
+import org.eclipse.jdt.annotation.Nullable;
+
 import io.jstach.apt.TemplateCompilerLike.TemplateCompilerType;
 import io.jstach.apt.TemplateCompilerLike.TemplateLoader;
 import io.jstach.apt.internal.AnnotatedException;
@@ -53,6 +57,7 @@ import io.jstach.apt.internal.NamedTemplate.InlineTemplate;
 import io.jstach.apt.internal.ProcessingConfig;
 import io.jstach.apt.internal.ProcessingException;
 import io.jstach.apt.internal.context.RenderingCodeGenerator;
+import io.jstach.apt.internal.context.RenderingCodeGenerator.LambdaCache;
 import io.jstach.apt.internal.context.TemplateCompilerContext;
 import io.jstach.apt.internal.context.TemplateStack;
 import io.jstach.apt.internal.context.TemplateStack.RootTemplateStack;
@@ -73,6 +78,8 @@ class CodeWriter {
 
 	private final ProcessingConfig config;
 
+	private @Nullable MessageBundle messages;
+
 	CodeWriter(CodeAppendable writer, RenderingCodeGenerator codeGenerator, Map<String, NamedTemplate> partials,
 			ProcessingConfig config) {
 		this.writer = writer;
@@ -92,6 +99,14 @@ class CodeWriter {
 		codeGenerator.setFormatCallType(formatCallType);
 	}
 
+	List<LambdaCache> lambdaCaches() {
+		return codeGenerator.lambdaCaches();
+	}
+
+	void setMessages(@Nullable MessageBundle messages) {
+		this.messages = messages;
+	}
+
 	void println(String s) {
 		try {
 			writer.append(s).append("\n");
@@ -101,8 +116,27 @@ class CodeWriter {
 		}
 	}
 
+	void print(String s) {
+		try {
+			writer.append(s);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Names of partials that should not be generated as shared methods.
+	 * @return partial names
+	 */
+	Set<String> unsharedPartials() {
+		return partials.values().stream().filter(p -> !p.shared()).map(NamedTemplate::name)
+				.collect(Collectors.toUnmodifiableSet());
+	}
+
 	void compileTemplate(TextFileObject resource, TemplateCompilerContext context,
-			TemplateCompilerType templateCompilerType) throws IOException, ProcessingException {
+			TemplateCompilerType templateCompilerType, CodeAppendable writer, @Nullable PartialMethods partialMethods)
+			throws IOException, ProcessingException {
 
 		TemplateStack stack = context.getTemplateStack();
 		String templateName = stack.getTemplateName();
@@ -163,7 +197,7 @@ class CodeWriter {
 		};
 
 		try (TemplateCompiler templateCompiler = TemplateCompiler.createCompiler(templateName, templateLoader, writer,
-				context, templateCompilerType, config.flags())) {
+				context, templateCompilerType, config.flags(), partialMethods, messages)) {
 			templateCompiler.run();
 		}
 	}
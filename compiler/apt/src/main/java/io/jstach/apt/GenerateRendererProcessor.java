@@ -33,15 +33,20 @@ package io.jstach.apt;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.StringReader;
 import java.io.Writer;
 import java.lang.annotation.Inherited;
+import java.net.URISyntaxException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.EnumSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -89,6 +94,7 @@ import io.jstach.apt.internal.ProcessingConfig.PathConfig;
 import io.jstach.apt.internal.ProcessingException;
 import io.jstach.apt.internal.context.JavaLanguageModel;
 import io.jstach.apt.internal.context.RenderingCodeGenerator;
+import io.jstach.apt.internal.context.TextPool;
 import io.jstach.apt.internal.meta.ElementMessage;
 import io.jstach.apt.internal.util.ClassRef;
 import io.jstach.apt.internal.util.Throwables;
@@ -98,6 +104,7 @@ import io.jstach.apt.prism.JStacheConfigPrism;
 import io.jstach.apt.prism.JStacheConfigPrism.JStacheName;
 import io.jstach.apt.prism.JStacheContentTypePrism;
 import io.jstach.apt.prism.JStacheFlagsPrism;
+import io.jstach.apt.prism.JStacheMessagesPrism;
 import io.jstach.apt.prism.JStacheFormatterPrism;
 import io.jstach.apt.prism.JStacheFormatterTypesPrism;
 import io.jstach.apt.prism.JStacheInterfacesPrism;
@@ -134,6 +141,16 @@ public class GenerateRendererProcessor extends AbstractProcessor implements Pris
 
 	Set<CatalogRef> catalogClasses = Collections.newSetFromMap(new ConcurrentHashMap<>());
 
+	/*
+	 * catalog class -> shared text pool
+	 */
+	Map<ClassRef, TextPool> textPools = new ConcurrentHashMap<>();
+
+	/*
+	 * Shared partial classes already written by this compilation.
+	 */
+	Set<String> partialClasses = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
 	boolean catalogGenerated = false;
 
 	private static String formatErrorMessage(Position position, @Nullable String message) {
@@ -226,7 +243,17 @@ public class GenerateRendererProcessor extends AbstractProcessor implements Pris
 				JStacheCatalogPrism jstacheCatalog = JStacheCatalogPrism.getInstanceOn(packageElement);
 				String catalogName = jstacheCatalog.name();
 				var classRef = ClassRef.of(packageElement, catalogName);
-				catalogClasses.add(new CatalogRef(jstacheCatalog, classRef, packageElement));
+				var catalogRef = new CatalogRef(jstacheCatalog, classRef, packageElement);
+				catalogClasses.add(catalogRef);
+				if (catalogRef.flags().contains(CatalogFlag.GENERATE_TEXT_POOL)) {
+					/*
+					 * The pool does not depend on the templates so it is written right
+					 * away and templates of later rounds can use it as well.
+					 */
+					var pool = new TextPool(classRef.getPackageName(), classRef.getSimpleName() + "TextPool");
+					textPools.put(classRef, pool);
+					writeTextPool(pool, catalogRef);
+				}
 				found = true;
 			}
 
@@ -260,13 +287,57 @@ public class GenerateRendererProcessor extends AbstractProcessor implements Pris
 		for (var cat : catalogClasses) {
 			var cc = cat.classRef();
 			CatalogClassWriter cw = new CatalogClassWriter(cc.getPackageName(), cc.getSimpleName());
-			cw.addAll(rendererClasses.stream()
-					.filter(js -> js.jstachio() && (js.pub() || js.classRef().isSamePackage(cc)))
-					.map(js -> js.classRef()).toList());
+			rendererClasses.stream() //
+					.filter(js -> js.jstachio() && (js.pub() || js.classRef().isSamePackage(cc))) //
+					.forEach(js -> cw.addTemplate(js.classRef(), js.modelClassRef(), js.templatePath()));
+			cw.addFlags(cat.flags());
 			cw.write(processingEnv.getFiler(), cat.logging());
 		}
 	}
 
+	private void writeTextPool(TextPool pool, CatalogRef cat) {
+		try {
+			JavaFileObject sourceFile = processingEnv.getFiler().createSourceFile(pool.canonicalName(), cat.element());
+			try (var w = sourceFile.openWriter()) {
+				pool.write(w);
+			}
+			cat.logging().info("Wrote text pool class: " + pool.canonicalName());
+		}
+		catch (IOException ioe) {
+			cat.logging().error("error writing text pool class: ", ioe);
+		}
+	}
+
+	/*
+	 * Renderers of a package that include the same partial with the same context type
+	 * generate the same class so only the first one writes it.
+	 */
+	private void writePartialClasses(TemplateClassWriter writer, TypeElement element) throws IOException {
+		for (var entry : writer.partialClasses().entrySet()) {
+			if (!partialClasses.add(entry.getKey())) {
+				continue;
+			}
+			JavaFileObject sourceFile = processingEnv.getFiler().createSourceFile(entry.getKey(), element);
+			try (OutputStream stream = sourceFile.openOutputStream();
+					Writer outputWriter = new OutputStreamWriter(stream, StandardCharsets.UTF_8);) {
+				outputWriter.append(entry.getValue());
+			}
+		}
+	}
+
+	/*
+	 * The most specific pool of the catalogs enclosing the template package.
+	 */
+	private @Nullable TextPool textPool(ClassRef rendererClass) {
+		return textPools.entrySet().stream() //
+				.filter(e -> rendererClass.getPackageName().equals(e.getKey().getPackageName())
+						|| rendererClass.getPackageName().startsWith(e.getKey().getPackageName() + ".")
+						|| e.getKey().getPackageName().isEmpty()) //
+				.max(Comparator.comparingInt(e -> e.getKey().getPackageName().length())) //
+				.map(Map.Entry::getValue) //
+				.orElse(null);
+	}
+
 	@Nullable
 	JStachePathPrism pathInstanceOn(Element element) {
 		var prism = JStachePathPrism.getInstanceOn(element);
@@ -394,7 +465,8 @@ public class GenerateRendererProcessor extends AbstractProcessor implements Pris
 				String name = tp.name();
 				assert name != null;
 				String template = tp.template();
-				nt = resolveNamedTemplate(name, path, template, element, prism.mirror);
+				nt = resolveNamedTemplate(name, path, template, element, prism.mirror,
+						!Boolean.FALSE.equals(tp.shared()));
 				paths.putIfAbsent(name, nt);
 			}
 		}
@@ -402,17 +474,17 @@ public class GenerateRendererProcessor extends AbstractProcessor implements Pris
 	}
 
 	private static NamedTemplate resolveNamedTemplate(String name, @Nullable String path, @Nullable String template,
-			TypeElement element, AnnotationMirror annotationMirror) {
+			TypeElement element, AnnotationMirror annotationMirror, boolean shared) {
 		NamedTemplate nt;
 		assert name != null;
 		if (path != null && !path.isBlank()) {
-			nt = new NamedTemplate.FileTemplate(name, path, element, annotationMirror);
+			nt = new NamedTemplate.FileTemplate(name, path, element, annotationMirror, shared);
 		}
 		else if (template != null && !template.isEmpty()) {
-			nt = new NamedTemplate.InlineTemplate(name, template, element, annotationMirror);
+			nt = new NamedTemplate.InlineTemplate(name, template, element, annotationMirror, shared);
 		}
 		else {
-			nt = new NamedTemplate.FileTemplate(name, name, element, annotationMirror);
+			nt = new NamedTemplate.FileTemplate(name, name, element, annotationMirror, shared);
 
 		}
 		return nt;
@@ -561,7 +633,9 @@ public class GenerateRendererProcessor extends AbstractProcessor implements Pris
 			Optional<TypeElement> formatterTypeElement, //
 			Map<String, NamedTemplate> partials, //
 			InterfacesConfig ifaces, //
-			String nullableAnnotation, Set<Flag> flags, Map<String, String> options) implements ProcessingConfig {
+			String nullableAnnotation, Set<Flag> flags, Map<String, String> options, //
+			List<String> fragments, //
+			Optional<MessageBundle.Config> messages) implements ProcessingConfig {
 
 		public NamedTemplate namedTemplate() {
 			String name;
@@ -581,10 +655,48 @@ public class GenerateRendererProcessor extends AbstractProcessor implements Pris
 						: folder + "/" + element.getSimpleName();
 				name = path;
 			}
-			return resolveNamedTemplate(name, path, template, element, annotationMirror);
+			return resolveNamedTemplate(name, path, template, element, annotationMirror, true);
 
 		}
 
+		/**
+		 * The template of a fragment that has an entry point in the renderer.
+		 * @param fragment fragment name
+		 * @return the fragment of the template
+		 * @throws AnnotatedException if the fragment cannot be found
+		 */
+		public NamedTemplate fragmentTemplate(String fragment) throws AnnotatedException {
+			NamedTemplate namedTemplate = namedTemplate();
+			if (namedTemplate instanceof NamedTemplate.FileTemplate ft) {
+				if (ft.path().contains("#")) {
+					throw new AnnotatedException(element,
+							"Fragments cannot be declared for a template that is already a fragment: " + ft.path());
+				}
+				return new NamedTemplate.FileTemplate(ft.name() + "#" + fragment, ft.path() + "#" + fragment, element,
+						annotationMirror);
+			}
+			else if (namedTemplate instanceof NamedTemplate.InlineTemplate it) {
+				/*
+				 * Inline templates are not resolved as URIs so the fragment is extracted
+				 * here.
+				 */
+				var processor = new FragmentTokenProcessor(fragment, this);
+				String content;
+				try {
+					content = processor.run(new NamedReader(new StringReader(it.template()), it.name(), "INLINE"));
+				}
+				catch (ProcessingException | IOException e) {
+					throw new AnnotatedException(element,
+							"Fragment \"" + fragment + "\" could not be parsed: " + e.getMessage());
+				}
+				if (!processor.wasFound()) {
+					throw new AnnotatedException(element, "Fragment \"" + fragment + "\" not found in template.");
+				}
+				return new NamedTemplate.InlineTemplate(it.name() + "#" + fragment, content, element, annotationMirror);
+			}
+			throw new IllegalStateException();
+		}
+
 		@Override
 		public String resourcesPath() {
 			String path = options.get(JSTACHE_RESOURCES_PATH_OPTION);
@@ -656,6 +768,15 @@ public class GenerateRendererProcessor extends AbstractProcessor implements Pris
 		FormatterTypes formatterTypes = resolveFormatterTypes(element, formatterElement);
 		Map<String, NamedTemplate> partials = resolvePartials(element);
 		Set<Flag> flags = resolveFlags(options, element);
+		if (flags.contains(Flag.MINIFY_HTML) && !isHtml(contentTypeElement)) {
+			/*
+			 * The flag is usually set for a whole package or module which may have non
+			 * HTML templates.
+			 */
+			var f = EnumSet.copyOf(flags);
+			f.remove(Flag.MINIFY_HTML);
+			flags = Collections.unmodifiableSet(f);
+		}
 		String nullableAnnotation = resolveNullableAnnotation(element);
 		var model = new RendererModel( //
 				formatCallType, //
@@ -672,10 +793,60 @@ public class GenerateRendererProcessor extends AbstractProcessor implements Pris
 				partials, //
 				ifaces, //
 				nullableAnnotation, flags, //
-				options);
+				options, //
+				resolveFragments(element, gp), //
+				resolveMessages(element));
 		return model;
 	}
 
+	private Optional<MessageBundle.Config> resolveMessages(TypeElement element) throws AnnotatedException {
+		JStacheMessagesPrism prism = findPrisms(element, JStacheMessagesPrism::getInstanceOn).findFirst().orElse(null);
+		if (prism == null) {
+			return Optional.empty();
+		}
+		String bundle = prism.bundle();
+		if (bundle.isBlank()) {
+			throw new AnnotatedException(element, "Message bundle name should not be blank");
+		}
+		List<Locale> locales = new ArrayList<>();
+		for (String tag : prism.locales()) {
+			Locale locale = Locale.forLanguageTag(tag);
+			if (locale.getLanguage().isEmpty()) {
+				throw new AnnotatedException(element, "Message locale is not a valid language tag: " + tag);
+			}
+			if (locales.contains(locale)) {
+				throw new AnnotatedException(element, "Message locale is declared more than once: " + tag);
+			}
+			locales.add(locale);
+		}
+		return Optional.of(new MessageBundle.Config(bundle, List.copyOf(locales)));
+	}
+
+	private static List<String> resolveFragments(TypeElement element, JStachePrism gp) throws AnnotatedException {
+		List<String> fragments = gp.fragments();
+		if (fragments == null) {
+			return List.of();
+		}
+		Set<String> seen = new LinkedHashSet<>();
+		for (String fragment : fragments) {
+			if (fragment.isBlank()) {
+				throw new AnnotatedException(element, "Fragment names should not be blank");
+			}
+			if (!seen.add(fragment)) {
+				throw new AnnotatedException(element, "Fragment is declared more than once: " + fragment);
+			}
+		}
+		return List.copyOf(seen);
+	}
+
+	private static boolean isHtml(@Nullable TypeElement contentTypeElement) {
+		if (contentTypeElement == null) {
+			return false;
+		}
+		var prism = JStacheContentTypePrism.getInstanceOn(contentTypeElement);
+		return prism != null && prism.mediaType().toLowerCase(Locale.ROOT).contains("html");
+	}
+
 	private FormatCallType resolveFormatCallType(TypeElement element) {
 		JStacheType type = findPrisms(element, JStacheConfigPrism::getInstanceOn) //
 				.map(config -> JStacheType.valueOf(config.type())).filter(t -> !JStacheType.UNSPECIFIED.equals(t))
@@ -828,9 +999,10 @@ public class GenerateRendererProcessor extends AbstractProcessor implements Pris
 			TextFileObject templateResource = new TextFileObject(config, Objects.requireNonNull(processingEnv));
 			JavaLanguageModel javaModel = JavaLanguageModel.getInstance();
 			RenderingCodeGenerator codeGenerator = RenderingCodeGenerator.createInstance(javaModel,
-					model.formatterTypes(), model.formatCallType());
+					model.formatterTypes(), model.formatCallType(), model.flags());
 			CodeWriter codeWriter = new CodeWriter(codeAppendable, codeGenerator, model.partials(), config);
-			TemplateClassWriter writer = new TemplateClassWriter(codeWriter, templateResource, model.formatCallType());
+			TemplateClassWriter writer = new TemplateClassWriter(codeWriter, templateResource, model.formatCallType(),
+					textPool(model.rendererClassRef()));
 
 			writer.writeRenderableAdapterClass(model);
 
@@ -843,6 +1015,7 @@ public class GenerateRendererProcessor extends AbstractProcessor implements Pris
 					Writer outputWriter = new OutputStreamWriter(stream, StandardCharsets.UTF_8);) {
 				outputWriter.append(stringWriter.toString());
 			}
+			writePartialClasses(writer, element);
 
 			boolean pub = element.getModifiers().contains(Modifier.PUBLIC);
 			boolean jstachio = switch (model.formatCallType()) {
@@ -851,7 +1024,10 @@ public class GenerateRendererProcessor extends AbstractProcessor implements Pris
 				case JSTACHIO_BYTE -> throw new IllegalStateException();
 			};
 
-			return new JStacheRef(model.rendererClassRef(), pub, jstachio);
+			String templatePath = model.path().isBlank() ? ""
+					: model.pathConfig().resolveTemplatePath(model.namedTemplate()).toString();
+
+			return new JStacheRef(model.rendererClassRef(), ClassRef.of(element), templatePath, pub, jstachio);
 		}
 		catch (ProcessingException ex) {
 			if (config != null) {
@@ -863,7 +1039,7 @@ public class GenerateRendererProcessor extends AbstractProcessor implements Pris
 		catch (DeclarationException ex) {
 			errors.add(ElementMessage.of(element, ex.toString()));
 		}
-		catch (IOException ex) {
+		catch (IOException | URISyntaxException ex) {
 			errors.add(ElementMessage.of(element, Throwables.render(ex)));
 		}
 		catch (RuntimeException ex) {
@@ -872,7 +1048,7 @@ public class GenerateRendererProcessor extends AbstractProcessor implements Pris
 		return null;
 	}
 
-	record JStacheRef(ClassRef classRef, boolean pub, boolean jstachio) {
+	record JStacheRef(ClassRef classRef, ClassRef modelClassRef, String templatePath, boolean pub, boolean jstachio) {
 	}
 
 	record CatalogRef(JStacheCatalogPrism prism, ClassRef classRef, Element element) {
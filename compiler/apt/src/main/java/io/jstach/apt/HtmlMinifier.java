@@ -0,0 +1,287 @@
+package io.jstach.apt;
+
+import java.util.Locale;
+import java.util.Set;
+
+import io.jstach.apt.internal.CodeAppendable;
+
+/**
+ * Minifies the static HTML text of a template at compile time. Whitespace runs are
+ * collapsed to a single space or newline which also removes indentation and blank lines
+ * and comments are removed. The content of <code>pre</code>, <code>textarea</code>,
+ * <code>script</code> and <code>style</code> elements and quoted attribute values are
+ * left as is.
+ * <p>
+ * The minifier is given the static text between mustache tags one run at a time and keeps
+ * the HTML state between runs so it knows for example that a run is inside a
+ * <code>pre</code> element. Whitespace is never removed across runs because a tag in
+ * between might render content. Comments containing mustache tags are kept.
+ */
+final class HtmlMinifier {
+
+	private static final Set<String> RAW_ELEMENTS = Set.of("pre", "textarea", "script", "style");
+
+	enum State {
+
+		TEXT, TAG, COMMENT, KEPT_COMMENT, RAW
+
+	}
+
+	private State state = State.TEXT;
+
+	private char quote = 0;
+
+	private final StringBuilder tagName = new StringBuilder();
+
+	private boolean readingTagName = false;
+
+	private boolean closingTag = false;
+
+	private String rawElement = "";
+
+	/*
+	 * Whether the output is at the start of a line so that whitespace is indentation.
+	 */
+	private boolean lineStart = true;
+
+	State state() {
+		return state;
+	}
+
+	/**
+	 * A detached copy of the current state for compiling text that might be discarded.
+	 * @return copy that does not change this minifier.
+	 */
+	HtmlMinifier copy() {
+		var m = new HtmlMinifier();
+		m.restore(this);
+		return m;
+	}
+
+	/**
+	 * Continues with the state of the given minifier for example a copy that has minified
+	 * text that is kept.
+	 * @param other minifier whose state is taken.
+	 */
+	void restore(HtmlMinifier other) {
+		this.state = other.state;
+		this.quote = other.quote;
+		this.tagName.setLength(0);
+		this.tagName.append(other.tagName);
+		this.readingTagName = other.readingTagName;
+		this.closingTag = other.closingTag;
+		this.rawElement = other.rawElement;
+		this.lineStart = other.lineStart;
+	}
+
+	/**
+	 * Called when something that is not static text like a variable is rendered.
+	 */
+	void dynamicContent() {
+		lineStart = false;
+	}
+
+	/**
+	 * Minifies Java escaped static text as accumulated by the template compiler.
+	 * @param code Java escaped text without the surrounding quotes.
+	 * @return minified Java escaped text.
+	 */
+	String minifyJava(String code) {
+		String text = CodeAppendable.stringLiteralConcatValue(CodeAppendable.stringLiteralConcat(code));
+		return javaEscaped(minify(text));
+	}
+
+	/**
+	 * Minifies a run of static text.
+	 * @param text static text between mustache tags.
+	 * @return minified text.
+	 */
+	String minify(String text) {
+		StringBuilder out = new StringBuilder(text.length());
+		StringBuilder comment = new StringBuilder();
+		int i = 0;
+		int length = text.length();
+		while (i < length) {
+			char c = text.charAt(i);
+			switch (state) {
+				case TEXT -> {
+					if (isWhitespace(c)) {
+						int end = i;
+						boolean newline = false;
+						while (end < length && isWhitespace(text.charAt(end))) {
+							newline |= text.charAt(end) == '\n';
+							end++;
+						}
+						int last = out.length() - 1;
+						if (lineStart) {
+							/*
+							 * Indentation and blank lines.
+							 */
+						}
+						else if (last >= 0 && isWhitespace(out.charAt(last))) {
+							/*
+							 * Only whitespace around a removed comment.
+							 */
+							if (newline) {
+								out.setCharAt(last, '\n');
+								lineStart = true;
+							}
+						}
+						else {
+							out.append(newline ? '\n' : ' ');
+							lineStart = newline;
+						}
+						i = end;
+						continue;
+					}
+					if (text.startsWith("<!--", i)) {
+						/*
+						 * Conditional comments are kept.
+						 */
+						if (text.startsWith("<!--[", i)) {
+							state = State.KEPT_COMMENT;
+							out.append("<!--");
+							lineStart = false;
+						}
+						else {
+							state = State.COMMENT;
+							comment.append("<!--");
+						}
+						i += 4;
+						continue;
+					}
+					if (c == '<' && i + 1 < length && isTagStart(text.charAt(i + 1))) {
+						state = State.TAG;
+						tagName.setLength(0);
+						readingTagName = true;
+						closingTag = text.charAt(i + 1) == '/';
+						quote = 0;
+					}
+					out.append(c);
+					lineStart = false;
+				}
+				case TAG -> {
+					if (quote != 0) {
+						if (c == quote) {
+							quote = 0;
+						}
+						out.append(c);
+					}
+					else if (c == '"' || c == '\'') {
+						quote = c;
+						readingTagName = false;
+						out.append(c);
+					}
+					else if (isWhitespace(c)) {
+						int end = i;
+						while (end < length && isWhitespace(text.charAt(end))) {
+							end++;
+						}
+						readingTagName = false;
+						out.append(' ');
+						i = end;
+						continue;
+					}
+					else if (c == '>') {
+						out.append(c);
+						String name = tagName.toString().toLowerCase(Locale.ROOT);
+						if (!closingTag && RAW_ELEMENTS.contains(name)) {
+							state = State.RAW;
+							rawElement = name;
+						}
+						else {
+							state = State.TEXT;
+						}
+					}
+					else {
+						if (readingTagName) {
+							if (Character.isLetterOrDigit(c) || c == '-' || c == ':') {
+								tagName.append(c);
+							}
+							else if (!(c == '/' && tagName.isEmpty())) {
+								readingTagName = false;
+							}
+						}
+						out.append(c);
+					}
+				}
+				case COMMENT -> {
+					comment.append(c);
+					if (c == '>' && endsWith(comment, "-->")) {
+						comment.setLength(0);
+						state = State.TEXT;
+					}
+				}
+				case KEPT_COMMENT -> {
+					out.append(c);
+					if (c == '>' && endsWith(out, "-->")) {
+						state = State.TEXT;
+					}
+				}
+				case RAW -> {
+					int end = indexOfIgnoreCase(text, "</" + rawElement, i);
+					if (end < 0) {
+						out.append(text, i, length);
+						i = length;
+					}
+					else {
+						out.append(text, i, end);
+						state = State.TEXT;
+						i = end;
+					}
+					lineStart = false;
+					continue;
+				}
+			}
+			i++;
+		}
+		if (state == State.COMMENT) {
+			/*
+			 * The comment continues after a mustache tag which might render so we keep
+			 * it.
+			 */
+			out.append(comment);
+			state = State.KEPT_COMMENT;
+			lineStart = false;
+		}
+		return out.toString();
+	}
+
+	private static boolean isTagStart(char c) {
+		return Character.isLetter(c) || c == '/' || c == '!' || c == '?';
+	}
+
+	private static boolean isWhitespace(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f';
+	}
+
+	private static boolean endsWith(StringBuilder sb, String suffix) {
+		int start = sb.length() - suffix.length();
+		return start >= 0 && sb.indexOf(suffix, start) == start;
+	}
+
+	private static int indexOfIgnoreCase(String text, String s, int from) {
+		for (int i = from; i <= text.length() - s.length(); i++) {
+			if (text.regionMatches(true, i, s, 0, s.length())) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static String javaEscaped(String s) {
+		StringBuilder sb = new StringBuilder(s.length());
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			switch (c) {
+				case '"' -> sb.append("\\\"");
+				case '\\' -> sb.append("\\\\");
+				case '\n' -> sb.append("\\n");
+				case '\r' -> sb.append("\\r");
+				default -> sb.append(c);
+			}
+		}
+		return sb.toString();
+	}
+
+}
@@ -0,0 +1,298 @@
+package io.jstach.apt;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.ResourceBundle;
+import java.util.stream.Collectors;
+
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.util.ElementFilter;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import io.jstach.apt.internal.context.JavaLanguageModel;
+
+/**
+ * Messages of a <code>.properties</code> resource bundle resolved for every supported
+ * locale while compiling so that message tags can be compiled like inline partials.
+ * <p>
+ * Bundle files are only read when a message tag is used.
+ */
+final class MessageBundle {
+
+	/**
+	 * The prefix of variable tags that are message tags.
+	 */
+	static final String TAG_PREFIX = "@msg.";
+
+	static final String LOCALE_METHOD = "messageLocale";
+
+	private static final ResourceBundle.Control control = ResourceBundle.Control
+			.getControl(ResourceBundle.Control.FORMAT_PROPERTIES);
+
+	private final Config config;
+
+	private final TypeElement element;
+
+	private final TextFileObject resources;
+
+	/*
+	 * resource name -> properties if the file exists
+	 */
+	private final Map<String, Optional<Properties>> files = new HashMap<>();
+
+	private boolean used;
+
+	/**
+	 * Resolved bundle configuration.
+	 * @param bundle dot separated base name of the bundle.
+	 * @param locales supported locales in order of declaration.
+	 */
+	record Config(String bundle, List<Locale> locales) {
+	}
+
+	/**
+	 * A message compiled for some of the locales.
+	 * @param name name used for the compiled message in errors.
+	 * @param template the message as a mustache template.
+	 * @param locales indexes of the supported locales or empty if this is the message of
+	 * the base bundle which is used for all other locales.
+	 */
+	record Variant(String name, String template, List<Integer> locales) {
+
+		boolean isDefault() {
+			return locales.isEmpty();
+		}
+
+	}
+
+	MessageBundle(Config config, TypeElement element, TextFileObject resources) {
+		this.config = config;
+		this.element = element;
+		this.resources = resources;
+	}
+
+	static boolean isMessageTag(String name) {
+		return name.startsWith(TAG_PREFIX);
+	}
+
+	/**
+	 * Whether a message tag was compiled and thus the locale method is needed.
+	 * @return true if messages were used.
+	 */
+	boolean isUsed() {
+		return used;
+	}
+
+	/**
+	 * Resolves a message for every supported locale. Locales with the same message as the
+	 * base bundle are not returned as they use the default variant which is always last.
+	 * @param key message key.
+	 * @return variants of the message.
+	 * @throws IOException if the base bundle is missing.
+	 * @throws IllegalArgumentException if the message is missing or is not supported.
+	 */
+	List<Variant> variants(String key) throws IOException {
+		String base = message(Locale.ROOT, key);
+		if (base == null) {
+			throw new IllegalArgumentException(
+					"Message key \"" + key + "\" is missing from bundle \"" + config.bundle() + "\"");
+		}
+		/*
+		 * message -> locale indexes
+		 */
+		Map<String, List<Integer>> grouped = new LinkedHashMap<>();
+		var locales = config.locales();
+		for (int i = 0; i < locales.size(); i++) {
+			String m = message(locales.get(i), key);
+			if (m != null && !m.equals(base)) {
+				grouped.computeIfAbsent(m, k -> new ArrayList<>()).add(i);
+			}
+		}
+		List<Variant> variants = new ArrayList<>();
+		for (var e : grouped.entrySet()) {
+			var indexes = e.getValue();
+			String tags = indexes.stream().map(i -> locales.get(i).toLanguageTag()).collect(Collectors.joining(","));
+			variants.add(new Variant(TAG_PREFIX + key + "[" + tags + "]", template(e.getKey()), List.copyOf(indexes)));
+		}
+		variants.add(new Variant(TAG_PREFIX + key, template(base), List.of()));
+		return variants;
+	}
+
+	/**
+	 * The code that picks the variant.
+	 * @param rootExpression expression of the model.
+	 * @return code that returns the index of the locale or -1 for the base bundle.
+	 * @throws IllegalArgumentException if the model does not have a locale method.
+	 */
+	String localeIndexCode(String rootExpression) {
+		boolean found = ElementFilter.methodsIn(JavaLanguageModel.getInstance().getElements().getAllMembers(element))
+				.stream().anyMatch(this::isLocaleMethod);
+		if (!found) {
+			throw new IllegalArgumentException("Model \"" + element.getQualifiedName()
+					+ "\" needs a no argument locale() method returning java.util.Locale to use messages");
+		}
+		used = true;
+		return LOCALE_METHOD + "(" + rootExpression + ".locale())";
+	}
+
+	private boolean isLocaleMethod(ExecutableElement method) {
+		if (!method.getSimpleName().contentEquals("locale") || !method.getParameters().isEmpty()
+				|| method.getReturnType().getKind() != TypeKind.DECLARED) {
+			return false;
+		}
+		var model = JavaLanguageModel.getInstance();
+		var locale = model.getElements().getTypeElement(Locale.class.getName());
+		return locale != null && model.getTypes().isSameType(method.getReturnType(), locale.asType());
+	}
+
+	/**
+	 * Generates the static method that maps a locale to the index of a supported locale
+	 * first by language tag and then by language only locales.
+	 * @return method code.
+	 */
+	String localeMethod() {
+		var locales = config.locales();
+		StringBuilder sb = new StringBuilder();
+		sb.append("    private static int " + LOCALE_METHOD + "(java.util.Locale locale) {\n");
+		sb.append("        if (locale == null) {\n");
+		sb.append("            return -1;\n");
+		sb.append("        }\n");
+		sb.append("        switch (locale.toLanguageTag()) {\n");
+		for (int i = 0; i < locales.size(); i++) {
+			sb.append("            case \"" + locales.get(i).toLanguageTag() + "\": return " + i + ";\n");
+		}
+		sb.append("            default: break;\n");
+		sb.append("        }\n");
+		sb.append("        switch (locale.getLanguage()) {\n");
+		for (int i = 0; i < locales.size(); i++) {
+			var locale = locales.get(i);
+			if (locale.toLanguageTag().equals(locale.getLanguage())) {
+				sb.append("            case \"" + locale.getLanguage() + "\": return " + i + ";\n");
+			}
+		}
+		sb.append("            default: return -1;\n");
+		sb.append("        }\n");
+		sb.append("    }\n");
+		return sb.toString();
+	}
+
+	/*
+	 * Follows the candidate files of ResourceBundle for example messages_fr_CA,
+	 * messages_fr and then messages.
+	 */
+	private @Nullable String message(Locale locale, String key) throws IOException {
+		for (Locale candidate : control.getCandidateLocales(config.bundle(), locale)) {
+			String name = control.toResourceName(control.toBundleName(config.bundle(), candidate), "properties");
+			var properties = properties(name, candidate.equals(Locale.ROOT));
+			if (properties != null) {
+				String m = properties.getProperty(key);
+				if (m != null) {
+					return m;
+				}
+			}
+		}
+		return null;
+	}
+
+	private @Nullable Properties properties(String name, boolean required) throws IOException {
+		var p = files.get(name);
+		if (p == null) {
+			p = load(name, required);
+			files.put(name, p);
+		}
+		return p.orElse(null);
+	}
+
+	private Optional<Properties> load(String name, boolean required) throws IOException {
+		InputStream is;
+		try {
+			is = resources.openInputStream(name);
+		}
+		catch (IOException | IllegalArgumentException e) {
+			if (required) {
+				throw new IOException("Message bundle \"" + name + "\" was not found", e);
+			}
+			return Optional.empty();
+		}
+		try (Reader reader = new InputStreamReader(is, StandardCharsets.UTF_8)) {
+			Properties properties = new Properties();
+			properties.load(reader);
+			return Optional.of(properties);
+		}
+	}
+
+	/**
+	 * Converts a message in MessageFormat syntax to a template. Quoting follows
+	 * MessageFormat and arguments are template variables except for <code>{0}</code>
+	 * which is the current context.
+	 * @param message the message.
+	 * @return template
+	 * @throws IllegalArgumentException if the message uses format types or literal
+	 * braces.
+	 */
+	static String template(String message) {
+		StringBuilder sb = new StringBuilder(message.length() + 8);
+		boolean quoted = false;
+		int length = message.length();
+		for (int i = 0; i < length; i++) {
+			char c = message.charAt(i);
+			if (c == '\'') {
+				if (i + 1 < length && message.charAt(i + 1) == '\'') {
+					sb.append(c);
+					i++;
+				}
+				else {
+					quoted = !quoted;
+				}
+			}
+			else if (c == '{' && !quoted) {
+				int end = message.indexOf('}', i);
+				if (end < 0) {
+					throw new IllegalArgumentException("Unmatched brace in message: " + message);
+				}
+				sb.append("{{").append(argument(message, message.substring(i + 1, end).trim())).append("}}");
+				i = end;
+			}
+			else if (c == '{' || c == '}') {
+				/*
+				 * Literal braces could be parsed as part of a tag.
+				 */
+				throw new IllegalArgumentException("Literal braces are not supported in message: " + message);
+			}
+			else {
+				sb.append(c);
+			}
+		}
+		return sb.toString();
+	}
+
+	private static String argument(String message, String argument) {
+		if (argument.isEmpty() || argument.indexOf(',') >= 0 || argument.indexOf('{') >= 0) {
+			throw new IllegalArgumentException(
+					"Message arguments should be a name or {0} without a format type: " + message);
+		}
+		if (Character.isDigit(argument.charAt(0))) {
+			if (!argument.equals("0")) {
+				throw new IllegalArgumentException(
+						"Only {0} (the current context) can be used as an indexed argument: " + message);
+			}
+			return ".";
+		}
+		return argument;
+	}
+
+}
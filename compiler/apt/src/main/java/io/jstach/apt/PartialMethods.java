@@ -0,0 +1,205 @@
+package io.jstach.apt;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import io.jstach.apt.internal.context.LocalVariable;
+import io.jstach.apt.internal.context.VariableContext;
+
+/**
+ * Collects partials of a render method that are generated as classes of the renderer
+ * package with a static method that every inclusion calls instead of inlining the
+ * partial.
+ * <p>
+ * A partial is compiled on its own against the type of the object of the context it is
+ * included in (the model at the root or for example the element of a list) so the code
+ * only depends on the partial, the context type and the configuration of the template.
+ * Every renderer of the package that includes the same partial with the same context type
+ * generates the same class and calls the same method. The class name ends with a hash of
+ * the code so that different code never gets the same name and renderers compiled
+ * separately (incremental builds) link against the class they generated.
+ */
+final class PartialMethods {
+
+	private static final int HASH_LENGTH = 8;
+
+	private final String packageName;
+
+	private final String methodName;
+
+	private final String signature;
+
+	private final String parameters;
+
+	private final String arguments;
+
+	private final @Nullable String charsetCode;
+
+	private final Set<String> inlined;
+
+	/*
+	 * canonical name -> source
+	 */
+	private final Map<String, String> classes = new LinkedHashMap<>();
+
+	/**
+	 * Creates a registry for a render method.
+	 * @param packageName package of the renderer and the generated classes.
+	 * @param methodName name of the generated method usually <code>render</code> or
+	 * <code>encode</code>.
+	 * @param signature modifiers, type parameters and return type of the method.
+	 * @param parameters the parameters that follow the model parameter including the
+	 * closing parenthesis, throws clause and opening brace.
+	 * @param arguments the argument names that follow the model argument separated by
+	 * comma.
+	 * @param charsetCode code of the charset of pre-encoded text or <code>null</code> if
+	 * text is not pre-encoded.
+	 * @param inlined names of partials that should always be inlined.
+	 */
+	PartialMethods(String packageName, String methodName, String signature, String parameters, String arguments,
+			@Nullable String charsetCode, Set<String> inlined) {
+		this.packageName = packageName;
+		this.methodName = methodName;
+		this.signature = signature;
+		this.parameters = parameters;
+		this.arguments = arguments;
+		this.charsetCode = charsetCode;
+		this.inlined = inlined;
+	}
+
+	boolean isInlined(String partialName) {
+		return inlined.contains(partialName);
+	}
+
+	/**
+	 * The writer for the code of a partial that is compiled on its own.
+	 * @param model the model parameter of the generated method.
+	 * @return writer that splits the generated method.
+	 */
+	SectionMethods createWriter(LocalVariable model) {
+		return new SectionMethods(methodName, model.name() + ", " + arguments);
+	}
+
+	/**
+	 * Registers the compiled partial.
+	 * @param partialName name of the partial.
+	 * @param model the model parameter of the generated method.
+	 * @param argument the expression passed as model.
+	 * @param writer the writer the partial was compiled with.
+	 * @param variables the variables the partial was compiled with.
+	 * @return the code that calls the method.
+	 */
+	String register(String partialName, LocalVariable model, String argument, SectionMethods writer,
+			VariableContext variables) {
+		String type = model.type();
+		if (type == null) {
+			throw new IllegalArgumentException("model type cannot be written in code");
+		}
+		String code = writer.finish();
+		String modelParameter = "\n        " + type + " " + model.name() + ",";
+		StringBuilder members = new StringBuilder();
+		var textVariables = variables.textVariables();
+		if (!textVariables.isEmpty()) {
+			if (charsetCode == null) {
+				throw new IllegalStateException("text is pre-encoded without a charset");
+			}
+			members.append("    private static final java.nio.charset.Charset TEMPLATE_CHARSET = ").append(charsetCode)
+					.append(";\n");
+			members.append("\n");
+			var textPool = variables.textPool();
+			for (var entry : textVariables) {
+				String text = entry.getValue();
+				String init = textPool != null && textPool.shares(text) ? textPool.initializer(text)
+						: "(" + text + ").getBytes(TEMPLATE_CHARSET)";
+				members.append("    private static final byte[] ").append(entry.getKey()).append(" = ").append(init)
+						.append(";\n");
+			}
+			members.append("\n");
+		}
+		members.append("    ").append(signature).append(methodName).append("(").append(modelParameter);
+		members.append(parameters).append("\n");
+		members.append(code).append("\n");
+		members.append("    }\n");
+		/*
+		 * The parameters end with the closing parenthesis and throws clause.
+		 */
+		int close = parameters.lastIndexOf(')');
+		String head = parameters.substring(0, close);
+		String tail = parameters.substring(close);
+		for (var method : writer.methods()) {
+			members.append("\n");
+			members.append("    private ").append(signature).append(method.name()).append("(");
+			members.append(modelParameter).append(head);
+			for (var p : method.parameters()) {
+				members.append(", ").append(p.type()).append(" ").append(p.name());
+			}
+			members.append(tail).append("\n");
+			members.append(method.body()).append("\n");
+			members.append("    }\n");
+		}
+		String comment = "/**\n" //
+				+ " * Generated code of the partial \"" + partialName.replace("*/", "*&#47;") + "\" for\n" //
+				+ " * <code>" + type.replace("<", "&lt;").replace(">", "&gt;") + "</code>.\n" //
+				+ " */\n" //
+				+ "// @javax.annotation.Generated(\"" + GenerateRendererProcessor.class.getName() + "\")\n";
+		String simpleName = "Partial_" + javaIdentifier(partialName) + "_" + simpleTypeName(type) + "_"
+				+ hash(packageName + "\n" + comment + members);
+		StringBuilder source = new StringBuilder();
+		if (!packageName.isEmpty()) {
+			source.append("package ").append(packageName).append(";\n");
+			source.append("\n");
+		}
+		source.append(comment);
+		source.append("final class ").append(simpleName).append(" {\n");
+		source.append("\n");
+		source.append("    private ").append(simpleName).append("() {\n");
+		source.append("    }\n");
+		source.append("\n");
+		source.append(members);
+		source.append("\n");
+		source.append("}\n");
+		classes.putIfAbsent(packageName.isEmpty() ? simpleName : packageName + "." + simpleName, source.toString());
+		return simpleName + "." + methodName + "(" + argument + ", " + arguments + ");";
+	}
+
+	/**
+	 * Generated partial classes.
+	 * @return canonical class name to source code.
+	 */
+	Map<String, String> classes() {
+		return classes;
+	}
+
+	static String javaIdentifier(String name) {
+		StringBuilder sb = new StringBuilder(name.length());
+		for (int i = 0; i < name.length(); i++) {
+			char c = name.charAt(i);
+			sb.append(Character.isJavaIdentifierPart(c) ? c : '_');
+		}
+		return sb.toString();
+	}
+
+	private static String simpleTypeName(String type) {
+		int generic = type.indexOf('<');
+		String raw = generic < 0 ? type : type.substring(0, generic);
+		return javaIdentifier(raw.substring(raw.lastIndexOf('.') + 1));
+	}
+
+	static String hash(String code) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(code.getBytes(StandardCharsets.UTF_8));
+			return HexFormat.of().formatHex(digest).substring(0, HASH_LENGTH);
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
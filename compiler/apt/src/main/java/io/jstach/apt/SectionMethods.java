@@ -0,0 +1,568 @@
+package io.jstach.apt;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import io.jstach.apt.internal.CodeAppendable;
+import io.jstach.apt.internal.context.LocalVariable;
+
+/**
+ * The code writer of a render method that moves section bodies and runs of statements
+ * into private static methods so that HotSpot will JIT compile them. HotSpot will not
+ * compile methods whose bytecode is larger than 8000 bytes
+ * (<code>-XX:-DontCompileHugeMethods</code>).
+ * <p>
+ * The template compiler tells this writer where sections begin and end, which local
+ * variables the begin code of a section declares (loop element, index etc) and which
+ * hoisted variables are declared before a section. It also adds an estimate of the
+ * bytecode size for everything it generates. When the template is done the code is laid
+ * out bottom up: if a block is estimated to be over the limit the largest section bodies
+ * become methods that are called with the render method parameters and the enclosing
+ * local variables they use. If that is not enough the remaining statements are packed
+ * into methods in order. Hoisted declarations stay in the calling method so that
+ * following statements can still use them.
+ */
+final class SectionMethods implements CodeAppendable {
+
+	/**
+	 * HotSpot's <code>HugeMethodLimit</code>.
+	 */
+	static final int HUGE_METHOD_LIMIT = 8000;
+
+	/**
+	 * The estimated size budget of a method. It is lower than the huge method limit
+	 * because the estimate is rough.
+	 */
+	static final int METHOD_LIMIT = 6000;
+
+	/**
+	 * Estimate of writing static text.
+	 */
+	static final int TEXT_SIZE = 12;
+
+	/**
+	 * Estimate of formatting and escaping a variable.
+	 */
+	static final int VARIABLE_SIZE = 32;
+
+	/**
+	 * Estimate of the begin and end code of a section (null checks and loops).
+	 */
+	static final int SECTION_SIZE = 48;
+
+	/**
+	 * Estimate of a hoisted local variable declaration.
+	 */
+	static final int DECLARATION_SIZE = 12;
+
+	/**
+	 * Estimate of a lambda call without its template.
+	 */
+	static final int LAMBDA_SIZE = 24;
+
+	/**
+	 * Estimate of a call to a generated method with the render method parameters.
+	 */
+	static final int CALL_SIZE = 16;
+
+	/**
+	 * Smaller section bodies are not worth a call for every iteration and are left to be
+	 * packed with the statements around them.
+	 */
+	static final int SECTION_METHOD_MIN = METHOD_LIMIT / 8;
+
+	private static final String BODY_INDENT = "        ";
+
+	/**
+	 * A generated method.
+	 * @param name method name.
+	 * @param parameters local variables passed in addition to the render method
+	 * parameters.
+	 * @param body code.
+	 * @param estimatedSize estimated bytecode size.
+	 */
+	record Method(String name, List<LocalVariable> parameters, String body, int estimatedSize) {
+	}
+
+	private enum Kind {
+
+		/**
+		 * Root of the render method. Only the render method parameters are in scope.
+		 */
+		ROOT,
+		/**
+		 * The body of a section that can become a method.
+		 */
+		SECTION,
+		/**
+		 * Code that has to stay together like a switch.
+		 */
+		GROUP
+
+	}
+
+	/*
+	 * A part is code, declarations of hoisted variables or a nested block.
+	 */
+	private static final class Part {
+
+		private final StringBuilder code = new StringBuilder();
+
+		private int size;
+
+		private final List<LocalVariable> declares;
+
+		private final @Nullable Block block;
+
+		Part(List<LocalVariable> declares, @Nullable Block block) {
+			this.declares = declares;
+			this.block = block;
+		}
+
+	}
+
+	private static final class Block {
+
+		private final Kind kind;
+
+		private final List<LocalVariable> variables;
+
+		private final List<Part> parts = new ArrayList<>();
+
+		Block(Kind kind, List<LocalVariable> variables) {
+			this.kind = kind;
+			this.variables = variables;
+		}
+
+	}
+
+	/*
+	 * A laid out part. Groups have children and are never split.
+	 */
+	private static final class Item {
+
+		private String code;
+
+		private int size;
+
+		private final List<LocalVariable> declares;
+
+		/*
+		 * Variables in scope of the item if it is a section body
+		 */
+		private final @Nullable List<LocalVariable> scope;
+
+		private final List<Item> children;
+
+		Item(String code, int size, List<LocalVariable> declares, @Nullable List<LocalVariable> scope,
+				List<Item> children) {
+			this.code = code;
+			this.size = size;
+			this.declares = declares;
+			this.scope = scope;
+			this.children = children;
+		}
+
+		String code() {
+			if (children.isEmpty()) {
+				return code;
+			}
+			return SectionMethods.code(children);
+		}
+
+		int size() {
+			if (children.isEmpty()) {
+				return size;
+			}
+			return SectionMethods.size(children);
+		}
+
+		void sections(List<Item> sections) {
+			if (scope != null) {
+				sections.add(this);
+			}
+			for (var c : children) {
+				c.sections(sections);
+			}
+		}
+
+	}
+
+	private final @Nullable String prefix;
+
+	private final String arguments;
+
+	private final Deque<Block> blocks = new ArrayDeque<>();
+
+	private @Nullable Part part;
+
+	private final List<Method> methods = new ArrayList<>();
+
+	private int lastSize;
+
+	/**
+	 * Creates a writer that splits the render method.
+	 * @param prefix name prefix of generated methods usually the name of the render
+	 * method.
+	 * @param arguments the render method parameter names separated by comma.
+	 */
+	SectionMethods(String prefix, String arguments) {
+		this.prefix = prefix;
+		this.arguments = arguments;
+		blocks.push(new Block(Kind.ROOT, List.of()));
+	}
+
+	/**
+	 * Creates a writer that never splits but still estimates the size. Used for code that
+	 * is not directly in a render method like the template of a lambda.
+	 */
+	SectionMethods() {
+		this.prefix = null;
+		this.arguments = "";
+		blocks.push(new Block(Kind.ROOT, List.of()));
+	}
+
+	private Block block() {
+		var b = blocks.peek();
+		if (b == null) {
+			throw new IllegalStateException("writer is finished");
+		}
+		return b;
+	}
+
+	private Part part() {
+		var p = part;
+		if (p == null) {
+			p = new Part(List.of(), null);
+			block().parts.add(p);
+			part = p;
+		}
+		return p;
+	}
+
+	@Override
+	public SectionMethods append(@Nullable CharSequence csq) {
+		part().code.append(csq);
+		return this;
+	}
+
+	@Override
+	public SectionMethods append(@Nullable CharSequence csq, int start, int end) {
+		part().code.append(csq, start, end);
+		return this;
+	}
+
+	@Override
+	public SectionMethods append(char c) {
+		part().code.append(c);
+		return this;
+	}
+
+	/**
+	 * Adds to the estimated bytecode size of the code being written.
+	 * @param size estimate in bytes
+	 */
+	void estimate(int size) {
+		part().size += size;
+	}
+
+	/**
+	 * The code written until {@link #endDeclarations()} declares hoisted local variables.
+	 * @param variables the declared variables.
+	 */
+	void beginDeclarations(List<LocalVariable> variables) {
+		var p = new Part(List.copyOf(variables), null);
+		p.size = DECLARATION_SIZE * variables.size();
+		block().parts.add(p);
+		part = p;
+	}
+
+	void endDeclarations() {
+		part = null;
+	}
+
+	/**
+	 * The code written so far ends with complete statements so that following code can be
+	 * in another method.
+	 */
+	void endStatement() {
+		part = null;
+	}
+
+	/**
+	 * Starts the body of a section after its begin code.
+	 * @param variables local variables declared by the begin code of the section.
+	 */
+	void enterSection(List<LocalVariable> variables) {
+		enter(new Block(Kind.SECTION, List.copyOf(variables)));
+	}
+
+	/**
+	 * Starts code that cannot be split but whose nested sections still can.
+	 */
+	void enterGroup() {
+		enter(new Block(Kind.GROUP, List.of()));
+	}
+
+	private void enter(Block b) {
+		block().parts.add(new Part(List.of(), b));
+		part = null;
+		blocks.push(b);
+	}
+
+	/**
+	 * Ends a section or group.
+	 */
+	void exit() {
+		var b = blocks.pop();
+		if (b.kind == Kind.ROOT) {
+			throw new IllegalStateException("unbalanced sections");
+		}
+		part = null;
+	}
+
+	/**
+	 * Lays out the code of the render method.
+	 * @return the body of the render method.
+	 */
+	String finish() {
+		if (blocks.size() != 1) {
+			throw new IllegalStateException("unbalanced sections");
+		}
+		var b = blocks.pop();
+		part = null;
+		return layout(b, List.of());
+	}
+
+	/**
+	 * The estimated size of the code returned by {@link #finish()}.
+	 * @return size in bytes
+	 */
+	int estimatedSize() {
+		return lastSize;
+	}
+
+	/**
+	 * The generated methods.
+	 * @return methods in the order they were generated.
+	 */
+	List<Method> methods() {
+		return List.copyOf(methods);
+	}
+
+	private String layout(Block b, List<LocalVariable> scope) {
+		var items = items(b, scope);
+		lastSize = size(items);
+		return code(items);
+	}
+
+	private List<Item> items(Block b, List<LocalVariable> enclosingScope) {
+		List<LocalVariable> scope = scope(b, enclosingScope);
+		List<Item> items = new ArrayList<>();
+		for (Part p : b.parts) {
+			var child = p.block;
+			if (child == null) {
+				items.add(new Item(p.code.toString(), p.size, p.declares, null, List.of()));
+				scope.addAll(p.declares);
+			}
+			else if (child.kind == Kind.SECTION) {
+				var childItems = items(child, scope);
+				List<LocalVariable> childScope = new ArrayList<>(scope);
+				childScope.addAll(child.variables);
+				items.add(new Item(code(childItems), size(childItems), List.of(), childScope, List.of()));
+			}
+			else {
+				items.add(new Item("", 0, List.of(), null, items(child, scope)));
+			}
+		}
+		if (prefix == null || b.kind == Kind.GROUP) {
+			return items;
+		}
+		/*
+		 * The largest section bodies become methods first as the body of a loop is the
+		 * most likely to be hot.
+		 */
+		List<Item> sections = new ArrayList<>();
+		for (var i : items) {
+			i.sections(sections);
+		}
+		sections.sort(Comparator.comparingInt(Item::size).reversed());
+		for (Item section : sections) {
+			if (size(items) <= METHOD_LIMIT || section.size < SECTION_METHOD_MIN) {
+				break;
+			}
+			var sectionScope = section.scope;
+			if (sectionScope == null) {
+				continue;
+			}
+			String call = extract(section.code, section.size, sectionScope);
+			if (call != null) {
+				section.code = call;
+				section.size = CALL_SIZE;
+			}
+		}
+		if (size(items) <= METHOD_LIMIT) {
+			return items;
+		}
+		return chunk(scope(b, enclosingScope), items);
+	}
+
+	private static List<LocalVariable> scope(Block b, List<LocalVariable> enclosingScope) {
+		List<LocalVariable> scope = new ArrayList<>();
+		if (b.kind != Kind.ROOT) {
+			scope.addAll(enclosingScope);
+		}
+		scope.addAll(b.variables);
+		return scope;
+	}
+
+	/*
+	 * Packs statements in order into methods. Declarations are not moved into the methods
+	 * but are declared before the call of the method that comes after them.
+	 */
+	private List<Item> chunk(List<LocalVariable> scope, List<Item> items) {
+		List<Item> result = new ArrayList<>();
+		List<Item> chunk = new ArrayList<>();
+		for (Item item : items) {
+			if (!item.declares.isEmpty()) {
+				result.add(item);
+				scope.addAll(item.declares);
+				continue;
+			}
+			if (!chunk.isEmpty() && size(chunk) + item.size() > METHOD_LIMIT) {
+				flush(chunk, scope, result);
+			}
+			chunk.add(item);
+		}
+		flush(chunk, scope, result);
+		return result;
+	}
+
+	private void flush(List<Item> chunk, List<LocalVariable> scope, List<Item> result) {
+		if (chunk.size() > 1) {
+			String call = extract(code(chunk), size(chunk), scope);
+			if (call != null) {
+				result.add(new Item(call, CALL_SIZE, List.of(), null, List.of()));
+				chunk.clear();
+				return;
+			}
+		}
+		result.addAll(chunk);
+		chunk.clear();
+	}
+
+	/*
+	 * Returns the call of the method or null if the code uses a variable that cannot be a
+	 * parameter.
+	 */
+	private @Nullable String extract(String code, int size, List<LocalVariable> scope) {
+		List<LocalVariable> parameters = new ArrayList<>();
+		for (LocalVariable v : scope) {
+			if (!references(code, v.name())) {
+				continue;
+			}
+			if (!v.isParameter()) {
+				return null;
+			}
+			parameters.add(v);
+		}
+		String body = dedent(code);
+		/*
+		 * Identical code like a partial inlined more than once shares a method.
+		 */
+		String name = null;
+		for (var m : methods) {
+			if (m.body().equals(body) && m.parameters().equals(parameters)) {
+				name = m.name();
+				break;
+			}
+		}
+		if (name == null) {
+			name = prefix + "__" + methods.size();
+			methods.add(new Method(name, List.copyOf(parameters), body, size));
+		}
+		StringBuilder call = new StringBuilder();
+		call.append(name).append("(").append(arguments);
+		for (var p : parameters) {
+			call.append(", ").append(p.name());
+		}
+		call.append(");");
+		return "\n" + indentOf(code) + call + "\n";
+	}
+
+	/*
+	 * Whether the identifier occurs in the code. Comments and string literals might give
+	 * false positives which only add an unused parameter.
+	 */
+	static boolean references(String code, String identifier) {
+		int i = code.indexOf(identifier);
+		while (i >= 0) {
+			int end = i + identifier.length();
+			boolean start = i == 0 || !Character.isJavaIdentifierPart(code.charAt(i - 1));
+			boolean stop = end == code.length() || !Character.isJavaIdentifierPart(code.charAt(end));
+			if (start && stop) {
+				return true;
+			}
+			i = code.indexOf(identifier, end);
+		}
+		return false;
+	}
+
+	/*
+	 * Replaces the indentation that all lines have in common with the indentation of a
+	 * method body. Generated string literals never span lines so this does not change
+	 * them.
+	 */
+	static String dedent(String code) {
+		String indent = indentOf(code);
+		StringBuilder sb = new StringBuilder(code.length());
+		for (String line : code.split("\n", -1)) {
+			if (!line.isBlank()) {
+				sb.append(BODY_INDENT).append(line, indent.length(), line.length());
+			}
+			sb.append("\n");
+		}
+		sb.setLength(sb.length() - 1);
+		return sb.toString();
+	}
+
+	private static String indentOf(String code) {
+		@Nullable
+		String indent = null;
+		for (String line : code.split("\n")) {
+			if (line.isBlank()) {
+				continue;
+			}
+			int i = 0;
+			while (i < line.length() && line.charAt(i) == ' ') {
+				i++;
+			}
+			if (indent == null || i < indent.length()) {
+				indent = line.substring(0, i);
+			}
+		}
+		return indent == null ? "" : indent;
+	}
+
+	private static int size(List<Item> items) {
+		int size = 0;
+		for (var i : items) {
+			size += i.size();
+		}
+		return size;
+	}
+
+	private static String code(List<Item> items) {
+		StringBuilder sb = new StringBuilder();
+		for (var i : items) {
+			sb.append(i.code());
+		}
+		return sb.toString();
+	}
+
+}
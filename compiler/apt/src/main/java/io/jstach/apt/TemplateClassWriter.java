@@ -19,6 +19,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.EnumMap;
 import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -47,8 +48,12 @@ import io.jstach.apt.internal.NamedTemplate;
 import io.jstach.apt.internal.ProcessingException;
 import io.jstach.apt.internal.context.JavaLanguageModel;
 import io.jstach.apt.internal.context.TemplateCompilerContext;
+import io.jstach.apt.internal.context.TemplateSize;
+import io.jstach.apt.internal.context.TextBlob;
+import io.jstach.apt.internal.context.TextPool;
 import io.jstach.apt.internal.context.VariableContext;
 import io.jstach.apt.internal.context.VariableContext.NullChecking;
+import io.jstach.apt.internal.escape.EscapeUtils;
 import io.jstach.apt.internal.util.ClassRef;
 import io.jstach.apt.internal.util.ToStringTypeVisitor;
 import io.jstach.apt.prism.JStacheContentTypePrism;
@@ -76,10 +81,27 @@ class TemplateClassWriter implements LoggingSupplier {
 
 	final String _Charset = Charset.class.getName();
 
+	static final String FRAGMENT_RENDER = "renderFragment";
+
+	static final String FRAGMENT_ENCODE = "encodeFragment";
+
+	private final @Nullable TextPool textPool;
+
+	/*
+	 * canonical name -> source of shared partial classes
+	 */
+	private final Map<String, String> partialClasses = new LinkedHashMap<>();
+
 	TemplateClassWriter(CodeWriter compilerManager, TextFileObject templateLoader, FormatCallType formatCallType) {
+		this(compilerManager, templateLoader, formatCallType, null);
+	}
+
+	TemplateClassWriter(CodeWriter compilerManager, TextFileObject templateLoader, FormatCallType formatCallType,
+			@Nullable TextPool textPool) {
 		this.codeWriter = compilerManager;
 		this.templateLoader = templateLoader;
 		this.formatCallType = formatCallType;
+		this.textPool = textPool;
 	}
 
 	@Override
@@ -87,10 +109,24 @@ class TemplateClassWriter implements LoggingSupplier {
 		return codeWriter.getConfig();
 	}
 
+	/**
+	 * The classes of shared partials the written renderer calls. Renderers of the same
+	 * package generate the same class for the same partial and context type so the class
+	 * only needs to be written once.
+	 * @return canonical class name to source code
+	 */
+	Map<String, String> partialClasses() {
+		return partialClasses;
+	}
+
 	void println(String s) {
 		codeWriter.println(s);
 	}
 
+	void print(String s) {
+		codeWriter.print(s);
+	}
+
 	/*
 	 * This is used for JStacheInterfaces that provide superclasses or interfaces with
 	 * methods that will not generate if they are there.
@@ -172,6 +208,9 @@ class TemplateClassWriter implements LoggingSupplier {
 
 		boolean preEncode = !model.flags().contains(Prisms.Flag.PRE_ENCODE_DISABLE);
 
+		MessageBundle messages = model.messages().map(m -> new MessageBundle(m, element, templateLoader)).orElse(null);
+		codeWriter.setMessages(messages);
+
 		List<String> interfaces = new ArrayList<>();
 		if (jstachio) {
 			if (preEncode) {
@@ -649,13 +688,86 @@ class TemplateClassWriter implements LoggingSupplier {
 		println("    }");
 		println("");
 		writeExtendsConstructors(extendsElement, rendererClassSimpleName);
-		writeRendererDefinitionMethod(TemplateCompilerType.SIMPLE, model);
+		TemplateSize templateSize = writeRendererDefinitionMethod(TemplateCompilerType.SIMPLE, model);
+		if (formatCallType == FormatCallType.JSTACHIO) {
+			writeTemplateSize(templateSize, model);
+		}
+		writeFragments(model, className, preEncode, templateFormatterExp, templateEscaperExp, templateAppenderExp);
 		if (preEncode) {
 			writeRendererDefinitionMethodStream(TemplateCompilerType.SIMPLE, model);
 		}
+		if (messages != null && messages.isUsed()) {
+			println("");
+			print(messages.localeMethod());
+		}
+		writeLambdaCaches();
 		println("}");
 	}
 
+	/*
+	 * The results of pure lambdas are kept in direct mapped tables of immutable entries
+	 * so concurrent renders can read and replace entries without locking and a hit does
+	 * not allocate. Entries match on the identity of the object the lambda was called on
+	 * and only weakly reference it and the argument so the static tables do not keep
+	 * models alive.
+	 */
+	private void writeLambdaCaches() {
+		var caches = codeWriter.lambdaCaches();
+		if (caches.isEmpty()) {
+			return;
+		}
+		println("");
+		for (var cache : caches) {
+			println("    private static final LambdaCache " + cache.name() + " = new LambdaCache(" + cache.size()
+					+ ");");
+		}
+		println("");
+		println("    private static final class LambdaCache {");
+		println("");
+		println("        private static final class Entry {");
+		println("");
+		println("            final java.lang.ref.WeakReference<Object> receiver;");
+		println("");
+		println("            final java.lang.ref.WeakReference<Object> key;");
+		println("");
+		println("            final Object value;");
+		println("");
+		println("            Entry(Object receiver, Object key, Object value) {");
+		println("                this.receiver = new java.lang.ref.WeakReference<>(receiver);");
+		println("                this.key = new java.lang.ref.WeakReference<>(key);");
+		println("                this.value = value;");
+		println("            }");
+		println("");
+		println("        }");
+		println("");
+		println("        private final Entry[] table;");
+		println("");
+		println("        LambdaCache(int size) {");
+		println("            this.table = new Entry[size];");
+		println("        }");
+		println("");
+		println("        private int index(Object receiver, Object key) {");
+		println("            int h = 31 * System.identityHashCode(receiver) + key.hashCode();");
+		println("            return (h ^ (h >>> 16)) & (table.length - 1);");
+		println("        }");
+		println("");
+		println("        Object get(Object receiver, Object key) {");
+		println("            Entry e = table[index(receiver, key)];");
+		println("            if (e == null || e.receiver.get() != receiver) {");
+		println("                return null;");
+		println("            }");
+		println("            return key.equals(e.key.get()) ? e.value : null;");
+		println("        }");
+		println("");
+		println("        void put(Object receiver, Object key, Object value) {");
+		println("            if (value != null) {");
+		println("                table[index(receiver, key)] = new Entry(receiver, key, value);");
+		println("            }");
+		println("        }");
+		println("");
+		println("    }");
+	}
+
 	private void writeExtendsConstructors(@Nullable TypeElement extendsElement, String rendererClassSimpleName) {
 		if (extendsElement == null) {
 			return;
@@ -748,7 +860,14 @@ class TemplateClassWriter implements LoggingSupplier {
 		}
 	}
 
-	private void writeRendererDefinitionMethod(TemplateCompilerType templateCompilerType, RendererModel model)
+	private TemplateSize writeRendererDefinitionMethod(TemplateCompilerType templateCompilerType, RendererModel model)
+			throws IOException, ProcessingException, AnnotatedException {
+		return writeRendererDefinitionMethod(templateCompilerType, model, model.namedTemplate(), null, "render",
+				"__render");
+	}
+
+	private TemplateSize writeRendererDefinitionMethod(TemplateCompilerType templateCompilerType, RendererModel model,
+			NamedTemplate namedTemplate, @Nullable String fragment, String methodName, String bodyName)
 			throws IOException, ProcessingException, AnnotatedException {
 
 		boolean jstachio = formatCallType == FormatCallType.JSTACHIO;
@@ -769,7 +888,12 @@ class TemplateClassWriter implements LoggingSupplier {
 		String _A = "<A extends " + _Output + "<E>, E extends Exception>";
 
 		println("    /**");
-		println("     * Renders the passed in model.");
+		if (fragment == null) {
+			println("     * Renders the passed in model.");
+		}
+		else {
+			println("     * Renders the fragment \"" + fragment + "\" of the passed in model.");
+		}
 		if (jstachio) {
 			println("     * @param <A> appendable type.");
 			println("     * @param <E> error type.");
@@ -787,26 +911,184 @@ class TemplateClassWriter implements LoggingSupplier {
 			println("     * @throws java.io.IOException if an error occurs while writing to the appendable");
 		}
 		println("     */");
+		String params;
+		String args;
+		String modifiers;
 		if (jstachio) {
-			println("    public static " + _A + " void render(" //
-					+ idt + className + " " + dataName + ", " //
-					+ idt + "A" + " " + variables.unescapedWriter() + "," //
+			params = idt + "A" + " " + variables.unescapedWriter() + "," //
 					+ idt + _Formatter + " " + variables.formatter() + "," //
 					+ idt + _Escaper + " " + variables.escaper() + "," //
-					+ idt + _Appender + " " + variables.appender() + ") throws E {");
+					+ idt + _Appender + " " + variables.appender() + ") throws E {";
+			args = variables.unescapedWriter() + ", " + variables.formatter() + ", " + variables.escaper() + ", "
+					+ variables.appender();
+			modifiers = "static " + _A + " void ";
 		}
 		else {
-			println("    public static  void render(" //
-					+ idt + className + " " + dataName + ", " //
-					+ idt + _Appendable + " " + variables.unescapedWriter() + "," //
+			params = idt + _Appendable + " " + variables.unescapedWriter() + "," //
 					+ idt + _Formatter + " " + variables.formatter() + "," //
-					+ idt + _Escaper + " " + variables.escaper() + ") throws java.io.IOException {");
+					+ idt + _Escaper + " " + variables.escaper() + ") throws java.io.IOException {";
+			args = variables.unescapedWriter() + ", " + variables.formatter() + ", " + variables.escaper();
+			modifiers = "static  void ";
+		}
+		String dataParam = idt + className + " " + dataName + ", ";
+		println("    public " + modifiers + methodName + "(" + dataParam + params);
+		TemplateCompilerContext context = codeWriter.createTemplateContext(namedTemplate, element, dataName, variables,
+				model.flags());
+		PartialMethods partialMethods = new PartialMethods(model.rendererClassRef().getPackageName(), "render",
+				modifiers, params, args, null, codeWriter.unsharedPartials());
+		writeRendererBody(templateCompilerType, context, bodyName, "    private " + modifiers, dataParam + params,
+				dataName + ", " + args, partialMethods);
+		return variables.templateSize();
+	}
+
+	/*
+	 * Each fragment gets its own static render methods like the whole template so
+	 * rendering a fragment does not evaluate the rest of the template. The fragment is
+	 * selected by name at runtime with a switch.
+	 */
+	private void writeFragments(RendererModel model, String className, boolean preEncode, String templateFormatterExp,
+			String templateEscaperExp, String templateAppenderExp)
+			throws IOException, ProcessingException, AnnotatedException {
+		var fragments = model.fragments();
+		if (fragments.isEmpty()) {
+			return;
+		}
+		boolean jstachio = formatCallType == FormatCallType.JSTACHIO;
+		for (int i = 0; i < fragments.size(); i++) {
+			String fragment = fragments.get(i);
+			println("");
+			writeRendererDefinitionMethod(TemplateCompilerType.SIMPLE, model, model.fragmentTemplate(fragment),
+					fragment, FRAGMENT_RENDER + i, "__renderFragment" + i + "_");
 		}
-		TemplateCompilerContext context = codeWriter.createTemplateContext(model.namedTemplate(), element, dataName,
-				variables, model.flags());
-		codeWriter.compileTemplate(templateLoader, context, templateCompilerType);
+		String names = fragments.stream().map(TemplateClassWriter::javaString).collect(Collectors.joining(", "));
+		String notFound = "throw new java.util.NoSuchElementException(\"Template \" + TEMPLATE_NAME + \" does not have fragment: \" + fragment);";
+		println("");
+		println("    /**");
+		println("     * Fragments with render methods.");
+		println("     * @hidden");
+		println("     */");
+		println("    public static final java.util.Set<String> TEMPLATE_FRAGMENTS = java.util.Set.of(" + names + ");");
 		println("");
+		if (jstachio) {
+			String _A = "<A extends " + _Output + "<E>, E extends Exception>";
+			println("    @Override");
+			println("    public java.util.Set<String> templateFragments() {");
+			println("        return TEMPLATE_FRAGMENTS;");
+			println("    }");
+			println("");
+			println("    @Override");
+			println("    public " + _A + " A executeFragment(" //
+					+ idt + "String fragment, " //
+					+ idt + className + " model, " //
+					+ idt + "A" + " a) throws E {");
+			writeFragmentSwitch(fragments, FRAGMENT_RENDER,
+					"model, a, " + templateFormatterExp + ", " + templateEscaperExp + ", " + templateAppenderExp,
+					notFound);
+			println("        return a;");
+			println("    }");
+			if (preEncode) {
+				String _EncodedOutput = "<A extends " + Prisms.ENCODED_OUTPUT_CLASS + "<E>, E extends Exception>";
+				println("");
+				println("    @Override");
+				println("    public " + _EncodedOutput + " A writeFragment(" //
+						+ idt + "String fragment, " //
+						+ idt + className + " model, " //
+						+ idt + "A" + " outputStream) throws E {");
+				writeFragmentSwitch(fragments, FRAGMENT_ENCODE, "model, outputStream, " + templateFormatterExp + ", "
+						+ templateEscaperExp + ", " + templateAppenderExp, notFound);
+				println("        return outputStream;");
+				println("    }");
+			}
+		}
+		else {
+			println("    /**");
+			println("     * Renders only the named fragment of the passed in model.");
+			println("     * @param fragment one of the fragments of the template.");
+			println("     * @param model a model assumed never to be <code>null</code>.");
+			println("     * @param a the appendable to write to.");
+			println("     * @throws IOException if there is an error writing to the appendable");
+			println("     */");
+			println("    public void executeFragment(String fragment, " + className + " model, " + _Appendable
+					+ " a) throws java.io.IOException {");
+			writeFragmentSwitch(fragments, FRAGMENT_RENDER,
+					"model, a, " + templateFormatterExp + ", " + templateEscaperExp, notFound);
+			println("    }");
+		}
+		println("");
+	}
+
+	private void writeFragmentSwitch(List<String> fragments, String methodPrefix, String args, String notFound) {
+		println("        switch (fragment) {");
+		for (int i = 0; i < fragments.size(); i++) {
+			println("            case " + javaString(fragments.get(i)) + " -> " + methodPrefix + i + "(" + args + ");");
+		}
+		println("            default -> " + notFound);
+		println("        }");
+	}
+
+	private static String javaString(String s) {
+		return "\"" + EscapeUtils.escapeJava(s) + "\"";
+	}
+
+	private void writeTemplateSize(TemplateSize templateSize, RendererModel model) {
+		var charset = model.charset();
+		println("");
+		println("    @Override");
+		println("    public int templateStaticSize() {");
+		println("        return " + templateSize.staticSize(charset) + ";");
 		println("    }");
+		println("");
+		println("    @Override");
+		println("    public int templateEstimatedSize() {");
+		println("        return " + templateSize.estimatedSize(charset) + ";");
+		println("    }");
+	}
+
+	/*
+	 * HotSpot will not JIT methods whose bytecode is larger than 8000 bytes so large
+	 * section bodies and runs of statements of the compiled template are moved into
+	 * private methods (see SectionMethods). Partials are generated as classes of the
+	 * package that are shared with other renderers (see PartialMethods).
+	 */
+	private void writeRendererBody(TemplateCompilerType templateCompilerType, TemplateCompilerContext context,
+			String methodName, String methodModifiers, String params, String args, PartialMethods partialMethods)
+			throws IOException, ProcessingException {
+		SectionMethods sections = new SectionMethods(methodName, args);
+		codeWriter.compileTemplate(templateLoader, context, templateCompilerType, sections, partialMethods);
+		String code = sections.finish();
+		warnHugeMethod(context, sections.estimatedSize());
+		print(code);
+		println("");
+		println("    }");
+		/*
+		 * The parameters end with the closing parenthesis and throws clause.
+		 */
+		int close = params.lastIndexOf(')');
+		String head = params.substring(0, close);
+		String tail = params.substring(close);
+		for (var method : sections.methods()) {
+			warnHugeMethod(context, method.estimatedSize());
+			println("");
+			print(methodModifiers + method.name() + "(" + head);
+			for (var p : method.parameters()) {
+				print(", " + p.type() + " " + p.name());
+			}
+			println(tail);
+			print(method.body());
+			println("");
+			println("    }");
+		}
+		partialMethods.classes().forEach(partialClasses::putIfAbsent);
+	}
+
+	private void warnHugeMethod(TemplateCompilerContext context, int size) {
+		if (size > SectionMethods.HUGE_METHOD_LIMIT) {
+			var stack = context.getTemplateStack();
+			stack.printWarning("Template '" + stack.getTemplateName() + "' generates a render method of about " + size
+					+ " bytes which is larger than " + SectionMethods.HUGE_METHOD_LIMIT
+					+ " bytes and will not be JIT compiled by HotSpot. "
+					+ "Consider moving large sections into partials or lambdas.");
+		}
 	}
 
 	private NullChecking nullChecking(RendererModel model) {
@@ -827,6 +1109,40 @@ class TemplateClassWriter implements LoggingSupplier {
 
 		codeWriter.setFormatCallType(FormatCallType.JSTACHIO_BYTE);
 
+		VariableContext variables = writeRendererDefinitionMethodStream(templateCompilerType, model,
+				model.namedTemplate(), null, "encode", "__encode", null);
+		/*
+		 * Fragments share the pre-encoded text of the whole template as the text is
+		 * usually the same.
+		 */
+		var fragments = model.fragments();
+		for (int i = 0; i < fragments.size(); i++) {
+			writeRendererDefinitionMethodStream(templateCompilerType, model, model.fragmentTemplate(fragments.get(i)),
+					fragments.get(i), FRAGMENT_ENCODE + i, "__encodeFragment" + i + "_", variables);
+		}
+		var textVariables = variables.textVariables();
+		var textPool = variables.textPool();
+		for (var entry : textVariables) {
+			String code = entry.getValue();
+			String init = textPool != null && textPool.shares(code) ? textPool.initializer(code)
+					: "(" + code + ").getBytes(TEMPLATE_CHARSET)";
+			println("    private static final byte[] " + entry.getKey() + " = " + init + ";");
+		}
+		var textBlob = variables.textBlob();
+		if (textBlob != null && !textBlob.isEmpty()) {
+			println("    private static final byte[] " + textBlob.name() + " = " + textBlob.stringCode()
+					+ ".getBytes(TEMPLATE_CHARSET);");
+		}
+
+		codeWriter.setFormatCallType(formatCallType);
+
+	}
+
+	private VariableContext writeRendererDefinitionMethodStream(TemplateCompilerType templateCompilerType,
+			RendererModel model, NamedTemplate namedTemplate, @Nullable String fragment, String methodName,
+			String bodyName, @Nullable VariableContext shared)
+			throws IOException, ProcessingException, AnnotatedException {
+
 		var element = model.element();
 		NullChecking nullChecking = nullChecking(model);
 
@@ -841,7 +1157,13 @@ class TemplateClassWriter implements LoggingSupplier {
 
 		println("");
 		println("    /**");
-		println("     * Renders to an OutputStream use pre-encoded parts of the template.");
+		if (fragment == null) {
+			println("     * Renders to an OutputStream use pre-encoded parts of the template.");
+		}
+		else {
+			println("     * Renders the fragment \"" + fragment
+					+ "\" to an OutputStream use pre-encoded parts of the template.");
+		}
 		println("     * @param <A> output type.");
 		println("     * @param <E> error type.");
 		println("     * @param " + dataName + " model");
@@ -851,25 +1173,40 @@ class TemplateClassWriter implements LoggingSupplier {
 		println("     * @param " + variables.appender() + " used to write unescaped variables.");
 		println("     * @throws E if an error occurs while writing to the appendable");
 		println("     */");
-		println("    protected static " + _OutputStream + " void encode(" //
-				+ idt + className + " " + dataName + ", " //
-				+ idt + "A" + " " + variables.unescapedWriter() + "," //
+		String dataParam = idt + className + " " + dataName + ", ";
+		String params = idt + "A" + " " + variables.unescapedWriter() + "," //
 				+ idt + _Formatter + " " + variables.formatter() + "," //
 				+ idt + _Escaper + " " + variables.escaper() + "," //
-				+ idt + _Appender + " " + variables.appender() + ") throws E {");
-		TemplateCompilerContext context = codeWriter.createTemplateContext(model.namedTemplate(), element, dataName,
-				variables, model.flags());
-		codeWriter.compileTemplate(templateLoader, context, templateCompilerType);
-		println("");
-		println("    }");
-		var textVariables = variables.textVariables();
-		for (var entry : textVariables) {
-			println("    private static final byte[] " + entry.getKey() + " = (" + entry.getValue()
-					+ ").getBytes(TEMPLATE_CHARSET);");
+				+ idt + _Appender + " " + variables.appender() + ") throws E {";
+		String args = variables.unescapedWriter() + ", " + variables.formatter() + ", " + variables.escaper() + ", "
+				+ variables.appender();
+		String modifiers = "static " + _OutputStream + " void ";
+		println("    protected " + modifiers + methodName + "(" + dataParam + params);
+		if (shared != null) {
+			variables.shareText(shared);
 		}
-
-		codeWriter.setFormatCallType(formatCallType);
-
+		else {
+			TextBlob textBlob = model.flags().contains(Flag.PRE_ENCODE_BLOB)
+					? TextBlob.of(VariableContext.TEXT, model.charset()) : null;
+			if (textBlob != null) {
+				variables.useTextBlob(textBlob);
+			}
+			var pool = this.textPool;
+			if (pool != null && pool.supports(model.charset(), model.rendererClassRef().getPackageName())) {
+				variables.useTextPool(pool);
+			}
+		}
+		TemplateCompilerContext context = codeWriter.createTemplateContext(namedTemplate, element, dataName, variables,
+				model.flags());
+		if (shared == null && variables.textBlob() == null && model.flags().contains(Flag.PRE_ENCODE_BLOB)) {
+			context.getTemplateStack().printWarning("Template charset " + model.charset()
+					+ " cannot be pre-encoded as a single blob. Separate constants will be used.");
+		}
+		PartialMethods partialMethods = new PartialMethods(model.rendererClassRef().getPackageName(), "encode",
+				modifiers, params, args, resolveCharsetCode(model.charset()), codeWriter.unsharedPartials());
+		writeRendererBody(templateCompilerType, context, bodyName, "    private " + modifiers, dataParam + params,
+				dataName + ", " + args, partialMethods);
+		return variables;
 	}
 
 	private static final Map<Charset, String> STANDARD_CHARSETS = Map.of( //
@@ -32,10 +32,12 @@ package io.jstach.apt;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
+import java.util.ArrayList;
 import java.util.ArrayDeque;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.eclipse.jdt.annotation.Nullable;
 
@@ -43,7 +45,6 @@ import io.jstach.apt.PartialParameterProcessor.Block;
 import io.jstach.apt.WhitespaceTokenProcessor.ProcessToken.ProcessHint;
 import io.jstach.apt.internal.AnnotatedException;
 import io.jstach.apt.internal.CodeAppendable;
-import io.jstach.apt.internal.CodeAppendable.StringCodeAppendable;
 import io.jstach.apt.internal.LoggingSupport;
 import io.jstach.apt.internal.MustacheToken;
 import io.jstach.apt.internal.MustacheToken.NewlineChar;
@@ -70,11 +71,12 @@ import io.jstach.apt.prism.Prisms.Flag;
 class TemplateCompiler extends AbstractTemplateCompiler {
 
 	public static TemplateCompiler createCompiler(String templateName, TemplateLoader templateLoader,
-			CodeAppendable writer, TemplateCompilerContext context, TemplateCompilerType compilerType, Set<Flag> flags)
-			throws IOException {
+			CodeAppendable writer, TemplateCompilerContext context, TemplateCompilerType compilerType, Set<Flag> flags,
+			@Nullable PartialMethods partialMethods, @Nullable MessageBundle messages) throws IOException {
 
 		return switch (compilerType) {
-			case SIMPLE -> new SimpleTemplateCompiler(templateName, templateLoader, writer, context, flags);
+			case SIMPLE -> new SimpleTemplateCompiler(templateName, templateLoader, writer, context, flags,
+					partialMethods, messages);
 			case PARTIAL_TEMPLATE, PARAM_PARTIAL_TEMPLATE, LAMBDA ->
 				throw new IllegalArgumentException("Cannot create partial template as root");
 		};
@@ -100,6 +102,10 @@ class TemplateCompiler extends AbstractTemplateCompiler {
 	 */
 	StringBuilder currentUnescaped = new StringBuilder();
 
+	private @Nullable String currentUnescapedFileName;
+
+	private @Nullable HtmlMinifier minifier;
+
 	/*
 	 * Unlike the above is not java escaped
 	 */
@@ -348,26 +354,129 @@ class TemplateCompiler extends AbstractTemplateCompiler {
 
 	void flushUnescaped() {
 		var code = currentUnescaped.toString();
+		var minifier = htmlMinifier();
+		if (minifier != null && !code.isEmpty()) {
+			code = minifier.minifyJava(code);
+		}
 		if (!code.isEmpty()) {
 			_printCodeToWrite(code);
 		}
 		currentUnescaped.setLength(0);
 	}
 
+	/*
+	 * The minifier is shared with partials as the HTML state continues into them unless
+	 * the partial is given a detached copy.
+	 */
+	private @Nullable HtmlMinifier htmlMinifier() {
+		var m = this.minifier;
+		if (m != null) {
+			return m;
+		}
+		if (parent instanceof TemplateCompiler tc) {
+			return tc.htmlMinifier();
+		}
+		if (flags().contains(Flag.MINIFY_HTML)) {
+			m = this.minifier = new HtmlMinifier();
+		}
+		return m;
+	}
+
 	private void printCodeToWrite(String s) {
+		if (context.isTextPooled()) {
+			/*
+			 * Text is not merged across templates (layouts, blocks and partials) so that
+			 * the text of shared templates is identical and can be pooled.
+			 */
+			String fileName = position.fileName();
+			if (!fileName.equals(currentUnescapedFileName)) {
+				flushUnescaped();
+				currentUnescapedFileName = fileName;
+			}
+		}
 		currentUnescaped.append(s);
 	}
 
 	private void _printCodeToWrite(String s) {
-		if (s.isEmpty())
+		if (s.isEmpty() || context.isUnreachable())
 			return;
 		String code = CodeAppendable.stringLiteralConcat(s);
 		println();
 		print(context.renderUnescapedOutputCode(code));
 		println();
+		endStatement(SectionMethods.TEXT_SIZE);
+	}
+
+	/*
+	 * The writer of the render method splits it into smaller methods. Lambdas have their
+	 * own writer.
+	 */
+	private @Nullable SectionMethods sectionMethods() {
+		return currentWriter() instanceof SectionMethods m ? m : null;
+	}
+
+	private void endStatement(int estimatedSize) {
+		var m = sectionMethods();
+		if (m != null && !context.isUnreachable()) {
+			m.estimate(estimatedSize);
+			m.endStatement();
+		}
+	}
+
+	/*
+	 * Hoisted variables are declared in the enclosing block before the section.
+	 */
+	private void printDeclarations(TemplateCompilerContext context) {
+		String declarations = context.declarations();
+		if (declarations.isEmpty() || this.context.isUnreachable()) {
+			return;
+		}
+		var m = sectionMethods();
+		if (m != null) {
+			m.beginDeclarations(context.declaredVariables());
+		}
+		print(declarations);
+		println();
+		if (m != null) {
+			m.endDeclarations();
+		}
+	}
+
+	/*
+	 * The begin code of a section stays together with its end code. The body in between
+	 * might become a method.
+	 */
+	private void printBeginSection() {
+		var m = sectionMethods();
+		printDeclarations(context);
+		if (m != null) {
+			m.enterGroup();
+			if (!context.isUnreachable()) {
+				m.estimate(SectionMethods.SECTION_SIZE);
+			}
+		}
+		print(context.beginSectionRenderingCode());
+		println();
+		if (m != null) {
+			m.enterSection(context.sectionVariables());
+		}
+	}
+
+	private void printEndSection() {
+		var m = sectionMethods();
+		if (m != null) {
+			m.exit();
+		}
+		print(context.endSectionRenderingCode());
+		if (m != null) {
+			m.exit();
+		}
 	}
 
 	private void print(String s) {
+		if (context.isUnreachable()) {
+			return;
+		}
 		int i = 0;
 		for (String line : s.split("\n")) {
 			if (i > 0) {
@@ -387,9 +496,37 @@ class TemplateCompiler extends AbstractTemplateCompiler {
 	}
 
 	private void println() {
+		if (context.isUnreachable()) {
+			return;
+		}
 		currentWriter().println();
 	}
 
+	/*
+	 * Sections that are constant false at compile time are not generated. Hoisted
+	 * variables are still declared as following tags might use them.
+	 */
+	private void printUnreachableSection() {
+		if (!context.isUnreachable() || context.parentContext().isUnreachable()) {
+			return;
+		}
+		var w = currentWriter();
+		var m = sectionMethods();
+		if (m != null) {
+			m.beginDeclarations(context.declaredVariables());
+		}
+		w.println();
+		for (String line : (context.declarations() + "// unreachable " + context.getType() + ". name: "
+				+ context.currentEnclosedContextName() + ", template: " + getTemplateName()).split("\n")) {
+			printIndent();
+			w.print(line);
+			w.println();
+		}
+		if (m != null) {
+			m.endDeclarations();
+		}
+	}
+
 	private void printBeginSectionComment() {
 		println();
 		print("// start " + context.getType() + ". name: " + context.currentEnclosedContextName() + ", template: "
@@ -410,16 +547,22 @@ class TemplateCompiler extends AbstractTemplateCompiler {
 		var contextType = ContextType.SECTION;
 		try {
 			pushContext(name, contextType);
+			printUnreachableSection();
 			printBeginSectionComment();
-			print(context.beginSectionRenderingCode());
-			println();
-			depth++;
 			/*
 			 * See if the context type is now a lambda
 			 */
 			if (context.getType() == ContextType.LAMBDA) {
+				printDeclarations(context);
+				print(context.beginSectionRenderingCode());
+				println();
+				depth++;
 				_beginLambdaSection(name);
 			}
+			else {
+				printBeginSection();
+				depth++;
+			}
 
 		}
 		catch (ContextException ex) {
@@ -446,6 +589,10 @@ class TemplateCompiler extends AbstractTemplateCompiler {
 		if (isDebug()) {
 			debug("End Lambda. name = " + name);
 		}
+		var minifier = htmlMinifier();
+		if (minifier != null) {
+			minifier.dynamicContent();
+		}
 		try {
 			String javaCode = CodeAppendable.stringLiteralConcat(currentUnescaped.toString());
 			currentUnescaped.setLength(0);
@@ -457,7 +604,7 @@ class TemplateCompiler extends AbstractTemplateCompiler {
 				public String run(TemplateCompilerContext rootContext, Reader reader, Map<String, String> partials)
 						throws IOException, ProcessingException {
 					NamedReader namedReader = new NamedReader(reader, name, "INLINE");
-					StringCodeAppendable codeAppendable = new StringCodeAppendable();
+					SectionMethods codeAppendable = new SectionMethods();
 					try (var c = new TemplateCompiler(namedReader, self, rootContext) {
 						{
 							this.baseCodeTab = "";
@@ -473,6 +620,11 @@ class TemplateCompiler extends AbstractTemplateCompiler {
 							return codeAppendable;
 						}
 
+						@Override
+						public @Nullable PartialMethods partialMethods() {
+							return null;
+						}
+
 						@Override
 						public TemplateLoader getTemplateLoader() {
 							var rootLoader = super.getTemplateLoader();
@@ -492,12 +644,18 @@ class TemplateCompiler extends AbstractTemplateCompiler {
 						}
 					}) {
 						c.run();
-						return codeAppendable.toString();
+						String code = codeAppendable.finish();
+						var m = sectionMethods();
+						if (m != null) {
+							m.estimate(codeAppendable.estimatedSize());
+						}
+						return code;
 					}
 
 				}
 			};
 			print(context.lambdaRenderingCode(rawBody, javaCode, lambdaCompiler));
+			endStatement(SectionMethods.LAMBDA_SIZE);
 		}
 		catch (ContextException ex) {
 			throw new ProcessingException(position, ex);
@@ -516,9 +674,9 @@ class TemplateCompiler extends AbstractTemplateCompiler {
 		var contextType = ContextType.INVERTED;
 		try {
 			pushContext(name, contextType);
+			printUnreachableSection();
 			printBeginSectionComment();
-			print(context.beginSectionRenderingCode());
-			println();
+			printBeginSection();
 			depth++;
 		}
 		catch (ContextException ex) {
@@ -556,6 +714,7 @@ class TemplateCompiler extends AbstractTemplateCompiler {
 					"Closing " + name + " block instead of " + context.currentEnclosedContextName());
 		}
 		var contextType = context.getType();
+		boolean section = false;
 		switch (contextType) {
 			case LAMBDA -> {
 				_endLambdaSection(name);
@@ -575,10 +734,15 @@ class TemplateCompiler extends AbstractTemplateCompiler {
 			case ROOT, SECTION, INVERTED -> {
 				flushUnescaped();
 				depth--;
+				section = true;
 			}
 		}
-
-		print(context.endSectionRenderingCode());
+		if (section) {
+			printEndSection();
+		}
+		else {
+			print(context.endSectionRenderingCode());
+		}
 		printEndSectionComment();
 		popContext();
 	}
@@ -594,17 +758,27 @@ class TemplateCompiler extends AbstractTemplateCompiler {
 	}
 
 	@Override
-	protected void _variable(String name) throws ProcessingException.VariableProcessingException {
+	protected void _variable(String name) throws ProcessingException {
+		if (MessageBundle.isMessageTag(name)) {
+			_message(name);
+			return;
+		}
 		indent();
 		flushUnescaped();
+		var minifier = htmlMinifier();
+		if (minifier != null) {
+			minifier.dynamicContent();
+		}
 		println();
 		try {
 			// TODO figure out indenting variables
 			TemplateCompilerContext variable = context.getChild(name, ContextType.ESCAPED_VAR);
 			print("// variable: " + variable.currentEnclosedContextName());
 			println();
+			printDeclarations(variable);
 			print(variable.renderingCode());
 			println();
+			endStatement(SectionMethods.VARIABLE_SIZE);
 
 		}
 		catch (ContextException.TypeNotAllowedContextException ex) {
@@ -622,6 +796,135 @@ class TemplateCompiler extends AbstractTemplateCompiler {
 		}
 	}
 
+	/*
+	 * A message tag is compiled like an inline partial once for every distinct message of
+	 * the supported locales and the locale of the model picks the branch. The message
+	 * text is static so it is pre-encoded like any other text.
+	 */
+	private void _message(String name) throws ProcessingException {
+		var messages = messages();
+		if (messages == null) {
+			throw new ProcessingException(position,
+					"Message tag \"" + name + "\" is used but no @JStacheMessages bundle is configured.");
+		}
+		indent();
+		flushUnescaped();
+		println();
+		print("// message: " + name);
+		println();
+		try {
+			var variants = messages.variants(name.substring(MessageBundle.TAG_PREFIX.length()));
+			if (variants.size() == 1) {
+				compileMessage(variants.get(0));
+			}
+			else {
+				var m = sectionMethods();
+				if (m != null) {
+					m.enterGroup();
+				}
+				print("switch (" + messages.localeIndexCode(context.rootExpression()) + ") {");
+				println();
+				/*
+				 * Only one variant is rendered so they are not summed for the size.
+				 */
+				List<Integer> sizeStarts = new ArrayList<>();
+				for (var variant : variants) {
+					print(variant.isDefault() ? "default" : "case "
+							+ variant.locales().stream().map(String::valueOf).collect(Collectors.joining(", ")));
+					print(" -> {");
+					println();
+					sizeStarts.add(context.startTemplateSizeAlternative());
+					compileMessage(variant);
+					print("}");
+					println();
+				}
+				context.addTemplateSizeAlternatives(sizeStarts);
+				print("}");
+				println();
+				if (m != null) {
+					m.exit();
+				}
+			}
+		}
+		catch (IOException ex) {
+			throw new ProcessingException(position, ex);
+		}
+		catch (IllegalArgumentException ex) {
+			throw new ProcessingException(position, ex.getMessage());
+		}
+	}
+
+	private void compileMessage(MessageBundle.Variant variant) throws ProcessingException, IOException {
+		var reader = new NamedReader(new StringReader(variant.template()), variant.name(), "INLINE");
+		TemplateCompilerContext context = this.context.createForPartial(variant.name());
+		try (var c = new TemplateCompiler(reader, this, context) {
+			@Override
+			public TemplateCompilerType getCompilerType() {
+				return TemplateCompilerType.PARTIAL_TEMPLATE;
+			}
+		}) {
+			c.run();
+		}
+	}
+
+	/*
+	 * Compiles the partial on its own against the object of the current context and
+	 * returns the call of the generated method. If the partial needs anything else like
+	 * enclosing contexts, section variables or lambdas the compile fails and null is
+	 * returned so that the partial is inlined instead.
+	 */
+	private @Nullable String sharedPartial(String name, PartialMethods partialMethods) throws IOException {
+		String argument = context.sharedPartialArgument();
+		if (argument == null || sectionMethods() == null) {
+			return null;
+		}
+		var entry = context.createForSharedPartial(name);
+		var model = entry.getKey();
+		var partialContext = entry.getValue();
+		SectionMethods writer = partialMethods.createWriter(model);
+		/*
+		 * The compile might be discarded so it minifies with a copy that is only kept if
+		 * the partial is shared.
+		 */
+		var minifier = htmlMinifier();
+		var detachedMinifier = minifier == null ? null : minifier.copy();
+		try (TemplateCompiler c = new TemplateCompiler(getTemplateLoader().open(name), this, partialContext) {
+			@Override
+			public TemplateCompilerType getCompilerType() {
+				return TemplateCompilerType.PARTIAL_TEMPLATE;
+			}
+
+			@Override
+			public CodeAppendable getWriter() {
+				return writer;
+			}
+
+			@Override
+			public @Nullable MessageBundle messages() {
+				return null;
+			}
+
+			@Override
+			public @Nullable PartialMethods partialMethods() {
+				return null;
+			}
+		}) {
+			c.indent = partialIndent;
+			c.minifier = detachedMinifier;
+			c.run();
+		}
+		catch (ProcessingException e) {
+			debug("Partial " + name + " is inlined as it cannot be compiled on its own: " + e.getMessage());
+			return null;
+		}
+		if (minifier != null && detachedMinifier != null) {
+			minifier.restore(detachedMinifier);
+		}
+		partialIndent = "";
+		context.addTemplateSize(partialContext);
+		return partialMethods.register(name, model, argument, writer, partialContext.variables());
+	}
+
 	@Override
 	protected void _partial(String name) throws ProcessingException {
 		flushUnescaped();
@@ -636,8 +939,18 @@ class TemplateCompiler extends AbstractTemplateCompiler {
 			if (pp != null) {
 				throw new IllegalStateException("bug. parent (parameter partial) is already started for this context");
 			}
-			try (var p = createPartial(name)) {
-				p.run();
+			var partialMethods = partialMethods();
+			String call = partialMethods == null || partialMethods.isInlined(name) ? null
+					: sharedPartial(name, partialMethods);
+			if (call != null) {
+				print(call);
+				println();
+				endStatement(SectionMethods.CALL_SIZE);
+			}
+			else {
+				try (var p = createPartial(name)) {
+					p.run();
+				}
 			}
 
 		}
@@ -651,16 +964,25 @@ class TemplateCompiler extends AbstractTemplateCompiler {
 
 	@Override
 	protected void _unescapedVariable(String name) throws ProcessingException {
+		if (MessageBundle.isMessageTag(name)) {
+			_message(name);
+			return;
+		}
 		indent();
 		flushUnescaped();
+		var minifier = htmlMinifier();
+		if (minifier != null) {
+			minifier.dynamicContent();
+		}
 		println();
 		try {
 			TemplateCompilerContext variable = context.getChild(name, ContextType.UNESCAPED_VAR);
 			print("// unescaped variable: " + variable.currentEnclosedContextName());
 			println();
-
+			printDeclarations(variable);
 			print(variable.unescapedRenderingCode());
 			println();
+			endStatement(SectionMethods.VARIABLE_SIZE);
 		}
 		catch (ContextException ex) {
 			throw new ProcessingException(position, ex);
@@ -715,13 +1037,20 @@ class TemplateCompiler extends AbstractTemplateCompiler {
 
 		private final TemplateStack templateStack;
 
+		private final @Nullable PartialMethods partialMethods;
+
+		private final @Nullable MessageBundle messages;
+
 		public RootTemplateCompiler(String templateName, TemplateLoader templateLoader, CodeAppendable writer,
-				TemplateCompilerContext context, Set<Flag> flags) throws IOException {
+				TemplateCompilerContext context, Set<Flag> flags, @Nullable PartialMethods partialMethods,
+				@Nullable MessageBundle messages) throws IOException {
 			super(templateLoader.open(templateName), null, context);
 			this.templateLoader = templateLoader;
 			this.writer = writer;
 			this.flags = flags;
 			this.templateStack = context.getTemplateStack();
+			this.partialMethods = partialMethods;
+			this.messages = messages;
 		}
 
 		@Override
@@ -749,6 +1078,16 @@ class TemplateCompiler extends AbstractTemplateCompiler {
 			return this.flags;
 		}
 
+		@Override
+		public @Nullable MessageBundle messages() {
+			return this.messages;
+		}
+
+		@Override
+		public @Nullable PartialMethods partialMethods() {
+			return this.partialMethods;
+		}
+
 	}
 
 	static class ParameterPartialTemplateCompiler extends TemplateCompiler {
@@ -859,8 +1198,9 @@ class TemplateCompiler extends AbstractTemplateCompiler {
 	static class SimpleTemplateCompiler extends RootTemplateCompiler {
 
 		private SimpleTemplateCompiler(String templateName, TemplateLoader templateLoader, CodeAppendable writer,
-				TemplateCompilerContext context, Set<Flag> flags) throws IOException {
-			super(templateName, templateLoader, writer, context, flags);
+				TemplateCompilerContext context, Set<Flag> flags, @Nullable PartialMethods partialMethods,
+				@Nullable MessageBundle messages) throws IOException {
+			super(templateName, templateLoader, writer, context, flags, partialMethods, messages);
 		}
 
 		@Override
@@ -40,10 +40,22 @@ interface TemplateCompilerLike extends AutoCloseable {
 		return Objects.requireNonNull(getCaller()).getWriter();
 	}
 
+	default @Nullable MessageBundle messages() {
+		return Objects.requireNonNull(getCaller()).messages();
+	}
+
 	default Set<Flag> flags() {
 		return Objects.requireNonNull(getCaller()).flags();
 	}
 
+	/**
+	 * Where partials that are not inlined are registered.
+	 * @return null if partials are always inlined
+	 */
+	default @Nullable PartialMethods partialMethods() {
+		return Objects.requireNonNull(getCaller()).partialMethods();
+	}
+
 	@Nullable
 	ParameterPartial currentParameterPartial();
 
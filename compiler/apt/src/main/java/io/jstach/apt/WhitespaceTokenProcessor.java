@@ -15,7 +15,14 @@ import io.jstach.apt.internal.Position;
 import io.jstach.apt.internal.PositionedToken;
 import io.jstach.apt.internal.ProcessingException;
 
-abstract class WhitespaceTokenProcessor implements MustacheTokenProcessor, LoggingSupport.LoggingSupplier {
+/**
+ * Handles mustache standalone lines by removing the whitespace around standalone tags
+ * before the tokens are handled. The indentation of a standalone partial or parent tag is
+ * available as {@link #partialIndent} when the tag is handled.
+ * <p>
+ * This is public so that the interpreter can parse templates exactly like the compiler.
+ */
+public abstract class WhitespaceTokenProcessor implements MustacheTokenProcessor, LoggingSupport.LoggingSupplier {
 
 	private Deque<PositionedToken<MustacheToken>> previousTokens = new ArrayDeque<>(5);
 
@@ -115,6 +115,48 @@ public interface CodeAppendable extends Appendable {
 		return result;
 	}
 
+	/**
+	 * The inverse of {@link #stringLiteralConcat(String)}. Returns the value of Java code
+	 * that is string literals concatenated with <code>+</code>.
+	 * @param code string literals concatenated
+	 * @return the value of the string expression
+	 */
+	public static String stringLiteralConcatValue(String code) {
+		StringBuilder sb = new StringBuilder(code.length());
+		boolean inLiteral = false;
+		for (int i = 0; i < code.length(); i++) {
+			char c = code.charAt(i);
+			if (!inLiteral) {
+				if (c == '"') {
+					inLiteral = true;
+				}
+				else if (!Character.isWhitespace(c) && c != '+') {
+					throw new IllegalArgumentException("Not a string literal concatenation: " + code);
+				}
+			}
+			else if (c == '"') {
+				inLiteral = false;
+			}
+			else if (c == '\\' && i + 1 < code.length()) {
+				char e = code.charAt(++i);
+				sb.append(switch (e) {
+					case 'n' -> '\n';
+					case 'r' -> '\r';
+					case 't' -> '\t';
+					case 'b' -> '\b';
+					case 'f' -> '\f';
+					case 's' -> ' ';
+					case '"', '\'', '\\' -> e;
+					default -> throw new IllegalArgumentException("Unsupported escape: \\" + e);
+				});
+			}
+			else {
+				sb.append(c);
+			}
+		}
+		return sb.toString();
+	}
+
 	public static String stringConcat(String s) {
 		int i = 0;
 		StringBuilder code = new StringBuilder();
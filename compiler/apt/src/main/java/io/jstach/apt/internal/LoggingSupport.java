@@ -61,6 +61,13 @@ public sealed interface LoggingSupport {
 			m.printMessage(Kind.ERROR, message, e, a);
 		}
 
+		default void printWarning(CharSequence message) {
+			var m = messager();
+			var a = annotationToLog();
+			var e = elementToLog();
+			m.printMessage(Kind.WARNING, message, e, a);
+		}
+
 		@Override
 		default void info(CharSequence message) {
 			messager().printMessage(Kind.NOTE, message);
@@ -123,6 +130,31 @@ public sealed interface LoggingSupport {
 
 	}
 
+	/**
+	 * Logging that discards everything for using the template parser outside of the
+	 * annotation processor.
+	 */
+	public record NoLogging() implements LoggingSupport {
+
+		@Override
+		public boolean isDebug() {
+			return false;
+		}
+
+		@Override
+		public void debug(CharSequence message) {
+		}
+
+		@Override
+		public void error(CharSequence message, Throwable t) {
+		}
+
+		@Override
+		public void info(CharSequence message) {
+		}
+
+	}
+
 	record RootLogging(Messager messager, boolean isDebug) implements LoggingSupport {
 
 		@Override
@@ -20,8 +20,13 @@ public sealed interface NamedTemplate {
 
 	}
 
-	public record FileTemplate(String name, String path, Element element,
-			AnnotationMirror annotationMirror) implements NamedTemplate {
+	public record FileTemplate(String name, String path, Element element, AnnotationMirror annotationMirror,
+			boolean shared) implements NamedTemplate {
+
+		public FileTemplate(String name, String path, Element element, AnnotationMirror annotationMirror) {
+			this(name, path, element, annotationMirror, true);
+		}
+
 		@Override
 		public Type type() {
 			return Type.FILE;
@@ -33,8 +38,13 @@ public sealed interface NamedTemplate {
 		}
 	}
 
-	public record InlineTemplate(String name, String template, TypeElement element,
-			AnnotationMirror annotationMirror) implements NamedTemplate {
+	public record InlineTemplate(String name, String template, TypeElement element, AnnotationMirror annotationMirror,
+			boolean shared) implements NamedTemplate {
+
+		public InlineTemplate(String name, String template, TypeElement element, AnnotationMirror annotationMirror) {
+			this(name, template, element, annotationMirror, true);
+		}
+
 		@Override
 		public Type type() {
 			return Type.INLINE;
@@ -50,4 +60,10 @@ public sealed interface NamedTemplate {
 
 	public String template();
 
+	/**
+	 * Whether or not the partial can be generated as a shared method.
+	 * @return false if the partial should always be inlined.
+	 */
+	public boolean shared();
+
 }
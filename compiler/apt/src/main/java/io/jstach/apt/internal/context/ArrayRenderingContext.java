@@ -29,6 +29,8 @@
  */
 package io.jstach.apt.internal.context;
 
+import java.util.List;
+
 import org.eclipse.jdt.annotation.Nullable;
 
 /**
@@ -60,6 +62,11 @@ class ArrayRenderingContext implements RenderingContext {
 		return "}" + parent.endSectionRenderingCode();
 	}
 
+	@Override
+	public List<LocalVariable> declaredVariables() {
+		return List.of(new LocalVariable("int", indexVariableName));
+	}
+
 	JavaExpression componentExpession() {
 		return arrayExpression.subscript(indexExpression());
 	}
@@ -40,16 +40,38 @@ class BooleanRenderingContext implements BooleanExpressionContext {
 
 	private final RenderingContext parent;
 
+	private final @Nullable Boolean constant;
+
 	BooleanRenderingContext(String expression, RenderingContext parent) {
-		this.expression = expression;
+		this(expression, parent, null);
+	}
+
+	/**
+	 * A condition that might be known at compile time.
+	 * @param expression the condition
+	 * @param parent parent
+	 * @param constant the value of the expression if it is a constant otherwise
+	 * <code>null</code>.
+	 */
+	BooleanRenderingContext(String expression, RenderingContext parent, @Nullable Boolean constant) {
+		this.expression = constant == null ? expression : constant.toString();
 		this.parent = parent;
+		this.constant = constant;
 	}
 
 	@Override
 	public String beginSectionRenderingCode() {
+		if (Boolean.TRUE.equals(constant)) {
+			return parent.beginSectionRenderingCode() + "{ ";
+		}
 		return parent.beginSectionRenderingCode() + "if (" + expression + ") { ";
 	}
 
+	@Override
+	public boolean isUnreachable() {
+		return Boolean.FALSE.equals(constant) || parent.isUnreachable();
+	}
+
 	@Override
 	public String endSectionRenderingCode() {
 		return " }" + parent.endSectionRenderingCode();
@@ -95,7 +117,7 @@ class BooleanRenderingContext implements BooleanExpressionContext {
 
 	@Override
 	public String toString() {
-		return "BooleanRenderingContext [expression=" + expression + "]";
+		return "BooleanRenderingContext [expression=" + expression + ", constant=" + constant + "]";
 	}
 
 }
@@ -39,6 +39,7 @@ import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
 import javax.lang.model.type.ExecutableType;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
@@ -89,7 +90,15 @@ class DeclaredTypeRenderingContext implements RenderingContext, InvertedExpressi
 		if (result != null)
 			return result;
 		result = getFieldEntry(enclosedElements, name);
-
+		if (result != null)
+			return result;
+		/*
+		 * Inherited constants for example from a configuration interface
+		 */
+		result = getFieldEntry(ElementFilter
+				.fieldsIn(all).stream().filter(e -> e.getConstantValue() != null
+						&& e.getModifiers().contains(Modifier.STATIC) && !e.getModifiers().contains(Modifier.PRIVATE))
+				.toList(), name);
 		return result;
 	}
 
@@ -178,9 +187,11 @@ class DeclaredTypeRenderingContext implements RenderingContext, InvertedExpressi
 							"Refence to private field: ''{0}'': use package (default) access modifier to access field instead",
 							name));
 				}
-				if (element.getModifiers().contains(Modifier.STATIC)) {
-					throw new ContextException(MessageFormat
-							.format("Refence to static field: ''{0}'': only instance fields are accessible", name));
+				if (element.getModifiers().contains(Modifier.STATIC)
+						&& ((VariableElement) element).getConstantValue() == null) {
+					throw new ContextException(MessageFormat.format(
+							"Refence to static field: ''{0}'': only instance fields and constants are accessible",
+							name));
 				}
 				return expression.fieldAccess(element);
 			}
@@ -105,6 +105,19 @@ class InvertedRenderingContext implements BooleanExpressionContext {
 		return "}";
 	}
 
+	@Override
+	public boolean isUnreachable() {
+		if (!dottedName) {
+			return parent.isUnreachable();
+		}
+		/*
+		 * An inverted dotted name is true if any part of the chain is null even if the
+		 * last part is a constant.
+		 */
+		var p = parent.getParent();
+		return p != null && p.isUnreachable();
+	}
+
 	@Override
 	public String getExpression() {
 		return "";
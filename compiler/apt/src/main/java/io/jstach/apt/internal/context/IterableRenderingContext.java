@@ -29,10 +29,13 @@
  */
 package io.jstach.apt.internal.context;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Predicate;
 
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
 import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.type.WildcardType;
@@ -40,6 +43,9 @@ import javax.lang.model.type.WildcardType;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 
+import io.jstach.apt.internal.context.types.KnownTypes;
+import io.jstach.apt.internal.context.types.NativeType;
+import io.jstach.apt.internal.context.types.ObjectType;
 import io.jstach.apt.internal.util.Interpolator;
 import io.jstach.apt.internal.util.ToStringTypeVisitor;
 
@@ -48,8 +54,97 @@ import io.jstach.apt.internal.util.ToStringTypeVisitor;
  */
 class IterableRenderingContext implements RenderingContext {
 
+	/**
+	 * What kind of object is iterated and thus the shape of the loop. {@link #LIST} and
+	 * {@link #ARRAY} are iterated by index without an iterator. Iterators, spliterators
+	 * and streams can only be traversed once and are consumed lazily element by element.
+	 * Streams are closed after the loop.
+	 */
+	enum Source {
+
+		/**
+		 * A list that is known to be {@link java.util.RandomAccess}.
+		 */
+		LIST, ARRAY, ITERABLE, ITERATOR, SPLITERATOR, STREAM, INT_STREAM, LONG_STREAM, DOUBLE_STREAM;
+
+		boolean isSinglePass() {
+			return switch (this) {
+				case LIST, ARRAY, ITERABLE -> false;
+				default -> true;
+			};
+		}
+
+		boolean isIndexed() {
+			return this == LIST || this == ARRAY;
+		}
+
+		boolean isStream() {
+			return switch (this) {
+				case STREAM, INT_STREAM, LONG_STREAM, DOUBLE_STREAM -> true;
+				default -> false;
+			};
+		}
+
+		/*
+		 * The element type of the primitive streams
+		 */
+		@Nullable
+		NativeType primitiveType(KnownTypes knownTypes) {
+			return switch (this) {
+				case INT_STREAM -> knownTypes._int;
+				case LONG_STREAM -> knownTypes._long;
+				case DOUBLE_STREAM -> knownTypes._double;
+				default -> null;
+			};
+		}
+
+		/*
+		 * The type that has the element type as its only type parameter
+		 */
+		@Nullable
+		ObjectType genericType(KnownTypes knownTypes) {
+			return switch (this) {
+				case LIST -> knownTypes._List;
+				case ITERABLE -> knownTypes._Iterable;
+				case ITERATOR -> knownTypes._Iterator;
+				case SPLITERATOR -> knownTypes._Spliterator;
+				case STREAM -> knownTypes._Stream;
+				default -> null;
+			};
+		}
+
+		static @Nullable Source of(JavaLanguageModel model, TypeMirror type) {
+			KnownTypes knownTypes = model.knownTypes();
+			if (model.isType(type, knownTypes._Iterable)) {
+				return ITERABLE;
+			}
+			else if (model.isType(type, knownTypes._Iterator)) {
+				return ITERATOR;
+			}
+			else if (model.isType(type, knownTypes._Spliterator)) {
+				return SPLITERATOR;
+			}
+			else if (model.isType(type, knownTypes._Stream)) {
+				return STREAM;
+			}
+			else if (model.isType(type, knownTypes._IntStream)) {
+				return INT_STREAM;
+			}
+			else if (model.isType(type, knownTypes._LongStream)) {
+				return LONG_STREAM;
+			}
+			else if (model.isType(type, knownTypes._DoubleStream)) {
+				return DOUBLE_STREAM;
+			}
+			return null;
+		}
+
+	}
+
 	private final JavaExpression expression;
 
+	private final Source source;
+
 	private final String elementVariableName;
 
 	private final String indexVariableName;
@@ -60,7 +155,13 @@ class IterableRenderingContext implements RenderingContext {
 
 	public IterableRenderingContext(JavaExpression expression, String elementVariableName, String indexVariableName,
 			RenderingContext parent) {
+		this(expression, Source.ITERABLE, elementVariableName, indexVariableName, parent);
+	}
+
+	public IterableRenderingContext(JavaExpression expression, Source source, String elementVariableName,
+			String indexVariableName, RenderingContext parent) {
 		this.expression = expression;
+		this.source = source;
 		this.elementVariableName = elementVariableName;
 		this.indexVariableName = indexVariableName;
 		this.iteratorVariableName = elementVariableName + "It";
@@ -82,20 +183,85 @@ class IterableRenderingContext implements RenderingContext {
 		// elementVariableName,
 		// expression.text());
 
-		String loop = """
+		String loop = switch (source) {
+			/*
+			 * Same as what javac generates for an enhanced for loop over an array but we
+			 * need the index.
+			 */
+			case LIST, ARRAY -> """
+
+					var ${sourceVar} = ${iterableVar};
+					int ${sizeVar} = ${size};
+					for (int ${i} = 0; ${i} < ${sizeVar}; ${i}++) {
+					    ${elementType} ${elementVar} = ${element};
+					""";
+			case ITERABLE ->
+				"""
+
+						int ${i} = 0;
+						for (java.util.Iterator<? extends ${elementGeneric}> ${iteratorVar} = ${iterableVar}.iterator(); ${iteratorVar}.hasNext(); ${i}++) {
+						    ${elementType} ${elementVar} = ${iteratorVar}.next();
+						""";
+			/*
+			 * The single pass sources are evaluated exactly once into a local so that we
+			 * neither call the accessor twice for the null check nor leave a stream
+			 * unclosed. Try with resources skips closing a null resource.
+			 */
+			case ITERATOR, SPLITERATOR ->
+				"""
+
+						int ${i} = 0;
+						var ${sourceVar} = ${iterableVar};
+						if (${sourceVar} != null) for (java.util.Iterator<? extends ${elementGeneric}> ${iteratorVar} = ${iterator}; ${iteratorVar}.hasNext(); ${i}++) {
+						    ${elementType} ${elementVar} = ${iteratorVar}.next();
+						""";
+			case STREAM ->
+				"""
 
-				int ${i} = 0;
-				for (java.util.Iterator<? extends ${elementGeneric}> ${iteratorVar} = ${iterableVar}.iterator(); ${iteratorVar}.hasNext(); ${i}++) {
-				    ${elementType} ${elementVar} = ${iteratorVar}.next();
-				""";
+						int ${i} = 0;
+						try (var ${sourceVar} = ${iterableVar}) {
+						if (${sourceVar} != null) for (java.util.Iterator<? extends ${elementGeneric}> ${iteratorVar} = ${iterator}; ${iteratorVar}.hasNext(); ${i}++) {
+						    ${elementType} ${elementVar} = ${iteratorVar}.next();
+						""";
+			/*
+			 * Primitive iterators so that the elements are not boxed
+			 */
+			case INT_STREAM, LONG_STREAM, DOUBLE_STREAM ->
+				"""
+
+						int ${i} = 0;
+						try (var ${sourceVar} = ${iterableVar}) {
+						if (${sourceVar} != null) for (java.util.PrimitiveIterator.Of${Primitive} ${iteratorVar} = ${iterator}; ${iteratorVar}.hasNext(); ${i}++) {
+						    ${elementType} ${elementVar} = ${iteratorVar}.next${Primitive}();
+						""";
+		};
+		String sourceVariableName = sourceVariableName();
+		String iterator = switch (source) {
+			case LIST, ARRAY -> "";
+			case ITERABLE -> expression.text() + ".iterator()";
+			case ITERATOR -> sourceVariableName;
+			case SPLITERATOR -> "java.util.Spliterators.iterator(" + sourceVariableName + ")";
+			case STREAM, INT_STREAM, LONG_STREAM, DOUBLE_STREAM -> sourceVariableName + ".iterator()";
+		};
 		String elementType = ToStringTypeVisitor.toCodeSafeString(elementExpession().type());
-		Map<String, String> names = Map.of( //
-				"i", indexVariableName, //
-				"elementGeneric", elementType, //
-				"elementType", elementType, //
-				"elementVar", elementVariableName, //
-				"iteratorVar", iteratorVariableName, //
-				"iterableVar", expression.text() //
+		String primitive = elementType.isEmpty() ? ""
+				: Character.toUpperCase(elementType.charAt(0)) + elementType.substring(1);
+		String size = source == Source.ARRAY ? sourceVariableName + ".length" : sourceVariableName + ".size()";
+		String element = source == Source.ARRAY ? sourceVariableName + "[" + indexVariableName + "]"
+				: sourceVariableName + ".get(" + indexVariableName + ")";
+		Map<String, String> names = Map.ofEntries( //
+				Map.entry("i", indexVariableName), //
+				Map.entry("elementGeneric", elementType), //
+				Map.entry("elementType", elementType), //
+				Map.entry("elementVar", elementVariableName), //
+				Map.entry("iteratorVar", iteratorVariableName), //
+				Map.entry("iterableVar", expression.text()), //
+				Map.entry("sourceVar", sourceVariableName), //
+				Map.entry("sizeVar", sizeVariableName()), //
+				Map.entry("size", size), //
+				Map.entry("element", element), //
+				Map.entry("iterator", iterator), //
+				Map.entry("Primitive", primitive) //
 		);
 		loop = Interpolator.of().interpolate(loop, names::get);
 
@@ -104,7 +270,8 @@ class IterableRenderingContext implements RenderingContext {
 
 	@Override
 	public String endSectionRenderingCode() {
-		return " }" + parent.endSectionRenderingCode();
+		String end = source.isStream() ? " } }" : " }";
+		return end + parent.endSectionRenderingCode();
 	}
 
 	@Override
@@ -135,9 +302,45 @@ class IterableRenderingContext implements RenderingContext {
 
 	JavaExpression last() {
 		var model = expression.model();
+		if (source.isIndexed()) {
+			return model.expression("( " + indexVariableName + " == " + sizeVariableName() + " - 1 )",
+					model.knownTypes()._boolean);
+		}
 		return model.expression("( ! " + iteratorVariableName + ".hasNext() )", model.knownTypes()._boolean);
 	}
 
+	private String sizeVariableName() {
+		return elementVariableName + "Size";
+	}
+
+	private String sourceVariableName() {
+		return elementVariableName + "Source";
+	}
+
+	@Override
+	public List<LocalVariable> declaredVariables() {
+		List<LocalVariable> variables = new ArrayList<>();
+		var element = LocalVariable.of(elementExpession().type(), elementVariableName);
+		variables.add(new LocalVariable("int", indexVariableName));
+		variables.add(element);
+		if (source.isIndexed()) {
+			variables.add(new LocalVariable("int", sizeVariableName()));
+		}
+		else {
+			String iteratorType = switch (source) {
+				case INT_STREAM -> "java.util.PrimitiveIterator.OfInt";
+				case LONG_STREAM -> "java.util.PrimitiveIterator.OfLong";
+				case DOUBLE_STREAM -> "java.util.PrimitiveIterator.OfDouble";
+				default -> element.type() == null ? null : "java.util.Iterator<? extends " + element.type() + ">";
+			};
+			variables.add(new LocalVariable(iteratorType, iteratorVariableName));
+		}
+		if (source != Source.ITERABLE) {
+			variables.add(LocalVariable.of(expression.type(), sourceVariableName()));
+		}
+		return variables;
+	}
+
 	JavaExpression oneBasedIndex() {
 		var model = expression.model();
 		return model.expression("( " + indexVariableName + " + 1 )", model.knownTypes()._int);
@@ -159,9 +362,20 @@ class IterableRenderingContext implements RenderingContext {
 	}
 
 	JavaExpression elementExpession() {
-		DeclaredType expressionType = (DeclaredType) expression.type();
 		var model = expression.model();
-		DeclaredType iterableType = model.getSupertype(expressionType, model.knownTypes()._Iterable);
+		if (source == Source.ARRAY) {
+			return model.expression(elementVariableName, ((ArrayType) expression.type()).getComponentType());
+		}
+		NativeType primitiveType = source.primitiveType(model.knownTypes());
+		if (primitiveType != null) {
+			return model.expression(elementVariableName, primitiveType);
+		}
+		ObjectType genericType = source.genericType(model.knownTypes());
+		if (genericType == null) {
+			throw new IllegalStateException("expected generic type. bug.");
+		}
+		DeclaredType expressionType = (DeclaredType) expression.type();
+		DeclaredType iterableType = model.getSupertype(expressionType, genericType);
 		if (iterableType == null) {
 			throw new IllegalStateException("expected iterable type. bug.");
 		}
@@ -35,12 +35,16 @@ import java.util.stream.Collectors;
 
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
 import javax.lang.model.type.ArrayType;
 import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.ExecutableType;
 import javax.lang.model.type.TypeMirror;
 
+import org.eclipse.jdt.annotation.Nullable;
+
 /**
  * @author Victor Nazarov
  */
@@ -54,11 +58,27 @@ class JavaExpression {
 
 	private final List<String> path;
 
+	private final @Nullable Object constantValue;
+
+	private final boolean keyLookup;
+
 	JavaExpression(JavaLanguageModel model, String text, TypeMirror type, List<String> path) {
+		this(model, text, type, path, null);
+	}
+
+	private JavaExpression(JavaLanguageModel model, String text, TypeMirror type, List<String> path,
+			@Nullable Object constantValue) {
+		this(model, text, type, path, constantValue, false);
+	}
+
+	private JavaExpression(JavaLanguageModel model, String text, TypeMirror type, List<String> path,
+			@Nullable Object constantValue, boolean keyLookup) {
 		this.model = model;
 		this.text = text;
 		this.type = type;
 		this.path = path;
+		this.constantValue = constantValue;
+		this.keyLookup = keyLookup;
 	}
 
 	String text() {
@@ -73,6 +93,26 @@ class JavaExpression {
 		return model;
 	}
 
+	/**
+	 * The value if the expression is a constant variable that is known at compile time.
+	 * @return boxed primitive or String or <code>null</code> if not a constant
+	 * @see VariableElement#getConstantValue()
+	 */
+	@Nullable
+	Object constantValue() {
+		return constantValue;
+	}
+
+	/**
+	 * Whether the expression looks up a key of a map like model (see
+	 * {@link #mapGet(ExecutableElement, String)}) which unlike an accessor is a hash
+	 * lookup every time it is evaluated.
+	 * @return true if a key lookup
+	 */
+	boolean isKeyLookup() {
+		return keyLookup;
+	}
+
 	private static List<String> concat(List<String> list, String a) {
 		list = new ArrayList<>(list);
 		list.add(a);
@@ -87,6 +127,10 @@ class JavaExpression {
 		return path.stream().collect(Collectors.joining("."));
 	}
 
+	JavaExpression withText(String text) {
+		return new JavaExpression(model, text, type, path, constantValue, keyLookup);
+	}
+
 	JavaExpression arrayLength() {
 		return new JavaExpression(model, text + ".length", model.knownTypes()._int.typeMirror(), concatPath("length"));
 	}
@@ -98,7 +142,8 @@ class JavaExpression {
 	JavaExpression mapGet(ExecutableElement getMethod, String key) {
 		JavaExpression keyExpression = new JavaExpression(model, "\"" + key + "\"",
 				model.knownTypes()._String.typeElement().asType(), concatPath(key));
-		return methodCall(getMethod, keyExpression);
+		var call = methodCall(getMethod, keyExpression);
+		return new JavaExpression(model, call.text, call.type, concatPath(key), null, true);
 	}
 
 	JavaExpression optionalOrElseNull(ExecutableElement getMethod) {
@@ -114,9 +159,18 @@ class JavaExpression {
 
 	public JavaExpression fieldAccess(Element element) {
 		VariableElement fieldElement = (VariableElement) element;
+		String name = fieldElement.getSimpleName().toString();
+		if (fieldElement.getModifiers().contains(Modifier.STATIC)) {
+			/*
+			 * Qualified with the type name so that javac sees a constant expression.
+			 */
+			TypeElement declaringType = (TypeElement) fieldElement.getEnclosingElement();
+			return new JavaExpression(model, declaringType.getQualifiedName() + "." + name, fieldElement.asType(),
+					concatPath(name), fieldElement.getConstantValue());
+		}
 		TypeMirror memberType = model.asMemberOf((DeclaredType) type, fieldElement);
-		return new JavaExpression(model, text + "." + fieldElement.getSimpleName(), memberType,
-				concatPath(fieldElement.getSimpleName().toString()));
+		return new JavaExpression(model, text + "." + name, memberType, concatPath(name),
+				fieldElement.getConstantValue());
 	}
 
 	public JavaExpression methodCall(Element element, JavaExpression... arguments) {
@@ -151,7 +205,8 @@ class JavaExpression {
 
 	@Override
 	public String toString() {
-		return "JavaExpression [text=" + text + ", type=" + type + ", path=" + path + "]";
+		return "JavaExpression [text=" + text + ", type=" + type + ", path=" + path + ", constantValue=" + constantValue
+				+ "]";
 	}
 
 	JavaExpression listSize() {
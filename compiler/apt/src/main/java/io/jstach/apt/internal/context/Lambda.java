@@ -5,6 +5,7 @@ import java.util.List;
 import java.util.Map;
 
 import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
 import javax.lang.model.element.VariableElement;
 import javax.lang.model.type.TypeMirror;
 
@@ -56,6 +57,44 @@ public sealed interface Lambda {
 		return method().expression().methodCall(method().methodElement(), args.toArray(new JavaExpression[] {}));
 	}
 
+	/**
+	 * The expression results of a {@link Method#pure() pure} lambda are cached by which
+	 * is the context argument or if the lambda has no context parameter the section body.
+	 * @param literalBlock the section body as a java string literal.
+	 * @param context current context.
+	 * @return key expression.
+	 */
+	default JavaExpression cacheKeyExpression(String literalBlock, LambdaContext context) {
+		var currentContextExpression = context.get();
+		for (var param : method().params()) {
+			if (param.paramType() == ParamType.CURRENT_CONTEXT) {
+				return currentContextExpression;
+			}
+		}
+		return currentContextExpression.stringLiteral(literalBlock);
+	}
+
+	/**
+	 * The object a {@link Method#pure() pure} lambda is called on is part of the cache
+	 * key so models with different configuration do not share results.
+	 * @return receiver expression or null if the lambda method is static.
+	 */
+	default @Nullable JavaExpression receiverExpression() {
+		if (method().methodElement().getModifiers().contains(Modifier.STATIC)) {
+			return null;
+		}
+		return method().expression();
+	}
+
+	/**
+	 * Pure lambdas without a context parameter only ever get the same section body at a
+	 * call site.
+	 * @return true if the result only depends on the section body.
+	 */
+	default boolean isBodyOnly() {
+		return method().params().stream().allMatch(p -> p.paramType() == ParamType.STRING_BODY);
+	}
+
 	public enum ReturnKind {
 
 		RAW_STRING, MODEL
@@ -72,10 +111,10 @@ public sealed interface Lambda {
 	}
 
 	public record Method(JavaExpression expression, String name, ExecutableElement methodElement, ReturnKind returnKind,
-			List<Param> params, String template) {
+			List<Param> params, String template, boolean pure) {
 
 		public static Method of(JavaExpression expression, ExecutableElement method, @Nullable String name,
-				String template) throws AnnotatedException {
+				String template, boolean pure) throws AnnotatedException {
 			if (name == null || name.isBlank()) {
 				name = method.getSimpleName().toString();
 			}
@@ -126,7 +165,7 @@ public sealed interface Lambda {
 			// throw new UnsupportedOperationException(
 			// "Currently only raw String and model Class return types are supported.");
 			// }
-			return new Method(expression, name, method, returnType, params, template);
+			return new Method(expression, name, method, returnType, params, template, pure);
 		}
 	}
 
@@ -151,13 +190,13 @@ public sealed interface Lambda {
 	}
 
 	public static Lambda of( //
-			JavaExpression expression, ExecutableElement method, @Nullable String name, String template)
+			JavaExpression expression, ExecutableElement method, @Nullable String name, String template, boolean pure)
 			throws AnnotatedException {
 		if (name == null || name.isBlank()) {
 			name = method.getSimpleName().toString();
 		}
 
-		Method m = Method.of(expression, method, name, template);
+		Method m = Method.of(expression, method, name, template, pure);
 		return new SimpleLambda(m);
 	}
 
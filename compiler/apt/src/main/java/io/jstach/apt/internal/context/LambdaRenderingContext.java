@@ -6,13 +6,10 @@ class LambdaRenderingContext implements RenderingContext {
 
 	private final Lambda lambda;
 
-	private final VariableContext variables;
-
 	private final RenderingContext parent;
 
-	public LambdaRenderingContext(Lambda lambda, VariableContext variables, RenderingContext parent) {
+	public LambdaRenderingContext(Lambda lambda, RenderingContext parent) {
 		this.lambda = lambda;
-		this.variables = variables;
 		this.parent = parent;
 	}
 
@@ -49,7 +46,11 @@ class LambdaRenderingContext implements RenderingContext {
 
 	@Override
 	public VariableContext createEnclosedVariableContext() {
-		return variables.createEnclosedContext();
+		/*
+		 * The template of the lambda is inlined where the lambda is called so it has to
+		 * see the variables of enclosing sections (e.g. loop variables).
+		 */
+		return parent.createEnclosedVariableContext();
 	}
 
 	@Override
@@ -0,0 +1,114 @@
+package io.jstach.apt.internal.context;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * A Java local variable declared by generated render code that code following the
+ * declaration might use. Section bodies that are moved into their own methods get the
+ * local variables they use as parameters.
+ * @param type the type as code or <code>null</code> if the type cannot be written in code
+ * (type variables, captures, intersections) and thus cannot be a parameter.
+ * @param name the variable name.
+ */
+public record LocalVariable(@Nullable String type, String name) {
+
+	static LocalVariable of(TypeMirror type, String name) {
+		return new LocalVariable(typeCode(type), name);
+	}
+
+	/**
+	 * Whether the variable can be declared as a method parameter.
+	 * @return true if the type is known
+	 */
+	public boolean isParameter() {
+		return type != null;
+	}
+
+	/*
+	 * Unlike ToStringTypeVisitor we give up on anything that is not denotable in a static
+	 * method of the renderer.
+	 */
+	static @Nullable String typeCode(TypeMirror type) {
+		var kind = type.getKind();
+		if (kind.isPrimitive()) {
+			return kind.name().toLowerCase(Locale.ROOT);
+		}
+		if (kind == TypeKind.ARRAY) {
+			String component = typeCode(((ArrayType) type).getComponentType());
+			return component == null ? null : component + "[]";
+		}
+		if (kind != TypeKind.DECLARED) {
+			return null;
+		}
+		DeclaredType declaredType = (DeclaredType) type;
+		TypeElement element = (TypeElement) declaredType.asElement();
+		String name = element.getQualifiedName().toString();
+		if (name.isEmpty() || isPrivate(element)) {
+			return null;
+		}
+		/*
+		 * Inner classes of parameterized types would need the type arguments of the
+		 * enclosing type.
+		 */
+		if (declaredType.getEnclosingType() instanceof DeclaredType enclosingType
+				&& !enclosingType.getTypeArguments().isEmpty()) {
+			return null;
+		}
+		var typeArguments = declaredType.getTypeArguments();
+		if (typeArguments.isEmpty()) {
+			return name;
+		}
+		List<String> args = new ArrayList<>(typeArguments.size());
+		for (TypeMirror ta : typeArguments) {
+			String arg = typeArgumentCode(ta);
+			if (arg == null) {
+				return null;
+			}
+			args.add(arg);
+		}
+		return name + "<" + String.join(", ", args) + ">";
+	}
+
+	private static @Nullable String typeArgumentCode(TypeMirror type) {
+		if (type instanceof WildcardType wildcardType) {
+			var extendsBound = wildcardType.getExtendsBound();
+			var superBound = wildcardType.getSuperBound();
+			if (extendsBound != null) {
+				String bound = typeCode(extendsBound);
+				return bound == null ? null : "? extends " + bound;
+			}
+			if (superBound != null) {
+				String bound = typeCode(superBound);
+				return bound == null ? null : "? super " + bound;
+			}
+			return "?";
+		}
+		return typeCode(type);
+	}
+
+	private static boolean isPrivate(TypeElement element) {
+		@Nullable
+		Element e = element;
+		while (e instanceof TypeElement) {
+			if (e.getModifiers().contains(Modifier.PRIVATE)) {
+				return true;
+			}
+			e = e.getEnclosingElement();
+		}
+		return false;
+	}
+
+}
@@ -31,7 +31,9 @@ package io.jstach.apt.internal.context;
 
 import java.text.MessageFormat;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Modifier;
@@ -45,6 +47,7 @@ import javax.lang.model.type.WildcardType;
 import javax.lang.model.util.ElementFilter;
 
 import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
 
 import io.jstach.apt.internal.AnnotatedException;
 import io.jstach.apt.internal.FormatterTypes;
@@ -56,6 +59,7 @@ import io.jstach.apt.internal.context.types.KnownTypes;
 import io.jstach.apt.internal.context.types.NativeType;
 import io.jstach.apt.internal.context.types.ObjectType;
 import io.jstach.apt.prism.JStacheLambdaPrism;
+import io.jstach.apt.prism.Prisms.Flag;
 
 /**
  * This class allows to create TemplateCompilerContext instance
@@ -69,11 +73,12 @@ public class RenderingCodeGenerator {
 	 * @param javaModel language model to allow java expression manipulation
 	 * @param formatClass type declaration denoting text format. formatClass should not
 	 * contain type variables.
+	 * @param flags flags of the templates that change the shape of the generated code
 	 * @return
 	 */
 	public static RenderingCodeGenerator createInstance(JavaLanguageModel javaModel, FormatterTypes formatterTypes,
-			FormatCallType formatCallType) {
-		return new RenderingCodeGenerator(javaModel.knownTypes(), javaModel, formatterTypes, formatCallType);
+			FormatCallType formatCallType, Set<Flag> flags) {
+		return new RenderingCodeGenerator(javaModel.knownTypes(), javaModel, formatterTypes, formatCallType, flags);
 	}
 
 	private final KnownTypes knownTypes;
@@ -84,12 +89,34 @@ public class RenderingCodeGenerator {
 
 	private FormatCallType formatCallType;
 
+	private final Set<Flag> flags;
+
+	/*
+	 * pure lambda and section body -> static cache field shared by all the render methods
+	 * of the renderer.
+	 */
+	private final Map<String, LambdaCache> lambdaCaches = new LinkedHashMap<>();
+
+	/**
+	 * A static field of the renderer that caches the results of a pure lambda.
+	 * @param name field name.
+	 * @param size number of entries of the table which is a power of 2.
+	 */
+	public record LambdaCache(String name, int size) {
+	}
+
+	/**
+	 * Size of the result table of pure lambdas that take a context parameter.
+	 */
+	public static final int LAMBDA_CACHE_SIZE = 256;
+
 	private RenderingCodeGenerator(KnownTypes types, JavaLanguageModel javaModel, FormatterTypes formatterTypes,
-			FormatCallType formatCallType) {
+			FormatCallType formatCallType, Set<Flag> flags) {
 		this.knownTypes = types;
 		this.javaModel = javaModel;
 		this.formatterTypes = formatterTypes;
 		this.formatCallType = formatCallType;
+		this.flags = flags;
 	}
 
 	public FormatCallType getFormatCallType() {
@@ -100,6 +127,18 @@ public class RenderingCodeGenerator {
 		this.formatCallType = formatCallType;
 	}
 
+	/**
+	 * The caches of pure lambdas that were used.
+	 * @return caches that need to be declared as static fields.
+	 */
+	public List<LambdaCache> lambdaCaches() {
+		return List.copyOf(lambdaCaches.values());
+	}
+
+	LambdaCache lambdaCache(String key, int size) {
+		return lambdaCaches.computeIfAbsent(key, k -> new LambdaCache("LAMBDA_CACHE_" + lambdaCaches.size(), size));
+	}
+
 	String generateRenderingCode(JavaExpression expression, VariableContext variables, String path)
 			throws TypeException {
 		TypeMirror type = expression.type();
@@ -183,7 +222,7 @@ public class RenderingCodeGenerator {
 			String template = p.template();
 			Lambda lambda;
 			try {
-				lambda = Lambda.of(root, lm, name, template);
+				lambda = Lambda.of(root, lm, name, template, p.pure());
 			}
 			catch (Exception e1) {
 				throw new AnnotatedException(e1.getMessage(), lm);
@@ -227,8 +266,6 @@ public class RenderingCodeGenerator {
 				ContextType.ROOT);
 	}
 
-	private boolean USE_LIST_CONTEXT = Boolean.getBoolean("USE_LIST_CONTEXT");
-
 	// childType here is more like "current type"
 	RenderingContext createRenderingContext(ContextType childType, JavaExpression expression,
 			RenderingContext enclosing) throws TypeException {
@@ -249,7 +286,7 @@ public class RenderingCodeGenerator {
 		}
 		else if (javaModel.isType(expression.type(), knownTypes._boolean)
 				&& !(childType.isVar() || childType == ContextType.ROOT)) {
-			return new BooleanRenderingContext(expression.text(), enclosing);
+			return new BooleanRenderingContext(expression.text(), enclosing, constantBoolean(expression));
 		}
 		else if (javaModel.isType(expression.type(), knownTypes._Boolean)
 				&& !(childType.isVar() || childType == ContextType.ROOT)) {
@@ -260,20 +297,21 @@ public class RenderingCodeGenerator {
 		else if (javaModel.isType(expression.type(), knownTypes._Optional)) {
 			return createOptionalContext(childType, expression, enclosing);
 		}
-		else if (USE_LIST_CONTEXT && javaModel.isType(expression.type(), knownTypes._List)) {
-			RenderingContext nullable = nullableRenderingContext(expression, enclosing);
-			VariableContext variableContext = nullable.createEnclosedVariableContext();
-			String indexVariableName = variableContext.introduceNewNameLike("i");
-			RenderingContext variables = new VariablesRenderingContext(variableContext, nullable);
-			ListRenderingContext list = new ListRenderingContext(expression, indexVariableName, variables);
-			return createRenderingContext(childType, list.componentExpession(), list);
+		else if (childType == ContextType.SECTION && isIndexedList(expression.type())) {
+			return createIndexedContext(childType, IterableRenderingContext.Source.LIST, expression, enclosing);
 		}
 		else if (javaModel.isType(expression.type(), knownTypes._Iterable) && childType == ContextType.SECTION) {
 			return createIterableContext(childType, expression, enclosing);
 		}
+		else if (childType == ContextType.SECTION && isSinglePass(expression.type())) {
+			return createSinglePassContext(expression, enclosing);
+		}
 		else if (javaModel.isType(expression.type(), knownTypes._Map)) {
 			return createMapContext(expression, enclosing);
 		}
+		else if (expression.type().getKind() == TypeKind.ARRAY && childType == ContextType.SECTION) {
+			return createIndexedContext(childType, IterableRenderingContext.Source.ARRAY, expression, enclosing);
+		}
 		else if (expression.type().getKind() == TypeKind.ARRAY) {
 			RenderingContext nullable = nullableRenderingContext(expression, enclosing);
 			VariableContext variableContext = nullable.createEnclosedVariableContext();
@@ -338,6 +376,34 @@ public class RenderingCodeGenerator {
 		return map;
 	}
 
+	/*
+	 * Lists are iterated by index instead of with an iterator if they are statically
+	 * known to be RandomAccess.
+	 */
+	private boolean isIndexedList(TypeMirror type) {
+		if (flags.contains(Flag.ITERATOR_LOOPS) || !javaModel.isType(type, knownTypes._List)) {
+			return false;
+		}
+		return flags.contains(Flag.RANDOM_ACCESS_LISTS) || javaModel.isType(type, knownTypes._RandomAccess);
+	}
+
+	private RenderingContext createIndexedContext(ContextType childType, IterableRenderingContext.Source source,
+			JavaExpression expression, RenderingContext enclosing) throws TypeException {
+		RenderingContext nullable = nullableRenderingContext(expression, enclosing);
+		VariableContext variableContext = nullable.createEnclosedVariableContext();
+		String elementVariableName = variableContext.introduceNewNameLike("element");
+		String indexVariableName = variableContext.introduceNewNameLike("i");
+
+		RenderingContext variables = new VariablesRenderingContext(variableContext, nullable);
+		IterableRenderingContext indexed = new IterableRenderingContext(expression, source, elementVariableName,
+				indexVariableName, variables);
+		/*
+		 * Array elements have always been sections themselves unlike iterable elements.
+		 */
+		ContextType elementType = source == IterableRenderingContext.Source.ARRAY ? childType : ContextType.SECTION_VAR;
+		return createRenderingContext(elementType, indexed.elementExpession(), indexed);
+	}
+
 	private RenderingContext createIterableContext(ContextType childType, JavaExpression expression,
 			RenderingContext enclosing) throws TypeException {
 		RenderingContext nullable = nullableRenderingContext(expression, enclosing);
@@ -354,6 +420,49 @@ public class RenderingCodeGenerator {
 		return createRenderingContext(ContextType.SECTION_VAR, iterable.elementExpession(), iterable);
 	}
 
+	/*
+	 * Sections of boolean constants are folded at compile time.
+	 */
+	private static @Nullable Boolean constantBoolean(JavaExpression expression) {
+		return expression.constantValue() instanceof Boolean b ? b : null;
+	}
+
+	/**
+	 * Whether the type is an iterator, spliterator or stream that can only be traversed
+	 * once. The expressions of these types should not be evaluated more than once.
+	 * @param type type of the expression
+	 * @return true if single pass
+	 */
+	boolean isSinglePass(TypeMirror type) {
+		if (type instanceof WildcardType wildcardType) {
+			var extendsBound = wildcardType.getExtendsBound();
+			return extendsBound != null && isSinglePass(extendsBound);
+		}
+		var source = IterableRenderingContext.Source.of(javaModel, type);
+		return source != null && source.isSinglePass();
+	}
+
+	private RenderingContext createSinglePassContext(JavaExpression expression, RenderingContext enclosing)
+			throws TypeException {
+		var source = IterableRenderingContext.Source.of(javaModel, expression.type());
+		if (source == null) {
+			throw new IllegalStateException("expected single pass type. bug.");
+		}
+		/*
+		 * The null check is done on a local in the loop code so that the expression is
+		 * only evaluated once. The block is for the scope of the index variable.
+		 */
+		RenderingContext block = new BlockRenderingContext(enclosing);
+		VariableContext variableContext = block.createEnclosedVariableContext();
+		String elementVariableName = variableContext.introduceNewNameLike("element");
+		String indexVariableName = variableContext.introduceNewNameLike("i");
+
+		RenderingContext variables = new VariablesRenderingContext(variableContext, block);
+		IterableRenderingContext iterable = new IterableRenderingContext(expression, source, elementVariableName,
+				indexVariableName, variables);
+		return createRenderingContext(ContextType.SECTION_VAR, iterable.elementExpession(), iterable);
+	}
+
 	RenderingContext createInvertedRenderingContext(JavaExpression expression, RenderingContext enclosing)
 			throws TypeException {
 		if (knownTypes._Iterable.isType(expression.type())
@@ -362,6 +471,19 @@ public class RenderingCodeGenerator {
 					"(" + expression.text() + " == null )" + " || ! " + expression.text() + ".iterator().hasNext()",
 					enclosing);
 		}
+		if (javaModel.isType(expression.type(), knownTypes._Iterator)) {
+			/*
+			 * Does not consume an element but an iterator that was already traversed by a
+			 * section is empty
+			 */
+			return new BooleanRenderingContext(
+					"(" + expression.text() + " == null )" + " || ! " + expression.text() + ".hasNext()", enclosing);
+		}
+		if (isSinglePass(expression.type())) {
+			throw new TypeException(MessageFormat.format(
+					"Can''t invert {0} expression of {1} type as checking for emptiness would consume it. Use an Iterable or Iterator instead.",
+					expression.text(), expression.type()));
+		}
 		if (expression.type() instanceof WildcardType) {
 			// WildcardType wildcardType = (WildcardType) expression.type();
 			// System.out.println("!!!!!!!!!!!!!!!!!!!!!!!!!!");
@@ -374,7 +496,9 @@ public class RenderingCodeGenerator {
 			throw new IllegalStateException("bug");
 		}
 		else if (javaModel.isType(expression.type(), knownTypes._boolean)) {
-			return new BooleanRenderingContext("!(" + expression.text() + ")", enclosing);
+			Boolean constant = constantBoolean(expression);
+			return new BooleanRenderingContext("!(" + expression.text() + ")", enclosing,
+					constant == null ? null : !constant);
 		}
 		else if (javaModel.isType(expression.type(), knownTypes._Boolean)) {
 			return new BooleanRenderingContext("(" + expression.text() + ") == null || !(" + expression.text() + ")",
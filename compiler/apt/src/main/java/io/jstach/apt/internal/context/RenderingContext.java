@@ -29,6 +29,7 @@
  */
 package io.jstach.apt.internal.context;
 
+import java.util.List;
 import java.util.function.Predicate;
 
 import org.eclipse.jdt.annotation.Nullable;
@@ -51,6 +52,15 @@ interface RenderingContext {
 		return "";
 	}
 
+	/**
+	 * Local variables declared by {@link #beginSectionRenderingCode()} of this context
+	 * (not its parents) that the code of the section content can use.
+	 * @return declared variables
+	 */
+	default List<LocalVariable> declaredVariables() {
+		return List.of();
+	}
+
 	/**
 	 * Gets the method (or field) directly in this context. This is for dotted names as
 	 * they cannot look up the context stack.
@@ -106,6 +116,17 @@ interface RenderingContext {
 	@Nullable
 	RenderingContext getParent();
 
+	/**
+	 * Whether the code of this context can never run because an enclosing section is
+	 * known at compile time to be false. The code of unreachable contexts is not
+	 * generated at all.
+	 * @return true if the code would be dead
+	 */
+	default boolean isUnreachable() {
+		var p = getParent();
+		return p != null && p.isUnreachable();
+	}
+
 	default String printStack() {
 		StringBuilder sb = new StringBuilder();
 		@Nullable
@@ -33,14 +33,18 @@ import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.regex.Pattern;
 
 import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 
 import org.eclipse.jdt.annotation.Nullable;
@@ -72,14 +76,37 @@ public class TemplateCompilerContext {
 
 	private final ContextType childType;
 
+	/*
+	 * The context a partial is included from which is not an enclosing context for names
+	 * but decides whether the partial is rendered.
+	 */
+	private final @Nullable TemplateCompilerContext includer;
+
+	/*
+	 * Local variable declarations of hoisted expressions that are printed before the
+	 * section begins.
+	 */
+	private final String declarations;
+
+	/*
+	 * The local variables declared by the above declarations.
+	 */
+	private final List<LocalVariable> declaredVariables;
+
+	/*
+	 * Expressions hoisted into local variables declared in the Java block of this context
+	 * (expression text -> local variable name).
+	 */
+	private final Map<String, String> hoisted = new HashMap<>();
+
 	TemplateCompilerContext(TemplateStack templateStack, Lambdas lambdas, RenderingCodeGenerator processor,
 			VariableContext variables, RenderingContext field, ContextType childType) {
-		this(templateStack, lambdas, processor, variables, field, childType, null);
+		this(templateStack, lambdas, processor, variables, field, childType, null, new Declarations(), null);
 	}
 
 	private TemplateCompilerContext(TemplateStack templateStack, Lambdas lambdas, RenderingCodeGenerator processor,
-			VariableContext variables, RenderingContext field, ContextType childType,
-			@Nullable EnclosedRelation parent) {
+			VariableContext variables, RenderingContext field, ContextType childType, @Nullable EnclosedRelation parent,
+			Declarations declarations, @Nullable TemplateCompilerContext includer) {
 		this.templateStack = templateStack;
 		this.lambdas = lambdas;
 		this.enclosedRelation = parent;
@@ -87,6 +114,9 @@ public class TemplateCompilerContext {
 		this.generator = processor;
 		this.variables = variables;
 		this.childType = childType;
+		this.includer = includer;
+		this.declarations = declarations.code();
+		this.declaredVariables = declarations.variables();
 	}
 
 	private String sectionBodyRenderingCode(VariableContext variables) throws ContextException {
@@ -106,20 +136,23 @@ public class TemplateCompilerContext {
 	}
 
 	public String renderUnescapedOutputCode(String code) {
+		variables.templateSize().addText(code, isConditional(), loopDepth());
 		return switch (generator.getFormatCallType()) {
 			case JSTACHIO, STACHE -> unescapedWriterExpression() + ".append(" + code + ");";
 			case JSTACHIO_BYTE -> {
-				String byteVar = variables.addTextCode(code);
-				yield unescapedWriterExpression() + ".write(" + byteVar + ");";
+				String args = variables.addTextWriteArguments(code);
+				yield unescapedWriterExpression() + ".write(" + args + ");";
 			}
 		};
 	}
 
 	public String renderingCode() throws ContextException {
+		addVariableSize();
 		return beginSectionRenderingCode() + sectionBodyRenderingCode(variables) + endSectionRenderingCode();
 	}
 
 	public String unescapedRenderingCode() throws ContextException {
+		addVariableSize();
 		return beginSectionRenderingCode() + sectionBodyRenderingCode(variables.unescaped())
 				+ endSectionRenderingCode();
 	}
@@ -141,6 +174,11 @@ public class TemplateCompilerContext {
 				case RAW_STRING -> {
 					// TODO use formatter for non string types
 					// return generator.generateRenderingCode(entry, variables, path);
+					if (lm.method().pure()) {
+						StringBuilder code = new StringBuilder();
+						String value = pureLambdaCall(lm, javaCode, ctx, entry, code);
+						yield code + variables.unescapedWriter() + ".append((String) " + value + ");";
+					}
 					yield variables.unescapedWriter() + ".append(" + entry.text() + ");";
 				}
 				case MODEL -> {
@@ -178,8 +216,18 @@ public class TemplateCompilerContext {
 					}
 					StringBuilder lambdaCode = new StringBuilder();
 					lambdaCode.append("/* ").append(context.context).append("*/\n");
-					lambdaCode.append(variableType).append(" ").append(variableName).append(" = ").append(entry.text())
-							.append(";");
+					if (lm.method().pure()) {
+						String value = pureLambdaCall(lm, javaCode, ctx, entry, lambdaCode);
+						/*
+						 * Casting Object to a primitive type unboxes.
+						 */
+						lambdaCode.append(modelType).append(" ").append(variableName).append(" = (").append(modelType)
+								.append(") ").append(value).append(";");
+					}
+					else {
+						lambdaCode.append(variableType).append(" ").append(variableName).append(" = ")
+								.append(entry.text()).append(";");
+					}
 					lambdaCode.append(compiler.run(context, sr, partials));
 					yield lambdaCode.toString();
 				}
@@ -190,6 +238,37 @@ public class TemplateCompilerContext {
 		}
 	}
 
+	/*
+	 * Pure lambdas are looked up in a static table of the renderer before they are
+	 * called. Call sites with the same lambda and section body share the table as the
+	 * result only depends on the object the lambda is called on and the arguments.
+	 */
+	private String pureLambdaCall(Lambda lm, String javaCode, LambdaContext ctx, JavaExpression entry,
+			StringBuilder code) {
+		var m = lm.method();
+		boolean bodyOnly = lm.isBodyOnly();
+		String cacheKey = m.methodElement().getEnclosingElement() + "#" + m.methodElement()
+				+ (m.params().stream().anyMatch(p -> p.paramType() == Lambda.ParamType.STRING_BODY) ? "#" + javaCode
+						: "");
+		var cache = generator.lambdaCache(cacheKey, bodyOnly ? 1 : RenderingCodeGenerator.LAMBDA_CACHE_SIZE);
+		var receiverExpression = lm.receiverExpression();
+		String receiver = receiverExpression == null ? "null" : receiverExpression.text();
+		String key = variables.introduceNewNameLike("key");
+		String value = variables.introduceNewNameLike("value");
+		code.append("Object ").append(key).append(" = ").append(lm.cacheKeyExpression(javaCode, ctx).text())
+				.append(";\n");
+		code.append("Object ").append(value).append(" = ").append(key).append(" == null ? null : ").append(cache.name())
+				.append(".get(").append(receiver).append(", ").append(key).append(");\n");
+		code.append("if (").append(value).append(" == null) {\n");
+		code.append("    ").append(value).append(" = ").append(entry.text()).append(";\n");
+		code.append("    if (").append(key).append(" != null) {\n");
+		code.append("        ").append(cache.name()).append(".put(").append(receiver).append(", ").append(key)
+				.append(", ").append(value).append(");\n");
+		code.append("    }\n");
+		code.append("}\n");
+		return value;
+	}
+
 	/*
 	 * This dumb callback interface is so the context does not have to know all about
 	 * Template Compiling
@@ -205,6 +284,96 @@ public class TemplateCompilerContext {
 		return debugComment() + context.beginSectionRenderingCode();
 	}
 
+	/**
+	 * Local variable declarations that need to be printed before the section begins. They
+	 * are not part of {@link #beginSectionRenderingCode()} as the variables are declared
+	 * in the enclosing block and not in the section.
+	 * @return code that might be empty
+	 */
+	public String declarations() {
+		return declarations;
+	}
+
+	/**
+	 * The variables declared by {@link #declarations()}.
+	 * @return variables in declaration order
+	 */
+	public List<LocalVariable> declaredVariables() {
+		return declaredVariables;
+	}
+
+	/**
+	 * The local variables declared by {@link #beginSectionRenderingCode()} that the code
+	 * of the section content can use like the element and index of a loop.
+	 * @return variables that might be empty
+	 */
+	public List<LocalVariable> sectionVariables() {
+		List<LocalVariable> result = new ArrayList<>();
+		@Nullable
+		RenderingContext c = context;
+		while (c != null && !(c instanceof OwnedRenderingContext)) {
+			result.addAll(c.declaredVariables());
+			c = c.getParent();
+		}
+		return result;
+	}
+
+	/**
+	 * Whether this context is known at compile time to never render because of a constant
+	 * false section. No code should be generated for it.
+	 * @return true if unreachable
+	 */
+	public boolean isUnreachable() {
+		return context.isUnreachable();
+	}
+
+	/**
+	 * Whether static text is shared with other templates through a text pool.
+	 * @return true if a pool is used
+	 */
+	public boolean isTextPooled() {
+		return variables.textPool() != null;
+	}
+
+	private void addVariableSize() {
+		if (!isUnreachable()) {
+			variables.templateSize().addVariable(isConditional(), loopDepth());
+		}
+	}
+
+	/*
+	 * Whether the content of this context might not be rendered at all.
+	 */
+	private boolean isConditional() {
+		@Nullable
+		TemplateCompilerContext c = this;
+		while (c != null) {
+			var t = c.childType;
+			if (t == ContextType.SECTION || t == ContextType.INVERTED || t == ContextType.LAMBDA) {
+				return true;
+			}
+			var er = c.enclosedRelation;
+			c = er == null ? c.includer : er.parentContext();
+		}
+		return false;
+	}
+
+	/*
+	 * How many loops enclose the content of this context.
+	 */
+	private int loopDepth() {
+		int depth = 0;
+		@Nullable
+		RenderingContext c = context;
+		while (c != null) {
+			if (c instanceof IterableRenderingContext || c instanceof ArrayRenderingContext) {
+				depth++;
+			}
+			c = c.getParent();
+		}
+		return depth;
+	}
+
 	private String debugComment() {
 		return "/* RenderingContext: " + context.getClass() + " */\n" + //
 				"/* TypeMirror: " + context.currentExpression().type() + " */\n";
@@ -218,12 +387,96 @@ public class TemplateCompilerContext {
 	public TemplateCompilerContext createForParameterPartial(String template) {
 		// No enclosing relation for new partials
 		return new TemplateCompilerContext(templateStack.ofParameterPartial(template), lambdas, generator, variables,
-				context, ContextType.PARENT_PARTIAL);
+				context, ContextType.PARENT_PARTIAL, null, new Declarations(), this);
 	}
 
 	public TemplateCompilerContext createForPartial(String template) {
 		return new TemplateCompilerContext(templateStack.ofPartial(template), lambdas, generator, variables, context,
-				ContextType.PARTIAL);
+				ContextType.PARTIAL, null, new Declarations(), this);
+	}
+
+	/**
+	 * The expression of the object of the current context if a partial included here can
+	 * be compiled on its own with {@link #createForSharedPartial(String)}.
+	 * @return java expression or <code>null</code> if the current context is not a plain
+	 * object whose type can be written in code.
+	 */
+	public @Nullable String sharedPartialArgument() {
+		RenderingContext c = context;
+		while (c instanceof OwnedRenderingContext owned) {
+			c = owned.getParent();
+		}
+		if (c.getClass() != DeclaredTypeRenderingContext.class || isUnreachable()) {
+			return null;
+		}
+		var model = c.currentExpression();
+		if (LocalVariable.typeCode(model.type()) == null) {
+			return null;
+		}
+		return model.text();
+	}
+
+	/**
+	 * Creates the context of a partial that is compiled on its own against the type of
+	 * the object of the current context. Only the object is in scope so names of
+	 * enclosing contexts, section variables and lambdas do not resolve and the partial
+	 * has to be inlined instead.
+	 * @param template partial name
+	 * @return the model parameter of the compiled code and the context which has its own
+	 * root variables.
+	 */
+	public Entry<LocalVariable, TemplateCompilerContext> createForSharedPartial(String template) {
+		if (sharedPartialArgument() == null) {
+			throw new IllegalStateException("partial cannot be compiled on its own in this context");
+		}
+		TypeMirror type = context.currentExpression().type();
+		VariableContext isolated = variables.createIsolatedContext();
+		String name = isolated.introduceNewNameLike("data");
+		var javaModel = generator.javaModel;
+		JavaExpression expression = javaModel.expression(name, type);
+		RenderingContext root = new DeclaredTypeRenderingContext(expression, javaModel.asElement((DeclaredType) type),
+				new RootRenderingContext(isolated));
+		var partialContext = new TemplateCompilerContext(templateStack.ofPartial(template), new Lambdas(Map.of()),
+				generator, isolated, root, ContextType.ROOT);
+		return Map.entry(LocalVariable.of(type, name), partialContext);
+	}
+
+	/**
+	 * Adds the static text and variables of code compiled with
+	 * {@link #createForSharedPartial(String)} that is called here to the output size.
+	 * @param called context of the called code
+	 */
+	public void addTemplateSize(TemplateCompilerContext called) {
+		if (!isUnreachable()) {
+			variables.templateSize().addAll(called.variables.templateSize(), isConditional(), loopDepth());
+		}
+	}
+
+	/**
+	 * Starts static text and variables that are one of alternatives like a locale variant
+	 * of a message.
+	 * @return start of the alternative for {@link #addTemplateSizeAlternatives(List)}
+	 */
+	public int startTemplateSizeAlternative() {
+		return variables.templateSize().mark();
+	}
+
+	/**
+	 * Counts the static text and variables added since the first start as alternatives of
+	 * which only one is rendered.
+	 * @param starts the starts of the alternatives in order
+	 */
+	public void addTemplateSizeAlternatives(List<Integer> starts) {
+		variables.templateSize().addAlternatives(starts, isConditional(), loopDepth());
+	}
+
+	/**
+	 * The variables of the context which for the root context of code compiled on its own
+	 * also have its static text.
+	 * @return variables
+	 */
+	public VariableContext variables() {
+		return variables;
 	}
 
 	Entry<String, TemplateCompilerContext> createForLambda(String lambdaName, TypeMirror model)
@@ -240,6 +493,20 @@ public class TemplateCompilerContext {
 
 	}
 
+	/**
+	 * The expression of the model of the template which is in scope everywhere in the
+	 * template including sections, partials and lambdas.
+	 * @return java expression of the root model.
+	 */
+	public String rootExpression() {
+		RenderingContext c = context;
+		RenderingContext p;
+		while ((p = c.getParent()) != null && !(p instanceof RootRenderingContext)) {
+			c = p;
+		}
+		return c.currentExpression().text();
+	}
+
 	public TemplateCompilerContext getChild(String path, ContextType childType) throws ContextException {
 		return _getChild(path, childType);
 	}
@@ -278,11 +545,16 @@ public class TemplateCompilerContext {
 	}
 
 	private TemplateCompilerContext createEnclosed(String name, ContextType childType, RenderingContext enclosedField) {
+		return createEnclosed(name, childType, enclosedField, new Declarations());
+	}
+
+	private TemplateCompilerContext createEnclosed(String name, ContextType childType, RenderingContext enclosedField,
+			Declarations declarations) {
 		if (enclosedField instanceof LambdaRenderingContext) {
 			childType = ContextType.LAMBDA;
 		}
 		return new TemplateCompilerContext(templateStack, lambdas, generator, variables, enclosedField, childType,
-				new EnclosedRelation(name, this));
+				new EnclosedRelation(name, this), declarations, null);
 	}
 
 	private TemplateCompilerContext _getChild(String name, ContextType childType) throws ContextException {
@@ -307,12 +579,14 @@ public class TemplateCompilerContext {
 		}
 
 		RenderingContext enclosing = new OwnedRenderingContext(context);
+		Declarations declarations = new Declarations();
 		// System.out.println(enclosing.printStack());
 		var it = names.iterator();
 		/*
 		 * A non dotted name can be resolved against parents
 		 */
-		var start = _getChildRender(it.next(), it.hasNext() ? childType.pathType() : childType, enclosing, false);
+		var start = _getChildRender(it.next(), it.hasNext() ? childType.pathType() : childType, enclosing, false,
+				declarations);
 		enclosing = start;
 		/*
 		 * Each part of a dotted name should resolve only against its parent. direct =
@@ -325,7 +599,7 @@ public class TemplateCompilerContext {
 			 */
 			if (childType == ContextType.INVERTED) {
 				try {
-					enclosing = _getChildRender(n, childType, enclosing, true);
+					enclosing = _getChildRender(n, childType, enclosing, true, declarations);
 				}
 				catch (FieldNotFoundContextException e) {
 					if (templateStack.flags().contains(Flag.NO_INVERTED_BROKEN_CHAIN)) {
@@ -336,21 +610,22 @@ public class TemplateCompilerContext {
 				}
 			}
 			else {
-				enclosing = _getChildRender(n, it.hasNext() ? childType.pathType() : childType, enclosing, true);
+				enclosing = _getChildRender(n, it.hasNext() ? childType.pathType() : childType, enclosing, true,
+						declarations);
 			}
 		}
-		return createEnclosed(name, childType, enclosing);
+		return createEnclosed(name, childType, enclosing, declarations);
 	}
 
 	private RenderingContext _getChildRender(String name, ContextType childType, RenderingContext enclosing)
 			throws ContextException {
-		return _getChildRender(name, childType, enclosing, false);
+		return _getChildRender(name, childType, enclosing, false, null);
 	}
 
 	private RenderingContext _getChildRender(String name, ContextType childType, RenderingContext enclosing,
-			boolean direct) throws ContextException {
+			boolean direct, @Nullable Declarations declarations) throws ContextException {
 		try {
-			return __getChildRender(name, childType, enclosing, direct);
+			return __getChildRender(name, childType, enclosing, direct, declarations);
 		}
 		catch (TypeException ex) {
 			throw new ContextException.TypeNotAllowedContextException(
@@ -359,7 +634,7 @@ public class TemplateCompilerContext {
 	}
 
 	private RenderingContext __getChildRender(String name, ContextType childType, RenderingContext enclosing,
-			boolean direct) throws ContextException, TypeException {
+			boolean direct, @Nullable Declarations declarations) throws ContextException, TypeException {
 		if (name.equals(".")) {
 			return switch (childType) {
 				case ESCAPED_VAR, UNESCAPED_VAR, PATH -> enclosing;
@@ -389,7 +664,7 @@ public class TemplateCompilerContext {
 		if (entry == null && childType == ContextType.SECTION) {
 			var lambda = lambdas.lambdas().get(name);
 			if (lambda != null) {
-				return new LambdaRenderingContext(lambda, variables, enclosing);
+				return new LambdaRenderingContext(lambda, enclosing);
 			}
 		}
 		if (entry == null & !direct) {
@@ -406,6 +681,9 @@ public class TemplateCompilerContext {
 					"Field not found in current context: ''{0}'' , template: " + templateStack.describeTemplateStack(),
 					name));
 		}
+		if (declarations != null) {
+			entry = hoist(entry, childType, enclosing, direct, declarations);
+		}
 		RenderingContext enclosedField;
 		enclosedField = switch (childType) {
 			case ESCAPED_VAR, UNESCAPED_VAR, SECTION, SECTION_VAR, PATH ->
@@ -423,6 +701,143 @@ public class TemplateCompilerContext {
 		return enclosedField;
 	}
 
+	/*
+	 * Common subexpression elimination of accessor chains. Method calls used as sections,
+	 * inverted sections and dotted path parts are evaluated once into a local variable
+	 * declared in the current Java block. Later tags in the same block (or nested blocks)
+	 * with the same expression reuse the local. For example if/else section pairs or
+	 * {{a.b.c}} followed by {{a.b.d}}.
+	 *
+	 * Keys of Map and ContextNode models are hoisted for variables as well. This makes up
+	 * the lookup plan of a map section: each key used in the section body is looked up
+	 * once where it is first used and every later tag with the key reuses the local
+	 * instead of doing another hash lookup (or for ContextNode another walk up the
+	 * parents).
+	 */
+	private JavaExpression hoist(JavaExpression entry, ContextType childType, RenderingContext enclosing,
+			boolean direct, Declarations declarations) {
+		switch (childType) {
+			case SECTION, PATH, INVERTED -> {
+			}
+			case ESCAPED_VAR, UNESCAPED_VAR -> {
+				if (!entry.isKeyLookup()) {
+					return entry;
+				}
+			}
+			default -> {
+				return entry;
+			}
+		}
+		String text = entry.text();
+		String path = entry.path();
+		/*
+		 * Only accessor calls are hoisted and not virtual keys like @last
+		 */
+		if (path.isEmpty() || !ACCESSOR_CALL.matcher(text).matches()) {
+			return entry;
+		}
+		/*
+		 * Iterators and streams would be consumed by the first use
+		 */
+		if (generator.isSinglePass(entry.type())) {
+			return entry;
+		}
+		String local = findHoisted(text);
+		if (local != null) {
+			return entry.withText(local);
+		}
+		String code;
+		if (direct) {
+			/*
+			 * The receiver of dotted path parts might be null so we can only hoist if we
+			 * can check it cheaply.
+			 */
+			JavaExpression receiver = enclosing.currentExpression();
+			if (!isJavaIdentifier(receiver.text())) {
+				return entry;
+			}
+			if (enclosing.variableContext().nullChecking().isNullable(receiver)) {
+				TypeKind kind = entry.type().getKind();
+				if (kind == TypeKind.BOOLEAN) {
+					/*
+					 * The chain is false (and the inverted chain true) if the receiver is
+					 * null anyway.
+					 */
+					code = receiver.text() + " != null && " + text;
+				}
+				else if (kind.isPrimitive()) {
+					return entry;
+				}
+				else {
+					code = receiver.text() + " == null ? null : " + text;
+				}
+			}
+			else {
+				code = text;
+			}
+		}
+		else {
+			code = text;
+		}
+		String baseName = "_" + path.substring(path.lastIndexOf('.') + 1).replaceAll("[^A-Za-z0-9_$]", "_");
+		local = variables.introduceNewNameLike(baseName);
+		hoisted.put(text, local);
+		declarations.declare(LocalVariable.of(entry.type(), local), code);
+		return entry.withText(local);
+	}
+
+	/*
+	 * Hoisted local variables of a child context collected while resolving its name.
+	 */
+	private static final class Declarations {
+
+		private final StringBuilder code = new StringBuilder();
+
+		private final List<LocalVariable> variables = new ArrayList<>();
+
+		void declare(LocalVariable variable, String initializer) {
+			code.append("var ").append(variable.name()).append(" = ").append(initializer).append(";\n");
+			variables.add(variable);
+		}
+
+		String code() {
+			return code.toString();
+		}
+
+		List<LocalVariable> variables() {
+			return List.copyOf(variables);
+		}
+
+	}
+
+	private static final Pattern ACCESSOR_CALL = Pattern.compile("[A-Za-z_$][\\w$]*(\\.[A-Za-z_$][\\w$]*)+\\(.*\\)");
+
+	private @Nullable String findHoisted(String text) {
+		@Nullable
+		TemplateCompilerContext c = this;
+		while (c != null) {
+			String local = c.hoisted.get(text);
+			if (local != null) {
+				return local;
+			}
+			var er = c.enclosedRelation;
+			c = er == null ? null : er.parentContext();
+		}
+		return null;
+	}
+
+	private static boolean isJavaIdentifier(String s) {
+		if (s.isEmpty() || !Character.isJavaIdentifierStart(s.charAt(0))) {
+			return false;
+		}
+		for (int i = 1; i < s.length(); i++) {
+			if (!Character.isJavaIdentifierPart(s.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	public boolean isEnclosed() {
 		return enclosedRelation != null;
 	}
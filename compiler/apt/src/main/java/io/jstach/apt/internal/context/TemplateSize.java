@@ -0,0 +1,160 @@
+package io.jstach.apt.internal.context;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.jstach.apt.internal.CodeAppendable;
+
+/**
+ * Collects the static text and variables of a render method to compute the output size at
+ * compile time.
+ */
+public final class TemplateSize {
+
+	/**
+	 * How many times the content of a loop is assumed to be rendered for the estimate.
+	 */
+	static final int LOOP_FACTOR = 4;
+
+	/**
+	 * Assumed encoded size of a variable for the estimate.
+	 */
+	static final int VARIABLE_SIZE = 16;
+
+	/*
+	 * Static text, a variable if the text is empty or if there are alternatives the parts
+	 * of which only one is rendered.
+	 */
+	record Part(String textCode, boolean conditional, int loopDepth, List<List<Part>> alternatives) {
+
+		Part(String textCode, boolean conditional, int loopDepth) {
+			this(textCode, conditional, loopDepth, List.of());
+		}
+
+		Part calledFrom(boolean conditional, int loopDepth) {
+			return new Part(textCode, conditional || this.conditional, loopDepth + this.loopDepth,
+					alternatives.stream().map(a -> calledFrom(a, conditional, loopDepth)).toList());
+		}
+
+		static List<Part> calledFrom(List<Part> parts, boolean conditional, int loopDepth) {
+			return parts.stream().map(p -> p.calledFrom(conditional, loopDepth)).toList();
+		}
+
+	}
+
+	private final List<Part> parts = new ArrayList<>();
+
+	void addText(String textCode, boolean conditional, int loopDepth) {
+		parts.add(new Part(textCode, conditional, loopDepth));
+	}
+
+	void addVariable(boolean conditional, int loopDepth) {
+		parts.add(new Part("", conditional, loopDepth));
+	}
+
+	/*
+	 * Adds the parts of code that is called from a place with the given condition and
+	 * loop depth.
+	 */
+	void addAll(TemplateSize other, boolean conditional, int loopDepth) {
+		parts.addAll(Part.calledFrom(other.parts, conditional, loopDepth));
+	}
+
+	/*
+	 * The start of the parts that are added next.
+	 */
+	int mark() {
+		return parts.size();
+	}
+
+	/*
+	 * Replaces the parts added since the first mark with alternatives of which only one
+	 * is rendered. Each mark is the start of an alternative.
+	 */
+	void addAlternatives(List<Integer> marks, boolean conditional, int loopDepth) {
+		if (marks.isEmpty()) {
+			return;
+		}
+		List<List<Part>> alternatives = new ArrayList<>();
+		for (int i = 0; i < marks.size(); i++) {
+			int end = i + 1 < marks.size() ? marks.get(i + 1) : parts.size();
+			alternatives.add(List.copyOf(parts.subList(marks.get(i), end)));
+		}
+		parts.subList(marks.get(0), parts.size()).clear();
+		parts.add(new Part("", conditional, loopDepth, List.copyOf(alternatives)));
+	}
+
+	/**
+	 * Encoded size of the static text that is always rendered which is the minimum size
+	 * of the output. Of alternatives like the locale variants of a message only the
+	 * smallest is counted.
+	 * @param charset template charset
+	 * @return size in bytes
+	 */
+	public int staticSize(Charset charset) {
+		return clamp(staticSize(parts, charset));
+	}
+
+	private static long staticSize(List<Part> parts, Charset charset) {
+		long size = 0;
+		for (var p : parts) {
+			if (p.conditional()) {
+				continue;
+			}
+			if (p.alternatives().isEmpty()) {
+				size += encodedLength(p.textCode(), charset);
+			}
+			else {
+				/*
+				 * The smallest alternative is always rendered.
+				 */
+				size += p.alternatives().stream().mapToLong(a -> staticSize(a, charset)).min().orElse(0);
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Rough estimate of the output size where the content of loops is rendered
+	 * {@value #LOOP_FACTOR} times per nesting level, conditional sections are rendered,
+	 * the largest of alternatives like the locale variants of a message is rendered and
+	 * variables are {@value #VARIABLE_SIZE} bytes.
+	 * @param charset template charset
+	 * @return size in bytes
+	 */
+	public int estimatedSize(Charset charset) {
+		return clamp(estimatedSize(parts, charset));
+	}
+
+	private static long estimatedSize(List<Part> parts, Charset charset) {
+		long size = 0;
+		for (var p : parts) {
+			if (!p.alternatives().isEmpty()) {
+				/*
+				 * The parts of the alternatives have their own loop depth.
+				 */
+				size += p.alternatives().stream().mapToLong(a -> estimatedSize(a, charset)).max().orElse(0);
+				continue;
+			}
+			long s = p.textCode().isEmpty() ? VARIABLE_SIZE : encodedLength(p.textCode(), charset);
+			for (int i = 0; i < p.loopDepth() && s < Integer.MAX_VALUE; i++) {
+				s *= LOOP_FACTOR;
+			}
+			size += s;
+		}
+		return size;
+	}
+
+	private static int encodedLength(String textCode, Charset charset) {
+		if (textCode.isEmpty()) {
+			return 0;
+		}
+		return CodeAppendable.stringLiteralConcatValue(textCode).getBytes(charset).length;
+	}
+
+	private static int clamp(long size) {
+		return (int) Math.min(size, Integer.MAX_VALUE);
+	}
+
+}
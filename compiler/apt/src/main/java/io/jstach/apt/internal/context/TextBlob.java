@@ -0,0 +1,153 @@
+package io.jstach.apt.internal.context;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import io.jstach.apt.internal.CodeAppendable;
+
+/**
+ * All the static text of a template pre-encoded as a single byte array constant. Text
+ * segments are written as slices of the array with offsets and lengths computed at
+ * compile time so that class initialization only encodes one string.
+ */
+public final class TextBlob {
+
+	/*
+	 * Max bytes of a string constant in the class file constant pool (modified UTF-8).
+	 */
+	private static final int MAX_CONSTANT_LENGTH = 65535;
+
+	private final String name;
+
+	private final Charset charset;
+
+	private final List<String> textCodes = new ArrayList<>();
+
+	/*
+	 * text code -> write arguments
+	 */
+	private final Map<String, String> slices = new HashMap<>();
+
+	private final List<Integer> constantLengths = new ArrayList<>();
+
+	private int length = 0;
+
+	private TextBlob(String name, Charset charset) {
+		this.name = name;
+		this.charset = charset;
+	}
+
+	/**
+	 * Creates a blob if slices of the encoded concatenation are the same as encoding each
+	 * segment which is not the case for charsets with byte order marks or state.
+	 * @param name name of the byte array constant
+	 * @param charset template charset
+	 * @return <code>null</code> if the charset cannot be used
+	 */
+	public static @Nullable TextBlob of(String name, Charset charset) {
+		if (!charset.canEncode()) {
+			return null;
+		}
+		String a = "aé";
+		String b = "€\n";
+		byte[] ab = (a + b).getBytes(charset);
+		byte[] ea = a.getBytes(charset);
+		byte[] eb = b.getBytes(charset);
+		byte[] concat = Arrays.copyOf(ea, ea.length + eb.length);
+		System.arraycopy(eb, 0, concat, ea.length, eb.length);
+		if (!Arrays.equals(ab, concat)) {
+			return null;
+		}
+		return new TextBlob(name, charset);
+	}
+
+	/**
+	 * Adds text to the blob.
+	 * @param textCode string literal concatenation code of the text
+	 * @return the arguments to pass to <code>write(byte[], int, int)</code>
+	 */
+	String add(String textCode) {
+		String args = slices.get(textCode);
+		if (args != null) {
+			return args;
+		}
+		String value = CodeAppendable.stringLiteralConcatValue(textCode);
+		int len = value.getBytes(charset).length;
+		args = name + ", " + length + ", " + len;
+		length += len;
+		textCodes.add(textCode);
+		constantLengths.add(modifiedUtf8Length(value));
+		slices.put(textCode, args);
+		return args;
+	}
+
+	/**
+	 * The name of the constant.
+	 * @return name of the byte array constant
+	 */
+	public String name() {
+		return name;
+	}
+
+	/**
+	 * Whether any text was added.
+	 * @return true if no text
+	 */
+	public boolean isEmpty() {
+		return textCodes.isEmpty();
+	}
+
+	/**
+	 * The Java expression of the text that should be encoded. Javac folds concatenated
+	 * literals into one constant which cannot be larger than 64K so large templates are
+	 * joined at class initialization instead.
+	 * @return code of a String expression
+	 */
+	public String stringCode() {
+		List<String> parts = new ArrayList<>();
+		StringBuilder part = new StringBuilder();
+		int partLength = 0;
+		for (int i = 0; i < textCodes.size(); i++) {
+			int len = constantLengths.get(i);
+			if (partLength > 0 && partLength + len > MAX_CONSTANT_LENGTH) {
+				parts.add(part.toString());
+				part.setLength(0);
+				partLength = 0;
+			}
+			if (partLength > 0) {
+				part.append(" +");
+			}
+			part.append(textCodes.get(i));
+			partLength += len;
+		}
+		parts.add(part.toString());
+		if (parts.size() == 1) {
+			return "(" + parts.get(0) + ")";
+		}
+		return "String.join(\"\", " + String.join(",", parts) + ")";
+	}
+
+	static int modifiedUtf8Length(String s) {
+		int len = 0;
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (c >= 0x0001 && c <= 0x007F) {
+				len += 1;
+			}
+			else if (c <= 0x07FF) {
+				len += 2;
+			}
+			else {
+				len += 3;
+			}
+		}
+		return len;
+	}
+
+}
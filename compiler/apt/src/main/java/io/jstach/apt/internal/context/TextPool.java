@@ -0,0 +1,111 @@
+package io.jstach.apt.internal.context;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import io.jstach.apt.internal.CodeAppendable;
+
+/**
+ * Pre-encoded static text shared by all the templates of a catalog. Larger text stays a
+ * constant of the template but the constant is initialized through the generated pool
+ * class which returns the same encoded array for identical text of different templates.
+ * <p>
+ * The pool class does not depend on which templates use it so templates compiled in
+ * different (incremental) compilations always link against it.
+ */
+public final class TextPool {
+
+	/**
+	 * Text encoded to fewer bytes than this is not worth the lookup.
+	 */
+	static final int MIN_LENGTH = 64;
+
+	private static final Charset CHARSET = StandardCharsets.UTF_8;
+
+	private final String packageName;
+
+	private final String simpleName;
+
+	/**
+	 * Creates a pool.
+	 * @param packageName package of the pool class.
+	 * @param simpleName simple name of the pool class.
+	 */
+	public TextPool(String packageName, String simpleName) {
+		this.packageName = packageName;
+		this.simpleName = simpleName;
+	}
+
+	/**
+	 * The fully qualified name of the pool class.
+	 * @return canonical name
+	 */
+	public String canonicalName() {
+		return packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+	}
+
+	/**
+	 * Whether templates of the given charset and package can use the pool.
+	 * @param charset template charset
+	 * @param templatePackage package of the template
+	 * @return true if the pool can be used
+	 */
+	public boolean supports(Charset charset, String templatePackage) {
+		return CHARSET.equals(charset) && (packageName.isEmpty() || templatePackage.equals(packageName)
+				|| templatePackage.startsWith(packageName + "."));
+	}
+
+	/**
+	 * Whether the text is large enough to be shared.
+	 * @param textCode string literal concatenation code of the text
+	 * @return true if the text constant should be initialized from the pool
+	 */
+	public boolean shares(String textCode) {
+		return CodeAppendable.stringLiteralConcatValue(textCode).getBytes(CHARSET).length >= MIN_LENGTH;
+	}
+
+	/**
+	 * The code that initializes a text constant from the pool.
+	 * @param textCode string literal concatenation code of the text
+	 * @return code of the shared byte array
+	 */
+	public String initializer(String textCode) {
+		return canonicalName() + ".text(" + textCode + ")";
+	}
+
+	/**
+	 * Writes the pool class.
+	 * @param a source code output
+	 * @throws IOException if the output fails
+	 */
+	public void write(Appendable a) throws IOException {
+		if (!packageName.isEmpty()) {
+			a.append("package " + packageName + ";\n");
+			a.append("\n");
+		}
+		a.append("/**\n");
+		a.append(" * Generated pre-encoded template text shared by templates.\n");
+		a.append(" */\n");
+		a.append("public final class " + simpleName + " {\n");
+		a.append("\n");
+		a.append("    private static final java.util.concurrent.ConcurrentHashMap<String, byte[]> TEXT"
+				+ " = new java.util.concurrent.ConcurrentHashMap<>();\n");
+		a.append("\n");
+		a.append("    private " + simpleName + "() {\n");
+		a.append("    }\n");
+		a.append("\n");
+		a.append("    /**\n");
+		a.append("     * Generated text lookup. The arrays must not be modified.\n");
+		a.append("     * @param text static text of a template\n");
+		a.append("     * @return the UTF-8 encoded text shared by all templates\n");
+		a.append("     */\n");
+		a.append("    public static byte[] text(String text) {\n");
+		a.append(
+				"        return TEXT.computeIfAbsent(text, t -> t.getBytes(java.nio.charset.StandardCharsets.UTF_8));\n");
+		a.append("    }\n");
+		a.append("\n");
+		a.append("}\n");
+	}
+
+}
@@ -117,6 +117,12 @@ public class VariableContext {
 
 		private List<String> textCodes = new ArrayList<>();
 
+		private @Nullable TextBlob textBlob;
+
+		private @Nullable TextPool textPool;
+
+		private final TemplateSize templateSize = new TemplateSize();
+
 		RootVariableContext(String appender, String escaper, String unescapedWriter, String formatter,
 				Map<String, Integer> variables, NullChecking nullChecking) {
 			super(appender, escaper, unescapedWriter, formatter, variables, null, true, nullChecking);
@@ -124,17 +130,102 @@ public class VariableContext {
 
 	}
 
-	public List<String> textCodes() {
+	private RootVariableContext root() {
 		var p = this;
 		while (p != null) {
 			if (p instanceof RootVariableContext r) {
-				return r.textCodes;
+				return r;
 			}
 			p = p.parent;
 		}
 		throw new IllegalStateException("bug");
 	}
 
+	public List<String> textCodes() {
+		return root().textCodes;
+	}
+
+	/**
+	 * Static text will be added to the blob instead of separate constants.
+	 * @param textBlob blob
+	 */
+	public void useTextBlob(TextBlob textBlob) {
+		root().textBlob = textBlob;
+	}
+
+	public @Nullable TextBlob textBlob() {
+		return root().textBlob;
+	}
+
+	/**
+	 * Larger static text constants will be initialized from the pool shared with other
+	 * templates.
+	 * @param textPool pool
+	 */
+	public void useTextPool(TextPool textPool) {
+		root().textPool = textPool;
+	}
+
+	public @Nullable TextPool textPool() {
+		return root().textPool;
+	}
+
+	/**
+	 * Static text is added to the same constants, blob and pool as another render method
+	 * of the same class so identical text is only encoded once.
+	 * @param other the variables of the other render method
+	 */
+	public void shareText(VariableContext other) {
+		var root = root();
+		var otherRoot = other.root();
+		root.textCodes = otherRoot.textCodes;
+		root.textBlob = otherRoot.textBlob;
+		root.textPool = otherRoot.textPool;
+	}
+
+	/**
+	 * A new root context for code that is compiled on its own like a shared partial. The
+	 * static text gets its own constants but larger text is still initialized from the
+	 * pool.
+	 * @return root context with the same names and null checking
+	 */
+	public VariableContext createIsolatedContext() {
+		var isolated = createDefaultContext(nullChecking);
+		var pool = textPool();
+		if (pool != null) {
+			isolated.useTextPool(pool);
+		}
+		return isolated;
+	}
+
+	/**
+	 * The static text and variables of the render method for computing the output size.
+	 * @return size accumulator
+	 */
+	public TemplateSize templateSize() {
+		return root().templateSize;
+	}
+
+	/**
+	 * Adds static text that will be pre-encoded.
+	 * @param textCode string literal code
+	 * @return arguments of the encoded output write call
+	 */
+	public String addTextWriteArguments(String textCode) {
+		var pool = textPool();
+		if (pool != null && pool.shares(textCode)) {
+			/*
+			 * The constant is initialized from the pool.
+			 */
+			return addTextCode(textCode);
+		}
+		var blob = textBlob();
+		if (blob != null) {
+			return blob.add(textCode);
+		}
+		return addTextCode(textCode);
+	}
+
 	public List<Entry<String, String>> textVariables() {
 		var codes = textCodes();
 		List<Entry<String, String>> results = new ArrayList<>();
@@ -147,8 +238,15 @@ public class VariableContext {
 
 	public String addTextCode(String textCode) {
 		var codes = textCodes();
-		int i = codes.size();
-		codes.add(textCode);
+		/*
+		 * Identical text (for example from a partial included more than once) shares the
+		 * same pre-encoded constant.
+		 */
+		int i = codes.indexOf(textCode);
+		if (i < 0) {
+			i = codes.size();
+			codes.add(textCode);
+		}
 		return TEXT + "_" + i;
 	}
 
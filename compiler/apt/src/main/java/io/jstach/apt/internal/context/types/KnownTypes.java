@@ -32,11 +32,18 @@ package io.jstach.apt.internal.context.types;
 import java.net.URI;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.Spliterator;
 import java.util.UUID;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.util.Elements;
@@ -102,6 +109,20 @@ public class KnownTypes implements TypesMixin {
 
 	public final ObjectType _Map;
 
+	public final ObjectType _RandomAccess;
+
+	public final ObjectType _Iterator;
+
+	public final ObjectType _Spliterator;
+
+	public final ObjectType _Stream;
+
+	public final ObjectType _IntStream;
+
+	public final ObjectType _LongStream;
+
+	public final ObjectType _DoubleStream;
+
 	public final Optional<ObjectType> _ContextNode;
 
 	public final ObjectType _UUID;
@@ -155,6 +176,16 @@ public class KnownTypes implements TypesMixin {
 		_List = b.objectType(List.class);
 
 		_Map = b.objectType(Map.class);
+		/*
+		 * Single pass types are only usable as sections and should not be formatted
+		 */
+		_RandomAccess = b.sectionOnlyType(RandomAccess.class);
+		_Iterator = b.sectionOnlyType(Iterator.class);
+		_Spliterator = b.sectionOnlyType(Spliterator.class);
+		_Stream = b.sectionOnlyType(Stream.class);
+		_IntStream = b.sectionOnlyType(IntStream.class);
+		_LongStream = b.sectionOnlyType(LongStream.class);
+		_DoubleStream = b.sectionOnlyType(DoubleStream.class);
 		_UUID = b.objectType(UUID.class);
 		_URI = b.objectType(URI.class);
 		_URL = b.objectType(URL.class);
@@ -213,12 +244,16 @@ public class KnownTypes implements TypesMixin {
 		}
 
 		private ObjectType objectType(Class<?> type) {
-			var typeElement = Objects.requireNonNull(elements.getTypeElement(type.getName()));
-			var ot = new ObjectType(mixin, typeElement, type.getName());
+			var ot = sectionOnlyType(type);
 			objectTypes.add(ot);
 			return ot;
 		}
 
+		private ObjectType sectionOnlyType(Class<?> type) {
+			var typeElement = Objects.requireNonNull(elements.getTypeElement(type.getName()));
+			return new ObjectType(mixin, typeElement, type.getName());
+		}
+
 	}
 
 	@Override
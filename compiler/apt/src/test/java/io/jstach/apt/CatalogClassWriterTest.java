@@ -8,6 +8,8 @@ import java.util.List;
 import org.junit.Test;
 
 import io.jstach.apt.internal.ProcessingException;
+import io.jstach.apt.internal.util.ClassRef;
+import io.jstach.apt.prism.Prisms.CatalogFlag;
 
 public class CatalogClassWriterTest {
 
@@ -47,4 +49,98 @@ public class CatalogClassWriterTest {
 		assertEquals(expected, actual);
 	}
 
+	@Test
+	public void testWriteStaticDispatch() throws IOException, ProcessingException {
+		StringBuilder sb = new StringBuilder();
+		CatalogClassWriter w = new CatalogClassWriter("com.company", "MyCatalog");
+		w.addTemplate(ClassRef.of("com.company.tmp", "MyTemplate"), ClassRef.of("com.company.tmp", "My"), "");
+		w.addFlags(List.of(CatalogFlag.GENERATE_STATIC_DISPATCH));
+		w.write(sb);
+
+		String expected = """
+				package com.company;
+
+				/**
+				 * Generated template catalog.
+				 */
+				public class MyCatalog implements io.jstach.jstachio.spi.TemplateProvider.GeneratedTemplateProvider {
+
+				    /**
+				     * Generated template catalog constructor for ServiceLoader.
+				     */
+				    public MyCatalog() {
+				    }
+
+				    @Override
+				    public java.util.List<io.jstach.jstachio.Template<?>> provideTemplates(io.jstach.jstachio.TemplateConfig templateConfig) {
+				        return java.util.List.of(//
+				        new com.company.tmp.MyTemplate(templateConfig));
+				    }
+
+				    /**
+				     * Statically wired template singletons.
+				     */
+				    private static final java.util.List<io.jstach.jstachio.Template<?>> TEMPLATES = java.util.List.of(//
+				        com.company.tmp.MyTemplate.of());
+
+				    @Override
+				    public java.util.List<io.jstach.jstachio.Template<?>> templates() {
+				        return TEMPLATES;
+				    }
+
+				    @Override
+				    public /* @Nullable */ io.jstach.jstachio.TemplateInfo findOrNull(Class<?> modelType) {
+				        return switch (modelType.getName()) {
+				            case "com.company.tmp.My" -> com.company.tmp.MyTemplate.of();
+				            default -> findSupported(modelType);
+				        };
+				    }
+
+				    private static /* @Nullable */ io.jstach.jstachio.TemplateInfo findSupported(Class<?> modelType) {
+				        for (var t : TEMPLATES) {
+				            if (t.supportsType(modelType)) {
+				                return t;
+				            }
+				        }
+				        return null;
+				    }
+				}
+				""";
+		String actual = sb.toString();
+
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	public void testWriteNativeImageConfig() throws IOException {
+		CatalogClassWriter w = new CatalogClassWriter("com.company", "MyCatalog");
+		w.addTemplate(ClassRef.of("com.company.tmp", "MyTemplate"), ClassRef.of("com.company.tmp", "My"),
+				"com/company/tmp/my.mustache");
+		StringBuilder reflect = new StringBuilder();
+		w.writeReflectConfig(reflect);
+		String expectedReflect = """
+				[
+				  {
+				    "name" : "com.company.tmp.MyTemplate",
+				    "methods" : [ { "name" : "<init>", "parameterTypes" : [ ] } ]
+				  }
+				]
+				""";
+		assertEquals(expectedReflect, reflect.toString());
+		StringBuilder resource = new StringBuilder();
+		w.writeResourceConfig(resource);
+		String expectedResource = """
+				{
+				  "resources" : {
+				    "includes" : [
+				      { "pattern" : "\\\\QMETA-INF/services/io.jstach.jstachio.spi.JStachioExtension\\\\E" },
+				      { "pattern" : "\\\\QMETA-INF/services/io.jstach.jstachio.spi.TemplateProvider\\\\E" },
+				      { "pattern" : "\\\\Qcom/company/tmp/my.mustache\\\\E" }
+				    ]
+				  }
+				}
+				""";
+		assertEquals(expectedResource, resource.toString());
+	}
+
 }
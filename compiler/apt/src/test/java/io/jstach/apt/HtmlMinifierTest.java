@@ -0,0 +1,71 @@
+package io.jstach.apt;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class HtmlMinifierTest {
+
+	@Test
+	public void testWhitespaceAndComments() {
+		var m = new HtmlMinifier();
+		String actual = m.minify("""
+				<div  class="a   b"
+				     id='x'>
+				    <!-- removed -->
+				    <p>hello   world</p>
+
+
+				    <!--[if IE]><p>kept</p><![endif]-->
+				</div>
+				""");
+		assertEquals("<div class=\"a   b\" id='x'>\n<p>hello world</p>\n<!--[if IE]><p>kept</p><![endif]-->\n</div>\n",
+				actual);
+	}
+
+	@Test
+	public void testRawElements() {
+		var m = new HtmlMinifier();
+		String text = """
+				<PRE>
+				  keep   this
+				</pre>
+				<script>
+				  if (a  <  b) { }
+				</script>
+				<textarea>  a  </textarea>
+				""";
+		assertEquals(text, m.minify(text));
+	}
+
+	@Test
+	public void testStateIsKeptBetweenRuns() {
+		var m = new HtmlMinifier();
+		assertEquals("<pre>\n  ", m.minify("<pre>\n  "));
+		assertEquals("  </pre>\n<p>", m.minify("  </pre>\n\n  <p>"));
+		m.dynamicContent();
+		assertEquals("<a href=\"", m.minify("<a   href=\""));
+		assertEquals("  \" title=\"x\">", m.minify("  \"  title=\"x\">"));
+		/*
+		 * A comment that contains a tag is kept.
+		 */
+		assertEquals("<!-- keep ", m.minify("<!-- keep "));
+		assertEquals(HtmlMinifier.State.KEPT_COMMENT, m.state());
+		assertEquals(" --> ", m.minify(" -->  "));
+		assertEquals(HtmlMinifier.State.TEXT, m.state());
+		/*
+		 * Indentation after a newline is removed even if it is in the next run.
+		 */
+		assertEquals("<ul>\n", m.minify("<ul>\n"));
+		assertEquals("<li>", m.minify("    <li>"));
+		m.dynamicContent();
+		assertEquals(" </li>", m.minify("   </li>"));
+	}
+
+	@Test
+	public void testJavaEscaped() {
+		var m = new HtmlMinifier();
+		assertEquals("<p class=\\\"a\\\">\\n\\\\</p>", m.minifyJava("<p class=\\\"a\\\">\\n    \\\\</p>"));
+	}
+
+}
@@ -0,0 +1,100 @@
+package io.jstach.apt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+import io.jstach.apt.internal.context.LocalVariable;
+
+public class SectionMethodsTest {
+
+	static final String ARGS = "data, unescapedWriter";
+
+	@Test
+	public void testSmallMethodIsNotSplit() {
+		SectionMethods m = new SectionMethods("__render", ARGS);
+		m.print("        a();\n");
+		m.estimate(100);
+		m.endStatement();
+		assertEquals("        a();\n", m.finish());
+		assertTrue(m.methods().isEmpty());
+	}
+
+	@Test
+	public void testLargeSectionBodyGetsLoopVariables() {
+		SectionMethods m = new SectionMethods("__render", ARGS);
+		m.enterGroup();
+		m.print("        for (int i = 0; i < 3; i++) { String element = x(i);\n");
+		m.enterSection(List.of(new LocalVariable("int", "i"), new LocalVariable("java.lang.String", "element")));
+		for (int i = 0; i < 7; i++) {
+			m.print("            write(element);\n");
+			m.estimate(SectionMethods.METHOD_LIMIT / 8);
+			m.endStatement();
+		}
+		m.exit();
+		m.print("        }\n");
+		m.exit();
+		m.print("        after();\n");
+		m.estimate(SectionMethods.METHOD_LIMIT / 4);
+		m.endStatement();
+		String code = m.finish();
+		var methods = m.methods();
+		assertEquals(1, methods.size());
+		var method = methods.get(0);
+		assertEquals(List.of(new LocalVariable("java.lang.String", "element")), method.parameters());
+		assertTrue(code.contains("__render__0(data, unescapedWriter, element);"));
+		assertTrue(code.startsWith("        for (int i = 0;"));
+		assertTrue(code.endsWith("        }\n        after();\n"));
+		assertTrue(method.body().startsWith("        write(element);"));
+	}
+
+	@Test
+	public void testDeclarationsStayInCaller() {
+		SectionMethods m = new SectionMethods("__render", ARGS);
+		m.beginDeclarations(List.of(new LocalVariable("java.util.List<java.lang.String>", "_items")));
+		m.print("        var _items = data.items();\n");
+		m.endDeclarations();
+		for (int i = 0; i < 4; i++) {
+			m.print("        write(_items);\n");
+			m.estimate(SectionMethods.METHOD_LIMIT * 2 / 5);
+			m.endStatement();
+		}
+		String code = m.finish();
+		/*
+		 * Both chunks have the same code so they share a method.
+		 */
+		assertEquals(1, m.methods().size());
+		assertTrue(code.startsWith("        var _items = data.items();\n"));
+		String call = "__render__0(data, unescapedWriter, _items);";
+		assertEquals(2, code.split(Pattern.quote(call), -1).length - 1);
+	}
+
+	@Test
+	public void testVariableThatIsNotAParameter() {
+		SectionMethods m = new SectionMethods("__render", ARGS);
+		m.enterGroup();
+		m.enterSection(List.of(new LocalVariable(null, "element")));
+		for (int i = 0; i < 10; i++) {
+			m.print("            write(element);\n");
+			m.estimate(SectionMethods.METHOD_LIMIT / 8);
+			m.endStatement();
+		}
+		m.exit();
+		m.exit();
+		m.finish();
+		assertTrue(m.methods().isEmpty());
+	}
+
+	@Test
+	public void testReferences() {
+		assertTrue(SectionMethods.references("write(element);", "element"));
+		assertFalse(SectionMethods.references("write(element1);", "element"));
+		assertFalse(SectionMethods.references("write(_element);", "element"));
+	}
+
+}
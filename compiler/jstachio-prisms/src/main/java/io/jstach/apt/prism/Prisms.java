@@ -65,6 +65,26 @@ public interface Prisms {
 	 */
 	public static final String JSTACHE_FLAGS_PRE_ENCODE_DISABLE = "jstache.pre_encode_disable";
 
+	/**
+	 * Generated
+	 */
+	public static final String JSTACHE_FLAGS_ITERATOR_LOOPS = "jstache.iterator_loops";
+
+	/**
+	 * Generated
+	 */
+	public static final String JSTACHE_FLAGS_RANDOM_ACCESS_LISTS = "jstache.random_access_lists";
+
+	/**
+	 * Generated
+	 */
+	public static final String JSTACHE_FLAGS_PRE_ENCODE_BLOB = "jstache.pre_encode_blob";
+
+	/**
+	 * Generated
+	 */
+	public static final String JSTACHE_FLAGS_MINIFY_HTML = "jstache.minify_html";
+
 	/**
 	 * Generated
 	 */
@@ -91,6 +111,22 @@ public interface Prisms {
 		 * Generated
 		 */
 		PRE_ENCODE_DISABLE, //
+		/**
+		 * Generated
+		 */
+		ITERATOR_LOOPS, //
+		/**
+		 * Generated
+		 */
+		RANDOM_ACCESS_LISTS, //
+		/**
+		 * Generated
+		 */
+		PRE_ENCODE_BLOB, //
+		/**
+		 * Generated
+		 */
+		MINIFY_HTML, //
 
 	}
 
@@ -129,6 +165,18 @@ public interface Prisms {
 		 * Generated
 		 */
 		GENERATE_FINDER_META_INF_SERVICE, //
+		/**
+		 * Generated
+		 */
+		GENERATE_STATIC_DISPATCH, //
+		/**
+		 * Generated
+		 */
+		GENERATE_NATIVE_IMAGE_CONFIG, //
+		/**
+		 * Generated
+		 */
+		GENERATE_TEXT_POOL, //
 
 	}
 
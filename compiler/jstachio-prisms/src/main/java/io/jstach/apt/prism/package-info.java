@@ -15,6 +15,7 @@
 		@GeneratePrism(value = io.jstach.jstache.JStacheFormatter.class, publicAccess = true), //
 		@GeneratePrism(value = io.jstach.jstache.JStacheFormatterTypes.class, publicAccess = true), //
 		@GeneratePrism(value = io.jstach.jstache.JStacheFlags.class, publicAccess = true), //
+		@GeneratePrism(value = io.jstach.jstache.JStacheMessages.class, publicAccess = true), //
 
 })
 @org.eclipse.jdt.annotation.NonNullByDefault({ DefaultLocation.TYPE_ARGUMENT })
@@ -1,6 +1,18 @@
 package io.jstach.opt.dropwizard;
 
+import java.lang.System.Logger.Level;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 import io.dropwizard.views.common.View;
+import io.jstach.jstachio.JStachio;
+import io.jstach.jstachio.TemplateInfo;
+import io.jstach.jstachio.spi.JStachioExtensions;
+import io.jstach.jstachio.spi.JStachioTemplateFinder.SimpleTemplateFinder;
+import io.jstach.jstachio.spi.TemplateProvider;
 
 /**
  * Have JStache models implement this mixin interface for easier support to generate views
@@ -14,6 +26,11 @@ import io.dropwizard.views.common.View;
  * <p>
  * If using this mixin interface is not desirable one can create view manually from a
  * model with {@link JStachioView#of(Object)}.
+ * <p>
+ * Because resource methods return {@link View}s the model types cannot be introspected
+ * from the resources. Instead the models found with the {@link ServiceLoader} that
+ * implement this interface are {@linkplain #prefetch(JStachio) prefetched} when the
+ * {@link JStachioViewRenderer} is configured.
  *
  * @author agentgt
  */
@@ -28,4 +45,51 @@ public interface JStacheViewSupport {
 		return JStachioView.of(this);
 	}
 
+	/**
+	 * Resolves and caches the templates of all models found with the
+	 * {@link ServiceLoader} that implement this interface so that template resolution
+	 * does not happen on the first request. Failures are logged as warnings with the
+	 * JStachio config logger.
+	 * @param jstachio used to resolve templates. If not an extensions provider nothing is
+	 * prefetched.
+	 * @return the model types that failed to resolve with the failure.
+	 * @see io.jstach.jstachio.spi.JStachioTemplateFinder#prefetch(java.util.Collection)
+	 */
+	public static Map<Class<?>, Exception> prefetch(JStachio jstachio) {
+		if (!(jstachio instanceof JStachioExtensions.Provider p)) {
+			return Map.of();
+		}
+		var extensions = p.extensions();
+		var logger = extensions.getConfig().getLogger(JStacheViewSupport.class.getCanonicalName());
+		var modelTypes = ServiceLoader.load(TemplateProvider.class).stream().flatMap(provider -> {
+			try {
+				return modelClasses(provider.get());
+			}
+			catch (ServiceConfigurationError e) {
+				logger.log(Level.ERROR, "Template provider failed to load. Skipping it.", e);
+			}
+			return Stream.empty();
+		}).filter(JStacheViewSupport.class::isAssignableFrom).distinct().toList();
+		var failures = extensions.getTemplateFinder().prefetch(modelTypes);
+		for (var e : failures.entrySet()) {
+			logger.log(Level.WARNING, "Failed to prefetch template for model type: " + e.getKey(), e.getValue());
+		}
+		return failures;
+	}
+
+	/*
+	 * Generated renderers are their own provider and generated catalogs keep their
+	 * templates so the model classes are read without creating templates that would only
+	 * be thrown away.
+	 */
+	private static Stream<Class<?>> modelClasses(TemplateProvider provider) {
+		if (provider instanceof TemplateInfo info) {
+			return Stream.of(info.modelClass());
+		}
+		if (provider instanceof SimpleTemplateFinder finder) {
+			return StreamSupport.stream(finder.templates().spliterator(), false).map(TemplateInfo::modelClass);
+		}
+		return provider.provideTemplates().stream().map(TemplateInfo::modelClass);
+	}
+
 }
@@ -36,6 +36,8 @@ public class JStachioViewRenderer implements ViewRenderer {
 
 	private @Nullable JStachio jstachio = null;
 
+	private boolean prefetched = false;
+
 	/**
 	 * ServiceLoader will call this
 	 */
@@ -82,11 +84,23 @@ public class JStachioViewRenderer implements ViewRenderer {
 		return j;
 	}
 
+	/**
+	 * {@inheritDoc} Once the JStachio is resolved the templates of models implementing
+	 * {@link JStacheViewSupport} are {@linkplain JStacheViewSupport#prefetch(JStachio)
+	 * prefetched} which happens only on the first call.
+	 */
 	@Override
 	public void configure(Map<String, String> options) {
-		if (jstachio != null) {
-			return;
+		if (jstachio == null) {
+			resolveJStachio(options);
 		}
+		if (!prefetched) {
+			prefetched = true;
+			JStacheViewSupport.prefetch(jstachio());
+		}
+	}
+
+	private void resolveJStachio(Map<String, String> options) {
 		if (options.isEmpty()) {
 			jstachio = JStachio.of();
 		}
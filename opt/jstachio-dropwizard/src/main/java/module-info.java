@@ -39,5 +39,7 @@ module io.jstach.opt.dropwizard {
 	requires static org.eclipse.jdt.annotation;
 	exports io.jstach.opt.dropwizard;
 	
+	uses io.jstach.jstachio.spi.TemplateProvider;
+	
 	provides io.dropwizard.views.common.ViewRenderer with JStachioViewRenderer;
 }
\ No newline at end of file
@@ -0,0 +1,133 @@
+package io.jstach.opt.interpreter;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Resolves the properties of model classes to method handles once per class and name.
+ * Reflection is only used the first time a property is accessed.
+ * <p>
+ * Like generated code a property is a public no argument method with the name of the
+ * property, a getter (<code>getName()</code> or <code>isName()</code>) or a public field.
+ */
+final class Accessors {
+
+	/**
+	 * Returned if the object does not have the property.
+	 */
+	static final Object NOT_FOUND = new Object() {
+		@Override
+		public String toString() {
+			return "NOT_FOUND";
+		}
+	};
+
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+	private static final MethodType GETTER = MethodType.methodType(Object.class, Object.class);
+
+	private record Accessor(@Nullable MethodHandle handle) {
+	}
+
+	private static final Accessor MISSING = new Accessor(null);
+
+	private static final ClassValue<ConcurrentHashMap<String, Accessor>> accessors = new ClassValue<>() {
+		@Override
+		protected ConcurrentHashMap<String, Accessor> computeValue(Class<?> type) {
+			return new ConcurrentHashMap<>();
+		}
+	};
+
+	private Accessors() {
+	}
+
+	/**
+	 * Gets a property of an object.
+	 * @param o the object
+	 * @param name property name
+	 * @return the value or {@link #NOT_FOUND}
+	 */
+	static @Nullable Object get(Object o, String name) {
+		Class<?> type = o.getClass();
+		Accessor accessor = accessors.get(type).computeIfAbsent(name, n -> resolve(type, n));
+		MethodHandle handle = accessor.handle();
+		if (handle == null) {
+			return NOT_FOUND;
+		}
+		try {
+			return (Object) handle.invokeExact(o);
+		}
+		catch (RuntimeException | Error e) {
+			throw e;
+		}
+		catch (Throwable e) {
+			throw new IllegalStateException("Failed getting '" + name + "' of " + type.getName(), e);
+		}
+	}
+
+	private static Accessor resolve(Class<?> type, String name) {
+		if (name.isEmpty() || !Character.isJavaIdentifierStart(name.charAt(0))) {
+			return MISSING;
+		}
+		String capitalized = name.substring(0, 1).toUpperCase(Locale.ROOT) + name.substring(1);
+		for (String methodName : new String[] { name, "get" + capitalized, "is" + capitalized }) {
+			Method m = method(type, methodName);
+			if (m != null) {
+				return accessor(type, m);
+			}
+		}
+		try {
+			Field f = type.getField(name);
+			if (!Modifier.isStatic(f.getModifiers())) {
+				return accessor(type, f);
+			}
+		}
+		catch (NoSuchFieldException e) {
+			// not a field
+		}
+		return MISSING;
+	}
+
+	private static @Nullable Method method(Class<?> type, String name) {
+		try {
+			Method m = type.getMethod(name);
+			if (Modifier.isStatic(m.getModifiers()) || m.getReturnType() == void.class) {
+				return null;
+			}
+			return m;
+		}
+		catch (NoSuchMethodException e) {
+			return null;
+		}
+	}
+
+	private static <T extends AccessibleObject & Member> Accessor accessor(Class<?> type, T member) {
+		/*
+		 * Model classes are often not public. The member is made accessible if the
+		 * package is open to us.
+		 */
+		member.trySetAccessible();
+		try {
+			MethodHandle handle = member instanceof Method m ? LOOKUP.unreflect(m)
+					: LOOKUP.unreflectGetter((Field) member);
+			return new Accessor(handle.asType(GETTER));
+		}
+		catch (IllegalAccessException e) {
+			throw new IllegalStateException(
+					"Cannot access '" + member.getName() + "' of " + type.getName()
+							+ ". If you are using modules the package needs to be opened to io.jstach.opt.interpreter.",
+					e);
+		}
+	}
+
+}
@@ -0,0 +1,122 @@
+package io.jstach.opt.interpreter;
+
+import java.lang.invoke.MethodHandle;
+import java.nio.charset.Charset;
+import java.util.function.Function;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import io.jstach.jstachio.Output;
+import io.jstach.jstachio.Output.EncodedOutput;
+import io.jstach.jstachio.Template;
+
+/**
+ * A renderer generated by a {@link RuntimeCompiler}. The generated renderer is for a
+ * wrapper record with the model as its only component so this adapts it to the model
+ * class.
+ *
+ * @param <T> model type
+ */
+final class CompiledTemplate<T> implements Template<T> {
+
+	private final Class<T> modelClass;
+
+	private final String templateString;
+
+	private final Template<Object> renderer;
+
+	/*
+	 * (Object)Object constructor of the wrapper record.
+	 */
+	private final MethodHandle wrapper;
+
+	CompiledTemplate(Class<T> modelClass, String templateString, Template<Object> renderer, MethodHandle wrapper) {
+		this.modelClass = modelClass;
+		this.templateString = templateString;
+		this.renderer = renderer;
+		this.wrapper = wrapper;
+	}
+
+	@Override
+	public <A extends Output<E>, E extends Exception> A execute(T model, A appendable) throws E {
+		return renderer.execute(wrap(model), appendable);
+	}
+
+	@Override
+	public <A extends EncodedOutput<E>, E extends Exception> A write(T model, A output) throws E {
+		return renderer.write(wrap(model), output);
+	}
+
+	private Object wrap(T model) {
+		try {
+			return (Object) wrapper.invokeExact((Object) model);
+		}
+		catch (RuntimeException | Error e) {
+			throw e;
+		}
+		catch (Throwable e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@Override
+	public String templateName() {
+		return renderer.templateName();
+	}
+
+	@Override
+	public String templatePath() {
+		return renderer.templatePath();
+	}
+
+	@Override
+	public String templateString() {
+		return templateString;
+	}
+
+	@Override
+	public Class<?> templateContentType() {
+		return renderer.templateContentType();
+	}
+
+	@Override
+	public Charset templateCharset() {
+		return renderer.templateCharset();
+	}
+
+	@Override
+	public String templateMediaType() {
+		return renderer.templateMediaType();
+	}
+
+	@Override
+	public Function<String, String> templateEscaper() {
+		return renderer.templateEscaper();
+	}
+
+	@Override
+	public Function<@Nullable Object, String> templateFormatter() {
+		return renderer.templateFormatter();
+	}
+
+	@Override
+	public int templateStaticSize() {
+		return renderer.templateStaticSize();
+	}
+
+	@Override
+	public int templateEstimatedSize() {
+		return renderer.templateEstimatedSize();
+	}
+
+	@Override
+	public boolean supportsType(Class<?> type) {
+		return modelClass.isAssignableFrom(type);
+	}
+
+	@Override
+	public Class<?> modelClass() {
+		return modelClass;
+	}
+
+}
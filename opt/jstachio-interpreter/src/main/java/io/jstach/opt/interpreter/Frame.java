@@ -0,0 +1,102 @@
+package io.jstach.opt.interpreter;
+
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import io.jstach.jstachio.context.ContextNode;
+
+/**
+ * The context stack of a render. A frame is pushed for every object a section renders.
+ * @param value the context object
+ * @param parent the enclosing frame
+ * @param index zero based index if the frame is a loop iteration otherwise
+ * <code>-1</code>
+ * @param last whether the frame is the last iteration of a loop
+ */
+record Frame(@Nullable Object value, @Nullable Frame parent, int index, boolean last) {
+
+	static Frame root(@Nullable Object model) {
+		return new Frame(model, null, -1, false);
+	}
+
+	Frame push(@Nullable Object value) {
+		return new Frame(value, this, -1, false);
+	}
+
+	Frame push(@Nullable Object value, int index, boolean last) {
+		return new Frame(value, this, index, last);
+	}
+
+	/**
+	 * Resolves a dotted name like generated code: the first name is searched up the
+	 * context stack and the rest of the names are properties of the found object.
+	 * @param path dotted name split which is empty for the implicit iterator
+	 * @return value which is <code>null</code> if not found
+	 */
+	@Nullable
+	Object lookup(List<String> path) {
+		if (path.isEmpty()) {
+			return value;
+		}
+		String first = path.get(0);
+		Object v = Accessors.NOT_FOUND;
+		for (Frame f = this; f != null; f = f.parent) {
+			v = f.find(first);
+			if (v != Accessors.NOT_FOUND) {
+				break;
+			}
+		}
+		int size = path.size();
+		for (int i = 1; i < size && v != Accessors.NOT_FOUND; i++) {
+			if (v == null) {
+				return null;
+			}
+			v = property(v, path.get(i));
+		}
+		return v == Accessors.NOT_FOUND ? null : v;
+	}
+
+	private @Nullable Object find(String name) {
+		if (index >= 0) {
+			switch (name) {
+				case "-first", "@first" -> {
+					return index == 0;
+				}
+				case "-last", "@last" -> {
+					return last;
+				}
+				case "-index" -> {
+					return index + 1;
+				}
+				case "@index" -> {
+					return index;
+				}
+				default -> {
+				}
+			}
+		}
+		Object v = value;
+		if (v == null) {
+			return Accessors.NOT_FOUND;
+		}
+		return property(v, name);
+	}
+
+	private static @Nullable Object property(Object o, String name) {
+		if (o instanceof Map<?, ?> m) {
+			Object v = m.get(name);
+			if (v == null && !m.containsKey(name)) {
+				return Accessors.NOT_FOUND;
+			}
+			return v;
+		}
+		if (o instanceof ContextNode n) {
+			ContextNode child = n.get(name);
+			return child == null ? Accessors.NOT_FOUND : child;
+		}
+		return Accessors.get(o, name);
+	}
+
+}
@@ -0,0 +1,225 @@
+package io.jstach.opt.interpreter;
+
+import java.lang.reflect.Array;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.function.Function;
+import java.util.stream.BaseStream;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import io.jstach.jstachio.Appender;
+import io.jstach.jstachio.Output;
+import io.jstach.jstachio.Output.EncodedOutput;
+import io.jstach.jstachio.Template;
+import io.jstach.jstachio.context.ContextNode;
+
+/**
+ * A template parsed by an {@link Interpreter}. The parsed template is immutable and
+ * thread safe and rendering only walks the parsed tree. Static text is pre-encoded with
+ * the template charset so {@link #write(Object, EncodedOutput)} writes bytes directly.
+ */
+public final class InterpretedTemplate implements Template.EncodedTemplate<Object> {
+
+	private final Interpreter interpreter;
+
+	private final String name;
+
+	private final String source;
+
+	private final List<Node> nodes;
+
+	InterpretedTemplate(Interpreter interpreter, String name, String source, List<Node> nodes) {
+		this.interpreter = interpreter;
+		this.name = name;
+		this.source = source;
+		this.nodes = nodes;
+	}
+
+	@Override
+	public <A extends Output<E>, E extends Exception> A execute(Object model, A appendable) throws E {
+		render(nodes, Frame.root(model), appendable, false);
+		return appendable;
+	}
+
+	@Override
+	public <A extends EncodedOutput<E>, E extends Exception> A write(Object model, A output) throws E {
+		render(nodes, Frame.root(model), output, true);
+		return output;
+	}
+
+	@SuppressWarnings("unchecked")
+	private <A extends Output<E>, E extends Exception> void render(List<Node> nodes, Frame frame, A out,
+			boolean encoded) throws E {
+		int size = nodes.size();
+		for (int i = 0; i < size; i++) {
+			Node node = nodes.get(i);
+			if (node instanceof Node.Text t) {
+				if (encoded) {
+					((EncodedOutput<E>) out).write(t.encoded());
+				}
+				else {
+					out.append(t.text());
+				}
+			}
+			else if (node instanceof Node.Variable v) {
+				Object value = frame.lookup(v.path());
+				Class<?> type = value == null ? Object.class : value.getClass();
+				Appender appender = v.escaped() ? interpreter.escaper() : Appender.defaultAppender();
+				interpreter.formatter().format(appender, out, v.name(), type, value);
+			}
+			else if (node instanceof Node.Section s) {
+				Object value = frame.lookup(s.path());
+				if (s.inverted()) {
+					if (isFalsey(value)) {
+						render(s.children(), frame, out, encoded);
+					}
+				}
+				else {
+					section(s, value, frame, out, encoded);
+				}
+			}
+			else if (node instanceof Node.Partial p) {
+				var partial = interpreter.partial(p.name(), p.indent());
+				render(partial.nodes, frame, out, encoded);
+			}
+		}
+	}
+
+	private <A extends Output<E>, E extends Exception> void section(Node.Section s, @Nullable Object value, Frame frame,
+			A out, boolean encoded) throws E {
+		if (value == null) {
+			return;
+		}
+		if (value instanceof Boolean b) {
+			if (b) {
+				render(s.children(), frame, out, encoded);
+			}
+		}
+		else if (value instanceof Optional<?> o) {
+			if (o.isPresent()) {
+				section(s, o.get(), frame, out, encoded);
+			}
+		}
+		else if (value instanceof List<?> list && value instanceof RandomAccess) {
+			int size = list.size();
+			for (int i = 0; i < size; i++) {
+				render(s.children(), frame.push(list.get(i), i, i == size - 1), out, encoded);
+			}
+		}
+		else if (value instanceof ContextNode n) {
+			iterate(s, n.iterator(), frame, out, encoded);
+		}
+		else if (value instanceof Iterable<?> it) {
+			iterate(s, it.iterator(), frame, out, encoded);
+		}
+		else if (value instanceof BaseStream<?, ?> stream) {
+			iterate(s, stream.iterator(), frame, out, encoded);
+		}
+		else if (value.getClass().isArray()) {
+			int length = Array.getLength(value);
+			for (int i = 0; i < length; i++) {
+				render(s.children(), frame.push(Array.get(value, i), i, i == length - 1), out, encoded);
+			}
+		}
+		else {
+			render(s.children(), frame.push(value), out, encoded);
+		}
+	}
+
+	private <A extends Output<E>, E extends Exception> void iterate(Node.Section s, Iterator<?> it, Frame frame, A out,
+			boolean encoded) throws E {
+		int i = 0;
+		while (it.hasNext()) {
+			Object item = it.next();
+			render(s.children(), frame.push(item, i, !it.hasNext()), out, encoded);
+			i++;
+		}
+	}
+
+	private static boolean isFalsey(@Nullable Object value) {
+		if (value instanceof Optional<?> o) {
+			return o.isEmpty();
+		}
+		if (value instanceof ContextNode n) {
+			return ContextNode.isFalsey(n.object());
+		}
+		return ContextNode.isFalsey(value);
+	}
+
+	@Override
+	public String templateName() {
+		return name;
+	}
+
+	@Override
+	public String templatePath() {
+		return "";
+	}
+
+	@Override
+	public String templateString() {
+		return source;
+	}
+
+	@Override
+	public Class<?> templateContentType() {
+		return interpreter.contentType();
+	}
+
+	@Override
+	public Charset templateCharset() {
+		return interpreter.charset();
+	}
+
+	@Override
+	public String templateMediaType() {
+		return interpreter.mediaType();
+	}
+
+	@Override
+	public Function<String, String> templateEscaper() {
+		return interpreter.escaper();
+	}
+
+	@Override
+	public Function<@Nullable Object, String> templateFormatter() {
+		return interpreter.formatter();
+	}
+
+	/**
+	 * The interpreter renders any model.
+	 */
+	@Override
+	public boolean supportsType(Class<?> type) {
+		return true;
+	}
+
+	@Override
+	public Class<?> modelClass() {
+		return Object.class;
+	}
+
+	/**
+	 * The encoded size of the static text that is not in a section or partial.
+	 */
+	@Override
+	public int templateStaticSize() {
+		int size = 0;
+		for (Node n : nodes) {
+			if (n instanceof Node.Text t) {
+				size += t.encoded().length;
+			}
+		}
+		return size;
+	}
+
+	@Override
+	public String toString() {
+		return "InterpretedTemplate[" + name + "]";
+	}
+
+}
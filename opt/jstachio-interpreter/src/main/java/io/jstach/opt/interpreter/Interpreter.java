@@ -0,0 +1,337 @@
+package io.jstach.opt.interpreter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Function;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import io.jstach.jstachio.Escaper;
+import io.jstach.jstachio.Formatter;
+import io.jstach.jstachio.escapers.Html;
+import io.jstach.jstachio.formatters.DefaultFormatter;
+
+/**
+ * Renders mustache templates without generating code. The template is parsed with the
+ * same tokenizer as the annotation processor into an immutable tree that is cached and
+ * rendered by walking the tree. Model properties are resolved to method handles once per
+ * class and name (see {@link InterpretedTemplate}).
+ * <p>
+ * The intent is templates that are only known at runtime, for example templates stored in
+ * a database, and fast reloading during development where the rendered output should be
+ * the same as the generated renderer.
+ *
+ * <pre><code class="language-java">
+ * Interpreter interpreter = Interpreter.builder()
+ *     .prefix("views/")
+ *     .suffix(".mustache")
+ *     .build();
+ * String html = interpreter.template("hello").execute(model);
+ * </code></pre>
+ *
+ * Differences to generated code:
+ * <ul>
+ * <li>Names are resolved at runtime so a missing name is <code>null</code> instead of a
+ * compile error.</li>
+ * <li>Lambdas ({@link io.jstach.jstache.JStacheLambda}) are not supported as they need
+ * the declared types of the model.</li>
+ * <li>Variables are formatted with the runtime type of the value.</li>
+ * </ul>
+ */
+public final class Interpreter {
+
+	/**
+	 * The default number of parsed templates kept.
+	 */
+	public static final int DEFAULT_CACHE_SIZE = 256;
+
+	private final Function<String, @Nullable String> loader;
+
+	private final String prefix;
+
+	private final String suffix;
+
+	private final Escaper escaper;
+
+	private final Formatter formatter;
+
+	private final Charset charset;
+
+	private final Class<?> contentType;
+
+	private final String mediaType;
+
+	private final Map<TemplateKey, InterpretedTemplate> templates;
+
+	/*
+	 * source is null for templates loaded by name.
+	 */
+	private record TemplateKey(String name, @Nullable String source, String indent) {
+	}
+
+	private Interpreter(Builder b) {
+		this.loader = b.loader != null ? b.loader : Interpreter::loadResource;
+		this.prefix = b.prefix;
+		this.suffix = b.suffix;
+		this.escaper = Escaper.of(b.escaper);
+		this.formatter = Formatter.of(b.formatter);
+		this.charset = b.charset;
+		this.contentType = b.contentType;
+		this.mediaType = b.mediaType;
+		this.templates = createCache(b.cacheSize);
+	}
+
+	/**
+	 * An interpreter for HTML templates on the classpath.
+	 * @return interpreter with defaults
+	 */
+	public static Interpreter of() {
+		return builder().build();
+	}
+
+	/**
+	 * A builder to configure an interpreter.
+	 * @return new builder
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Gets the parsed template loaded by name. Partials are loaded the same way.
+	 * @param name template name which is resolved with the prefix and suffix
+	 * @return cached template
+	 * @throws NoSuchElementException if the template is not found
+	 * @throws TemplateParseException if the template is not valid
+	 */
+	public InterpretedTemplate template(String name) {
+		return partial(name, "");
+	}
+
+	/**
+	 * Parses a template from a string. The template is cached by name and source so
+	 * parsing the same source again is cheap. Partials are loaded by name.
+	 * @param name template name used for errors
+	 * @param template template source
+	 * @return cached template
+	 * @throws TemplateParseException if the template is not valid
+	 */
+	public InterpretedTemplate compile(String name, String template) {
+		Objects.requireNonNull(template, "template");
+		return cached(new TemplateKey(name, template, ""));
+	}
+
+	/**
+	 * Removes all parsed templates for example after templates were edited.
+	 */
+	public void clear() {
+		templates.clear();
+	}
+
+	InterpretedTemplate partial(String name, String indent) {
+		return cached(new TemplateKey(name, null, indent));
+	}
+
+	private InterpretedTemplate cached(TemplateKey key) {
+		var template = templates.get(key);
+		if (template != null) {
+			return template;
+		}
+		/*
+		 * Parsing is done without holding the lock. Parsing twice is harmless.
+		 */
+		String source = key.source();
+		if (source == null) {
+			source = source(key.name());
+		}
+		List<Node> nodes = TemplateParser.parse(key.name(), source, key.indent(), charset, this::source);
+		template = new InterpretedTemplate(this, key.name(), source, nodes);
+		templates.put(key, template);
+		return template;
+	}
+
+	private String source(String name) {
+		String path = prefix + name + suffix;
+		String source = loader.apply(path);
+		if (source == null) {
+			throw new NoSuchElementException("Template not found: " + path);
+		}
+		return source;
+	}
+
+	private static Map<TemplateKey, InterpretedTemplate> createCache(int size) {
+		return Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<TemplateKey, InterpretedTemplate> eldest) {
+				return size() > size;
+			}
+
+		});
+	}
+
+	private static @Nullable String loadResource(String path) {
+		ClassLoader cl = Thread.currentThread().getContextClassLoader();
+		if (cl == null) {
+			cl = Interpreter.class.getClassLoader();
+		}
+		try (InputStream is = cl.getResourceAsStream(path.startsWith("/") ? path.substring(1) : path)) {
+			if (is == null) {
+				return null;
+			}
+			return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	Escaper escaper() {
+		return escaper;
+	}
+
+	Formatter formatter() {
+		return formatter;
+	}
+
+	Charset charset() {
+		return charset;
+	}
+
+	Class<?> contentType() {
+		return contentType;
+	}
+
+	String mediaType() {
+		return mediaType;
+	}
+
+	/**
+	 * Configures an {@link Interpreter}. By default templates are HTML loaded from the
+	 * classpath and rendered with the default formatter.
+	 */
+	public static final class Builder {
+
+		private @Nullable Function<String, @Nullable String> loader;
+
+		private String prefix = "";
+
+		private String suffix = "";
+
+		private Function<String, String> escaper = Html.provider();
+
+		private Function<@Nullable Object, String> formatter = DefaultFormatter.provider();
+
+		private Charset charset = StandardCharsets.UTF_8;
+
+		private Class<?> contentType = Html.class;
+
+		private String mediaType = "text/html";
+
+		private int cacheSize = DEFAULT_CACHE_SIZE;
+
+		private Builder() {
+		}
+
+		/**
+		 * Sets how template sources are loaded. By default templates are classpath
+		 * resources read as UTF-8.
+		 * @param loader given the template path and returns the source or
+		 * <code>null</code> if not found
+		 * @return this
+		 */
+		public Builder loader(Function<String, @Nullable String> loader) {
+			this.loader = Objects.requireNonNull(loader, "loader");
+			return this;
+		}
+
+		/**
+		 * Prefix added to template and partial names to create the path.
+		 * @param prefix for example <code>views/</code>
+		 * @return this
+		 */
+		public Builder prefix(String prefix) {
+			this.prefix = Objects.requireNonNull(prefix, "prefix");
+			return this;
+		}
+
+		/**
+		 * Suffix added to template and partial names to create the path.
+		 * @param suffix for example <code>.mustache</code>
+		 * @return this
+		 */
+		public Builder suffix(String suffix) {
+			this.suffix = Objects.requireNonNull(suffix, "suffix");
+			return this;
+		}
+
+		/**
+		 * Sets the escaper and the content type it is for.
+		 * @param escaper see {@link Escaper#of(Function)}
+		 * @param contentType the content type class for example {@link Html}
+		 * @param mediaType the media type for example <code>text/html</code>
+		 * @return this
+		 */
+		public Builder escaper(Function<String, String> escaper, Class<?> contentType, String mediaType) {
+			this.escaper = Objects.requireNonNull(escaper, "escaper");
+			this.contentType = Objects.requireNonNull(contentType, "contentType");
+			this.mediaType = Objects.requireNonNull(mediaType, "mediaType");
+			return this;
+		}
+
+		/**
+		 * Sets the formatter.
+		 * @param formatter see {@link Formatter#of(Function)}
+		 * @return this
+		 */
+		public Builder formatter(Function<@Nullable Object, String> formatter) {
+			this.formatter = Objects.requireNonNull(formatter, "formatter");
+			return this;
+		}
+
+		/**
+		 * Sets the charset used to pre-encode the static text of templates.
+		 * @param charset by default UTF-8
+		 * @return this
+		 */
+		public Builder charset(Charset charset) {
+			this.charset = Objects.requireNonNull(charset, "charset");
+			return this;
+		}
+
+		/**
+		 * Sets how many parsed templates are kept. The least recently used are removed
+		 * first.
+		 * @param cacheSize by default {@value Interpreter#DEFAULT_CACHE_SIZE}
+		 * @return this
+		 */
+		public Builder cacheSize(int cacheSize) {
+			if (cacheSize < 1) {
+				throw new IllegalArgumentException("cache size should be positive");
+			}
+			this.cacheSize = cacheSize;
+			return this;
+		}
+
+		/**
+		 * Creates the interpreter.
+		 * @return new interpreter
+		 */
+		public Interpreter build() {
+			return new Interpreter(this);
+		}
+
+	}
+
+}
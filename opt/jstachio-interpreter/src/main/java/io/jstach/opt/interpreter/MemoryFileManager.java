@@ -0,0 +1,149 @@
+package io.jstach.opt.interpreter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Keeps everything javac and the annotation processor write in memory. Resources the
+ * processor reads from the class output, like partial templates, are loaded from a class
+ * loader instead.
+ */
+final class MemoryFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+
+	private final ClassLoader resources;
+
+	private final Map<String, MemoryFile> classes = new LinkedHashMap<>();
+
+	MemoryFileManager(StandardJavaFileManager fileManager, ClassLoader resources) {
+		super(fileManager);
+		this.resources = resources;
+	}
+
+	/**
+	 * The compiled classes.
+	 * @return binary name to class file bytes
+	 */
+	Map<String, byte[]> classes() {
+		Map<String, byte[]> result = new LinkedHashMap<>();
+		classes.forEach((name, file) -> result.put(name, file.bytes()));
+		return result;
+	}
+
+	static JavaFileObject source(String className, String source) {
+		MemoryFile file = new MemoryFile(uri(className, JavaFileObject.Kind.SOURCE), JavaFileObject.Kind.SOURCE, null);
+		file.content.writeBytes(source.getBytes(StandardCharsets.UTF_8));
+		file.written = true;
+		return file;
+	}
+
+	@Override
+	public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind,
+			@Nullable FileObject sibling) throws IOException {
+		MemoryFile file = new MemoryFile(uri(className, kind), kind, null);
+		if (kind == JavaFileObject.Kind.CLASS) {
+			classes.put(className, file);
+		}
+		return file;
+	}
+
+	@Override
+	public FileObject getFileForOutput(Location location, String packageName, String relativeName,
+			@Nullable FileObject sibling) throws IOException {
+		/*
+		 * The Filer asks for output files when the processor looks up a class output
+		 * resource so those are backed by the class loader until written.
+		 */
+		return resource(location, packageName, relativeName);
+	}
+
+	@Override
+	public @Nullable FileObject getFileForInput(Location location, String packageName, String relativeName)
+			throws IOException {
+		if (location == StandardLocation.CLASS_OUTPUT) {
+			return resource(location, packageName, relativeName);
+		}
+		return super.getFileForInput(location, packageName, relativeName);
+	}
+
+	private MemoryFile resource(Location location, String packageName, String relativeName) {
+		String path = packageName.isEmpty() ? relativeName : packageName.replace('.', '/') + "/" + relativeName;
+		URL url = location == StandardLocation.CLASS_OUTPUT ? resources.getResource(path) : null;
+		return new MemoryFile(URI.create("mem:///" + path), JavaFileObject.Kind.OTHER, url);
+	}
+
+	private static URI uri(String className, JavaFileObject.Kind kind) {
+		return URI.create("mem:///" + className.replace('.', '/') + kind.extension);
+	}
+
+	private static final class MemoryFile extends SimpleJavaFileObject {
+
+		private final @Nullable URL resource;
+
+		private final ByteArrayOutputStream content = new ByteArrayOutputStream();
+
+		private boolean written;
+
+		MemoryFile(URI uri, Kind kind, @Nullable URL resource) {
+			super(uri, kind);
+			this.resource = resource;
+		}
+
+		byte[] bytes() {
+			return content.toByteArray();
+		}
+
+		@Override
+		public OutputStream openOutputStream() throws IOException {
+			content.reset();
+			written = true;
+			return content;
+		}
+
+		@Override
+		public InputStream openInputStream() throws IOException {
+			if (written) {
+				return new ByteArrayInputStream(content.toByteArray());
+			}
+			URL r = resource;
+			if (r == null) {
+				throw new FileNotFoundException(toUri().toString());
+			}
+			return r.openStream();
+		}
+
+		@Override
+		public CharSequence getCharContent(boolean ignoreEncodingErrors) throws IOException {
+			try (InputStream is = openInputStream()) {
+				return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+			}
+		}
+
+		@Override
+		public long getLastModified() {
+			/*
+			 * The processor checks the last modified time to see if a resource exists.
+			 */
+			return written || resource != null ? 1 : 0;
+		}
+
+	}
+
+}
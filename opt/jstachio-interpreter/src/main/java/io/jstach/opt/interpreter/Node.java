@@ -0,0 +1,47 @@
+package io.jstach.opt.interpreter;
+
+import java.util.List;
+
+/**
+ * Immutable parsed template. The tree is built once per template and shared by every
+ * render.
+ */
+sealed interface Node {
+
+	/**
+	 * Static text that is already encoded with the template charset for rendering to
+	 * bytes.
+	 * @param text the text
+	 * @param encoded the text encoded which must not be modified
+	 */
+	record Text(String text, byte[] encoded) implements Node {
+	}
+
+	/**
+	 * A variable tag.
+	 * @param name the tag name
+	 * @param path the name split on dots which is empty for the implicit iterator
+	 * @param escaped whether the escaper is used
+	 */
+	record Variable(String name, List<String> path, boolean escaped) implements Node {
+	}
+
+	/**
+	 * A section or inverted section.
+	 * @param name the tag name
+	 * @param path the name split on dots which is empty for the implicit iterator
+	 * @param children the content
+	 * @param inverted true if inverted
+	 */
+	record Section(String name, List<String> path, List<Node> children, boolean inverted) implements Node {
+	}
+
+	/**
+	 * A partial that is resolved when rendered so that partials can be recursive.
+	 * @param name partial name
+	 * @param indent indentation of a standalone partial tag
+	 */
+	record Partial(String name, String indent) implements Node {
+	}
+
+}
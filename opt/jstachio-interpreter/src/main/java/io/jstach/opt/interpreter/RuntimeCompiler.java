@@ -0,0 +1,440 @@
+package io.jstach.opt.interpreter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import io.jstach.apt.GenerateRendererProcessor;
+import io.jstach.jstache.JStache;
+import io.jstach.jstache.JStacheLambda;
+import io.jstach.jstachio.Template;
+
+/**
+ * Compiles templates that are only known at runtime to the same code the annotation
+ * processor generates. Unlike the {@link Interpreter} the result is a regular generated
+ * renderer so it is as fast as a renderer generated at build time once the JIT has warmed
+ * up and lambdas of the model are supported.
+ * <p>
+ * The template is compiled in memory with the system Java compiler and the jstachio
+ * annotation processor for a synthetic record that has the model as its only component
+ * and is annotated with {@link JStache#template()}. The template is the template of a
+ * lambda of the record returning the model so the model is the root of the context stack
+ * and names resolve the same as if the model was annotated. The classes are defined in a
+ * class loader per template so that a template is unloaded once it is removed from the
+ * cache and no longer used.
+ *
+ * <pre><code class="language-java">
+ * RuntimeCompiler compiler = RuntimeCompiler.of();
+ * Template&lt;Person&gt; template = compiler.compile(Person.class, templateFromDatabase);
+ * String html = template.execute(person);
+ * </code></pre>
+ *
+ * Requirements and limitations:
+ * <ul>
+ * <li>A JDK is needed at runtime. If the application is a module then the
+ * <code>jdk.compiler</code> module needs to be resolved.</li>
+ * <li>The model class must be public as well as its enclosing classes.</li>
+ * <li>Lambdas must be public methods of the model class. Type variables in their
+ * signatures are erased.</li>
+ * <li>Partials are loaded as resources from the class loader of the model.</li>
+ * </ul>
+ */
+public final class RuntimeCompiler {
+
+	/**
+	 * The default number of compiled templates kept.
+	 */
+	public static final int DEFAULT_CACHE_SIZE = 64;
+
+	private static final String PACKAGE = "io.jstach.opt.interpreter.compiled";
+
+	private static final String WRAPPER_PREFIX = "Template_";
+
+	private static final String ROOT_LAMBDA = "__root";
+
+	private final Map<TemplateKey, CompiledTemplate<?>> templates;
+
+	/*
+	 * The hash is of the template source. The model class is part of the key so that the
+	 * same template is compiled for each model.
+	 */
+	private record TemplateKey(Class<?> modelClass, String hash) {
+	}
+
+	private RuntimeCompiler(int cacheSize) {
+		this.templates = createCache(cacheSize);
+	}
+
+	/**
+	 * A compiler that keeps the {@value #DEFAULT_CACHE_SIZE} most recently used
+	 * templates.
+	 * @return new compiler
+	 */
+	public static RuntimeCompiler of() {
+		return of(DEFAULT_CACHE_SIZE);
+	}
+
+	/**
+	 * A compiler that keeps the given number of most recently used templates.
+	 * @param cacheSize maximum number of compiled templates kept
+	 * @return new compiler
+	 */
+	public static RuntimeCompiler of(int cacheSize) {
+		if (cacheSize < 1) {
+			throw new IllegalArgumentException("cache size should be positive");
+		}
+		return new RuntimeCompiler(cacheSize);
+	}
+
+	/**
+	 * Compiles a template for a model class or returns the already compiled template if
+	 * the same template was compiled before for the model class.
+	 * @param <T> model type
+	 * @param modelClass the public model class
+	 * @param template the mustache template source
+	 * @return compiled template
+	 * @throws TemplateParseException if the template or model is not valid
+	 * @throws UnsupportedOperationException if there is no Java compiler available
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> Template<T> compile(Class<T> modelClass, String template) {
+		Objects.requireNonNull(modelClass, "modelClass");
+		Objects.requireNonNull(template, "template");
+		var key = new TemplateKey(modelClass, hash(template));
+		var compiled = templates.get(key);
+		if (compiled != null) {
+			return (Template<T>) compiled;
+		}
+		/*
+		 * Compiling is done without holding the lock. Compiling twice is harmless as each
+		 * compile has its own class loader.
+		 */
+		compiled = doCompile(modelClass, template, WRAPPER_PREFIX + key.hash());
+		templates.put(key, compiled);
+		return (Template<T>) compiled;
+	}
+
+	/**
+	 * Removes a compiled template so that its classes can be unloaded once the template
+	 * is no longer used.
+	 * @param modelClass the model class the template was compiled for
+	 * @param template the template source
+	 * @return true if the template was compiled and is now removed
+	 */
+	public boolean remove(Class<?> modelClass, String template) {
+		return templates.remove(new TemplateKey(modelClass, hash(template))) != null;
+	}
+
+	/**
+	 * Removes all compiled templates.
+	 */
+	public void clear() {
+		templates.clear();
+	}
+
+	private static <T> CompiledTemplate<T> doCompile(Class<T> modelClass, String template, String simpleName) {
+		String modelName = modelClass.getCanonicalName();
+		if (modelName == null || modelClass.isPrimitive() || modelClass.isArray()) {
+			throw new IllegalArgumentException("Model class should be a named class: " + modelClass);
+		}
+		JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+		if (javac == null) {
+			throw new UnsupportedOperationException(
+					"No Java compiler available. A JDK with the jdk.compiler module is required.");
+		}
+		ClassLoader parent = modelClass.getClassLoader();
+		if (parent == null) {
+			parent = RuntimeCompiler.class.getClassLoader();
+		}
+		String className = PACKAGE + "." + simpleName;
+		String source = wrapperSource(modelClass, template, simpleName);
+		var diagnostics = new DiagnosticCollector<JavaFileObject>();
+		Map<String, byte[]> classes;
+		try (StandardJavaFileManager standard = javac.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8);
+				var fileManager = new MemoryFileManager(standard, parent)) {
+			standard.setLocation(StandardLocation.CLASS_PATH, classPath(modelClass));
+			/*
+			 * A blank resources path disables the processor falling back to the file
+			 * system for templates which is only for IDEs.
+			 */
+			var task = javac.getTask(null, fileManager, diagnostics, List.of("-Ajstache.resourcesPath="), null,
+					List.of(MemoryFileManager.source(className, source)));
+			task.setProcessors(List.of(new GenerateRendererProcessor()));
+			boolean success = task.call();
+			if (!success) {
+				String errors = diagnostics.getDiagnostics().stream().filter(d -> d.getKind() == Diagnostic.Kind.ERROR)
+						.map(d -> d.getMessage(null)).collect(Collectors.joining("\n"));
+				throw new TemplateParseException("Template for " + modelName + " did not compile:\n" + errors);
+			}
+			classes = fileManager.classes();
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		var loader = new CompiledClassLoader(parent, classes);
+		try {
+			Class<?> wrapperClass = loader.loadClass(className);
+			@SuppressWarnings("unchecked")
+			Template<Object> renderer = (Template<Object>) loader.loadClass(className + "Renderer").getConstructor()
+					.newInstance();
+			MethodHandle wrapper = MethodHandles.publicLookup()
+					.findConstructor(wrapperClass, MethodType.methodType(void.class, modelClass))
+					.asType(MethodType.methodType(Object.class, Object.class));
+			return new CompiledTemplate<>(modelClass, template, renderer, wrapper);
+		}
+		catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Compiled template could not be loaded for " + modelName, e);
+		}
+	}
+
+	/*
+	 * A section of the model would iterate or skip models that are iterable, maps,
+	 * optionals or falsey. Instead the template is the template of a lambda returning the
+	 * model which binds the model as the root context like a model annotated with
+	 * JStache.
+	 */
+	static String wrapperSource(Class<?> modelClass, String template, String simpleName) {
+		String modelName = modelClass.getCanonicalName();
+		StringBuilder sb = new StringBuilder();
+		sb.append("package ").append(PACKAGE).append(";\n\n");
+		sb.append("@").append(JStache.class.getCanonicalName());
+		sb.append("(template = \"{{#").append(ROOT_LAMBDA).append("}}{{/").append(ROOT_LAMBDA).append("}}\")\n");
+		sb.append("public record ").append(simpleName);
+		sb.append("(").append(modelName).append(" model) {\n");
+		sb.append("\n\t@").append(JStacheLambda.class.getCanonicalName());
+		sb.append("(name = \"").append(ROOT_LAMBDA).append("\", template = \"").append(javaString(template))
+				.append("\")\n");
+		sb.append("\tpublic ").append(modelName).append(" ").append(ROOT_LAMBDA).append("(@");
+		sb.append(JStacheLambda.Raw.class.getCanonicalName()).append(" String body) {\n");
+		sb.append("\t\treturn model;\n\t}\n");
+		for (Method m : modelClass.getMethods()) {
+			JStacheLambda lambda = m.getAnnotation(JStacheLambda.class);
+			if (lambda != null && !m.isBridge() && !m.isSynthetic() && m.getReturnType() != void.class) {
+				lambdaDelegate(sb, modelClass, m, lambda);
+			}
+		}
+		sb.append("}\n");
+		return sb.toString();
+	}
+
+	/*
+	 * Lambdas are only resolved on the annotated class so the lambdas of the model are
+	 * delegated to.
+	 */
+	private static void lambdaDelegate(StringBuilder sb, Class<?> modelClass, Method m, JStacheLambda lambda) {
+		String raw = "@" + JStacheLambda.Raw.class.getCanonicalName() + " ";
+		sb.append("\n\t@").append(JStacheLambda.class.getCanonicalName());
+		sb.append("(name = \"").append(javaString(lambda.name()));
+		sb.append("\", template = \"").append(javaString(lambda.template()));
+		sb.append("\", pure = ").append(lambda.pure()).append(")\n\t");
+		if (m.isAnnotationPresent(JStacheLambda.Raw.class)) {
+			sb.append(raw);
+		}
+		sb.append("public ").append(typeName(m.getGenericReturnType())).append(" ").append(m.getName()).append("(");
+		Parameter[] parameters = m.getParameters();
+		Type[] types = m.getGenericParameterTypes();
+		for (int i = 0; i < parameters.length; i++) {
+			if (i > 0) {
+				sb.append(", ");
+			}
+			if (parameters[i].isAnnotationPresent(JStacheLambda.Raw.class)) {
+				sb.append(raw);
+			}
+			sb.append(typeName(types[i])).append(" p").append(i);
+		}
+		sb.append(")");
+		Class<?>[] exceptions = m.getExceptionTypes();
+		for (int i = 0; i < exceptions.length; i++) {
+			sb.append(i == 0 ? " throws " : ", ").append(exceptions[i].getCanonicalName());
+		}
+		sb.append(" {\n\t\treturn ");
+		sb.append(Modifier.isStatic(m.getModifiers()) ? modelClass.getCanonicalName() : "model");
+		sb.append(".").append(m.getName()).append("(");
+		for (int i = 0; i < parameters.length; i++) {
+			sb.append(i == 0 ? "p" : ", p").append(i);
+		}
+		sb.append(");\n\t}\n");
+	}
+
+	private static String typeName(Type type) {
+		if (type instanceof Class<?> c) {
+			return c.getCanonicalName();
+		}
+		if (type instanceof ParameterizedType p) {
+			return typeName(p.getRawType()) + Arrays.stream(p.getActualTypeArguments()).map(RuntimeCompiler::typeName)
+					.collect(Collectors.joining(", ", "<", ">"));
+		}
+		if (type instanceof GenericArrayType a) {
+			return typeName(a.getGenericComponentType()) + "[]";
+		}
+		if (type instanceof WildcardType w) {
+			Type[] lower = w.getLowerBounds();
+			if (lower.length > 0) {
+				return "? super " + typeName(lower[0]);
+			}
+			Type[] upper = w.getUpperBounds();
+			return upper.length == 0 || upper[0] == Object.class ? "?" : "? extends " + typeName(upper[0]);
+		}
+		if (type instanceof TypeVariable<?> v) {
+			/*
+			 * The wrapper is not generic so type variables are erased.
+			 */
+			Type[] bounds = v.getBounds();
+			return bounds.length == 0 ? "java.lang.Object" : typeName(bounds[0]);
+		}
+		return type.getTypeName();
+	}
+
+	private static String javaString(String s) {
+		StringBuilder sb = new StringBuilder(s.length() + 16);
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			switch (c) {
+				case '"' -> sb.append("\\\"");
+				case '\\' -> sb.append("\\\\");
+				case '\n' -> sb.append("\\n");
+				case '\r' -> sb.append("\\r");
+				case '\t' -> sb.append("\\t");
+				default -> {
+					if (c < 0x20 || c > 0x7e) {
+						sb.append(String.format("\\u%04x", (int) c));
+					}
+					else {
+						sb.append(c);
+					}
+				}
+			}
+		}
+		return sb.toString();
+	}
+
+	private static Set<File> classPath(Class<?> modelClass) {
+		Set<File> files = new LinkedHashSet<>();
+		for (String property : List.of("java.class.path", "jdk.module.path")) {
+			String path = System.getProperty(property);
+			if (path == null) {
+				continue;
+			}
+			for (String p : path.split(File.pathSeparator)) {
+				if (!p.isBlank()) {
+					files.add(new File(p));
+				}
+			}
+		}
+		/*
+		 * The class path property is not complete if running in a container or
+		 * application server so the locations of the needed classes are added.
+		 */
+		for (Class<?> c : List.of(modelClass, Template.class, JStache.class)) {
+			File location = location(c);
+			if (location != null) {
+				files.add(location);
+			}
+		}
+		return files;
+	}
+
+	private static @Nullable File location(Class<?> c) {
+		CodeSource source = c.getProtectionDomain().getCodeSource();
+		if (source == null || source.getLocation() == null) {
+			return null;
+		}
+		try {
+			return new File(source.getLocation().toURI());
+		}
+		catch (URISyntaxException | IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	private static String hash(String template) {
+		try {
+			MessageDigest md = MessageDigest.getInstance("SHA-256");
+			byte[] digest = md.digest(template.getBytes(StandardCharsets.UTF_8));
+			return HexFormat.of().formatHex(digest, 0, 16);
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static Map<TemplateKey, CompiledTemplate<?>> createCache(int size) {
+		return Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<TemplateKey, CompiledTemplate<?>> eldest) {
+				return size() > size;
+			}
+
+		});
+	}
+
+	/*
+	 * One loader per template so that the classes are unloaded with the template.
+	 */
+	private static final class CompiledClassLoader extends ClassLoader {
+
+		static {
+			registerAsParallelCapable();
+		}
+
+		private final Map<String, byte[]> classes;
+
+		CompiledClassLoader(ClassLoader parent, Map<String, byte[]> classes) {
+			super("jstachio-compiled", parent);
+			this.classes = new LinkedHashMap<>(classes);
+		}
+
+		@Override
+		protected Class<?> findClass(String name) throws ClassNotFoundException {
+			byte[] bytes;
+			synchronized (classes) {
+				bytes = classes.remove(name);
+			}
+			if (bytes == null) {
+				throw new ClassNotFoundException(name);
+			}
+			return defineClass(name, bytes, 0, bytes.length);
+		}
+
+	}
+
+}
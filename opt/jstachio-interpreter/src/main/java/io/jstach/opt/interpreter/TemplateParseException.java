@@ -0,0 +1,19 @@
+package io.jstach.opt.interpreter;
+
+/**
+ * Thrown if a template is not a valid mustache template. The message contains the
+ * template name and the line and column of the error.
+ */
+public final class TemplateParseException extends RuntimeException {
+
+	private static final long serialVersionUID = 4069187473587014337L;
+
+	TemplateParseException(String message) {
+		super(message);
+	}
+
+	TemplateParseException(String message, Throwable cause) {
+		super(message, cause);
+	}
+
+}
@@ -0,0 +1,455 @@
+package io.jstach.opt.interpreter;
+
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import io.jstach.apt.WhitespaceTokenProcessor;
+import io.jstach.apt.internal.LoggingSupport;
+import io.jstach.apt.internal.MustacheToken;
+import io.jstach.apt.internal.MustacheToken.NewlineChar;
+import io.jstach.apt.internal.MustacheToken.SpecialChar;
+import io.jstach.apt.internal.MustacheToken.TagToken;
+import io.jstach.apt.internal.PositionedToken;
+import io.jstach.apt.internal.ProcessingException;
+import io.jstach.apt.internal.TokenProcessor;
+import io.jstach.apt.internal.token.Delimiters;
+import io.jstach.apt.internal.token.MustacheTagKind;
+import io.jstach.apt.internal.token.MustacheTokenizer;
+
+/**
+ * Parses a template into a {@link Node} tree with the tokenizer and standalone line
+ * handling of the compiler so that whitespace is rendered exactly like generated code.
+ * <p>
+ * Like the compiler a parent call (<code>{{&lt;parent}}</code>) is expanded while
+ * parsing: the tokens of the blocks passed to the parent are replayed in place of the
+ * blocks of the parent and the result is standalone line processed again.
+ */
+final class TemplateParser extends WhitespaceTokenProcessor
+		implements MustacheToken.Visitor<@Nullable Void, ProcessingException> {
+
+	private static final LoggingSupport logging = new LoggingSupport.NoLogging();
+
+	/*
+	 * Parents are expanded so a parent calling itself would never end.
+	 */
+	static final int MAX_PARENT_DEPTH = 64;
+
+	private enum Kind {
+
+		ROOT, SECTION, INVERTED, BLOCK
+
+	}
+
+	private record Scope(Kind kind, String name, List<Node> nodes) {
+	}
+
+	private final Charset charset;
+
+	/*
+	 * Like the compiler the indent of a standalone partial tag is added to the lines of
+	 * the partial.
+	 */
+	private final String indent;
+
+	private final Function<String, String> parentLoader;
+
+	private final Deque<Scope> scopes = new ArrayDeque<>();
+
+	private final StringBuilder text = new StringBuilder();
+
+	/*
+	 * The parent call currently being captured.
+	 */
+	private @Nullable ParentCall call;
+
+	/*
+	 * The following are only used if this is a parent template.
+	 */
+	private final @Nullable TemplateParser caller;
+
+	private final @Nullable Map<String, List<PositionedToken<MustacheToken>>> blocks;
+
+	private final int depth;
+
+	private final Deque<FilterSection> filterSections = new ArrayDeque<>();
+
+	private @Nullable Block block;
+
+	private record Block(String name, List<PositionedToken<MustacheToken>> tokens) {
+	}
+
+	private record FilterSection(String name, @Nullable Block block) {
+	}
+
+	private TemplateParser(String indent, Charset charset, Function<String, String> parentLoader,
+			@Nullable TemplateParser caller, @Nullable Map<String, List<PositionedToken<MustacheToken>>> blocks,
+			int depth) {
+		this.indent = indent;
+		this.charset = charset;
+		this.parentLoader = parentLoader;
+		this.caller = caller;
+		this.blocks = blocks;
+		this.depth = depth;
+		scopes.push(new Scope(Kind.ROOT, "", new ArrayList<>()));
+	}
+
+	/**
+	 * Parses a template.
+	 * @param name template name used for errors
+	 * @param template template source
+	 * @param indent indentation added to every line
+	 * @param charset charset to pre-encode static text
+	 * @param parentLoader loads the source of parents by name
+	 * @return the nodes of the template
+	 * @throws TemplateParseException if the template is not valid
+	 */
+	static List<Node> parse(String name, String template, String indent, Charset charset,
+			Function<String, String> parentLoader) {
+		TemplateParser parser = new TemplateParser(indent, charset, parentLoader, null, null, 0);
+		try {
+			return parser.run(name, template);
+		}
+		catch (ProcessingException e) {
+			throw new TemplateParseException(e.position().description() + " " + e.getMessage(), e);
+		}
+	}
+
+	private List<Node> run(String name, String template) throws ProcessingException {
+		TokenProcessor<@Nullable Character> processor = MustacheTokenizer.createInstance(name, this);
+		for (int i = 0; i < template.length(); i++) {
+			processor.processToken(template.charAt(i));
+		}
+		processor.processToken(TokenProcessor.EOF);
+		return List.copyOf(scopes.getFirst().nodes());
+	}
+
+	@Override
+	public LoggingSupport logging() {
+		return logging;
+	}
+
+	/*
+	 * Replaces the blocks of a parent template with the blocks of the caller like the
+	 * compiler does.
+	 */
+	@Override
+	protected List<PositionedToken<MustacheToken>> filter(PositionedToken<MustacheToken> positionedToken)
+			throws ProcessingException {
+		if (blocks == null) {
+			return List.of(positionedToken);
+		}
+		var block = this.block;
+		if (positionedToken.innerToken() instanceof TagToken tt) {
+			if (tt.tagKind().isBeginSection()) {
+				filterSections.push(new FilterSection(tt.name(), block));
+			}
+			else if (tt.tagKind().isEndSection()) {
+				var section = filterSections.pop();
+				if (!section.name().equals(tt.name())) {
+					throw new ProcessingException(positionedToken.position(),
+							"bad end section: \"" + tt.name() + "\" expected \"" + section.name() + "\"");
+				}
+			}
+			if (block == null && tt.tagKind() == MustacheTagKind.BEGIN_BLOCK_SECTION) {
+				block = findBlock(tt.name());
+				this.block = block;
+				return block != null ? block.tokens() : List.of(positionedToken);
+			}
+			else if (block != null && tt.name().equals(block.name()) && tt.tagKind().isEndSection()) {
+				var section = filterSections.peek();
+				if (section == null || section.block() == null) {
+					this.block = null;
+					return List.of();
+				}
+				return List.of(positionedToken);
+			}
+			else if (block != null) {
+				return List.of();
+			}
+			return List.of(positionedToken);
+		}
+		return block != null ? List.of() : List.of(positionedToken);
+	}
+
+	private @Nullable Block findBlock(String name) {
+		for (TemplateParser p = this; p != null && p.blocks != null; p = p.caller) {
+			var tokens = p.blocks.get(name);
+			if (tokens != null) {
+				return new Block(name, tokens);
+			}
+		}
+		return null;
+	}
+
+	@Override
+	protected void handleToken(PositionedToken<MustacheToken> positionedToken) throws ProcessingException {
+		var call = this.call;
+		if (call == null) {
+			positionedToken.innerToken().accept(this);
+		}
+		else if (call.capture(positionedToken)) {
+			this.call = null;
+			expand(call);
+		}
+	}
+
+	@Override
+	public @Nullable Void beginSection(String name) throws ProcessingException {
+		push(Kind.SECTION, name);
+		return null;
+	}
+
+	@Override
+	public @Nullable Void beginInvertedSection(String name) throws ProcessingException {
+		push(Kind.INVERTED, name);
+		return null;
+	}
+
+	@Override
+	public @Nullable Void beginParentSection(String name) throws ProcessingException {
+		flush();
+		if (depth >= MAX_PARENT_DEPTH) {
+			throw new ProcessingException(position, "Parent calls are nested too deep. parent = " + name);
+		}
+		call = new ParentCall(name, partialIndent);
+		return null;
+	}
+
+	@Override
+	public @Nullable Void beginBlockSection(String name) throws ProcessingException {
+		push(Kind.BLOCK, name);
+		return null;
+	}
+
+	private void push(Kind kind, String name) {
+		flush();
+		scopes.push(new Scope(kind, name, new ArrayList<>()));
+	}
+
+	private void expand(ParentCall call) throws ProcessingException {
+		String source = parentLoader.apply(call.name());
+		var parser = new TemplateParser(call.indent(), charset, parentLoader, this, call.blocks(), depth + 1);
+		for (Node n : parser.run(call.name(), source)) {
+			add(n);
+		}
+	}
+
+	@Override
+	public @Nullable Void endSection(String name) throws ProcessingException {
+		flush();
+		Scope scope = scopes.getFirst();
+		if (scope.kind() == Kind.ROOT) {
+			throw new ProcessingException(position, "Closing \"" + name + "\" block when no block is currently open");
+		}
+		if (!scope.name().equals(name)) {
+			throw new ProcessingException(position, "Closing " + name + " block instead of " + scope.name());
+		}
+		scopes.pop();
+		List<Node> children = List.copyOf(scope.nodes());
+		switch (scope.kind()) {
+			case SECTION -> add(new Node.Section(name, path(name), children, false));
+			case INVERTED -> add(new Node.Section(name, path(name), children, true));
+			case BLOCK -> {
+				/*
+				 * The block was not overridden so the default content is rendered.
+				 */
+				for (Node n : children) {
+					add(n);
+				}
+			}
+			case ROOT -> throw new IllegalStateException("root");
+		}
+		return null;
+	}
+
+	@Override
+	public @Nullable Void partial(String name) throws ProcessingException {
+		flush();
+		add(new Node.Partial(name, partialIndent));
+		partialIndent = "";
+		return null;
+	}
+
+	@Override
+	public @Nullable Void variable(String name) throws ProcessingException {
+		indent();
+		flush();
+		add(new Node.Variable(name, path(name), true));
+		return null;
+	}
+
+	@Override
+	public @Nullable Void unescapedVariable(String name) throws ProcessingException {
+		indent();
+		flush();
+		add(new Node.Variable(name, path(name), false));
+		return null;
+	}
+
+	@Override
+	public @Nullable Void delimiters(Delimiters delimiters) throws ProcessingException {
+		return null;
+	}
+
+	@Override
+	public @Nullable Void comment(String comment) throws ProcessingException {
+		return null;
+	}
+
+	@Override
+	public @Nullable Void specialCharacter(SpecialChar specialChar) throws ProcessingException {
+		text.append(specialChar.character());
+		return null;
+	}
+
+	@Override
+	public @Nullable Void newline(NewlineChar c) throws ProcessingException {
+		text.append(c.characters());
+		return null;
+	}
+
+	@Override
+	public @Nullable Void text(String s) throws ProcessingException {
+		indent();
+		text.append(s);
+		return null;
+	}
+
+	@Override
+	public @Nullable Void endOfFile() throws ProcessingException {
+		flush();
+		Scope scope = scopes.getFirst();
+		if (scope.kind() != Kind.ROOT) {
+			throw new ProcessingException(position, "Unclosed \"" + scope.name() + "\" block at end of file");
+		}
+		return null;
+	}
+
+	private void indent() {
+		if (atStartOfLine) {
+			text.append(indent);
+		}
+	}
+
+	private void flush() {
+		if (text.isEmpty()) {
+			return;
+		}
+		String s = text.toString();
+		text.setLength(0);
+		add(new Node.Text(s, s.getBytes(charset)));
+	}
+
+	private void add(Node node) {
+		scopes.getFirst().nodes().add(node);
+	}
+
+	private static List<String> path(String name) {
+		if (name.equals(".")) {
+			return List.of();
+		}
+		return List.of(name.split("\\.", -1));
+	}
+
+	/*
+	 * Captures the blocks passed to a parent. Only blocks directly in the parent call are
+	 * used and everything else is ignored.
+	 */
+	private final class ParentCall {
+
+		private final String name;
+
+		private final String indent;
+
+		private final Deque<TagToken> sections = new ArrayDeque<>();
+
+		private final Map<String, List<PositionedToken<MustacheToken>>> blocks = new LinkedHashMap<>();
+
+		ParentCall(String name, String indent) {
+			this.name = name;
+			this.indent = indent;
+			if (currentToken != null && currentToken.innerToken() instanceof TagToken tt) {
+				sections.push(tt);
+			}
+		}
+
+		String name() {
+			return name;
+		}
+
+		String indent() {
+			return indent;
+		}
+
+		Map<String, List<PositionedToken<MustacheToken>>> blocks() {
+			return blocks;
+		}
+
+		/**
+		 * Captures a token of the parent call.
+		 * @return true if the parent call ended.
+		 */
+		boolean capture(PositionedToken<MustacheToken> token) throws ProcessingException {
+			var mt = token.innerToken();
+			if (mt.isEOF()) {
+				throw new ProcessingException(position,
+						"parent partial was never closed and reached end of file. parent = " + name);
+			}
+			var current = currentBlock();
+			boolean closedCurrent = false;
+			if (mt instanceof TagToken tt) {
+				String tagName = tt.name();
+				if (tt.tagKind().isBeginSection()) {
+					boolean direct = sections.size() == 1;
+					sections.push(tt);
+					if (tt.tagKind() == MustacheTagKind.BEGIN_BLOCK_SECTION && direct) {
+						if (blocks.containsKey(tagName)) {
+							throw new ProcessingException(position, "Duplicate block: " + tagName);
+						}
+						blocks.put(tagName, new ArrayList<>());
+						return false;
+					}
+				}
+				else if (tt.tagKind().isEndSection()) {
+					var section = sections.peek();
+					if (section == null || !section.name().equals(tagName)) {
+						throw new ProcessingException(position, "Unexpected end section: \"" + tagName
+								+ "\" expecting: \"" + (section == null ? "" : section.name()) + "\"");
+					}
+					sections.pop();
+					if (sections.isEmpty()) {
+						return true;
+					}
+					closedCurrent = sections.size() == 1 && current != null;
+				}
+			}
+			if (current != null && !closedCurrent) {
+				current.add(token);
+			}
+			return false;
+		}
+
+		private @Nullable List<PositionedToken<MustacheToken>> currentBlock() {
+			var it = sections.descendingIterator();
+			it.next();
+			if (!it.hasNext()) {
+				return null;
+			}
+			var maybeBlock = it.next();
+			if (maybeBlock.tagKind() == MustacheTagKind.BEGIN_BLOCK_SECTION) {
+				return blocks.get(maybeBlock.name());
+			}
+			return null;
+		}
+
+	}
+
+}
@@ -0,0 +1,12 @@
+/**
+ * Interpreted runtime rendering of mustache templates that are only known at runtime.
+ * <p>
+ * Templates are parsed with the JStachio tokenizer so whitespace and standalone lines are
+ * rendered like generated code. Parsed templates are cached and static text is
+ * pre-encoded.
+ * <p>
+ * <strong>See {@link io.jstach.opt.interpreter.Interpreter}</strong>.
+ *
+ */
+@org.eclipse.jdt.annotation.NonNullByDefault
+package io.jstach.opt.interpreter;
@@ -0,0 +1,40 @@
+/**
+ * Interpreted rendering of runtime templates:
+ * <a href="https://repo1.maven.org/maven2/io/jstach/jstachio-interpreter/maven-metadata.xml" class="gav">io.jstach:jstachio-interpreter</a>.
+ * <p>
+ * Renders mustache templates that are only known at runtime with the same parser as the
+ * annotation processor and without generating code or compiles them at runtime to the
+ * same code the annotation processor generates.
+ * <p>
+ * <strong>See {@link io.jstach.opt.interpreter.Interpreter}</strong> and
+ * <strong>{@link io.jstach.opt.interpreter.RuntimeCompiler}</strong>.
+ * <p>
+ * The parser and the compiler are in
+ * <a href="https://repo1.maven.org/maven2/io/jstach/jstachio-apt/maven-metadata.xml" class="gav">io.jstach:jstachio-apt</a>
+ * which is an optional dependency so that its annotation processor is not discovered when
+ * compiling code that uses this module. Add it with <code>runtime</code> scope.
+ * <p>
+ * 
+ * Model classes are accessed reflectively so if you are using modules you might need to:
+ * <pre>
+ * <code class="language-java">
+ * opens your.package.with.models to io.jstach.opt.interpreter;
+ * </code>
+ * </pre>
+ */
+module io.jstach.opt.interpreter {
+	
+	exports io.jstach.opt.interpreter;
+	
+	requires transitive io.jstach.jstachio;
+	requires io.jstach.apt;
+	requires java.compiler;
+
+	/*
+	 * Resolves jdk.compiler for the RuntimeCompiler.
+	 */
+	uses javax.tools.JavaCompiler;
+
+	requires static org.eclipse.jdt.annotation;
+	
+}
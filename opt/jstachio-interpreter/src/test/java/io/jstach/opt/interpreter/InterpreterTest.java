@@ -0,0 +1,73 @@
+package io.jstach.opt.interpreter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.Test;
+
+import io.jstach.jstache.JStache;
+
+public class InterpreterTest {
+
+	@JStache(path = "interpreter/compare.mustache")
+	public record CompareModel(String title, List<Item> items, Map<String, String> attrs, Item featured,
+			Optional<String> maybe, int[] numbers, boolean flag) {
+	}
+
+	public record Item(String name, int count) {
+	}
+
+	private final Interpreter interpreter = Interpreter.of();
+
+	@Test
+	public void testSameAsGenerated() throws Exception {
+		var model = new CompareModel("<b>Tom & Jerry</b>", List.of(new Item("cat", 1), new Item("mouse", 2)),
+				Map.of("lang", "en"), new Item("dog", 3), Optional.of("yes"), new int[] { 1, 2, 3 }, true);
+		assertSameAsGenerated(model);
+	}
+
+	@Test
+	public void testSameAsGeneratedEmpty() throws Exception {
+		var model = new CompareModel("empty", List.of(), Map.of("lang", "fr"), new Item("dog", 3), Optional.empty(),
+				new int[] {}, false);
+		assertSameAsGenerated(model);
+	}
+
+	private void assertSameAsGenerated(CompareModel model) throws Exception {
+		String expected = CompareModelRenderer.of().execute(model);
+		var template = interpreter.template("interpreter/compare.mustache");
+		assertEquals(expected, template.execute(model));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		template.write(model, out);
+		assertEquals(expected, out.toString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testCompileIsCached() throws Exception {
+		var template = interpreter.compile("hello", "Hello {{name}}!");
+		assertSame(template, interpreter.compile("hello", "Hello {{name}}!"));
+		assertEquals("Hello a &amp; b!", template.execute(Map.of("name", "a & b")));
+		assertEquals("Hi a & b!", interpreter.compile("hello", "Hi {{{name}}}!").execute(Map.of("name", "a & b")));
+		assertEquals(7, template.templateStaticSize());
+	}
+
+	@Test
+	public void testParseError() throws Exception {
+		try {
+			interpreter.compile("broken", "{{#a}}\n{{/b}}");
+			fail("expected parse error");
+		}
+		catch (TemplateParseException e) {
+			assertTrue(e.getMessage(), e.getMessage().startsWith("broken[2:"));
+		}
+	}
+
+}
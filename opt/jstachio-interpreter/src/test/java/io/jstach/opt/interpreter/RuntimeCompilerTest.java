@@ -0,0 +1,119 @@
+package io.jstach.opt.interpreter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.Test;
+
+import io.jstach.jstache.JStache;
+import io.jstach.jstache.JStacheLambda;
+import io.jstach.opt.interpreter.InterpreterTest.CompareModel;
+import io.jstach.opt.interpreter.InterpreterTest.Item;
+
+public class RuntimeCompilerTest {
+
+	public record Greeting(String name) {
+
+		@JStacheLambda
+		public String shout(Object o) {
+			return name.toUpperCase() + "!";
+		}
+
+	}
+
+	static final String NAMES_TEMPLATE = "{{title}}:{{#names}} {{.}}{{/names}}\n";
+
+	@JStache(template = NAMES_TEMPLATE)
+	public record Names(String title, List<String> names) implements Iterable<String> {
+
+		@Override
+		public Iterator<String> iterator() {
+			return names.iterator();
+		}
+
+	}
+
+	static final String ATTRIBUTES_TEMPLATE = "Hello{{#greeting}} {{.}}{{/greeting}}!";
+
+	@JStache(template = ATTRIBUTES_TEMPLATE)
+	public static class Attributes extends LinkedHashMap<String, String> {
+
+		private static final long serialVersionUID = 1L;
+
+	}
+
+	private final RuntimeCompiler compiler = RuntimeCompiler.of();
+
+	@Test
+	public void testSameAsGenerated() throws Exception {
+		var model = new CompareModel("<b>Tom & Jerry</b>", List.of(new Item("cat", 1), new Item("mouse", 2)),
+				Map.of("lang", "en"), new Item("dog", 3), Optional.of("yes"), new int[] { 1, 2, 3 }, true);
+		String source;
+		try (InputStream is = getClass().getResourceAsStream("/interpreter/compare.mustache")) {
+			source = new String(is.readAllBytes(), StandardCharsets.UTF_8);
+		}
+		String expected = CompareModelRenderer.of().execute(model);
+		var template = compiler.compile(CompareModel.class, source);
+		assertEquals(expected, template.execute(model));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		template.write(model, out);
+		assertEquals(expected, out.toString(StandardCharsets.UTF_8));
+		assertSame(CompareModel.class, template.modelClass());
+		assertEquals(source, template.templateString());
+	}
+
+	@Test
+	public void testLambdaAndCache() throws Exception {
+		var template = compiler.compile(Greeting.class, "Hello {{name}} {{#shout}}{{.}}{{/shout}}\n");
+		assertEquals("Hello a &amp; b A &amp; B!\n", template.execute(new Greeting("a & b")));
+		assertSame(template, compiler.compile(Greeting.class, "Hello {{name}} {{#shout}}{{.}}{{/shout}}\n"));
+		assertTrue(compiler.remove(Greeting.class, "Hello {{name}} {{#shout}}{{.}}{{/shout}}\n"));
+		assertNotSame(template, compiler.compile(Greeting.class, "Hello {{name}} {{#shout}}{{.}}{{/shout}}\n"));
+	}
+
+	@Test
+	public void testIterableModelIsRoot() throws Exception {
+		var template = compiler.compile(Names.class, NAMES_TEMPLATE);
+		for (var model : List.of(new Names("cats", List.of("tom", "felix")), new Names("none", List.of()))) {
+			assertEquals(NamesRenderer.of().execute(model), template.execute(model));
+		}
+		assertEquals("cats: tom felix\n", template.execute(new Names("cats", List.of("tom", "felix"))));
+	}
+
+	@Test
+	public void testMapModelIsRoot() throws Exception {
+		var template = compiler.compile(Attributes.class, ATTRIBUTES_TEMPLATE);
+		var empty = new Attributes();
+		var greeting = new Attributes();
+		greeting.put("greeting", "world");
+		for (var model : List.of(empty, greeting)) {
+			assertEquals(AttributesRenderer.of().execute(model), template.execute(model));
+		}
+		assertEquals("Hello!", template.execute(empty));
+		assertEquals("Hello world!", template.execute(greeting));
+	}
+
+	@Test
+	public void testCompileError() throws Exception {
+		try {
+			compiler.compile(Greeting.class, "{{missing}}");
+			fail("expected compile error");
+		}
+		catch (TemplateParseException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains("missing"));
+		}
+	}
+
+}
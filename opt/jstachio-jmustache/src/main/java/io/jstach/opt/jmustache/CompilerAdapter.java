@@ -5,6 +5,9 @@ import java.io.Reader;
 import java.io.StringReader;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.annotation.Nullable;
 
 import com.samskivert.mustache.Mustache;
 import com.samskivert.mustache.Mustache.TemplateLoader;
@@ -29,14 +32,21 @@ class CompilerAdapter {
 
 	private final Map<String, JStachePartial> partials;
 
-	private String sectionBody = null;
+	/*
+	 * Lambda templates by template and section body. Lambdas are rendered with the same
+	 * section bodies over and over so this is bounded by the template.
+	 */
+	private final Map<LambdaKey, Template> lambdaTemplates = new ConcurrentHashMap<>();
+
+	private record LambdaKey(String template, String sectionBody) {
+	}
 
 	public CompilerAdapter(TemplateInfo template, Class<?> modelClass, Loader loader) {
 		this.compiler = Mustache.compiler() //
 				.standardsMode(false) //
 				.withEscaper(template.templateEscaper()::apply) //
 				.withFormatter(template.templateFormatter()::apply) //
-				.withLoader(new JStachioTemplateLoader()) //
+				.withLoader(new JStachioTemplateLoader(null)) //
 				.withCollector(new JStachioCollector(this));
 		JStachePath path = Templates.resolvePath(modelClass);
 		if (path != null) {
@@ -60,8 +70,15 @@ class CompilerAdapter {
 
 	private class JStachioTemplateLoader implements TemplateLoader {
 
+		private final @Nullable String sectionBody;
+
+		JStachioTemplateLoader(@Nullable String sectionBody) {
+			this.sectionBody = sectionBody;
+		}
+
 		@Override
 		public Reader getTemplate(String name) throws Exception {
+			String sectionBody = this.sectionBody;
 			if (sectionBody != null && JStacheLambda.SECTION_PARTIAL_NAME.equals(name)) {
 				return new StringReader(sectionBody);
 			}
@@ -87,8 +104,12 @@ class CompilerAdapter {
 	}
 
 	Template compileForLambda(String template, String sectionBody) {
-		this.sectionBody = sectionBody;
-		return this.compiler.compile(template);
+		/*
+		 * The section body is bound to the loader instead of the adapter as the compiled
+		 * templates are shared between threads.
+		 */
+		return lambdaTemplates.computeIfAbsent(new LambdaKey(template, sectionBody),
+				k -> this.compiler.withLoader(new JStachioTemplateLoader(k.sectionBody())).compile(k.template()));
 	}
 
 	public Template compile(Reader br) {
@@ -3,7 +3,10 @@ package io.jstach.opt.jmustache;
 import java.io.IOException;
 import java.io.Reader;
 import java.lang.System.Logger;
+import java.io.Writer;
 import java.lang.System.Logger.Level;
+import java.nio.CharBuffer;
+import java.nio.file.Path;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.eclipse.jdt.annotation.Nullable;
@@ -17,6 +20,7 @@ import io.jstach.jstachio.TemplateInfo;
 import io.jstach.jstachio.spi.JStachioConfig;
 import io.jstach.jstachio.spi.JStachioExtension;
 import io.jstach.jstachio.spi.Templates;
+import io.jstach.opt.jmustache.Loader.Source;
 
 /**
  * Use JMustache instead of JStachio for rendering. The idea of this extension is to allow
@@ -47,6 +51,9 @@ import io.jstach.jstachio.spi.Templates;
  * then execute it. In some cases the annotation processor does not even have to run for
  * this to work (see {@link Templates#getInfoByReflection(Class)}.
  * <p>
+ * Compiled JMustache templates are cached (see {@link #cacheSize(int)}) and recompiled
+ * when the template file or the file of one of its partials is modified.
+ * <p>
  * <strong>Strongly recommended you disable this in production via
  * {@link #JSTACHIO_JMUSTACHE_DISABLE} or {@link #use}</strong>
  *
@@ -67,6 +74,23 @@ public class JMustacheRenderer extends AbstractJStacheEngine {
 	 */
 	public static final String JSTACHIO_JMUSTACHE_DISABLE = "jstachio.jmustache.disable";
 
+	/**
+	 * Property key of how many compiled templates are cached. Default is
+	 * {@value #DEFAULT_CACHE_SIZE}.
+	 */
+	public static final String JSTACHIO_JMUSTACHE_CACHE_SIZE = "jstachio.jmustache.cache";
+
+	/**
+	 * The default amount of compiled templates cached.
+	 */
+	public static final int DEFAULT_CACHE_SIZE = 256;
+
+	/**
+	 * Property key to disable watching the source path for changes in which case the
+	 * template files are checked on every render. Default is <code>false</code>.
+	 */
+	public static final String JSTACHIO_JMUSTACHE_WATCH_DISABLE = "jstachio.jmustache.watch.disable";
+
 	private final AtomicBoolean use;
 
 	private volatile @Nullable String prefix = null;
@@ -79,6 +103,12 @@ public class JMustacheRenderer extends AbstractJStacheEngine {
 
 	private long initTime = System.currentTimeMillis();
 
+	private volatile TemplateCache<TemplateKey, CachedTemplate> templates = new TemplateCache<>(DEFAULT_CACHE_SIZE);
+
+	private boolean watch = true;
+
+	private volatile @Nullable TemplateWatcher watcher = null;
+
 	/**
 	 * Enables JMustache
 	 * @param flag true enables
@@ -87,6 +117,7 @@ public class JMustacheRenderer extends AbstractJStacheEngine {
 	public JMustacheRenderer use(boolean flag) {
 		use.set(flag);
 		log(flag);
+		restartWatcher();
 		return this;
 	}
 
@@ -118,6 +149,41 @@ public class JMustacheRenderer extends AbstractJStacheEngine {
 	 */
 	public JMustacheRenderer sourcePath(String sourcePath) {
 		this.sourcePath = sourcePath;
+		restartWatcher();
+		return this;
+	}
+
+	/**
+	 * Whether to watch the sourcePath in the background for changes. If enabled, which is
+	 * the default, rendering does not check the template files unless they changed.
+	 * Changes are seen shortly after the files are saved. If the file system cannot be
+	 * watched the files are checked on every render.
+	 * @param flag true watches the sourcePath
+	 * @return return this for builder like config
+	 */
+	public JMustacheRenderer watch(boolean flag) {
+		this.watch = flag;
+		restartWatcher();
+		return this;
+	}
+
+	private synchronized void restartWatcher() {
+		var w = this.watcher;
+		if (w != null) {
+			w.close();
+		}
+		this.watcher = use.get() && watch ? TemplateWatcher.start(Path.of(sourcePath), initTime, logger) : null;
+	}
+
+	/**
+	 * Sets how many compiled templates are cached. Templates are recompiled when their
+	 * source file or the file of one of their partials is modified. Changing the size
+	 * clears the cache.
+	 * @param size maximum amount of compiled templates to keep
+	 * @return return this for builder like config
+	 */
+	public JMustacheRenderer cacheSize(int size) {
+		this.templates = new TemplateCache<>(size);
 		return this;
 	}
 
@@ -151,32 +217,31 @@ public class JMustacheRenderer extends AbstractJStacheEngine {
 	public void init(JStachioConfig config) {
 		logger = config.getLogger(getClass().getCanonicalName());
 		sourcePath(config.requireProperty(JSTACHIO_JMUSTACHE_SOURCE_PATH, sourcePath));
+		watch(!config.getBoolean(JSTACHIO_JMUSTACHE_WATCH_DISABLE));
+		String cacheSize = config.getProperty(JSTACHIO_JMUSTACHE_CACHE_SIZE);
+		if (cacheSize != null) {
+			cacheSize(Integer.parseInt(cacheSize));
+		}
 		use(!config.getBoolean(JSTACHIO_JMUSTACHE_DISABLE));
 
 	}
 
-	private CompilerAdapter createCompiler(TemplateInfo template, Class<?> modelClass) {
-		Loader loader = new Loader(logger, sourcePath, initTime);
-		return new CompilerAdapter(template, modelClass, loader);
-	}
-
 	@Override
 	protected boolean execute(Object context, Appendable a, TemplateInfo template, boolean broken) throws IOException {
 		if (!use.get()) {
 			return false;
 		}
 
-		Loader loader = new Loader(logger, sourcePath, initTime);
+		Loader loader = new Loader(logger, sourcePath, initTime, watcher);
 
-		Reader reader = loader.open(template, broken);
+		Source source = loader.source(template, broken);
 
-		if (reader != null) {
-			Template t = createCompiler(template, context.getClass()).compile(reader);
-			String result = t.execute(context);
+		if (source != null) {
+			Template t = template(template, context.getClass(), source, loader);
 			if (prefix != null) {
 				a.append(prefix);
 			}
-			a.append(result);
+			t.execute(context, a instanceof Writer w ? w : new AppendableWriter(a));
 			if (suffix != null) {
 				a.append(suffix);
 			}
@@ -185,4 +250,77 @@ public class JMustacheRenderer extends AbstractJStacheEngine {
 		return false;
 	}
 
+	private Template template(TemplateInfo template, Class<?> modelClass, Source source, Loader loader)
+			throws IOException {
+		var key = new TemplateKey(modelClass, source);
+		var cached = templates.get(key);
+		if (cached != null && cached.loader().isCurrent()) {
+			return cached.template();
+		}
+		/*
+		 * The loader of the cached template records the files read including partials
+		 * that are loaded lazily on first execute so that any change recompiles.
+		 */
+		Template t;
+		try (Reader reader = loader.open(source)) {
+			t = new CompilerAdapter(template, modelClass, loader).compile(reader);
+		}
+		templates.put(key, new CachedTemplate(t, loader));
+		return t;
+	}
+
+	private record TemplateKey(Class<?> modelClass, Source source) {
+	}
+
+	private record CachedTemplate(Template template, Loader loader) {
+	}
+
+	/*
+	 * Lets JMustache write directly to the appendable instead of rendering to a String
+	 * first.
+	 */
+	private static final class AppendableWriter extends Writer {
+
+		private final Appendable appendable;
+
+		AppendableWriter(Appendable appendable) {
+			this.appendable = appendable;
+		}
+
+		@Override
+		public void write(char[] cbuf, int off, int len) throws IOException {
+			appendable.append(CharBuffer.wrap(cbuf, off, len));
+		}
+
+		@Override
+		public void write(String str) throws IOException {
+			appendable.append(str);
+		}
+
+		@Override
+		public void write(String str, int off, int len) throws IOException {
+			appendable.append(str, off, off + len);
+		}
+
+		@Override
+		public Writer append(@Nullable CharSequence csq) throws IOException {
+			appendable.append(csq);
+			return this;
+		}
+
+		@Override
+		public void write(int c) throws IOException {
+			appendable.append((char) c);
+		}
+
+		@Override
+		public void flush() throws IOException {
+		}
+
+		@Override
+		public void close() throws IOException {
+		}
+
+	}
+
 }
@@ -11,7 +11,9 @@ import java.lang.System.Logger.Level;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.jdt.annotation.Nullable;
 
@@ -26,14 +28,36 @@ class Loader {
 
 	private final long initTime;
 
-	public Loader(Logger logger, String sourcePath, long initTime) {
+	/*
+	 * Files read by this loader including partials and their last modified time.
+	 */
+	private final Map<Path, Long> files = new ConcurrentHashMap<>();
+
+	/*
+	 * When not null changes are known without checking the file system.
+	 */
+	private final @Nullable TemplateWatcher watcher;
+
+	/*
+	 * Watcher version when this loader was created.
+	 */
+	private final long version;
+
+	public Loader(Logger logger, String sourcePath, long initTime, @Nullable TemplateWatcher watcher) {
 		super();
 		this.logger = logger;
 		this.sourcePath = sourcePath;
 		this.initTime = initTime;
+		this.watcher = watcher != null && watcher.isRunning() ? watcher : null;
+		this.version = watcher != null ? watcher.version() : -1;
 	}
 
-	protected @Nullable Reader open(TemplateInfo template, boolean broken) throws IOException {
+	/**
+	 * Resolves where the template should be loaded from.
+	 * @return the source or <code>null</code> if the statically generated template should
+	 * be used.
+	 */
+	protected @Nullable Source source(TemplateInfo template, boolean broken) {
 		TemplateSource source = template.templateSource();
 		String templateString = template.templateString();
 		String templatePath = template.normalizePath();
@@ -42,7 +66,7 @@ class Loader {
 
 		return switch (source) {
 			case STRING -> {
-				yield new StringReader(templateString);
+				yield new Source(templatePath, templateString, null);
 			}
 			case RESOURCE -> {
 				yield resource(templatePath, broken, changed);
@@ -50,26 +74,34 @@ class Loader {
 		};
 	}
 
-	private Reader resource(String templatePath, boolean broken, boolean changed) throws IOException {
+	protected Reader open(Source source) throws IOException {
+		String templateString = source.templateString();
+		if (templateString != null) {
+			return new StringReader(templateString);
+		}
+		Path file = source.file();
+		InputStream stream = file != null ? openFile(file) : openResource(source.templatePath());
+		return new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+	}
+
+	private @Nullable Source resource(String templatePath, boolean broken, boolean changed) {
 		var path = path(templatePath);
-		InputStream stream;
 		boolean _broken = changed || broken;
-		if ((_broken && path.toFile().isFile()) || path.toFile().lastModified() > initTime) {
-			stream = this.openFile(path);
+		if ((_broken && path.toFile().isFile()) || isModified(path)) {
+			return new Source(templatePath, null, path);
 		}
 		else if (broken) {
-			stream = this.openResource(templatePath);
+			return new Source(templatePath, null, null);
 		}
 		else {
 			return null;
 		}
-		return new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
 	}
 
 	protected Reader openPartial(String templatePath) throws IOException {
-		var reader = resource(templatePath, true, true);
-		Objects.requireNonNull(reader);
-		return reader;
+		var source = resource(templatePath, true, true);
+		Objects.requireNonNull(source);
+		return open(source);
 	}
 
 	Path path(String templatePath) {
@@ -77,6 +109,11 @@ class Loader {
 	}
 
 	protected InputStream openFile(Path path) throws IOException {
+		/*
+		 * The modified time is recorded before reading so that a change while reading is
+		 * not missed.
+		 */
+		files.put(path, path.toFile().lastModified());
 		InputStream is = Files.newInputStream(path);
 		if (logger.isLoggable(Level.INFO)) {
 			logger.log(Level.INFO, "Using JMustache. template:" + "file " + path);
@@ -100,4 +137,46 @@ class Loader {
 		return sourcePath;
 	}
 
+	/**
+	 * Whether the files read so far by this loader have not been modified since.
+	 * @return true if no file was modified
+	 */
+	boolean isCurrent() {
+		var w = this.watcher;
+		if (w != null && w.isRunning()) {
+			if (w.version() == version) {
+				return true;
+			}
+			for (var p : files.keySet()) {
+				if (w.version(p) > version) {
+					return false;
+				}
+			}
+			return true;
+		}
+		for (var e : files.entrySet()) {
+			if (e.getKey().toFile().lastModified() != e.getValue()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean isModified(Path path) {
+		var w = this.watcher;
+		if (w != null && w.isRunning()) {
+			return w.isModified(path);
+		}
+		return path.toFile().lastModified() > initTime;
+	}
+
+	/**
+	 * Where a template is loaded from.
+	 * @param templatePath normalized path of the template or pseudo path if inline
+	 * @param templateString contents of an inline template otherwise <code>null</code>
+	 * @param file the source file or <code>null</code> if loaded from the classpath
+	 */
+	record Source(String templatePath, @Nullable String templateString, @Nullable Path file) {
+	}
+
 }
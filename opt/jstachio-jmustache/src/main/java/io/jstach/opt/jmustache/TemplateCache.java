@@ -0,0 +1,82 @@
+package io.jstach.opt.jmustache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Bounded cache of compiled templates that is read on every render so reads do not lock.
+ * <p>
+ * Eviction is an approximate LRU: an entry remembers when it was last read and when an
+ * insert exceeds the size the entry read longest ago is removed. Reads only write the
+ * access time of the entry which may be lost to a concurrent read and is not ordered with
+ * other entries which is fine for deciding what to evict. Eviction scans the entries but
+ * only happens when a template was just compiled which costs far more.
+ *
+ * @param <K> key
+ * @param <V> compiled template
+ */
+final class TemplateCache<K, V> {
+
+	private final int size;
+
+	private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+
+	TemplateCache(int size) {
+		if (size < 1) {
+			throw new IllegalArgumentException("cache size should be positive");
+		}
+		this.size = size;
+	}
+
+	private static final class Entry<V> {
+
+		private final V value;
+
+		/*
+		 * Plain field on purpose as a lost update only makes eviction less exact.
+		 */
+		private long accessed;
+
+		Entry(V value, long accessed) {
+			this.value = value;
+			this.accessed = accessed;
+		}
+
+	}
+
+	@Nullable
+	V get(K key) {
+		var e = entries.get(key);
+		if (e == null) {
+			return null;
+		}
+		e.accessed = System.nanoTime();
+		return e.value;
+	}
+
+	void put(K key, V value) {
+		entries.put(key, new Entry<>(value, System.nanoTime()));
+		while (entries.size() > size) {
+			evict();
+		}
+	}
+
+	int size() {
+		return entries.size();
+	}
+
+	private void evict() {
+		Map.@Nullable Entry<K, Entry<V>> eldest = null;
+		for (var e : entries.entrySet()) {
+			if (eldest == null || e.getValue().accessed - eldest.getValue().accessed < 0) {
+				eldest = e;
+			}
+		}
+		if (eldest != null) {
+			entries.remove(eldest.getKey(), eldest.getValue());
+		}
+	}
+
+}
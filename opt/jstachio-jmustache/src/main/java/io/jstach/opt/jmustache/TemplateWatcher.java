@@ -0,0 +1,232 @@
+package io.jstach.opt.jmustache;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Watches the template source directory in the background so that rendering does not have
+ * to check the file system to know if a template was modified.
+ * <p>
+ * Every published change increments a version. The paths that changed are kept with the
+ * version of their last change so a compiled template can compare the version it was
+ * compiled with to the versions of the files it read. Changes are published once the
+ * directory has been quiet for {@value #DEBOUNCE_MILLIS} milliseconds as editors often
+ * save a file with several operations.
+ */
+final class TemplateWatcher implements AutoCloseable {
+
+	static final long DEBOUNCE_MILLIS = 50;
+
+	private final Path root;
+
+	private final long initTime;
+
+	private final Logger logger;
+
+	private final WatchService watchService;
+
+	/*
+	 * path -> version of the last change
+	 */
+	private final Map<Path, Long> changes = new ConcurrentHashMap<>();
+
+	private volatile long version = 0;
+
+	/*
+	 * Version at which events were lost in which case every path is considered changed.
+	 */
+	private volatile long overflowVersion = -1;
+
+	private volatile boolean running = true;
+
+	private TemplateWatcher(Path root, long initTime, Logger logger, WatchService watchService) {
+		this.root = root;
+		this.initTime = initTime;
+		this.logger = logger;
+		this.watchService = watchService;
+	}
+
+	/**
+	 * Starts watching the directory.
+	 * @param root template source directory
+	 * @param initTime files modified after this time are considered changed
+	 * @param logger logger
+	 * @return the watcher or <code>null</code> if the directory cannot be watched in
+	 * which case the file system has to be checked instead.
+	 */
+	static @Nullable TemplateWatcher start(Path root, long initTime, Logger logger) {
+		root = root.toAbsolutePath().normalize();
+		if (!Files.isDirectory(root)) {
+			return null;
+		}
+		TemplateWatcher watcher = null;
+		try {
+			watcher = new TemplateWatcher(root, initTime, logger, root.getFileSystem().newWatchService());
+			Set<Path> changed = new HashSet<>();
+			watcher.register(root, changed);
+			watcher.publish(changed);
+		}
+		catch (IOException | UncheckedIOException | UnsupportedOperationException e) {
+			logger.log(Level.WARNING, "Cannot watch template source path: " + root + ". Falling back to polling.", e);
+			if (watcher != null) {
+				watcher.close();
+			}
+			return null;
+		}
+		Thread thread = new Thread(watcher::run, "jstachio-jmustache-watcher");
+		thread.setDaemon(true);
+		thread.start();
+		return watcher;
+	}
+
+	/**
+	 * The current version which changes whenever a change is published.
+	 * @return version
+	 */
+	long version() {
+		return version;
+	}
+
+	/**
+	 * The version of the last change of the file.
+	 * @param path file
+	 * @return version or <code>-1</code> if the file did not change
+	 */
+	long version(Path path) {
+		Long v = changes.get(key(path));
+		long o = overflowVersion;
+		return v == null ? o : Math.max(v, o);
+	}
+
+	/**
+	 * Whether the file was modified after the init time.
+	 * @param path file
+	 * @return true if modified
+	 */
+	boolean isModified(Path path) {
+		return version(path) >= 0;
+	}
+
+	private Path key(Path path) {
+		return path.toAbsolutePath().normalize();
+	}
+
+	/*
+	 * WatchService is not recursive so every directory is registered. Files modified
+	 * before the directory was registered are found by their modified time.
+	 */
+	private void register(Path dir, Set<Path> changed) throws IOException {
+		try (Stream<Path> paths = Files.walk(dir)) {
+			for (var p : (Iterable<Path>) paths::iterator) {
+				if (Files.isDirectory(p)) {
+					p.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+				}
+				else if (p.toFile().lastModified() > initTime) {
+					changed.add(p);
+				}
+			}
+		}
+	}
+
+	private void publish(Set<Path> changed) {
+		if (changed.isEmpty()) {
+			return;
+		}
+		long v = version + 1;
+		for (var p : changed) {
+			changes.put(p, v);
+		}
+		version = v;
+		if (logger.isLoggable(Level.DEBUG)) {
+			logger.log(Level.DEBUG, "Templates changed: " + changed);
+		}
+	}
+
+	private void run() {
+		Set<Path> pending = new HashSet<>();
+		boolean overflow = false;
+		try {
+			while (true) {
+				WatchKey key = pending.isEmpty() && !overflow ? watchService.take()
+						: watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+				if (key == null) {
+					/*
+					 * Quiet for the debounce period.
+					 */
+					if (overflow) {
+						overflowVersion = version + 1;
+						overflow = false;
+						pending.add(root);
+					}
+					publish(pending);
+					pending.clear();
+					continue;
+				}
+				Path dir = (Path) key.watchable();
+				for (WatchEvent<?> event : key.pollEvents()) {
+					if (event.kind() == OVERFLOW) {
+						overflow = true;
+						continue;
+					}
+					Path path = dir.resolve((Path) event.context());
+					if (event.kind() == ENTRY_CREATE && Files.isDirectory(path)) {
+						register(path, pending);
+					}
+					pending.add(path);
+				}
+				key.reset();
+			}
+		}
+		catch (InterruptedException | ClosedWatchServiceException e) {
+			// closed
+		}
+		catch (IOException | RuntimeException e) {
+			logger.log(Level.ERROR, "Template watcher failed. Falling back to polling. source path: " + root, e);
+		}
+		finally {
+			running = false;
+		}
+	}
+
+	/**
+	 * Whether changes are still being watched. If not the file system has to be checked
+	 * instead.
+	 * @return true if watching
+	 */
+	boolean isRunning() {
+		return running;
+	}
+
+	@Override
+	public void close() {
+		running = false;
+		try {
+			watchService.close();
+		}
+		catch (IOException e) {
+			logger.log(Level.WARNING, "Failed closing template watcher", e);
+		}
+	}
+
+}
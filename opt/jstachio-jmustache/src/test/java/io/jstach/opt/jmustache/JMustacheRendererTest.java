@@ -1,8 +1,11 @@
 package io.jstach.opt.jmustache;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
@@ -116,6 +119,64 @@ public class JMustacheRendererTest {
 		assertEquals(expected, actual);
 	}
 
+	@JStache(path = "jmustache/cache.mustache")
+	public record CacheModel(String name) {
+	}
+
+	@Test
+	public void testCachedTemplateChanged() throws Exception {
+		assertCachedTemplateChanged(false);
+	}
+
+	@Test
+	public void testWatchedTemplateChanged() throws Exception {
+		assertCachedTemplateChanged(true);
+	}
+
+	private void assertCachedTemplateChanged(boolean watch) throws Exception {
+		Path dir = Files.createTempDirectory("jmustache");
+		Path template = dir.resolve("jmustache/cache.mustache");
+		Path partial = dir.resolve("jmustache/cache-partial.mustache");
+		Files.createDirectories(template.getParent());
+		Files.writeString(template, "Hi {{name}}!\n{{> jmustache/cache-partial.mustache}}");
+		Files.writeString(partial, "partial {{name}}\n");
+		long time = System.currentTimeMillis() + 10_000;
+		assertTrue(template.toFile().setLastModified(time));
+		assertTrue(partial.toFile().setLastModified(time));
+		JMustacheRenderer jmustacheExt = jmustache();
+		var model = new CacheModel("Rick");
+		try {
+			jmustacheExt.use(false);
+			assertEquals("Hello Rick!\npartial Rick\n", JStachio.render(model));
+			jmustacheExt.use(true).prefix(null).watch(watch).sourcePath(dir.toString());
+			assertEquals("Hi Rick!\npartial Rick\n", JStachio.render(model));
+			assertEquals("Hi Rick!\npartial Rick\n", JStachio.render(model));
+
+			Files.writeString(partial, "changed {{name}}\n");
+			assertTrue(partial.toFile().setLastModified(time + 2_000));
+			assertRendered("Hi Rick!\nchanged Rick\n", model);
+
+			Files.writeString(template, "Bye {{name}}!\n");
+			assertTrue(template.toFile().setLastModified(time + 4_000));
+			assertRendered("Bye Rick!\n", model);
+		}
+		finally {
+			jmustacheExt.use(false).watch(true).sourcePath("src/main/resources");
+		}
+	}
+
+	/*
+	 * Changes of watched files are seen shortly after.
+	 */
+	private static void assertRendered(String expected, Object model) throws InterruptedException {
+		String actual = JStachio.render(model);
+		for (int i = 0; i < 100 && !expected.equals(actual); i++) {
+			Thread.sleep(TemplateWatcher.DEBOUNCE_MILLIS);
+			actual = JStachio.render(model);
+		}
+		assertEquals(expected, actual);
+	}
+
 	private JMustacheRenderer jmustache() {
 		JMustacheRenderer jmustacheExt;
 		if (JStachioFactory.defaultJStachio() instanceof JStachioExtensions.Provider je) {
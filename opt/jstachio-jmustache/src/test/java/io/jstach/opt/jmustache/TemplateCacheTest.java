@@ -0,0 +1,38 @@
+package io.jstach.opt.jmustache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class TemplateCacheTest {
+
+	@Test
+	public void testLeastRecentlyReadIsEvicted() throws Exception {
+		var cache = new TemplateCache<String, String>(2);
+		cache.put("a", "A");
+		tick();
+		cache.put("b", "B");
+		tick();
+		assertEquals("A", cache.get("a"));
+		tick();
+		cache.put("c", "C");
+		assertEquals(2, cache.size());
+		assertNull(cache.get("b"));
+		assertEquals("A", cache.get("a"));
+		assertEquals("C", cache.get("c"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSizeShouldBePositive() {
+		new TemplateCache<String, String>(0);
+	}
+
+	/*
+	 * Access times are nano time so make sure they differ.
+	 */
+	private static void tick() throws InterruptedException {
+		Thread.sleep(1);
+	}
+
+}
@@ -1,6 +1,7 @@
 package io.jstach.opt.spring.boot.webmvc;
 
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.ServiceLoader;
 import java.util.Set;
@@ -9,13 +10,23 @@ import java.util.stream.Stream;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.MergedAnnotations;
+import org.springframework.core.annotation.MergedAnnotations.SearchStrategy;
 import org.springframework.core.env.Environment;
+import org.springframework.http.HttpEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
 
+import io.jstach.jstache.JStache;
 import io.jstach.jstachio.JStachio;
 import io.jstach.jstachio.Template;
 import io.jstach.jstachio.TemplateConfig;
@@ -97,7 +108,8 @@ public class JStachioConfiguration {
 	public JStachioTemplateFinder templateFinder(JStachioConfig config, TemplateConfig templateConfig) {
 		var templates = templatesByServiceLoader(templateConfig);
 		var springTemplateFinder = JStachioTemplateFinder.cachedTemplateFinder(JStachioTemplateFinder.of(templates, 0));
-		var fallbackFinder = JStachioTemplateFinder.defaultTemplateFinder(config);
+		var fallbackFinder = JStachioTemplateFinder
+				.cachedTemplateFinder(JStachioTemplateFinder.defaultTemplateFinder(config));
 		return JStachioTemplateFinder.of(List.of(springTemplateFinder, fallbackFinder));
 	}
 
@@ -167,6 +179,52 @@ public class JStachioConfiguration {
 		return classLoader == null ? ServiceLoader.load(spiClass) : ServiceLoader.load(spiClass, classLoader);
 	}
 
+	/**
+	 * Prefetches the templates of the models returned by request mapping handler methods
+	 * once all singletons are created so that template resolution does not happen on the
+	 * first request. Failures are logged as warnings.
+	 * @param templateFinder the template finder used to resolve and cache the templates
+	 * @param handlerMappings used to introspect the handler method return types
+	 * @return callback that prefetches the templates
+	 * @see JStachioTemplateFinder#prefetch(java.util.Collection)
+	 */
+	@Bean
+	@SuppressWarnings("exports")
+	public SmartInitializingSingleton jstachioTemplatePrefetcher(JStachioTemplateFinder templateFinder,
+			ObjectProvider<RequestMappingHandlerMapping> handlerMappings) {
+		return () -> {
+			Set<Class<?>> modelTypes = new LinkedHashSet<>();
+			handlerMappings.orderedStream() //
+					.flatMap(m -> m.getHandlerMethods().values().stream()) //
+					.map(JStachioConfiguration::resolveModelType) //
+					.filter(t -> t != null) //
+					.filter(t -> MergedAnnotations.from(t, SearchStrategy.TYPE_HIERARCHY).isPresent(JStache.class)) //
+					.forEach(modelTypes::add);
+			if (modelTypes.isEmpty()) {
+				return;
+			}
+			var failures = templateFinder.prefetch(modelTypes);
+			for (var e : failures.entrySet()) {
+				logger.warn("JStachio failed to prefetch template for model type: " + e.getKey(), e.getValue());
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("JStachio prefetched templates for model types: " + modelTypes);
+			}
+		};
+	}
+
+	private static @Nullable Class<?> resolveModelType(HandlerMethod handlerMethod) {
+		ResolvableType type = ResolvableType.forMethodParameter(handlerMethod.getReturnType());
+		if (HttpEntity.class.isAssignableFrom(type.toClass())) {
+			type = type.as(HttpEntity.class).getGeneric(0);
+		}
+		Class<?> c = type.resolve();
+		if (c == null || c.isPrimitive() || c.isArray() || c.getName().startsWith("java.")) {
+			return null;
+		}
+		return c;
+	}
+
 	/**
 	 * Creates a message converter from Spring JStachio
 	 * @param jstachio jstachio instance
@@ -40,6 +40,11 @@ public class JStachioEncoder extends AbstractSingleValueEncoder<Object> {
 	 */
 	static final int DEFAULT_BUFFER_SIZE = 4 * 1024;
 
+	/*
+	 * Upper bound of a buffer presized from the template estimate.
+	 */
+	static final int MAX_ESTIMATED_BUFFER_SIZE = 64 * 1024;
+
 	/**
 	 * The default media type is "<code>text/html; charset=UTF-8</code>".
 	 */
@@ -140,9 +145,22 @@ public class JStachioEncoder extends AbstractSingleValueEncoder<Object> {
 			charset = template.templateCharset();
 		}
 
-		DataBufferOutput output = new DataBufferOutput(bufferFactory.allocateBuffer(bufferSize), charset);
+		DataBufferOutput output = new DataBufferOutput(bufferFactory.allocateBuffer(bufferSize(template, bufferSize)),
+				charset);
 
 		return template.write(event, output).getBuffer();
 	}
 
+	/*
+	 * Presizes the buffer from the compile time estimate of the template so that it does
+	 * not have to grow while rendering larger templates.
+	 */
+	static int bufferSize(Template<?> template, int bufferSize) {
+		int estimate = template.templateEstimatedSize();
+		if (estimate <= bufferSize) {
+			return bufferSize;
+		}
+		return Math.min(estimate, MAX_ESTIMATED_BUFFER_SIZE);
+	}
+
 }
\ No newline at end of file
@@ -130,10 +130,30 @@ public class JStachioHttpMessageConverter extends AbstractHttpMessageConverter<O
 		 */
 		headers.setContentType(mediaType);
 		try (CloseableEncodedOutput<IOException> output = createOutput(outputMessage)) {
+			if (output instanceof LimitEncodedOutput<?, IOException> limitOutput) {
+				/*
+				 * If the template is known at compile time to be larger than the limit we
+				 * can stream right away instead of buffering up to the limit first.
+				 */
+				limitOutput.minimumSizeHint(minimumSize(t, output.charset()));
+			}
 			jstachio.write(t, output);
 		}
 	}
 
+	private int minimumSize(Object model, Charset charset) {
+		try {
+			var template = jstachio.findTemplate(model);
+			return charset.equals(template.templateCharset()) ? template.templateStaticSize() : -1;
+		}
+		catch (Exception e) {
+			/*
+			 * The write will fail with the same error.
+			 */
+			return -1;
+		}
+	}
+
 	/**
 	 * Create the buffered output to use when executing JStachio.
 	 * @param message response.
@@ -0,0 +1,70 @@
+package io.jstach.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.jstach.jstache.JStache;
+import io.jstach.jstache.JStacheConfig;
+import io.jstach.jstache.JStacheFlags;
+import io.jstach.jstache.JStacheFlags.Flag;
+import io.jstach.jstache.JStacheType;
+import io.jstach.jstachio.escapers.Html;
+
+/**
+ * User generated content where most of the output is variables with characters that have
+ * to be escaped.
+ */
+public class Escaping {
+
+	private static final String[] BODIES = { //
+			"<script>alert(\"hi & bye\")</script>", //
+			"Tom & Jerry's \"best\" episode <3", //
+			"if (a < b && b > c) { return 'x'; }", //
+			"Café crème brûlée 🍰 & <b>more</b> ☃", //
+			"<a href=\"https://example.com/?q=1&amp;r=2\">link</a>" };
+
+	private final List<Comment> comments;
+
+	Escaping() {
+		List<Comment> comments = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			comments.add(
+					new Comment("<user" + i + ">", BODIES[i % BODIES.length] + " " + BODIES[(i + 1) % BODIES.length]));
+		}
+		this.comments = comments;
+	}
+
+	public List<Comment> comments() {
+		return comments;
+	}
+
+	public record Comment(String author, String body) {
+	}
+
+	static Workload workload(Variant variant) {
+		return switch (variant) {
+			case JSTACHIO -> Workload.of(EscapingJStachioRenderer.of(), new EscapingJStachio());
+			case JSTACHIO_NO_PRE_ENCODE -> Workload.of(EscapingNoPreEncodeRenderer.of(), new EscapingNoPreEncode());
+			case STACHE ->
+				Workload.ofStache(new EscapingStacheRenderer(null, Html.provider())::execute, new EscapingStache());
+		};
+	}
+
+	@JStache(path = "escaping")
+	public static class EscapingJStachio extends Escaping {
+
+	}
+
+	@JStache(path = "escaping")
+	@JStacheFlags(flags = Flag.PRE_ENCODE_DISABLE)
+	public static class EscapingNoPreEncode extends Escaping {
+
+	}
+
+	@JStache(path = "escaping")
+	@JStacheConfig(type = JStacheType.STACHE)
+	public static class EscapingStache extends Escaping {
+
+	}
+
+}
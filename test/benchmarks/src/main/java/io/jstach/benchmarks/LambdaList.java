@@ -0,0 +1,76 @@
+package io.jstach.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.jstach.jstache.JStache;
+import io.jstach.jstache.JStacheConfig;
+import io.jstach.jstache.JStacheFlags;
+import io.jstach.jstache.JStacheFlags.Flag;
+import io.jstach.jstache.JStacheLambda;
+import io.jstach.jstache.JStacheType;
+import io.jstach.jstachio.escapers.Html;
+
+/**
+ * A loop where each item calls lambdas that create a model and a list for their section
+ * bodies.
+ */
+public class LambdaList {
+
+	private final List<Product> products;
+
+	LambdaList() {
+		List<Product> products = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			products.add(new Product("Product " + i, i * 1999L, i % 4 == 0 ? "EUR" : "USD"));
+		}
+		this.products = products;
+	}
+
+	public List<Product> products() {
+		return products;
+	}
+
+	public record Product(String name, long cents, String currency) {
+	}
+
+	public record Price(long units, long cents, String currency) {
+	}
+
+	@JStacheLambda
+	public Price price(Product product) {
+		return new Price(product.cents() / 100, product.cents() % 100, product.currency());
+	}
+
+	@JStacheLambda
+	public List<String> tags(Product product) {
+		return product.cents() % 3 == 0 ? List.of("sale", "new") : List.of("regular");
+	}
+
+	static Workload workload(Variant variant) {
+		return switch (variant) {
+			case JSTACHIO -> Workload.of(LambdaListJStachioRenderer.of(), new LambdaListJStachio());
+			case JSTACHIO_NO_PRE_ENCODE -> Workload.of(LambdaListNoPreEncodeRenderer.of(), new LambdaListNoPreEncode());
+			case STACHE ->
+				Workload.ofStache(new LambdaListStacheRenderer(null, Html.provider())::execute, new LambdaListStache());
+		};
+	}
+
+	@JStache(path = "lambda-list")
+	public static class LambdaListJStachio extends LambdaList {
+
+	}
+
+	@JStache(path = "lambda-list")
+	@JStacheFlags(flags = Flag.PRE_ENCODE_DISABLE)
+	public static class LambdaListNoPreEncode extends LambdaList {
+
+	}
+
+	@JStache(path = "lambda-list")
+	@JStacheConfig(type = JStacheType.STACHE)
+	public static class LambdaListStache extends LambdaList {
+
+	}
+
+}
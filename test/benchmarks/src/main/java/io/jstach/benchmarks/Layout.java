@@ -0,0 +1,78 @@
+package io.jstach.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.jstach.jstache.JStache;
+import io.jstach.jstache.JStacheConfig;
+import io.jstach.jstache.JStacheFlags;
+import io.jstach.jstache.JStacheFlags.Flag;
+import io.jstach.jstache.JStacheType;
+import io.jstach.jstachio.escapers.Html;
+
+/**
+ * A typical page with a layout (parent partial) that has blocks and includes partials.
+ */
+public class Layout {
+
+	private final String title = "Blog";
+
+	private final List<Link> menu = List.of(new Link("/", "Home"), new Link("/posts", "Posts"),
+			new Link("/about", "About"), new Link("/contact", "Contact"));
+
+	private final List<Post> posts;
+
+	Layout() {
+		List<Post> posts = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			posts.add(new Post(i, "Post number " + i, "Author " + (i % 5), "2023-07-" + (10 + i),
+					"A short summary of post " + i + " that is long enough to look like a real summary."));
+		}
+		this.posts = posts;
+	}
+
+	public String title() {
+		return title;
+	}
+
+	public List<Link> menu() {
+		return menu;
+	}
+
+	public List<Post> posts() {
+		return posts;
+	}
+
+	public record Link(String href, String label) {
+	}
+
+	public record Post(int id, String title, String author, String date, String summary) {
+	}
+
+	static Workload workload(Variant variant) {
+		return switch (variant) {
+			case JSTACHIO -> Workload.of(LayoutJStachioRenderer.of(), new LayoutJStachio());
+			case JSTACHIO_NO_PRE_ENCODE -> Workload.of(LayoutNoPreEncodeRenderer.of(), new LayoutNoPreEncode());
+			case STACHE ->
+				Workload.ofStache(new LayoutStacheRenderer(null, Html.provider())::execute, new LayoutStache());
+		};
+	}
+
+	@JStache(path = "page")
+	public static class LayoutJStachio extends Layout {
+
+	}
+
+	@JStache(path = "page")
+	@JStacheFlags(flags = Flag.PRE_ENCODE_DISABLE)
+	public static class LayoutNoPreEncode extends Layout {
+
+	}
+
+	@JStache(path = "page")
+	@JStacheConfig(type = JStacheType.STACHE)
+	public static class LayoutStache extends Layout {
+
+	}
+
+}
@@ -0,0 +1,60 @@
+package io.jstach.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.jstach.jstache.JStache;
+import io.jstach.jstache.JStacheConfig;
+import io.jstach.jstache.JStacheFlags;
+import io.jstach.jstache.JStacheFlags.Flag;
+import io.jstach.jstache.JStacheType;
+import io.jstach.jstachio.escapers.Html;
+
+/**
+ * A large loop of small items.
+ */
+public class Loop {
+
+	private final List<Item> items;
+
+	Loop() {
+		List<Item> items = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			items.add(new Item(i, "Item " + i + (i % 10 == 0 ? " café ☕" : ""), i % 3 != 0, i % 7 == 0));
+		}
+		this.items = items;
+	}
+
+	public List<Item> items() {
+		return items;
+	}
+
+	public record Item(int id, String name, boolean active, boolean featured) {
+	}
+
+	static Workload workload(Variant variant) {
+		return switch (variant) {
+			case JSTACHIO -> Workload.of(LoopJStachioRenderer.of(), new LoopJStachio());
+			case JSTACHIO_NO_PRE_ENCODE -> Workload.of(LoopNoPreEncodeRenderer.of(), new LoopNoPreEncode());
+			case STACHE -> Workload.ofStache(new LoopStacheRenderer(null, Html.provider())::execute, new LoopStache());
+		};
+	}
+
+	@JStache(path = "loop")
+	public static class LoopJStachio extends Loop {
+
+	}
+
+	@JStache(path = "loop")
+	@JStacheFlags(flags = Flag.PRE_ENCODE_DISABLE)
+	public static class LoopNoPreEncode extends Loop {
+
+	}
+
+	@JStache(path = "loop")
+	@JStacheConfig(type = JStacheType.STACHE)
+	public static class LoopStache extends Loop {
+
+	}
+
+}
@@ -0,0 +1,91 @@
+package io.jstach.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.jstach.jstache.JStache;
+import io.jstach.jstache.JStacheConfig;
+import io.jstach.jstache.JStacheFlags;
+import io.jstach.jstache.JStacheFlags.Flag;
+import io.jstach.jstache.JStacheType;
+import io.jstach.jstachio.escapers.Html;
+
+/**
+ * Sections nested four levels deep where the inner sections also use names of the outer
+ * contexts.
+ */
+public class Nested {
+
+	private static final int FAN_OUT = 4;
+
+	private final String title = "World";
+
+	private final List<Region> regions;
+
+	Nested() {
+		List<Region> regions = new ArrayList<>();
+		for (int r = 0; r < FAN_OUT; r++) {
+			List<Country> countries = new ArrayList<>();
+			for (int c = 0; c < FAN_OUT; c++) {
+				List<City> cities = new ArrayList<>();
+				for (int ci = 0; ci < FAN_OUT; ci++) {
+					List<District> districts = new ArrayList<>();
+					for (int d = 0; d < FAN_OUT; d++) {
+						districts.add(new District("District " + d, 1000L * (d + 1) * (ci + 1), d == 0));
+					}
+					cities.add(new City("City " + ci, districts));
+				}
+				countries.add(new Country("Country " + c, "C" + r + c, cities));
+			}
+			regions.add(new Region("Region " + r, "R" + r, countries));
+		}
+		this.regions = regions;
+	}
+
+	public String title() {
+		return title;
+	}
+
+	public List<Region> regions() {
+		return regions;
+	}
+
+	public record Region(String name, String code, List<Country> countries) {
+	}
+
+	public record Country(String name, String code, List<City> cities) {
+	}
+
+	public record City(String name, List<District> districts) {
+	}
+
+	public record District(String name, long population, boolean central) {
+	}
+
+	static Workload workload(Variant variant) {
+		return switch (variant) {
+			case JSTACHIO -> Workload.of(NestedJStachioRenderer.of(), new NestedJStachio());
+			case JSTACHIO_NO_PRE_ENCODE -> Workload.of(NestedNoPreEncodeRenderer.of(), new NestedNoPreEncode());
+			case STACHE ->
+				Workload.ofStache(new NestedStacheRenderer(null, Html.provider())::execute, new NestedStache());
+		};
+	}
+
+	@JStache(path = "nested")
+	public static class NestedJStachio extends Nested {
+
+	}
+
+	@JStache(path = "nested")
+	@JStacheFlags(flags = Flag.PRE_ENCODE_DISABLE)
+	public static class NestedNoPreEncode extends Nested {
+
+	}
+
+	@JStache(path = "nested")
+	@JStacheConfig(type = JStacheType.STACHE)
+	public static class NestedStache extends Nested {
+
+	}
+
+}
@@ -0,0 +1,71 @@
+package io.jstach.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.jstach.jstache.JStache;
+import io.jstach.jstache.JStacheConfig;
+import io.jstach.jstache.JStacheFlags;
+import io.jstach.jstache.JStacheFlags.Flag;
+import io.jstach.jstache.JStacheType;
+import io.jstach.jstachio.escapers.Html;
+
+/**
+ * A table of numbers which exercises formatting of primitives and looping over primitive
+ * arrays.
+ */
+public class NumericTable {
+
+	private static final int COLUMNS = 10;
+
+	private final List<Row> rows;
+
+	NumericTable() {
+		List<Row> rows = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			long[] values = new long[COLUMNS];
+			long sum = 0;
+			for (int c = 0; c < COLUMNS; c++) {
+				values[c] = (i + 1L) * (c + 1L) * 997L;
+				sum += values[c];
+			}
+			rows.add(new Row(i, values, sum / (double) COLUMNS, i % 2 == 0));
+		}
+		this.rows = rows;
+	}
+
+	public List<Row> rows() {
+		return rows;
+	}
+
+	public record Row(int id, long[] values, double average, boolean even) {
+	}
+
+	static Workload workload(Variant variant) {
+		return switch (variant) {
+			case JSTACHIO -> Workload.of(NumericTableJStachioRenderer.of(), new NumericTableJStachio());
+			case JSTACHIO_NO_PRE_ENCODE ->
+				Workload.of(NumericTableNoPreEncodeRenderer.of(), new NumericTableNoPreEncode());
+			case STACHE -> Workload.ofStache(new NumericTableStacheRenderer(null, Html.provider())::execute,
+					new NumericTableStache());
+		};
+	}
+
+	@JStache(path = "numeric-table")
+	public static class NumericTableJStachio extends NumericTable {
+
+	}
+
+	@JStache(path = "numeric-table")
+	@JStacheFlags(flags = Flag.PRE_ENCODE_DISABLE)
+	public static class NumericTableNoPreEncode extends NumericTable {
+
+	}
+
+	@JStache(path = "numeric-table")
+	@JStacheConfig(type = JStacheType.STACHE)
+	public static class NumericTableStache extends NumericTable {
+
+	}
+
+}
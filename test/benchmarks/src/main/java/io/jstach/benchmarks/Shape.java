@@ -0,0 +1,49 @@
+package io.jstach.benchmarks;
+
+/**
+ * The kinds of templates that are benchmarked.
+ */
+public enum Shape {
+
+	/**
+	 * A loop of a thousand small items.
+	 */
+	LOOP,
+
+	/**
+	 * Sections nested four levels deep.
+	 */
+	NESTED,
+
+	/**
+	 * A page made of a layout, blocks and partials.
+	 */
+	LAYOUT,
+
+	/**
+	 * Mostly variables with characters that need HTML escaping.
+	 */
+	ESCAPING,
+
+	/**
+	 * A table of formatted numbers.
+	 */
+	NUMERIC_TABLE,
+
+	/**
+	 * A loop calling lambdas for every item.
+	 */
+	LAMBDA;
+
+	Workload workload(Variant variant) {
+		return switch (this) {
+			case LOOP -> Loop.workload(variant);
+			case NESTED -> Nested.workload(variant);
+			case LAYOUT -> Layout.workload(variant);
+			case ESCAPING -> Escaping.workload(variant);
+			case NUMERIC_TABLE -> NumericTable.workload(variant);
+			case LAMBDA -> LambdaList.workload(variant);
+		};
+	}
+
+}
@@ -0,0 +1,185 @@
+package io.jstach.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import io.jstach.jstachio.output.BufferedEncodedOutput;
+import io.jstach.jstachio.output.ByteBufferedOutputStream;
+import io.jstach.jstachio.output.ThresholdEncodedOutput;
+
+/**
+ * Renders every {@link Shape} compiled as every {@link Variant} to each kind of output.
+ * <p>
+ * Run all of them with allocation per operation reported:
+ *
+ * <pre><code class="language-bash">
+ * java -jar test/benchmarks/target/benchmarks.jar -prof gc
+ * </code> </pre>
+ *
+ * or a subset with the usual JMH options for example
+ * <code>-p shape=LOOP,LAYOUT -p variant=JSTACHIO stringBuilder</code>. The
+ * {@link #main(String[])} method does the same but always adds the GC profiler which is
+ * convenient when running from an IDE.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TemplateBenchmark {
+
+	/**
+	 * The template and model.
+	 */
+	@Param
+	public Shape shape;
+
+	/**
+	 * How the template was compiled.
+	 */
+	@Param
+	public Variant variant;
+
+	private Workload workload;
+
+	private StringBuilder sb;
+
+	private ByteBufferedOutputStream stream;
+
+	/**
+	 * Resolves the workload and creates the reusable outputs.
+	 */
+	@Setup
+	public void setup() {
+		workload = shape.workload(variant);
+		sb = new StringBuilder(1024 * 32);
+		stream = new ByteBufferedOutputStream(1024 * 32);
+		/*
+		 * Fail fast if a variant renders something different.
+		 */
+		StringBuilder expected = new StringBuilder();
+		shape.workload(Variant.JSTACHIO).execute(expected);
+		StringBuilder actual = new StringBuilder();
+		workload.execute(actual);
+		if (!expected.toString().equals(actual.toString())) {
+			throw new IllegalStateException("Variant " + variant + " of " + shape + " renders differently");
+		}
+	}
+
+	/**
+	 * Renders to a reused StringBuilder.
+	 * @return the builder
+	 */
+	@Benchmark
+	public StringBuilder stringBuilder() {
+		StringBuilder sb = this.sb;
+		sb.setLength(0);
+		workload.execute(sb);
+		return sb;
+	}
+
+	/**
+	 * Renders to a reused byte buffer like a web framework would.
+	 * @return the buffer
+	 */
+	@Benchmark
+	public ByteBufferedOutputStream byteBufferedOutputStream() {
+		ByteBufferedOutputStream stream = this.stream;
+		stream.close();
+		workload.write(stream);
+		return stream;
+	}
+
+	/**
+	 * Renders to a new chunked output which keeps references to pre-encoded parts.
+	 * @return the output
+	 */
+	@Benchmark
+	public BufferedEncodedOutput chunkEncodedOutput() {
+		BufferedEncodedOutput output = BufferedEncodedOutput.ofChunked(StandardCharsets.UTF_8);
+		workload.write(output);
+		return output;
+	}
+
+	/**
+	 * Renders to a new threshold output which is pushed downstream when closed or when
+	 * the limit is exceeded.
+	 * @param blackhole the downstream consumer.
+	 */
+	@Benchmark
+	public void thresholdEncodedOutput(Blackhole blackhole) {
+		try (BlackholeThresholdEncodedOutput output = new BlackholeThresholdEncodedOutput(blackhole)) {
+			workload.write(output);
+		}
+	}
+
+	/**
+	 * Runs the benchmarks with the JMH command line options and the GC profiler.
+	 * @param args JMH command line options.
+	 * @throws RunnerException if a benchmark fails
+	 * @throws CommandLineOptionException if the options are invalid
+	 */
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		new Runner(new OptionsBuilder() //
+				.parent(new CommandLineOptions(args)) //
+				.include(TemplateBenchmark.class.getSimpleName()) //
+				.addProfiler(GCProfiler.class) //
+				.build()).run();
+	}
+
+	/*
+	 * Like a servlet output with the default 32k buffer size.
+	 */
+	static final class BlackholeThresholdEncodedOutput extends ThresholdEncodedOutput<Blackhole, RuntimeException> {
+
+		private final Blackhole blackhole;
+
+		BlackholeThresholdEncodedOutput(Blackhole blackhole) {
+			super(StandardCharsets.UTF_8, 1024 * 32);
+			this.blackhole = blackhole;
+		}
+
+		@Override
+		protected void write(Blackhole consumer, byte[] bytes) {
+			consumer.consume(bytes);
+		}
+
+		@Override
+		protected void write(Blackhole consumer, byte[] bytes, int off, int len) {
+			consumer.consume(bytes);
+			consumer.consume(len);
+		}
+
+		@Override
+		protected Blackhole createConsumer(int size) {
+			blackhole.consume(size);
+			return blackhole;
+		}
+
+		@Override
+		protected void close(Blackhole consumer) {
+		}
+
+	}
+
+}
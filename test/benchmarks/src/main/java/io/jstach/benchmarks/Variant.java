@@ -0,0 +1,28 @@
+package io.jstach.benchmarks;
+
+/**
+ * How the template of a shape is compiled.
+ */
+public enum Variant {
+
+	/**
+	 * {@link io.jstach.jstache.JStacheType#JSTACHIO} with the static text pre-encoded
+	 * (the default).
+	 */
+	JSTACHIO,
+
+	/**
+	 * {@link io.jstach.jstache.JStacheType#JSTACHIO} with
+	 * {@link io.jstach.jstache.JStacheFlags.Flag#PRE_ENCODE_DISABLE} so all text is
+	 * encoded while rendering.
+	 */
+	JSTACHIO_NO_PRE_ENCODE,
+
+	/**
+	 * Zero dependency {@link io.jstach.jstache.JStacheType#STACHE} renderers which only
+	 * render to an {@link Appendable}. Encoded outputs are adapted with
+	 * {@link io.jstach.jstachio.Output#toAppendable()}.
+	 */
+	STACHE;
+
+}
@@ -0,0 +1,83 @@
+package io.jstach.benchmarks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import io.jstach.jstachio.Output;
+import io.jstach.jstachio.Output.EncodedOutput;
+import io.jstach.jstachio.Template;
+
+/**
+ * A model and the renderer of one of its variants.
+ */
+interface Workload {
+
+	/**
+	 * Renders to a StringBuilder.
+	 * @param sb to append to.
+	 */
+	void execute(StringBuilder sb);
+
+	/**
+	 * Renders to an encoded output using pre-encoded text if the renderer has it.
+	 * @param <E> error type
+	 * @param output to write to.
+	 * @throws E if the output fails
+	 */
+	<E extends Exception> void write(EncodedOutput<E> output) throws E;
+
+	/**
+	 * The execute method of a generated {@link io.jstach.jstache.JStacheType#STACHE}
+	 * renderer.
+	 *
+	 * @param <T> model type
+	 */
+	interface StacheRenderer<T> {
+
+		void execute(T model, Appendable appendable) throws IOException;
+
+	}
+
+	static <T> Workload of(Template<T> template, T model) {
+		return new Workload() {
+
+			@Override
+			public void execute(StringBuilder sb) {
+				template.execute(model, Output.of(sb));
+			}
+
+			@Override
+			public <E extends Exception> void write(EncodedOutput<E> output) throws E {
+				template.write(model, output);
+			}
+
+		};
+	}
+
+	static <T> Workload ofStache(StacheRenderer<T> renderer, T model) {
+		return new Workload() {
+
+			@Override
+			public void execute(StringBuilder sb) {
+				try {
+					renderer.execute(model, sb);
+				}
+				catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+
+			@Override
+			public <E extends Exception> void write(EncodedOutput<E> output) throws E {
+				try {
+					renderer.execute(model, output.toAppendable());
+				}
+				catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+
+		};
+	}
+
+}
@@ -0,0 +1,13 @@
+/**
+ * JMH benchmarks of rendering realistic template shapes (see {@link Shape}) with the
+ * generated code variants (see {@link Variant}) to the different kinds of outputs.
+ * <p>
+ * Each shape has a model class whose nested subclasses are the same model with the same
+ * template but compiled as one of the variants.
+ *
+ * @see TemplateBenchmark
+ */
+@JStachePath(prefix = "io/jstach/benchmarks/", suffix = ".mustache")
+package io.jstach.benchmarks;
+
+import io.jstach.jstache.JStachePath;
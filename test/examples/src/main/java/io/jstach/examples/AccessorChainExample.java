@@ -0,0 +1,44 @@
+package io.jstach.examples;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.jstach.jstache.JStache;
+
+@JStache(template = """
+		{{order.customer.city}} {{order.customer.zip}}
+		{{#items}}{{.}},{{/items}}{{^items}}none{{/items}}
+		""")
+public class AccessorChainExample {
+
+	final AtomicInteger calls = new AtomicInteger();
+
+	private final List<String> items;
+
+	public AccessorChainExample(List<String> items) {
+		this.items = items;
+	}
+
+	public Order order() {
+		calls.incrementAndGet();
+		return new Order(calls);
+	}
+
+	public List<String> items() {
+		calls.incrementAndGet();
+		return items;
+	}
+
+	public record Order(AtomicInteger calls) {
+
+		public Customer customer() {
+			calls.incrementAndGet();
+			return new Customer("Springfield", "12345");
+		}
+
+	}
+
+	public record Customer(String city, String zip) {
+	}
+
+}
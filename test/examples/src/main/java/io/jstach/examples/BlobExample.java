@@ -0,0 +1,21 @@
+package io.jstach.examples;
+
+import io.jstach.jstache.JStache;
+import io.jstach.jstache.JStacheFlags;
+import io.jstach.jstache.JStacheFlags.Flag;
+
+/**
+ * All static text is pre-encoded as a single <code>byte[]</code> and written as slices.
+ */
+@JStache(template = """
+		<p class="greeting">Héllo {{name}} \\o/ 😀</p>
+		{{#items}}
+		<li>{{.}} — "quoted"</li>
+		{{/items}}
+		{{> blob-partial.mustache}}
+		{{> blob-partial.mustache}}
+		""")
+@JStacheFlags(flags = Flag.PRE_ENCODE_BLOB)
+public record BlobExample(String name, java.util.List<String> items) {
+
+}
@@ -0,0 +1,23 @@
+package io.jstach.examples;
+
+import io.jstach.jstache.JStache;
+
+/**
+ * Sections of boolean constants are folded at compile time and the code of sections that
+ * can never render is not generated.
+ */
+@JStache(template = """
+		{{#BETA}}DEAD beta {{name}}{{> partial-example.mustache}}{{/BETA}}
+		{{^BETA}}stable {{name}}{{/BETA}}
+		{{#NEW_UI}}new ui{{#BETA}}DEAD{{/BETA}}{{/NEW_UI}}
+		{{^NEW_UI}}DEAD old ui{{/NEW_UI}}
+		{{#enabled}}enabled{{/enabled}}
+		""")
+public record ConstantExample(String name, boolean enabled) implements FeatureFlags {
+
+	/**
+	 * Feature flag baked at build time.
+	 */
+	public static final boolean BETA = false;
+
+}
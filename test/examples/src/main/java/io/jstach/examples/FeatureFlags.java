@@ -0,0 +1,15 @@
+package io.jstach.examples;
+
+/**
+ * Configuration constants inherited by a model.
+ *
+ * @see ConstantExample
+ */
+public interface FeatureFlags {
+
+	/**
+	 * Inherited feature flag.
+	 */
+	boolean NEW_UI = true;
+
+}
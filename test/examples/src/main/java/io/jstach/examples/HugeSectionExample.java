@@ -0,0 +1,23 @@
+package io.jstach.examples;
+
+import java.util.List;
+
+import io.jstach.jstache.JStache;
+
+/**
+ * The loop body of this template is too large to be JIT compiled so it is generated as
+ * its own method.
+ */
+@JStache(path = "huge-section.mustache")
+public record HugeSectionExample(String title, List<Row> rows) {
+
+	/**
+	 * An element of the loop.
+	 * @param name name
+	 * @param count count
+	 * @param tags nested section
+	 */
+	public record Row(String name, int count, List<String> tags) {
+	}
+
+}
@@ -0,0 +1,44 @@
+package io.jstach.examples;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import io.jstach.jstache.JStache;
+
+@JStache(template = """
+		{{#account.address}}{{city}}{{/account.address}}{{^account.address}}no address{{/account.address}}
+		{{#account.verified}}verified{{/account.verified}}{{^account.verified}}unverified{{/account.verified}}
+		""")
+public class InvertedChainExample {
+
+	final AtomicInteger calls = new AtomicInteger();
+
+	private final @Nullable Address address;
+
+	public InvertedChainExample(@Nullable Address address) {
+		this.address = address;
+	}
+
+	public Account account() {
+		return new Account();
+	}
+
+	public class Account {
+
+		public @Nullable Address address() {
+			calls.incrementAndGet();
+			return address;
+		}
+
+		public boolean verified() {
+			calls.incrementAndGet();
+			return address != null;
+		}
+
+	}
+
+	public record Address(String city) {
+	}
+
+}
@@ -0,0 +1,41 @@
+package io.jstach.examples;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.jstach.jstache.JStache;
+import io.jstach.jstache.JStacheFlags;
+import io.jstach.jstache.JStacheFlags.Flag;
+
+/**
+ * The shape of section loops depends on the static type. The ArrayList and arrays are
+ * looped by index and the List with an iterator.
+ */
+@JStache(template = LoopExample.TEMPLATE)
+public record LoopExample(ArrayList<String> names, int[] numbers, List<String> items) {
+
+	static final String TEMPLATE = """
+			{{#names}}{{@index}}:{{.}}{{^@last}},{{/@last}}{{/names}}
+			{{#numbers}}{{#-first}}[{{/-first}}{{.}}{{#-last}}]{{/-last}}{{/numbers}}
+			{{#items}}{{-index}}{{.}}{{#-last}}.{{/-last}}{{/items}}
+			""";
+
+	/**
+	 * Every list is looped by index.
+	 */
+	@JStache(template = TEMPLATE)
+	@JStacheFlags(flags = Flag.RANDOM_ACCESS_LISTS)
+	public record RandomAccessLoopExample(ArrayList<String> names, int[] numbers, List<String> items) {
+
+	}
+
+	/**
+	 * Lists are looped with an iterator.
+	 */
+	@JStache(template = TEMPLATE)
+	@JStacheFlags(flags = Flag.ITERATOR_LOOPS)
+	public record IteratorLoopExample(ArrayList<String> names, int[] numbers, List<String> items) {
+
+	}
+
+}
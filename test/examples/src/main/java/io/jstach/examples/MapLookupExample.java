@@ -0,0 +1,15 @@
+package io.jstach.examples;
+
+import java.util.Map;
+
+import io.jstach.jstache.JStache;
+
+@JStache(template = """
+		{{#values}}
+		{{title}}: {{name}} ({{name}}){{^missing}} none{{/missing}}
+		{{#missing}}{{title}}{{/missing}}{{^missing}}{{title}}{{/missing}}
+		{{/values}}
+		""")
+public record MapLookupExample(Map<String, String> values) {
+
+}
@@ -0,0 +1,31 @@
+package io.jstach.examples;
+
+import io.jstach.jstache.JStache;
+import io.jstach.jstache.JStacheFlags;
+import io.jstach.jstache.JStacheFlags.Flag;
+
+/**
+ * Static HTML is minified at compile time.
+ */
+@JStache(template = """
+		<!DOCTYPE html>
+		<html>
+		  <!-- page header -->
+		  <body>
+		    <h1   class="title">  {{title}}  </h1>
+		    <ul>
+		      {{#items}}
+		      <li>{{.}}</li>
+		      {{/items}}
+		    </ul>
+		    <pre>
+		  {{title}}
+		    </pre>
+		    <!-- {{title}} -->
+		  </body>
+		</html>
+		""")
+@JStacheFlags(flags = Flag.MINIFY_HTML)
+public record MinifyExample(String title, java.util.List<String> items) {
+
+}
@@ -0,0 +1,26 @@
+package io.jstach.examples;
+
+import java.util.List;
+
+import io.jstach.jstache.JStache;
+import io.jstach.jstache.JStacheFlags;
+import io.jstach.jstache.JStacheFlags.Flag;
+import io.jstach.jstache.JStachePartial;
+import io.jstach.jstache.JStachePartials;
+
+/**
+ * The partial reads a name of the enclosing model so it cannot be shared and is inlined
+ * which must not change the minified text that follows it.
+ */
+@JStache(template = """
+		{{#items}}
+		{{> item}}
+		{{/items}}
+		<p>   a    b   </p>
+		   <span>  c  </span>
+		""")
+@JStachePartials(@JStachePartial(name = "item", template = "<div class=\"{{site}}\">   {{.}}   </div>\n"))
+@JStacheFlags(flags = Flag.MINIFY_HTML)
+public record MinifyPartialExample(String site, List<String> items) {
+
+}
@@ -0,0 +1,38 @@
+package io.jstach.examples;
+
+import java.util.List;
+
+import io.jstach.jstache.JStache;
+import io.jstach.jstache.JStachePartial;
+import io.jstach.jstache.JStachePartials;
+
+public final class SharedHeaderExample {
+
+	private SharedHeaderExample() {
+	}
+
+	public record Header(String title) {
+	}
+
+	@JStache(template = """
+			{{#header}}
+			{{> shared-header.mustache}}
+			{{/header}}
+			<p>{{body}}</p>
+			""")
+	public record Page(Header header, String body) {
+	}
+
+	@JStache(template = """
+			{{#header}}
+			{{> shared-header.mustache}}
+			{{/header}}
+			{{#links}}
+			{{> link}}
+			{{/links}}
+			""")
+	@JStachePartials(@JStachePartial(name = "link", template = "<a title=\"{{header.title}}\">{{.}}</a>\n"))
+	public record LinksPage(Header header, List<String> links) {
+	}
+
+}
@@ -0,0 +1,21 @@
+package io.jstach.examples;
+
+import java.util.List;
+
+import io.jstach.jstache.JStache;
+import io.jstach.jstache.JStachePartial;
+import io.jstach.jstache.JStachePartials;
+
+@JStache(template = """
+		{{> header}}
+		{{#items}}
+		{{> item}}
+		{{/items}}
+		{{> header}}
+		{{> footer}}""")
+@JStachePartials({ @JStachePartial(name = "header", template = "<h1>{{title}}</h1>\n"),
+		@JStachePartial(name = "item", template = "<li>{{.}}</li>\n"),
+		@JStachePartial(name = "footer", template = "<p>{{title}}</p>\n", shared = false) })
+public record SharedPartialExample(String title, List<String> items) {
+
+}
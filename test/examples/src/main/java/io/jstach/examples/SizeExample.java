@@ -0,0 +1,22 @@
+package io.jstach.examples;
+
+import java.util.List;
+
+import io.jstach.jstache.JStache;
+
+/**
+ * The output size is computed at compile time.
+ */
+@JStache(template = """
+		<p>Hello {{name}}!</p>
+		{{#items}}
+		<li>{{.}}</li>
+		{{/items}}
+		{{^items}}
+		none
+		{{/items}}
+		<p>ü</p>
+		""")
+public record SizeExample(String name, List<String> items) {
+
+}
@@ -0,0 +1,63 @@
+package io.jstach.examples;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import io.jstach.jstache.JStache;
+
+/**
+ * Iterators, spliterators and streams are consumed lazily by sections and streams are
+ * closed after the section.
+ */
+@JStache(template = """
+		{{#stream}}{{^-first}}, {{/-first}}{{@index}}:{{.}}{{#-last}}.{{/-last}}{{/stream}}
+		{{^iterator}}no iterator{{/iterator}}{{#iterator}}[{{.}}]{{/iterator}}
+		{{#spliterator}}<{{.}}>{{/spliterator}}
+		{{#numbers}}{{.}}{{^-last}} {{/-last}}{{/numbers}}
+		{{#missing}}never{{/missing}}
+		""")
+public class StreamExample {
+
+	private final List<String> items;
+
+	private final AtomicInteger closed = new AtomicInteger();
+
+	public StreamExample(List<String> items) {
+		this.items = items;
+	}
+
+	public Stream<String> stream() {
+		return items.stream().onClose(closed::incrementAndGet);
+	}
+
+	public Iterator<String> iterator() {
+		return items.iterator();
+	}
+
+	public Spliterator<String> spliterator() {
+		return items.spliterator();
+	}
+
+	public IntStream numbers() {
+		return IntStream.range(0, items.size()).onClose(closed::incrementAndGet);
+	}
+
+	public @Nullable Stream<String> missing() {
+		return null;
+	}
+
+	/**
+	 * How many times a stream was closed.
+	 * @return close count
+	 */
+	public int closed() {
+		return closed.get();
+	}
+
+}
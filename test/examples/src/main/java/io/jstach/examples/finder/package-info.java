@@ -1,3 +1,6 @@
 @org.eclipse.jdt.annotation.NonNullByDefault
-@io.jstach.jstache.JStacheCatalog
-package io.jstach.examples.finder;
\ No newline at end of file
+@io.jstach.jstache.JStacheCatalog(
+		flags = { CatalogFlag.GENERATE_STATIC_DISPATCH, CatalogFlag.GENERATE_NATIVE_IMAGE_CONFIG })
+package io.jstach.examples.finder;
+
+import io.jstach.jstache.JStacheCatalog.CatalogFlag;
@@ -1,6 +1,10 @@
 package io.jstach.examples.fragment;
 
+import java.util.List;
+
 import io.jstach.jstache.JStache;
+import io.jstach.jstache.JStacheConfig;
+import io.jstach.jstache.JStacheType;
 
 @JStache(path = "fragment.mustache#fragment-a")
 public record FragmentExample(String message) {
@@ -25,6 +29,25 @@ public record FragmentExample(String message) {
 
 	}
 
+	/*
+	 * The whole page and the list fragment are rendered with the same model.
+	 */
+	@JStache(path = "fragment-page.mustache", fragments = "list")
+	public record FragmentPage(String message, List<String> items) {
+
+	}
+
+	@JStache(template = """
+			<p>{{message}}</p>
+			{{$greeting}}
+			Hello {{message}}!
+			{{/greeting}}
+			""", fragments = "greeting")
+	@JStacheConfig(type = JStacheType.STACHE)
+	public record FragmentInlineStache(String message) {
+
+	}
+
 	/*
 	 * This will fail for now
 	 */
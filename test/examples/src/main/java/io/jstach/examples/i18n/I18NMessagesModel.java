@@ -0,0 +1,22 @@
+package io.jstach.examples.i18n;
+
+import java.util.Locale;
+
+import io.jstach.jstache.JStache;
+import io.jstach.jstache.JStacheMessages;
+
+/**
+ * Same as {@link I18NExampleModel} but the messages are resolved while compiling instead
+ * of with a lambda on every render.
+ */
+@JStache(template = """
+		{{#name}}
+		{{@msg.greeting}}
+		{{/name}}
+		{{@msg.cart}}
+		<p>{{@msg.footer}}</p>
+		""")
+@JStacheMessages(bundle = "io.jstach.examples.i18n.greetings", locales = { "fr", "fr-CA" })
+public record I18NMessagesModel(String name, int count, Locale locale) {
+
+}
@@ -0,0 +1,14 @@
+package io.jstach.examples.pool;
+
+import io.jstach.jstache.JStache;
+
+/**
+ * Shares the layout text with {@link PoolHomePage}.
+ */
+@JStache(template = """
+		{{<io/jstach/examples/pool/pool-layout.mustache}}
+		{{$body}}<h1>{{name}}</h1>{{/body}}
+		{{/io/jstach/examples/pool/pool-layout.mustache}}""")
+public record PoolUserPage(String name) {
+
+}
@@ -0,0 +1,8 @@
+/**
+ * Templates sharing a pool of pre-encoded text.
+ */
+@org.eclipse.jdt.annotation.NonNullByDefault
+@io.jstach.jstache.JStacheCatalog(name = "PoolCatalog", flags = CatalogFlag.GENERATE_TEXT_POOL)
+package io.jstach.examples.pool;
+
+import io.jstach.jstache.JStacheCatalog.CatalogFlag;
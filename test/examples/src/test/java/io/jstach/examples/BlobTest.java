@@ -0,0 +1,69 @@
+package io.jstach.examples;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import io.jstach.jstachio.output.ThresholdEncodedOutput.OutputStreamThresholdEncodedOutput;
+
+public class BlobTest {
+
+	static final String EXPECTED = """
+			<p class="greeting">Héllo Joe \\o/ 😀</p>
+			<li>a — "quoted"</li>
+			<li>b — "quoted"</li>
+			partial "Joe" \\ ü
+			partial "Joe" \\ ü
+			""";
+
+	final BlobExample model = new BlobExample("Joe", List.of("a", "b"));
+
+	@Test
+	public void testExecute() throws Exception {
+		assertEquals(EXPECTED, BlobExampleRenderer.of().execute(model));
+	}
+
+	@Test
+	public void testOutputStream() throws Exception {
+		var out = new ByteArrayOutputStream();
+		BlobExampleRenderer.of().write(model, out);
+		assertEquals(EXPECTED, out.toString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testThresholdOutput() throws Exception {
+		for (int limit : new int[] { 10, 1024 * 32 }) {
+			var out = new ByteArrayOutputStream();
+			var output = new OutputStreamThresholdEncodedOutput(StandardCharsets.UTF_8, limit) {
+				@Override
+				protected OutputStream createConsumer(int size) throws IOException {
+					return out;
+				}
+			};
+			BlobExampleRenderer.of().write(model, output);
+			output.close();
+			assertEquals(EXPECTED, out.toString(StandardCharsets.UTF_8));
+		}
+	}
+
+	@Test
+	public void testSingleBlob() throws Exception {
+		List<String> names = new ArrayList<>();
+		for (Field f : BlobExampleRenderer.class.getDeclaredFields()) {
+			if (Modifier.isStatic(f.getModifiers()) && f.getType() == byte[].class) {
+				names.add(f.getName());
+			}
+		}
+		assertEquals(List.of("TEXT"), names);
+	}
+
+}
@@ -0,0 +1,43 @@
+package io.jstach.examples;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+public class ConstantTest {
+
+	@Test
+	public void testConstantSectionsAreFolded() throws Exception {
+		String expected = """
+
+				stable Joe
+				new ui
+
+				enabled
+				""";
+		var model = new ConstantExample("Joe", true);
+		assertEquals(expected, ConstantExampleRenderer.of().execute(model));
+		var out = new ByteArrayOutputStream();
+		ConstantExampleRenderer.of().write(model, out);
+		assertEquals(expected, out.toString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testDeadTextIsNotEncoded() throws Exception {
+		for (Field f : ConstantExampleRenderer.class.getDeclaredFields()) {
+			if (Modifier.isStatic(f.getModifiers()) && f.getType() == byte[].class) {
+				f.setAccessible(true);
+				String text = new String((byte[]) f.get(null), StandardCharsets.UTF_8);
+				assertFalse(text, text.contains("DEAD"));
+				assertFalse(text, text.contains("INCLUDE"));
+			}
+		}
+	}
+
+}
@@ -2,6 +2,10 @@ package io.jstach.examples;
 
 import static org.junit.Assert.assertEquals;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.junit.Test;
 
 public class ContextTest {
@@ -17,4 +21,56 @@ public class ContextTest {
 		assertEquals(expected, r);
 	}
 
+	@Test
+	public void testAccessorChainsAreEvaluatedOnce() throws Exception {
+		var model = new AccessorChainExample(List.of("a", "b"));
+		String r = AccessorChainExampleRenderer.of().execute(model);
+		assertEquals("Springfield 12345\na,b,\n", r);
+		/*
+		 * order(), order().customer() and items() are each called once
+		 */
+		assertEquals(3, model.calls.get());
+
+		model = new AccessorChainExample(List.of());
+		r = AccessorChainExampleRenderer.of().execute(model);
+		assertEquals("Springfield 12345\nnone\n", r);
+		assertEquals(3, model.calls.get());
+	}
+
+	@Test
+	public void testInvertedChainsAreEvaluatedOnce() throws Exception {
+		var model = new InvertedChainExample(new InvertedChainExample.Address("Springfield"));
+		String r = InvertedChainExampleRenderer.of().execute(model);
+		assertEquals("Springfield\nverified\n", r);
+		/*
+		 * account().address() and account().verified() are each called once for the
+		 * section and the inverted section.
+		 */
+		assertEquals(2, model.calls.get());
+
+		model = new InvertedChainExample(null);
+		r = InvertedChainExampleRenderer.of().execute(model);
+		assertEquals("no address\nunverified\n", r);
+		assertEquals(2, model.calls.get());
+	}
+
+	@Test
+	public void testMapKeysAreLookedUpOnce() throws Exception {
+		Map<String, Integer> calls = new HashMap<>();
+		Map<String, String> values = new HashMap<>() {
+
+			@Override
+			public String get(Object key) {
+				calls.merge((String) key, 1, Integer::sum);
+				return super.get(key);
+			}
+
+		};
+		values.put("title", "Mr");
+		values.put("name", "Bean");
+		String r = MapLookupExampleRenderer.of().execute(new MapLookupExample(values));
+		assertEquals("Mr: Bean (Bean) none\nMr\n", r);
+		assertEquals(Map.of("title", 1, "name", 1, "missing", 1), calls);
+	}
+
 }
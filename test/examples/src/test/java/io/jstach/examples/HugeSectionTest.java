@@ -0,0 +1,52 @@
+package io.jstach.examples;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import io.jstach.examples.HugeSectionExample.Row;
+
+public class HugeSectionTest {
+
+	@Test
+	public void testRender() throws Exception {
+		var example = new HugeSectionExample("Big",
+				List.of(new Row("a", 1, List.of("x", "y")), new Row("b", 2, List.of())));
+		StringBuilder expected = new StringBuilder();
+		expected.append("<h1>Big</h1>\n");
+		int index = 0;
+		for (Row row : example.rows()) {
+			index++;
+			for (int i = 0; i < 80; i++) {
+				expected.append("<td>").append(i).append(" ").append(row.name()).append(" ").append(row.count())
+						.append(" ").append(example.title()).append(" ").append(index).append("</td>\n");
+			}
+			for (String tag : row.tags()) {
+				expected.append("<i>").append(tag).append("</i>");
+			}
+			expected.append("\n");
+		}
+		expected.append("<p>Big</p>\n");
+		String actual = HugeSectionExampleRenderer.of().execute(example);
+		assertEquals(expected.toString(), actual);
+	}
+
+	@Test
+	public void testLoopBodyIsInMethodsWithRowParameter() throws Exception {
+		boolean found = false;
+		for (Method m : HugeSectionExampleRenderer.class.getDeclaredMethods()) {
+			if (Modifier.isPrivate(m.getModifiers()) && Modifier.isStatic(m.getModifiers())
+					&& Arrays.asList(m.getParameterTypes()).contains(Row.class)) {
+				found = true;
+			}
+		}
+		assertTrue(found);
+	}
+
+}
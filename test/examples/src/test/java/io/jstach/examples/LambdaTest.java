@@ -5,6 +5,7 @@ import static org.junit.Assert.*;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
 
@@ -162,4 +163,93 @@ public class LambdaTest {
 		assertEquals(expected, actual);
 	}
 
+	@JStache(template = """
+			{{#items}}{{#stripe}}{{.}}{{/stripe}} {{#pair}}{{item}}={{stripe}}{{/pair}} {{#dashes}}--{{/dashes}}
+			{{/items}}""")
+	public record PureItems(List<Integer> items) {
+
+		static final AtomicInteger calls = new AtomicInteger();
+
+		@JStacheLambda(pure = true)
+		@JStacheLambda.Raw
+		public String stripe(Integer item) {
+			calls.incrementAndGet();
+			return item % 2 == 0 ? "even" : "odd";
+		}
+
+		@JStacheLambda(pure = true)
+		public LambdaModel pair(Integer item) {
+			calls.incrementAndGet();
+			return new LambdaModel(item, item % 2 == 0 ? "even" : "odd");
+		}
+
+		@JStacheLambda(pure = true)
+		@JStacheLambda.Raw
+		public String dashes(@JStacheLambda.Raw String body) {
+			calls.incrementAndGet();
+			return body.replace('-', '=');
+		}
+
+	}
+
+	@Test
+	public void testPureLambda() throws Exception {
+		var model = new PureItems(List.of(1, 2, 1, 2));
+		String expected = """
+				odd 1=odd ==
+				even 2=even ==
+				odd 1=odd ==
+				even 2=even ==
+				""";
+		PureItems.calls.set(0);
+		assertEquals(expected, JStachio.render(model));
+		/*
+		 * stripe and pair for 1 and 2 and dashes once.
+		 */
+		assertEquals(5, PureItems.calls.get());
+		assertEquals(expected, JStachio.render(model));
+		assertEquals(5, PureItems.calls.get());
+	}
+
+	@JStache(template = """
+			{{#amounts}}{{#money}}{{.}}{{/money}} {{/amounts}}""")
+	public record PurePrices(List<Integer> amounts, String currency) {
+
+		@JStacheLambda(pure = true)
+		@JStacheLambda.Raw
+		public String money(Integer amount) {
+			return currency + amount;
+		}
+
+	}
+
+	@Test
+	public void testPureLambdaDifferentReceivers() throws Exception {
+		var amounts = List.of(1, 2, 1);
+		assertEquals("$1 $2 $1 ", JStachio.render(new PurePrices(amounts, "$")));
+		assertEquals("€1 €2 €1 ", JStachio.render(new PurePrices(amounts, "€")));
+		assertEquals("$1 $2 $1 ", JStachio.render(new PurePrices(amounts, "$")));
+	}
+
+	@JStache(template = """
+			{{#items}}{{.}}:{{#tags}}{{#.}} {{.}}{{/.}}{{/tags}}
+			{{/items}}""")
+	public record LoopLambdaItems(List<String> items) {
+
+		@JStacheLambda
+		public List<String> tags(String item) {
+			return List.of(item + "1", item + "2");
+		}
+
+	}
+
+	@Test
+	public void testIterableLambdaInLoop() throws Exception {
+		String expected = """
+				a: a1 a2
+				b: b1 b2
+				""";
+		assertEquals(expected, JStachio.render(new LoopLambdaItems(List.of("a", "b"))));
+	}
+
 }
@@ -0,0 +1,44 @@
+package io.jstach.examples;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class LoopTest {
+
+	private static final String EXPECTED = """
+			0:a,1:b,2:c
+			[123]
+			1x2y.
+			""";
+
+	@Test
+	public void testIndexedLoops() throws Exception {
+		var model = new LoopExample(new ArrayList<>(List.of("a", "b", "c")), new int[] { 1, 2, 3 }, List.of("x", "y"));
+		assertEquals(EXPECTED, LoopExampleRenderer.of().execute(model));
+	}
+
+	@Test
+	public void testRandomAccessLists() throws Exception {
+		var model = new LoopExample.RandomAccessLoopExample(new ArrayList<>(List.of("a", "b", "c")),
+				new int[] { 1, 2, 3 }, List.of("x", "y"));
+		assertEquals(EXPECTED, RandomAccessLoopExampleRenderer.of().execute(model));
+	}
+
+	@Test
+	public void testIteratorLoops() throws Exception {
+		var model = new LoopExample.IteratorLoopExample(new ArrayList<>(List.of("a", "b", "c")), new int[] { 1, 2, 3 },
+				List.of("x", "y"));
+		assertEquals(EXPECTED, IteratorLoopExampleRenderer.of().execute(model));
+	}
+
+	@Test
+	public void testEmpty() throws Exception {
+		var model = new LoopExample(new ArrayList<>(), new int[] {}, List.of());
+		assertEquals("\n\n\n", LoopExampleRenderer.of().execute(model));
+	}
+
+}
@@ -0,0 +1,51 @@
+package io.jstach.examples;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.Test;
+
+public class MinifyTest {
+
+	static final String EXPECTED = """
+			<!DOCTYPE html>
+			<html>
+			<body>
+			<h1 class="title"> Hello &amp; bye </h1>
+			<ul>
+			<li>a</li>
+			<li>b</li>
+			</ul>
+			<pre>
+			  Hello &amp; bye
+			    </pre>
+			<!-- Hello &amp; bye -->
+			</body>
+			</html>
+			""";
+
+	@Test
+	public void testMinified() throws Exception {
+		var model = new MinifyExample("Hello & bye", List.of("a", "b"));
+		assertEquals(EXPECTED, MinifyExampleRenderer.of().execute(model));
+		var out = new ByteArrayOutputStream();
+		MinifyExampleRenderer.of().write(model, out);
+		assertEquals(EXPECTED, out.toString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testMinifiedAfterInlinedPartial() throws Exception {
+		var model = new MinifyPartialExample("main", List.of("x", "y"));
+		String expected = """
+				<div class="main"> x </div>
+				<div class="main"> y </div>
+				<p> a b </p>
+				<span> c </span>
+				""";
+		assertEquals(expected, MinifyPartialExampleRenderer.of().execute(model));
+	}
+
+}
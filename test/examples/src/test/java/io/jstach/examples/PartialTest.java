@@ -1,9 +1,22 @@
 package io.jstach.examples;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
 
 import org.junit.Test;
 
+import io.jstach.examples.SharedHeaderExample.Header;
+import io.jstach.examples.SharedHeaderExample.LinksPage;
+import io.jstach.examples.SharedHeaderExample.Page;
+
 public class PartialTest {
 
 	@Test
@@ -44,4 +57,53 @@ public class PartialTest {
 				template-path-example end""", actual);
 	}
 
+	@Test
+	public void testSharedPartials() throws Exception {
+		var model = new SharedPartialExample("Hi", List.of("a", "b"));
+		String expected = """
+				<h1>Hi</h1>
+				<li>a</li>
+				<li>b</li>
+				<h1>Hi</h1>
+				<p>Hi</p>
+				""";
+		assertEquals(expected, SharedPartialExampleRenderer.of().execute(model));
+		var out = new ByteArrayOutputStream();
+		SharedPartialExampleRenderer.of().write(model, out);
+		assertEquals(expected, out.toString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testPartialSharedByTemplates() throws Exception {
+		var header = new Header("Hi");
+		assertEquals("""
+				<h1>Hi</h1>
+				<p>body</p>
+				""", PageRenderer.of().execute(new Page(header, "body")));
+		assertEquals("""
+				<h1>Hi</h1>
+				<a title="Hi">a</a>
+				""", LinksPageRenderer.of().execute(new LinksPage(header, List.of("a"))));
+		var pageClasses = partialClasses(PageRenderer.class);
+		assertFalse(pageClasses.isEmpty());
+		assertEquals(pageClasses, partialClasses(LinksPageRenderer.class));
+	}
+
+	/*
+	 * The names of the shared partial classes referenced by the class file.
+	 */
+	private static Set<String> partialClasses(Class<?> c) throws IOException {
+		byte[] bytes;
+		try (var in = c.getResourceAsStream(c.getSimpleName() + ".class")) {
+			bytes = in.readAllBytes();
+		}
+		Set<String> names = new TreeSet<>();
+		var m = Pattern.compile("Partial_shared_header_mustache_Header_[0-9a-f]+")
+				.matcher(new String(bytes, StandardCharsets.ISO_8859_1));
+		while (m.find()) {
+			names.add(m.group());
+		}
+		return names;
+	}
+
 }
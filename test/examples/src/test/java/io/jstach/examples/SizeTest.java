@@ -0,0 +1,64 @@
+package io.jstach.examples;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import io.jstach.jstachio.output.ThresholdEncodedOutput.OutputStreamThresholdEncodedOutput;
+
+public class SizeTest {
+
+	static final String STATIC_TEXT = "<p>Hello !</p>\n<p>ü</p>\n";
+
+	@Test
+	public void testStaticSize() throws Exception {
+		var renderer = SizeExampleRenderer.of();
+		int expected = STATIC_TEXT.getBytes(StandardCharsets.UTF_8).length;
+		assertEquals(expected, renderer.templateStaticSize());
+		String actual = renderer.execute(new SizeExample("", List.of("")));
+		assertEquals("<p>Hello !</p>\n<li></li>\n<p>ü</p>\n", actual);
+		/*
+		 * Static text, name, items rendered 4 times and the inverted section.
+		 */
+		int estimate = expected + 16 + 4 * ("<li></li>\n".length() + 16) + "none\n".length();
+		assertEquals(estimate, renderer.templateEstimatedSize());
+	}
+
+	@Test
+	public void testMinimumSizeHint() throws Exception {
+		var renderer = SizeExampleRenderer.of();
+		var model = new SizeExample("Joe", List.of("a"));
+		List<Integer> sizes = new ArrayList<>();
+		for (int limit : new int[] { 10, 1024 }) {
+			var out = new ByteArrayOutputStream();
+			var output = new OutputStreamThresholdEncodedOutput(StandardCharsets.UTF_8, limit) {
+				@Override
+				protected OutputStream createConsumer(int size) throws IOException {
+					sizes.add(size);
+					return out;
+				}
+			};
+			output.minimumSizeHint(renderer.templateStaticSize());
+			if (limit == 10) {
+				assertNotNull(output.consumer());
+			}
+			else {
+				assertNull(output.consumer());
+			}
+			renderer.write(model, output);
+			output.close();
+			assertEquals(renderer.execute(model), out.toString(StandardCharsets.UTF_8));
+		}
+		assertEquals(List.of(-1, renderer.execute(model).getBytes(StandardCharsets.UTF_8).length), sizes);
+	}
+
+}
@@ -0,0 +1,41 @@
+package io.jstach.examples;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.junit.Test;
+
+public class StreamTest {
+
+	@Test
+	public void testStreams() throws Exception {
+		var model = new StreamExample(List.of("a", "b", "c"));
+		String actual = StreamExampleRenderer.of().execute(model);
+		String expected = """
+				0:a, 1:b, 2:c.
+				[a][b][c]
+				<a><b><c>
+				0 1 2
+
+				""";
+		assertEquals(expected, actual);
+		assertEquals(2, model.closed());
+	}
+
+	@Test
+	public void testEmpty() throws Exception {
+		var model = new StreamExample(List.of());
+		String actual = StreamExampleRenderer.of().execute(model);
+		String expected = """
+
+				no iterator
+
+
+
+				""";
+		assertEquals(expected, actual);
+		assertEquals(2, model.closed());
+	}
+
+}
@@ -1,8 +1,13 @@
 package io.jstach.examples.finder;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
 import org.junit.Test;
 
 import io.jstach.jstachio.JStachio;
+import io.jstach.jstachio.spi.JStachioFactory;
 
 public class NoReflectModelTest {
 
@@ -11,4 +16,13 @@ public class NoReflectModelTest {
 		JStachio.render(new NoReflectModel("asdfasdf"));
 	}
 
+	@Test
+	public void testStaticDispatch() throws Exception {
+		var catalog = new ExampleTemplateFinder();
+		assertSame(NoReflectModelRenderer.of(), catalog.findOrNull(NoReflectModel.class));
+		assertNull(catalog.findOrNull(String.class));
+		JStachio jstachio = JStachioFactory.builder().add(catalog).build();
+		assertEquals("asdfasdf", jstachio.execute(new NoReflectModel("asdfasdf")));
+	}
+
 }
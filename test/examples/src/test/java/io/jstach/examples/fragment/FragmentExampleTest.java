@@ -1,11 +1,21 @@
 package io.jstach.examples.fragment;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 import org.junit.Test;
 
 import io.jstach.examples.fragment.FragmentExample.FragmentC;
 import io.jstach.examples.fragment.FragmentExample.FragmentD;
+import io.jstach.examples.fragment.FragmentExample.FragmentInlineStache;
+import io.jstach.examples.fragment.FragmentExample.FragmentPage;
 
 public class FragmentExampleTest {
 
@@ -44,4 +54,50 @@ public class FragmentExampleTest {
 		assertEquals(expected, actual);
 	}
 
+	@Test
+	public void testDeclaredFragment() throws Exception {
+		FragmentPage page = new FragmentPage("Items", List.of("a", "b"));
+		var renderer = FragmentPageRenderer.of();
+		String expectedPage = """
+				<html>
+				<body>
+				  <h1>Items</h1>
+				  <ul id="items">
+				    <li>a</li>
+				    <li>b</li>
+				  </ul>
+				</body>
+				</html>
+				""";
+		assertEquals(expectedPage, renderer.execute(page));
+		assertEquals(Set.of("list"), renderer.templateFragments());
+		String expectedList = """
+				<li>a</li>
+				<li>b</li>
+				""";
+		var fragment = renderer.fragment("list");
+		assertEquals(expectedList, fragment.execute(page));
+		assertEquals("fragment-page.mustache#list", fragment.templatePath());
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		renderer.model(page).withFragment("list").write(out);
+		assertEquals(expectedList, out.toString(StandardCharsets.UTF_8));
+		try {
+			renderer.fragment("missing");
+			fail("expected missing fragment");
+		}
+		catch (NoSuchElementException e) {
+			assertTrue(e.getMessage().contains("missing"));
+		}
+	}
+
+	@Test
+	public void testDeclaredFragmentStache() throws Exception {
+		var model = new FragmentInlineStache("Bob");
+		var renderer = FragmentInlineStacheRenderer.of();
+		assertEquals("<p>Bob</p>\nHello Bob!\n", renderer.execute(model));
+		StringBuilder sb = new StringBuilder();
+		renderer.executeFragment("greeting", model, sb);
+		assertEquals("Hello Bob!\n", sb.toString());
+	}
+
 }
@@ -0,0 +1,70 @@
+package io.jstach.examples.i18n;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import org.junit.Test;
+
+import io.jstach.jstachio.JStachio;
+
+public class I18NMessagesModelTest {
+
+	@Test
+	public void testBaseBundle() {
+		String expected = """
+				Hello Adam &amp; Eve!
+				You have 2 items in your cart, Adam &amp; Eve.
+				<p>It's free</p>
+				""";
+		assertEquals(expected, JStachio.render(new I18NMessagesModel("Adam & Eve", 2, Locale.ENGLISH)));
+		assertEquals(expected, JStachio.render(new I18NMessagesModel("Adam & Eve", 2, Locale.GERMANY)));
+	}
+
+	@Test
+	public void testLocale() {
+		String expected = """
+				Bonjour Adam !
+				Vous avez 2 articles dans votre panier, Adam.
+				<p>C'est gratuit</p>
+				""";
+		assertEquals(expected, JStachio.render(new I18NMessagesModel("Adam", 2, Locale.FRENCH)));
+		/*
+		 * Falls back to the language.
+		 */
+		assertEquals(expected, JStachio.render(new I18NMessagesModel("Adam", 2, Locale.FRANCE)));
+	}
+
+	@Test
+	public void testLocaleCandidates() throws Exception {
+		String expected = """
+				Salut Adam !
+				Vous avez 2 articles dans votre panier, Adam.
+				<p>C'est gratuit</p>
+				""";
+		var model = new I18NMessagesModel("Adam", 2, Locale.CANADA_FRENCH);
+		assertEquals(expected, JStachio.render(model));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		I18NMessagesModelRenderer.of().write(model, out);
+		assertEquals(expected, out.toString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testStaticSize() throws Exception {
+		/*
+		 * The greeting is in a section and of the locale variants of a message only the
+		 * smallest is always rendered.
+		 */
+		String staticText = "You have  items in your cart, .\n<p>It's free</p>\n";
+		var renderer = I18NMessagesModelRenderer.of();
+		assertEquals(staticText.length(), renderer.templateStaticSize());
+		for (var locale : new Locale[] { Locale.ENGLISH, Locale.FRENCH, Locale.CANADA_FRENCH }) {
+			String output = renderer.execute(new I18NMessagesModel("", 2, locale));
+			assertTrue(output, renderer.templateStaticSize() <= output.getBytes(StandardCharsets.UTF_8).length);
+		}
+	}
+
+}
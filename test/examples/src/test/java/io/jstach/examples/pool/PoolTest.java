@@ -0,0 +1,70 @@
+package io.jstach.examples.pool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class PoolTest {
+
+	static final String LAYOUT = """
+			<html>
+			<head>
+			<meta charset="utf-8">
+			<link rel="stylesheet" href="/css/main.css">
+			</head>
+			<body>
+			%s
+			<footer>Copyright © Example Corp. All rights reserved.</footer>
+			</body>
+			</html>
+			""";
+
+	@Test
+	public void testRender() throws Exception {
+		assertEquals(LAYOUT.formatted("<h1>Home</h1>"), PoolHomePageRenderer.of().execute(new PoolHomePage()));
+		var out = new ByteArrayOutputStream();
+		PoolUserPageRenderer.of().write(new PoolUserPage("Jane"), out);
+		assertEquals(LAYOUT.formatted("<h1>Jane</h1>"), out.toString(StandardCharsets.UTF_8));
+		out.reset();
+		PoolHomePageRenderer.of().write(new PoolHomePage(), out);
+		assertEquals(LAYOUT.formatted("<h1>Home</h1>"), out.toString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testLayoutTextIsPooled() throws Exception {
+		var home = texts(PoolHomePageRenderer.class);
+		var user = texts(PoolUserPageRenderer.class);
+		for (String shared : List.of("stylesheet", "Copyright")) {
+			byte[] h = find(home, shared);
+			byte[] u = find(user, shared);
+			assertSame(shared, h, u);
+			assertSame(h, PoolCatalogTextPool.text(new String(h, StandardCharsets.UTF_8)));
+		}
+	}
+
+	private static byte[] find(List<byte[]> texts, String part) {
+		var found = texts.stream().filter(t -> new String(t, StandardCharsets.UTF_8).contains(part)).toList();
+		assertEquals(part, 1, found.size());
+		return found.get(0);
+	}
+
+	private static List<byte[]> texts(Class<?> c) throws IllegalAccessException {
+		List<byte[]> texts = new ArrayList<>();
+		for (Field f : c.getDeclaredFields()) {
+			if (Modifier.isStatic(f.getModifiers()) && f.getType() == byte[].class) {
+				f.setAccessible(true);
+				texts.add((byte[]) f.get(null));
+			}
+		}
+		return texts;
+	}
+
+}
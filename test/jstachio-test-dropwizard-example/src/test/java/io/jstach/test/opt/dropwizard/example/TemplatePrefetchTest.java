@@ -0,0 +1,70 @@
+package io.jstach.test.opt.dropwizard.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.Test;
+
+import io.jstach.jstachio.JStachio;
+import io.jstach.jstachio.TemplateInfo;
+import io.jstach.jstachio.spi.JStachioFactory;
+import io.jstach.jstachio.spi.JStachioTemplateFinder;
+import io.jstach.opt.dropwizard.JStacheViewSupport;
+import io.jstach.opt.dropwizard.JStachioViewRenderer;
+import io.jstach.opt.dropwizard.example.ExampleModel;
+
+public class TemplatePrefetchTest {
+
+	@Test
+	public void testTemplatesArePrefetchedOnceOnConfigure() throws Exception {
+		var finder = new RecordingTemplateFinder(false);
+		var renderer = new JStachioViewRenderer(jstachio(finder));
+		renderer.configure(Map.of());
+		assertEquals(List.of(ExampleModel.class), finder.modelTypes);
+		renderer.configure(Map.of());
+		assertEquals(List.of(ExampleModel.class), finder.modelTypes);
+	}
+
+	@Test
+	public void testFailuresAreOnlyLogged() throws Exception {
+		var finder = new RecordingTemplateFinder(true);
+		var jstachio = jstachio(finder);
+		new JStachioViewRenderer(jstachio).configure(Map.of());
+		assertEquals(List.of(ExampleModel.class), finder.modelTypes);
+		var failures = JStacheViewSupport.prefetch(jstachio);
+		assertEquals(List.of(ExampleModel.class), List.copyOf(failures.keySet()));
+		assertTrue(failures.get(ExampleModel.class) instanceof IllegalStateException);
+	}
+
+	private static JStachio jstachio(JStachioTemplateFinder finder) {
+		return JStachioFactory.builder().add(finder).build();
+	}
+
+	static class RecordingTemplateFinder implements JStachioTemplateFinder {
+
+		final List<Class<?>> modelTypes = new CopyOnWriteArrayList<>();
+
+		private final JStachioTemplateFinder delegate = JStachioTemplateFinder.defaultTemplateFinder(k -> null);
+
+		private final boolean fail;
+
+		RecordingTemplateFinder(boolean fail) {
+			this.fail = fail;
+		}
+
+		@Override
+		public TemplateInfo findTemplate(Class<?> modelType) throws Exception {
+			modelTypes.add(modelType);
+			if (fail) {
+				throw new IllegalStateException("broken on purpose");
+			}
+			return delegate.findTemplate(modelType);
+		}
+
+	}
+
+}
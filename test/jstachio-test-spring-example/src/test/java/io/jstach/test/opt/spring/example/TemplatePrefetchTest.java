@@ -0,0 +1,113 @@
+package io.jstach.test.opt.spring.example;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.context.annotation.Bean;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import io.jstach.jstache.JStache;
+import io.jstach.jstachio.TemplateInfo;
+import io.jstach.jstachio.spi.JStachioTemplateFinder;
+import io.jstach.opt.spring.example.App;
+import io.jstach.opt.spring.example.hello.HelloModel;
+
+/**
+ * The templates of the models returned by handler methods are resolved while the
+ * application starts and a template that fails to resolve does not stop it.
+ */
+@SpringBootTest(classes = { App.class, TemplatePrefetchTest.PrefetchConfiguration.class })
+@ExtendWith(OutputCaptureExtension.class)
+public class TemplatePrefetchTest {
+
+	@Autowired
+	private JStachioTemplateFinder templateFinder;
+
+	@Test
+	public void testTemplatesArePrefetchedAtStartup(CapturedOutput output) throws Exception {
+		/*
+		 * No request has been made.
+		 */
+		var modelTypes = ((RecordingTemplateFinder) templateFinder).modelTypes;
+		assertTrue(modelTypes.contains(HelloModel.class), modelTypes.toString());
+		assertTrue(modelTypes.contains(BrokenModel.class), modelTypes.toString());
+		assertTrue(
+				output.getAll().contains("JStachio failed to prefetch template for model type: " + BrokenModel.class));
+	}
+
+	@JStache(template = "{{message}}")
+	public record BrokenModel(String message) {
+	}
+
+	@Controller
+	public static class BrokenController {
+
+		@GetMapping(value = "/broken")
+		@ResponseBody
+		public BrokenModel broken() {
+			return new BrokenModel("broken");
+		}
+
+	}
+
+	static class RecordingTemplateFinder implements JStachioTemplateFinder {
+
+		final Set<Class<?>> modelTypes = ConcurrentHashMap.newKeySet();
+
+		private final JStachioTemplateFinder delegate;
+
+		RecordingTemplateFinder(JStachioTemplateFinder delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public TemplateInfo findTemplate(Class<?> modelType) throws Exception {
+			modelTypes.add(modelType);
+			if (modelType == BrokenModel.class) {
+				throw new IllegalStateException("broken on purpose");
+			}
+			return delegate.findTemplate(modelType);
+		}
+
+	}
+
+	@TestConfiguration(proxyBeanMethods = false)
+	static class PrefetchConfiguration {
+
+		/*
+		 * The finder of the starter is wrapped instead of replaced because it also
+		 * registers the templates as beans.
+		 */
+		@Bean
+		static BeanPostProcessor recordingTemplateFinder() {
+			return new BeanPostProcessor() {
+				@Override
+				public Object postProcessAfterInitialization(Object bean, String beanName) {
+					if (bean instanceof JStachioTemplateFinder finder) {
+						return new RecordingTemplateFinder(finder);
+					}
+					return bean;
+				}
+			};
+		}
+
+		@Bean
+		BrokenController brokenController() {
+			return new BrokenController();
+		}
+
+	}
+
+}